@@ -0,0 +1,408 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the statement executions in flight to one backend, queueing the rest in the application instead of on the
+ * database.
+ *
+ * <p>Executions beyond the limit wait in one of two {@linkplain Lane lanes}, in the order they arrived.  Whenever an
+ * execution completes, the longest waiting {@linkplain Lane#INTERACTIVE interactive} execution is admitted first,
+ * then the longest waiting {@linkplain Lane#BATCH batch} execution.  Executions may also be grouped into query classes,
+ * each with {@linkplain DriverWrapper#getAdmissionClassLimit(java.lang.String) its own limit}, so that one class of
+ * slow queries cannot take every execution of the backend.  An execution waiting on the limit of its class does not
+ * hold up the executions of other classes behind it.</p>
+ *
+ * <p>When the queue is full, executions are rejected immediately with a {@link SQLTransientException}, and executions
+ * that wait longer than {@linkplain DriverWrapper#getAdmissionQueueTimeoutMillis() the queue timeout} or past their
+ * {@linkplain Deadline deadline} fail with a {@link SQLTimeoutException}.  Either way, overload is shed quickly in the
+ * application without adding to the load of the database.</p>
+ *
+ * <p>The limit adapts to the observed latency, additive increase and multiplicative decrease: while executions are
+ * limited and complete within twice the usual latency, the limit grows by one per limit of executions.  The usual
+ * latency is the 10th percentile of the recent latencies of the same query class, or of the same SQL when there is no
+ * query class, so that a class of slow queries is not compared with fast ones.  When an execution takes longer, or
+ * times out, the limit is reduced by 10%, at most once per latency of the execution.  This finds the concurrency at
+ * which the database is fully used without queueing.</p>
+ *
+ * @see  ConnectionWrapperImpl#isAdmissionControl()
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class AdmissionControl {
+
+  /**
+   * The priority of executions waiting to be admitted.
+   */
+  public enum Lane {
+    /**
+     * Executions that a user is waiting for, which are admitted before any batch executions.
+     */
+    INTERACTIVE,
+
+    /**
+     * Background and bulk executions, which are admitted when no interactive execution is waiting.
+     */
+    BATCH
+  }
+
+  /**
+   * The number of latencies required before the limit adapts.
+   */
+  private static final int MIN_SAMPLES = 20;
+
+  /**
+   * The percentile of recent latency taken as the latency without queueing.
+   */
+  private static final double BASELINE_PERCENTILE = 10;
+
+  /**
+   * Executions slower than this multiple of the baseline latency reduce the limit.
+   */
+  private static final long TOLERANCE = 2;
+
+  private static final double DECREASE = 0.9;
+
+  /**
+   * The maximum number of distinct query classes and statements with their own latencies.  The latencies of any other
+   * executions are tracked together.
+   */
+  private static final int MAX_BASELINES = 1000;
+
+  /**
+   * An execution waiting to be admitted.
+   */
+  private static final class Waiter {
+
+    private final String queryClass;
+    private final Condition admitted;
+    private boolean granted;
+
+    private Waiter(String queryClass, Condition admitted) {
+      this.queryClass = queryClass;
+      this.admitted = admitted;
+    }
+  }
+
+  private final DriverWrapper driver;
+  private final String name;
+  private final int maxLimit;
+  private final ConcurrentMap<String, LatencyHistogram> classLatencies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyHistogram> sqlLatencies = new ConcurrentHashMap<>();
+  private final LatencyHistogram otherLatencies = new LatencyHistogram();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // All below are guarded by lock
+  private final ArrayDeque<Waiter> interactive = new ArrayDeque<>();
+  private final ArrayDeque<Waiter> batch = new ArrayDeque<>();
+  private final Map<String, Integer> classInFlight = new HashMap<>();
+  private double limit;
+  private int inFlight;
+  private long lastDecreaseNanos;
+  private long admitted;
+  private long rejected;
+  private long timedOut;
+
+  /**
+   * @param  name  The backend, for diagnostics
+   */
+  AdmissionControl(DriverWrapper driver, String name) {
+    this.driver = driver;
+    this.name = name;
+    this.maxLimit = Math.max(1, driver.getAdmissionMaxLimit());
+    this.limit = Math.max(1, Math.min(maxLimit, driver.getAdmissionInitialLimit()));
+    this.lastDecreaseNanos = System.nanoTime();
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return AdmissionControl.class.getSimpleName() + "(" + name + ", limit=" + (int) limit + ", inFlight=" + inFlight
+          + ", queued=" + (interactive.size() + batch.size()) + ")";
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the current limit of executions in flight.
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of executions currently in flight.
+   */
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of executions currently waiting to be admitted.
+   */
+  public int getQueued() {
+    lock.lock();
+    try {
+      return interactive.size() + batch.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the total number of executions admitted.
+   */
+  public long getAdmitted() {
+    lock.lock();
+    try {
+      return admitted;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the total number of executions rejected because the queue was full.
+   */
+  public long getRejected() {
+    lock.lock();
+    try {
+      return rejected;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the total number of executions that timed out waiting to be admitted.
+   */
+  public long getTimedOut() {
+    lock.lock();
+    try {
+      return timedOut;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the latencies the baseline of an execution is taken from.
+   *
+   * @param  queryClass  The query class, or {@code null} for none
+   * @param  sql         The SQL of the statement, or {@code null} when not known
+   */
+  private LatencyHistogram getLatencies(String queryClass, String sql) {
+    ConcurrentMap<String, LatencyHistogram> byKey;
+    String key;
+    if (queryClass != null) {
+      byKey = classLatencies;
+      key = queryClass;
+    } else if (sql != null) {
+      byKey = sqlLatencies;
+      key = sql;
+    } else {
+      return otherLatencies;
+    }
+    LatencyHistogram histogram = byKey.get(key);
+    if (histogram == null) {
+      if (classLatencies.size() + sqlLatencies.size() >= MAX_BASELINES) {
+        return otherLatencies;
+      }
+      histogram = byKey.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+    return histogram;
+  }
+
+  /**
+   * Checks if an execution of the given class may be admitted now.  Must be called while holding the lock.
+   */
+  private boolean hasRoom(String queryClass) {
+    if (inFlight >= (int) limit) {
+      return false;
+    }
+    if (queryClass == null) {
+      return true;
+    }
+    return classInFlight.getOrDefault(queryClass, 0) < driver.getAdmissionClassLimit(queryClass);
+  }
+
+  /**
+   * Counts an admitted execution.  Must be called while holding the lock.
+   */
+  private void admit(String queryClass) {
+    inFlight++;
+    admitted++;
+    if (queryClass != null) {
+      classInFlight.merge(queryClass, 1, Integer::sum);
+    }
+  }
+
+  /**
+   * Admits the waiters of a lane in order while there is room.  Must be called while holding the lock.
+   */
+  private void grant(ArrayDeque<Waiter> lane) {
+    Iterator<Waiter> iter = lane.iterator();
+    while (iter.hasNext() && inFlight < (int) limit) {
+      Waiter waiter = iter.next();
+      if (hasRoom(waiter.queryClass)) {
+        iter.remove();
+        admit(waiter.queryClass);
+        waiter.granted = true;
+        waiter.admitted.signal();
+      }
+    }
+  }
+
+  /**
+   * Waits to be admitted.  Every admitted execution must be
+   * {@linkplain #release(java.lang.String, java.lang.String, long, boolean) released}.
+   *
+   * @param  lane        The lane to wait in
+   * @param  queryClass  The query class, or {@code null} for none
+   * @param  deadline    The deadline of the execution, or {@code null} for none
+   *
+   * @throws  SQLTransientException  when the queue is full
+   * @throws  SQLTimeoutException    when not admitted within the queue timeout or before the deadline
+   */
+  void acquire(Lane lane, String queryClass, Deadline deadline) throws SQLException {
+    long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(driver.getAdmissionQueueTimeoutMillis());
+    if (deadline != null) {
+      timeoutNanos = Math.min(timeoutNanos, deadline.getRemainingNanos());
+    }
+    ArrayDeque<Waiter> queue = (lane == Lane.BATCH) ? batch : interactive;
+    lock.lock();
+    try {
+      // Waiters are admitted as soon as there is room for them, so any waiters still queued when there is room for this
+      // execution are waiting on the limits of other query classes
+      if (hasRoom(queryClass)) {
+        admit(queryClass);
+        return;
+      }
+      if (timeoutNanos <= 0 || interactive.size() + batch.size() >= driver.getAdmissionMaxQueued()) {
+        rejected++;
+        throw new SQLTransientException(
+            "Admission rejected, " + (interactive.size() + batch.size()) + " executions already queued: " + this
+        );
+      }
+      Waiter waiter = new Waiter(queryClass, lock.newCondition());
+      queue.addLast(waiter);
+      long remaining = timeoutNanos;
+      try {
+        while (!waiter.granted) {
+          if (remaining <= 0) {
+            queue.remove(waiter);
+            timedOut++;
+            throw new SQLTimeoutException(
+                "Admission timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms in queue: " + this
+            );
+          }
+          remaining = waiter.admitted.awaitNanos(remaining);
+        }
+      } catch (InterruptedException e) {
+        if (waiter.granted) {
+          release(queryClass, null, -1, false);
+        } else {
+          queue.remove(waiter);
+        }
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted waiting for admission: " + this, e);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases an admitted execution, adapting the limit to its latency compared with the baseline of its query class,
+   * and admits any waiters that now fit.
+   *
+   * @param  queryClass  The query class, or {@code null} for none
+   * @param  sql         The SQL of the statement, or {@code null} when not known, for the baseline when there is no
+   *                     query class
+   * @param  nanos       The latency of the execution, or {@code -1} when not executed
+   * @param  overloaded  Whether the execution failed in a way that indicates overload, such as a timeout
+   */
+  void release(String queryClass, String sql, long nanos, boolean overloaded) {
+    long baseline = -1;
+    if (nanos >= 0) {
+      LatencyHistogram latencies = getLatencies(queryClass, sql);
+      if (!overloaded) {
+        latencies.record(nanos);
+      }
+      if (latencies.getCount() >= MIN_SAMPLES) {
+        baseline = latencies.getPercentile(BASELINE_PERCENTILE);
+      }
+    }
+    lock.lock();
+    try {
+      boolean saturated = inFlight >= (int) limit;
+      inFlight--;
+      if (queryClass != null) {
+        classInFlight.computeIfPresent(queryClass, (c, count) -> (count <= 1) ? null : count - 1);
+      }
+      if (nanos >= 0) {
+        long now = System.nanoTime();
+        if (overloaded || (baseline >= 0 && nanos > baseline * TOLERANCE)) {
+          // At most one decrease per latency, so a burst of slow executions only decreases once
+          if (now - lastDecreaseNanos >= nanos) {
+            limit = Math.max(1, limit * DECREASE);
+            lastDecreaseNanos = now;
+          }
+        } else if (saturated) {
+          limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+      }
+      grant(interactive);
+      grant(batch);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
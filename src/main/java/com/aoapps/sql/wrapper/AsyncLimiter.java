@@ -0,0 +1,124 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Limits the number of asynchronous executions running at once.  Executions beyond the limit are queued without
+ * holding a thread, and each is submitted to its executor only once a running execution completes.
+ *
+ * @see  DriverWrapper#getAsyncConcurrency()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class AsyncLimiter {
+
+  /**
+   * A task waiting for a running execution to complete.
+   */
+  private static final class Task {
+
+    private final Executor executor;
+    private final Runnable task;
+    private final Consumer<? super RejectedExecutionException> rejected;
+
+    private Task(Executor executor, Runnable task, Consumer<? super RejectedExecutionException> rejected) {
+      this.executor = executor;
+      this.task = task;
+      this.rejected = rejected;
+    }
+  }
+
+  private final int limit;
+
+  // All access synchronized on this
+  private final Queue<Task> waiting = new ArrayDeque<>();
+  private int running;
+
+  /**
+   * @param  limit  The maximum number of executions running at once
+   */
+  AsyncLimiter(int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit < 1: " + limit);
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Runs a task on the given executor once fewer than the limit are running.
+   *
+   * @param  rejected  Called instead of the task when the executor rejects it, which must not throw
+   */
+  void execute(Executor executor, Runnable task, Consumer<? super RejectedExecutionException> rejected) {
+    Task t = new Task(executor, task, rejected);
+    synchronized (this) {
+      if (running >= limit) {
+        waiting.add(t);
+        return;
+      }
+      running++;
+    }
+    submit(t);
+  }
+
+  /**
+   * Submits a task that has been counted as running, moving on to the next waiting task when rejected.
+   */
+  private void submit(Task t) {
+    while (t != null) {
+      Task current = t;
+      try {
+        current.executor.execute(() -> {
+          try {
+            current.task.run();
+          } finally {
+            submit(next());
+          }
+        });
+        return;
+      } catch (RejectedExecutionException e) {
+        t = next();
+        current.rejected.accept(e);
+      }
+    }
+  }
+
+  /**
+   * Takes the next waiting task in place of a completed one.
+   *
+   * @return  The next task, still counted as running, or {@code null} when none are waiting
+   */
+  private synchronized Task next() {
+    Task t = waiting.poll();
+    if (t == null) {
+      running--;
+    }
+    return t;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts the number of rows sent per round trip of a chunked batch to the latency observed for previous chunks.
+ *
+ * <p>The per-row latency is smoothed with an exponentially weighted moving average, and the chunk size is chosen to
+ * take about the target time per round trip.  The chunk size at most doubles after each successful chunk, so a single
+ * fast chunk does not overshoot, and is halved after each failed chunk.</p>
+ *
+ * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BatchChunkSize {
+
+  /**
+   * The number of rows in the first chunk, before any latency has been observed.
+   */
+  static final int INITIAL_SIZE = 100;
+
+  /**
+   * The maximum number of rows in a chunk, regardless of how fast the chunks are executing.
+   */
+  static final int MAX_SIZE = 10_000;
+
+  /**
+   * The weight given to each new latency sample.
+   */
+  private static final double ALPHA = 0.25;
+
+  /**
+   * Changes smaller than this fraction of the current size are ignored, so the chunk size, and any statement
+   * prepared for it, remains stable once converged.
+   */
+  private static final double HYSTERESIS = 0.125;
+
+  private final long targetMillis;
+  private final long targetNanos;
+  private double nanosPerRow = Double.NaN;
+  private int size = INITIAL_SIZE;
+
+  BatchChunkSize(long targetMillis) {
+    if (targetMillis <= 0) {
+      throw new IllegalArgumentException("targetMillis <= 0: " + targetMillis);
+    }
+    this.targetMillis = targetMillis;
+    this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+  }
+
+  /**
+   * Gets the target time for each round trip.
+   */
+  long getTargetMillis() {
+    return targetMillis;
+  }
+
+  /**
+   * Gets the number of rows to send in the next chunk.
+   */
+  int get() {
+    return size;
+  }
+
+  /**
+   * Records a successful chunk.
+   *
+   * @param  rows   The number of rows in the chunk
+   * @param  nanos  The time taken by the chunk
+   */
+  void succeeded(int rows, long nanos) {
+    double sample = (double) Math.max(nanos, 1) / rows;
+    double smoothed = Double.isNaN(nanosPerRow) ? sample : (nanosPerRow * (1 - ALPHA) + sample * ALPHA);
+    nanosPerRow = smoothed;
+    int current = size;
+    int next = (int) Math.max(1, Math.min(Math.min(targetNanos / smoothed, MAX_SIZE), current * 2L));
+    if (Math.abs(next - current) > current * HYSTERESIS) {
+      size = next;
+    }
+  }
+
+  /**
+   * Records a failed chunk.
+   */
+  void failed() {
+    size = Math.max(1, size / 2);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * The per-row outcome of a batch executed with failure isolation.  Rows that succeeded have been executed, and remain
+ * in effect, while each failed row has been rolled back and has an update count of
+ * {@link Statement#EXECUTE_FAILED}.
+ *
+ * @see  PreparedStatementWrapperImpl#executeIsolatedBatch()
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class BatchResult {
+
+  private final long[] updateCounts;
+  private final SortedMap<Integer, SQLException> failures;
+  private final int roundTrips;
+
+  BatchResult(long[] updateCounts, SortedMap<Integer, SQLException> failures, int roundTrips) {
+    this.updateCounts = updateCounts;
+    this.failures = Collections.unmodifiableSortedMap(failures);
+    this.roundTrips = roundTrips;
+  }
+
+  /**
+   * Gets the update count of each row, with {@link Statement#EXECUTE_FAILED} for failed rows.
+   */
+  public long[] getLargeUpdateCounts() {
+    return updateCounts.clone();
+  }
+
+  /**
+   * Gets the update count of each row, with {@link Statement#EXECUTE_FAILED} for failed rows.
+   */
+  public int[] getUpdateCounts() {
+    return StatementWrapperImpl.toIntCounts(updateCounts);
+  }
+
+  /**
+   * Gets the failure of each failed row, by the zero-based index of the row in the batch.
+   */
+  public SortedMap<Integer, SQLException> getFailures() {
+    return failures;
+  }
+
+  /**
+   * Checks if every row succeeded.
+   */
+  public boolean isSuccess() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * Gets the number of rows that succeeded.
+   */
+  public int getSuccessCount() {
+    return updateCounts.length - failures.size();
+  }
+
+  /**
+   * Gets the number of times rows were sent to the database, including the retries used to isolate the failed rows.
+   */
+  public int getRoundTrips() {
+    return roundTrips;
+  }
+
+  /**
+   * Gets a {@link BatchUpdateException} describing the failed rows, with the update count of every row and the
+   * failure of each failed row chained as {@linkplain SQLException#getNextException() next exceptions}.
+   *
+   * @throws  IllegalStateException  when every row succeeded
+   */
+  public BatchUpdateException toBatchUpdateException() {
+    if (failures.isEmpty()) {
+      throw new IllegalStateException("No failed rows");
+    }
+    SQLException first = failures.get(failures.firstKey());
+    BatchUpdateException e = new BatchUpdateException(
+        failures.size() + " of " + updateCounts.length + " rows failed in batch, first at row " + failures.firstKey()
+            + ": " + first.getMessage(),
+        first.getSQLState(),
+        first.getErrorCode(),
+        updateCounts.clone(),
+        first
+    );
+    for (SQLException failure : failures.values()) {
+      e.setNextException(failure);
+    }
+    return e;
+  }
+
+  @Override
+  public String toString() {
+    return BatchResult.class.getSimpleName() + "(rows=" + updateCounts.length + ", failures=" + failures.keySet()
+        + ", roundTrips=" + roundTrips + ')';
+  }
+}
@@ -87,14 +87,25 @@ public class BlobWrapperImpl implements BlobWrapper {
     return getConnectionWrapper().wrapOutputStream(out);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public byte[] getBytes(long pos, int length) throws SQLException {
+    return getConnectionWrapper().offload(() -> getWrapped().getBytes(pos, length));
+  }
+
   /**
    * {@inheritDoc}
    *
    * @see  BlobWrapperImpl#wrapInputStream(java.io.InputStream)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public InputStreamWrapper getBinaryStream() throws SQLException {
-    return wrapInputStream(getWrapped().getBinaryStream());
+    return wrapInputStream(getConnectionWrapper().offload(() -> getWrapped().getBinaryStream()));
   }
 
   /**
@@ -121,9 +132,10 @@ public class BlobWrapperImpl implements BlobWrapper {
    * {@inheritDoc}
    *
    * @see  BlobWrapperImpl#wrapInputStream(java.io.InputStream)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public InputStreamWrapper getBinaryStream(long pos, long length) throws SQLException {
-    return wrapInputStream(getWrapped().getBinaryStream(pos, length));
+    return wrapInputStream(getConnectionWrapper().offload(() -> getWrapped().getBinaryStream(pos, length)));
   }
 }
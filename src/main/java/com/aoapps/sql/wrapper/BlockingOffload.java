@@ -0,0 +1,238 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of platform threads that runs blocking driver calls on behalf of virtual threads.
+ *
+ * <p>Many JDBC drivers block inside {@code synchronized} blocks, which pins the carrier thread of a virtual thread for
+ * the duration of the call.  When a virtual thread makes a blocking call through this pool, the call runs on one of a
+ * fixed number of platform threads while the virtual thread parks, leaving its carrier free to run other virtual
+ * threads.  Calls made from platform threads, including calls made by the pool itself, run directly on the calling
+ * thread.</p>
+ *
+ * <p>When every pool thread is busy, calls wait in a queue.  The time spent waiting is reported by
+ * {@link #getQueueWaitNanos()} and {@link #getMaxQueueWaitNanos()}, and a consistently growing queue wait indicates the
+ * pool is too small for the number of concurrent calls.</p>
+ *
+ * @see  ConnectionWrapperImpl#isBlockingOffload()
+ * @see  DriverWrapper#getBlockingOffloadThreads()
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class BlockingOffload {
+
+  /**
+   * {@code Thread.isVirtual()} on Java 19+, or {@code null} when virtual threads are not supported.
+   */
+  private static final MethodHandle IS_VIRTUAL;
+
+  static {
+    MethodHandle isVirtual;
+    try {
+      isVirtual = MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (ReflectiveOperationException e) {
+      isVirtual = null;
+    }
+    IS_VIRTUAL = isVirtual;
+  }
+
+  /**
+   * Checks if the given thread is a virtual thread.
+   */
+  static boolean isVirtual(Thread thread) {
+    MethodHandle isVirtual = IS_VIRTUAL;
+    if (isVirtual == null) {
+      return false;
+    }
+    try {
+      return (boolean) isVirtual.invokeExact(thread);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new AssertionError(t);
+    }
+  }
+
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder offloadedCalls = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+  private final LongAdder callNanos = new LongAdder();
+
+  /**
+   * Creates a new pool of daemon threads.  Threads are started as needed and stopped after being idle for one minute.
+   *
+   * @param  name     The prefix of the thread names
+   * @param  threads  The maximum number of threads
+   */
+  BlockingOffload(String name, int threads) {
+    int maxThreads = Math.max(1, threads);
+    AtomicInteger threadNum = new AtomicInteger();
+    executor = new ThreadPoolExecutor(
+        maxThreads,
+        maxThreads,
+        1,
+        TimeUnit.MINUTES,
+        new LinkedBlockingQueue<>(),
+        r -> {
+          Thread thread = new Thread(r, name + "-offload-" + threadNum.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+    );
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Runs a blocking call, on a pool thread when called from a virtual thread, otherwise directly.
+   *
+   * <p>The calling virtual thread parks until the call completes.  Since the call may still be using the connection,
+   * interrupting the calling thread does not abandon the call: the calling thread continues to wait, and its interrupt
+   * status is restored once the call has completed.</p>
+   */
+  <R> R execute(StatementWrapperImpl.Execution<R> call) throws SQLException {
+    if (!isVirtual(Thread.currentThread())) {
+      return call.execute();
+    }
+    long queuedNanos = System.nanoTime();
+    FutureTask<R> task = new FutureTask<>(() -> {
+      long startNanos = System.nanoTime();
+      long waitNanos = startNanos - queuedNanos;
+      queueWaitNanos.add(waitNanos);
+      if (waitNanos > maxQueueWaitNanos.get()) {
+        maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      }
+      try {
+        return call.execute();
+      } finally {
+        callNanos.add(System.nanoTime() - startNanos);
+      }
+    });
+    executor.execute(task);
+    offloadedCalls.increment();
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return task.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException(cause);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Gets the maximum number of pool threads.
+   */
+  public int getThreads() {
+    return executor.getMaximumPoolSize();
+  }
+
+  /**
+   * Gets the number of pool threads currently running a call.
+   */
+  public int getActiveThreads() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Gets the number of calls currently waiting for a pool thread.
+   */
+  public int getQueued() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Gets the total number of calls run on a pool thread.
+   */
+  public long getOffloadedCalls() {
+    return offloadedCalls.sum();
+  }
+
+  /**
+   * Gets the total time calls have waited for a pool thread, in nanoseconds.
+   */
+  public long getQueueWaitNanos() {
+    return queueWaitNanos.sum();
+  }
+
+  /**
+   * Gets the longest time any call has waited for a pool thread, in nanoseconds.
+   */
+  public long getMaxQueueWaitNanos() {
+    return maxQueueWaitNanos.get();
+  }
+
+  /**
+   * Gets the total time pool threads have spent running calls, in nanoseconds.
+   */
+  public long getCallNanos() {
+    return callNanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    long calls = getOffloadedCalls();
+    return BlockingOffload.class.getSimpleName()
+        + "(threads=" + getThreads()
+        + ", active=" + getActiveThreads()
+        + ", queued=" + getQueued()
+        + ", calls=" + calls
+        + ", avgQueueWaitNanos=" + (calls == 0 ? 0 : getQueueWaitNanos() / calls)
+        + ", maxQueueWaitNanos=" + getMaxQueueWaitNanos()
+        + ")";
+  }
+}
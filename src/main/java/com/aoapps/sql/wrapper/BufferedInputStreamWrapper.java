@@ -0,0 +1,261 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Buffers an {@link InputStream} with a buffer taken from the pool of the driver when first read, and returned to the
+ * pool on close.  Reads of at least the buffer size go directly to the wrapped stream once the buffer is drained.
+ *
+ * <p>Mark and reset are not supported, since the wrapped stream is read ahead of the caller.</p>
+ *
+ * @see  ConnectionWrapperImpl#isBufferedStreams()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BufferedInputStreamWrapper extends InputStreamWrapper {
+
+  private final StreamBufferPool buffers;
+  private byte[] buffer;
+  private int pos;
+  private int count;
+  private boolean closed;
+
+  BufferedInputStreamWrapper(ConnectionWrapperImpl connectionWrapper, InputStream wrapped, StreamBufferPool buffers) {
+    super(connectionWrapper, wrapped);
+    this.buffers = buffers;
+  }
+
+  /**
+   * Checks if any bytes have been read ahead from the wrapped stream and not yet read from this wrapper.  Such a
+   * wrapper must not be unwrapped, since the bytes would be lost.
+   *
+   * @see  ConnectionWrapperImpl#unwrapInputStream(java.io.InputStream)
+   */
+  boolean hasBuffered() {
+    return pos < count;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Refills the drained buffer from the wrapped stream.
+   *
+   * @return  {@code false} at the end of the stream
+   */
+  private boolean fill() throws IOException {
+    if (buffer == null) {
+      buffer = buffers.takeBytes();
+    }
+    pos = 0;
+    count = 0;
+    int n = getConnectionWrapper().offloadRead(() -> getWrapped().read(buffer, 0, buffer.length));
+    if (n <= 0) {
+      return false;
+    }
+    count = n;
+    return true;
+  }
+
+  /**
+   * Copies from the buffer.
+   *
+   * @return  The number of bytes copied, {@code 0} when the buffer is drained
+   */
+  private int drain(byte[] b, int off, int len) {
+    int n = Math.min(count - pos, len);
+    if (n > 0) {
+      System.arraycopy(buffer, pos, b, off, n);
+      pos += n;
+      return n;
+    }
+    return 0;
+  }
+
+  @Override
+  public int read() throws IOException {
+    ensureOpen();
+    if (pos >= count && !fill()) {
+      return -1;
+    }
+    return buffer[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b) throws IOException {
+    return read(b, 0, b.length);
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    ensureOpen();
+    if (len == 0) {
+      return 0;
+    }
+    int n = drain(b, off, len);
+    if (n > 0) {
+      // Do not block for more once some bytes are read
+      return n;
+    }
+    if (len >= buffers.getBufferSize()) {
+      return getConnectionWrapper().offloadRead(() -> getWrapped().read(b, off, len));
+    }
+    if (!fill()) {
+      return -1;
+    }
+    return drain(b, off, len);
+  }
+
+  @Override
+  public byte[] readAllBytes() throws IOException {
+    ensureOpen();
+    int buffered = count - pos;
+    if (buffered <= 0) {
+      return getConnectionWrapper().offloadRead(() -> getWrapped().readAllBytes());
+    }
+    byte[] head = Arrays.copyOfRange(buffer, pos, count);
+    pos = count;
+    byte[] tail = getConnectionWrapper().offloadRead(() -> getWrapped().readAllBytes());
+    if (tail.length == 0) {
+      return head;
+    }
+    byte[] all = Arrays.copyOf(head, head.length + tail.length);
+    System.arraycopy(tail, 0, all, head.length, tail.length);
+    return all;
+  }
+
+  @Override
+  public byte[] readNBytes(int len) throws IOException {
+    if (len < 0) {
+      throw new IllegalArgumentException("len < 0");
+    }
+    ensureOpen();
+    int buffered = Math.min(count - pos, len);
+    if (buffered <= 0) {
+      return getConnectionWrapper().offloadRead(() -> getWrapped().readNBytes(len));
+    }
+    byte[] head = Arrays.copyOfRange(buffer, pos, pos + buffered);
+    pos += buffered;
+    if (buffered == len) {
+      return head;
+    }
+    int remaining = len - buffered;
+    byte[] tail = getConnectionWrapper().offloadRead(() -> getWrapped().readNBytes(remaining));
+    if (tail.length == 0) {
+      return head;
+    }
+    byte[] all = Arrays.copyOf(head, head.length + tail.length);
+    System.arraycopy(tail, 0, all, head.length, tail.length);
+    return all;
+  }
+
+  @Override
+  public int readNBytes(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    ensureOpen();
+    int n = drain(b, off, len);
+    if (n < len) {
+      int offset = off + n;
+      int remaining = len - n;
+      n += getConnectionWrapper().offloadRead(() -> getWrapped().readNBytes(b, offset, remaining));
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    ensureOpen();
+    if (n <= 0) {
+      return 0;
+    }
+    int buffered = (int) Math.min(count - pos, n);
+    if (buffered > 0) {
+      pos += buffered;
+      return buffered;
+    }
+    return getConnectionWrapper().offloadRead(() -> getWrapped().skip(n));
+  }
+
+  @Override
+  public int available() throws IOException {
+    ensureOpen();
+    int buffered = count - pos;
+    int available = getWrapped().available();
+    return (buffered > Integer.MAX_VALUE - available) ? Integer.MAX_VALUE : (buffered + available);
+  }
+
+  /**
+   * Returns the buffer to the pool then closes the wrapped stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      byte[] b = buffer;
+      if (b != null) {
+        buffer = null;
+        pos = 0;
+        count = 0;
+        buffers.release(b);
+      }
+    }
+    super.close();
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    // Not supported
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    Objects.requireNonNull(out);
+    ensureOpen();
+    int buffered = count - pos;
+    if (buffered > 0) {
+      out.write(buffer, pos, buffered);
+      pos = count;
+    }
+    return buffered + super.transferTo(out);
+  }
+}
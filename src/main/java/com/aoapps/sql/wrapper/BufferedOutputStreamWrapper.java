@@ -0,0 +1,127 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Buffers an {@link OutputStream} with a buffer taken from the pool of the driver when first written, and returned to
+ * the pool on close.  Writes of at least the buffer size go directly to the wrapped stream once the buffer is flushed.
+ *
+ * @see  ConnectionWrapperImpl#isBufferedStreams()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BufferedOutputStreamWrapper extends OutputStreamWrapper {
+
+  private final StreamBufferPool buffers;
+  private byte[] buffer;
+  private int count;
+  private boolean closed;
+
+  BufferedOutputStreamWrapper(ConnectionWrapperImpl connectionWrapper, OutputStream wrapped, StreamBufferPool buffers) {
+    super(connectionWrapper, wrapped);
+    this.buffers = buffers;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Writes any buffered bytes to the wrapped stream.
+   */
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      getWrapped().write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (buffer == null) {
+      buffer = buffers.takeBytes();
+    } else if (count >= buffer.length) {
+      flushBuffer();
+    }
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b) throws IOException {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    ensureOpen();
+    if (len >= buffers.getBufferSize()) {
+      flushBuffer();
+      getWrapped().write(b, off, len);
+    } else if (len > 0) {
+      if (buffer == null) {
+        buffer = buffers.takeBytes();
+      } else if (len > buffer.length - count) {
+        flushBuffer();
+      }
+      System.arraycopy(b, off, buffer, count, len);
+      count += len;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushBuffer();
+    super.flush();
+  }
+
+  /**
+   * Writes any buffered bytes, returns the buffer to the pool, then closes the wrapped stream.  The buffer is returned
+   * even when the write fails.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      try {
+        flushBuffer();
+      } finally {
+        byte[] b = buffer;
+        if (b != null) {
+          buffer = null;
+          count = 0;
+          buffers.release(b);
+        }
+        super.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * Buffers a {@link Reader} with a buffer taken from the pool of the driver when first read, and returned to the pool on
+ * close.  Reads of at least the buffer size go directly to the wrapped reader once the buffer is drained.
+ *
+ * <p>Mark and reset are not supported, since the wrapped reader is read ahead of the caller.</p>
+ *
+ * @see  ConnectionWrapperImpl#isBufferedStreams()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BufferedReaderWrapper extends ReaderWrapper {
+
+  private final StreamBufferPool buffers;
+  private char[] buffer;
+  private int pos;
+  private int count;
+  private boolean closed;
+
+  BufferedReaderWrapper(ConnectionWrapperImpl connectionWrapper, Reader wrapped, StreamBufferPool buffers) {
+    super(connectionWrapper, wrapped);
+    this.buffers = buffers;
+  }
+
+  /**
+   * Checks if any characters have been read ahead from the wrapped reader and not yet read from this wrapper.  Such a
+   * wrapper must not be unwrapped, since the characters would be lost.
+   *
+   * @see  ConnectionWrapperImpl#unwrapReader(java.io.Reader)
+   */
+  boolean hasBuffered() {
+    return pos < count;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Refills the drained buffer from the wrapped reader.
+   *
+   * @return  {@code false} at the end of the stream
+   */
+  private boolean fill() throws IOException {
+    if (buffer == null) {
+      buffer = buffers.takeChars();
+    }
+    pos = 0;
+    count = 0;
+    int n = getConnectionWrapper().offloadRead(() -> getWrapped().read(buffer, 0, buffer.length));
+    if (n <= 0) {
+      return false;
+    }
+    count = n;
+    return true;
+  }
+
+  /**
+   * Copies from the buffer.
+   *
+   * @return  The number of characters copied, {@code 0} when the buffer is drained
+   */
+  private int drain(char[] cbuf, int off, int len) {
+    int n = Math.min(count - pos, len);
+    if (n > 0) {
+      System.arraycopy(buffer, pos, cbuf, off, n);
+      pos += n;
+      return n;
+    }
+    return 0;
+  }
+
+  @Override
+  public int read() throws IOException {
+    ensureOpen();
+    if (pos >= count && !fill()) {
+      return -1;
+    }
+    return buffer[pos++];
+  }
+
+  @Override
+  public int read(char[] cbuf) throws IOException {
+    return read(cbuf, 0, cbuf.length);
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, cbuf.length);
+    ensureOpen();
+    if (len == 0) {
+      return 0;
+    }
+    int n = drain(cbuf, off, len);
+    if (n > 0) {
+      // Do not block for more once some characters are read
+      return n;
+    }
+    if (len >= buffers.getBufferSize()) {
+      return getConnectionWrapper().offloadRead(() -> getWrapped().read(cbuf, off, len));
+    }
+    if (!fill()) {
+      return -1;
+    }
+    return drain(cbuf, off, len);
+  }
+
+  @Override
+  public int read(CharBuffer target) throws IOException {
+    ensureOpen();
+    int len = target.remaining();
+    if (len == 0) {
+      return 0;
+    }
+    if (pos >= count) {
+      if (len >= buffers.getBufferSize()) {
+        return getConnectionWrapper().offloadRead(() -> getWrapped().read(target));
+      }
+      if (!fill()) {
+        return -1;
+      }
+    }
+    int n = Math.min(count - pos, len);
+    target.put(buffer, pos, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n < 0) {
+      throw new IllegalArgumentException("skip value is negative");
+    }
+    ensureOpen();
+    int buffered = (int) Math.min(count - pos, n);
+    if (buffered > 0) {
+      pos += buffered;
+      return buffered;
+    }
+    return getConnectionWrapper().offloadRead(() -> getWrapped().skip(n));
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    ensureOpen();
+    return pos < count || getWrapped().ready();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    throw new IOException("mark() not supported");
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("reset() not supported");
+  }
+
+  /**
+   * Returns the buffer to the pool then closes the wrapped reader.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      char[] b = buffer;
+      if (b != null) {
+        buffer = null;
+        pos = 0;
+        count = 0;
+        buffers.release(b);
+      }
+    }
+    super.close();
+  }
+
+  @Override
+  public long transferTo(Writer out) throws IOException {
+    Objects.requireNonNull(out, "out");
+    ensureOpen();
+    int buffered = count - pos;
+    if (buffered > 0) {
+      out.write(buffer, pos, buffered);
+      pos = count;
+    }
+    return buffered + super.transferTo(out);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Buffers a {@link Writer} with a buffer taken from the pool of the driver when first written, and returned to the pool
+ * on close.  Writes of at least the buffer size go directly to the wrapped writer once the buffer is flushed.
+ *
+ * @see  ConnectionWrapperImpl#isBufferedStreams()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class BufferedWriterWrapper extends WriterWrapper {
+
+  private final StreamBufferPool buffers;
+  private char[] buffer;
+  private int count;
+  private boolean closed;
+
+  BufferedWriterWrapper(ConnectionWrapperImpl connectionWrapper, Writer wrapped, StreamBufferPool buffers) {
+    super(connectionWrapper, wrapped);
+    this.buffers = buffers;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * Writes any buffered characters to the wrapped writer.
+   */
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      getWrapped().write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  /**
+   * Makes room in the buffer for the given number of characters, which must be less than the buffer size.
+   */
+  private void reserve(int len) throws IOException {
+    if (buffer == null) {
+      buffer = buffers.takeChars();
+    } else if (len > buffer.length - count) {
+      flushBuffer();
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    ensureOpen();
+    reserve(1);
+    buffer[count++] = (char) c;
+  }
+
+  @Override
+  public void write(char[] cbuf) throws IOException {
+    write(cbuf, 0, cbuf.length);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, cbuf.length);
+    ensureOpen();
+    if (len >= buffers.getBufferSize()) {
+      flushBuffer();
+      getWrapped().write(cbuf, off, len);
+    } else if (len > 0) {
+      reserve(len);
+      System.arraycopy(cbuf, off, buffer, count, len);
+      count += len;
+    }
+  }
+
+  @Override
+  public void write(String str) throws IOException {
+    write(str, 0, str.length());
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, str.length());
+    ensureOpen();
+    if (len >= buffers.getBufferSize()) {
+      flushBuffer();
+      getWrapped().write(str, off, len);
+    } else if (len > 0) {
+      reserve(len);
+      str.getChars(off, off + len, buffer, count);
+      count += len;
+    }
+  }
+
+  @Override
+  public BufferedWriterWrapper append(CharSequence csq) throws IOException {
+    write(String.valueOf(csq));
+    return this;
+  }
+
+  @Override
+  public BufferedWriterWrapper append(CharSequence csq, int start, int end) throws IOException {
+    if (csq == null) {
+      csq = "null";
+    }
+    write(csq.subSequence(start, end).toString());
+    return this;
+  }
+
+  @Override
+  public BufferedWriterWrapper append(char c) throws IOException {
+    write(c);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushBuffer();
+    super.flush();
+  }
+
+  /**
+   * Writes any buffered characters, returns the buffer to the pool, then closes the wrapped writer.  The buffer is
+   * returned even when the write fails.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      try {
+        flushBuffer();
+      } finally {
+        char[] b = buffer;
+        if (b != null) {
+          buffer = null;
+          count = 0;
+          buffers.release(b);
+        }
+        super.close();
+      }
+    }
+  }
+}
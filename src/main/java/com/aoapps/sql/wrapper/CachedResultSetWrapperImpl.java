@@ -0,0 +1,75 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A cursor over rows already read into memory by another execution, such as a {@link RowBufferResultSet} over the rows
+ * of a coalesced query.  Each caller has its own cursor, so closing the cursor does not affect the rows read by other
+ * cursors.
+ *
+ * @see  QueryCoalescer
+ * @see  HedgedReads
+ *
+ * @author  AO Industries, Inc.
+ */
+final class CachedResultSetWrapperImpl extends ResultSetWrapperImpl {
+
+  private final StatementWrapperImpl statement;
+  private volatile boolean closed;
+
+  CachedResultSetWrapperImpl(ConnectionWrapperImpl connectionWrapper, StatementWrapperImpl stmtWrapper, ResultSet wrapped) {
+    super(connectionWrapper, stmtWrapper, wrapped);
+    this.statement = stmtWrapper;
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    // Reads buffered rows, only reading from the driver when continuing with the remaining rows of the leader
+    if (closed) {
+      throw new SQLException("ResultSet is closed");
+    }
+    return getWrapped().next();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (!closed) {
+      closed = true;
+      getWrapped().close();
+    }
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed;
+  }
+
+  @Override
+  public StatementWrapperImpl getStatement() throws SQLException {
+    return statement;
+  }
+}
@@ -107,24 +107,36 @@ public class ClobWrapperImpl implements ClobWrapper {
     return getConnectionWrapper().wrapWriter(out);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public String getSubString(long pos, int length) throws SQLException {
+    return getConnectionWrapper().offload(() -> getWrapped().getSubString(pos, length));
+  }
+
   /**
    * {@inheritDoc}
    *
    * @see  ClobWrapperImpl#wrapReader(java.io.Reader)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public ReaderWrapper getCharacterStream() throws SQLException {
-    return wrapReader(getWrapped().getCharacterStream());
+    return wrapReader(getConnectionWrapper().offload(() -> getWrapped().getCharacterStream()));
   }
 
   /**
    * {@inheritDoc}
    *
    * @see  ClobWrapperImpl#wrapInputStream(java.io.InputStream)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public InputStreamWrapper getAsciiStream() throws SQLException {
-    return wrapInputStream(getWrapped().getAsciiStream());
+    return wrapInputStream(getConnectionWrapper().offload(() -> getWrapped().getAsciiStream()));
   }
 
   /**
@@ -161,9 +173,10 @@ public class ClobWrapperImpl implements ClobWrapper {
    * {@inheritDoc}
    *
    * @see  ClobWrapperImpl#wrapReader(java.io.Reader)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public ReaderWrapper getCharacterStream(long pos, long length) throws SQLException {
-    return wrapReader(getWrapped().getCharacterStream(pos, length));
+    return wrapReader(getConnectionWrapper().offload(() -> getWrapped().getCharacterStream(pos, length)));
   }
 }
@@ -0,0 +1,602 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of physical connections to one backend, for the same URL and properties.
+ *
+ * <p>The pool is a lock-free concurrent bag: each connection has an atomic state, and is borrowed by changing its
+ * state from idle to in use.  A thread first tries the connections it most recently returned, which are usually still
+ * idle when the same threads repeatedly borrow and return connections, then scans all connections.  When every
+ * connection is in use and the pool is full, the thread waits for a connection to be handed off directly by the next
+ * thread to return one.</p>
+ *
+ * <p>A connection idle for longer than {@link #VALIDATION_BYPASS_NANOS} is {@linkplain Connection#isValid(int) validated}
+ * before being borrowed.  Connections are closed instead of borrowed once older than
+ * {@linkplain DriverWrapper#getPoolMaxLifetimeMillis() the maximum lifetime} or idle for longer than
+ * {@linkplain DriverWrapper#getPoolIdleTimeoutMillis() the idle timeout}.  Idle connections are also checked
+ * periodically, on borrowing, without any background thread.</p>
+ *
+ * <p>When a connection is returned, any uncommitted transaction is rolled back, and only the session state that was
+ * changed through its {@link ConnectionWrapperImpl} is reset: auto-commit, read-only, catalog, schema, transaction
+ * isolation, client info, network timeout, type map, and holdability.  A connection that cannot be reset is closed
+ * instead of being returned to the pool.  Any statements left open are closed.</p>
+ *
+ * @see  ConnectionWrapperImpl#getConnectionPool()
+ * @see  DriverWrapper#isPooling()
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class ConnectionPool {
+
+  private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+  /**
+   * Connections used more recently than this are borrowed without validation.
+   */
+  private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+  /**
+   * The interval between checks for idle connections to close.
+   */
+  private static final long SWEEP_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  /**
+   * The longest a waiting thread waits for a handoff before scanning the connections again, in case a connection was
+   * returned without being handed off or a connection was closed and may be replaced.
+   */
+  private static final long HANDOFF_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  /**
+   * The number of attempts to hand off a returned connection to a thread about to wait for one.  Threads that are not
+   * yet waiting find the connection when they scan the pool.
+   */
+  private static final int HANDOFF_ATTEMPTS = 16;
+
+  /**
+   * The number of recently returned connections remembered by each thread.
+   */
+  private static final int RECENT_SIZE = 4;
+
+  private static final int IDLE = 0;
+  private static final int IN_USE = 1;
+  private static final int REMOVED = 2;
+
+  /**
+   * Reads session state not supported by all drivers.
+   */
+  @FunctionalInterface
+  private interface Property<T> {
+    T get() throws SQLException;
+  }
+
+  /**
+   * Gets session state not supported by all drivers.
+   *
+   * @return  The state or {@code null} when not supported
+   */
+  private static <T> T getOptional(Property<T> property) throws SQLException {
+    try {
+      return property.get();
+    } catch (SQLFeatureNotSupportedException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A physical connection in the pool, along with its session state when connected.
+   */
+  static final class Entry {
+
+    private final Connection physical;
+    private final AtomicInteger state = new AtomicInteger(IN_USE);
+    private final long createdNanos;
+    private volatile long lastUsedNanos;
+
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final String catalog;
+    private final String schema;
+    private final int transactionIsolation;
+    private final Properties clientInfo;
+    private final Integer networkTimeout;
+    private final Map<String, Class<?>> typeMap;
+    private final int holdability;
+
+    private Entry(Connection physical) throws SQLException {
+      this.physical = physical;
+      this.createdNanos = System.nanoTime();
+      this.lastUsedNanos = createdNanos;
+      this.autoCommit = physical.getAutoCommit();
+      this.readOnly = physical.isReadOnly();
+      this.catalog = physical.getCatalog();
+      this.schema = getOptional(physical::getSchema);
+      this.transactionIsolation = physical.getTransactionIsolation();
+      this.clientInfo = getOptional(physical::getClientInfo);
+      this.networkTimeout = getOptional(physical::getNetworkTimeout);
+      this.typeMap = getOptional(physical::getTypeMap);
+      this.holdability = physical.getHoldability();
+    }
+
+    /**
+     * Resets the session state changed through the given wrapper.
+     */
+    private void reset(ConnectionWrapperImpl connection) throws SQLException {
+      if (!physical.getAutoCommit()) {
+        physical.rollback();
+      }
+      Boolean changedAutoCommit = connection.getChangedAutoCommit();
+      if (changedAutoCommit != null && changedAutoCommit != autoCommit) {
+        physical.setAutoCommit(autoCommit);
+      }
+      Boolean changedReadOnly = connection.getChangedReadOnly();
+      if (changedReadOnly != null && changedReadOnly != readOnly) {
+        physical.setReadOnly(readOnly);
+      }
+      String changedCatalog = connection.getChangedCatalog();
+      if (changedCatalog != null && !changedCatalog.equals(catalog)) {
+        physical.setCatalog(catalog);
+      }
+      String changedSchema = connection.getChangedSchema();
+      if (changedSchema != null && !changedSchema.equals(schema) && schema != null) {
+        physical.setSchema(schema);
+      }
+      Integer changedTransactionIsolation = connection.getChangedTransactionIsolation();
+      if (changedTransactionIsolation != null && changedTransactionIsolation != transactionIsolation) {
+        physical.setTransactionIsolation(transactionIsolation);
+      }
+      Properties changedClientInfo = connection.getChangedClientInfo();
+      if (changedClientInfo != null && !changedClientInfo.equals(clientInfo)) {
+        if (clientInfo == null) {
+          throw new SQLException("Unable to reset client info, not supported by the driver");
+        }
+        physical.setClientInfo(clientInfo);
+      }
+      Integer changedNetworkTimeout = connection.getChangedNetworkTimeout();
+      if (changedNetworkTimeout != null && !changedNetworkTimeout.equals(networkTimeout)) {
+        if (networkTimeout == null) {
+          throw new SQLException("Unable to reset network timeout, not supported by the driver");
+        }
+        physical.setNetworkTimeout(connection.getChangedNetworkTimeoutExecutor(), networkTimeout);
+      }
+      Map<String, Class<?>> changedTypeMap = connection.getChangedTypeMap();
+      if (changedTypeMap != null && !changedTypeMap.equals(typeMap)) {
+        if (typeMap == null) {
+          throw new SQLException("Unable to reset type map, not supported by the driver");
+        }
+        physical.setTypeMap(typeMap);
+      }
+      Integer changedHoldability = connection.getChangedHoldability();
+      if (changedHoldability != null && changedHoldability != holdability) {
+        physical.setHoldability(holdability);
+      }
+      physical.clearWarnings();
+    }
+  }
+
+  /**
+   * One borrowing of a pooled connection.  The physical connection is only reachable through the
+   * {@linkplain LeasedConnection connection of the lease} while it is open, so a wrapper that is used after being closed
+   * cannot affect the connection lent to another caller.
+   */
+  final class Lease {
+
+    private final Entry entry;
+    private final LeasedConnection logical;
+    private ConnectionWrapperImpl connection;
+    private volatile boolean closed;
+
+    private Lease(Entry entry) {
+      this.entry = entry;
+      this.logical = new LeasedConnection(this);
+    }
+
+    @Override
+    public String toString() {
+      return entry.physical.toString();
+    }
+
+    /**
+     * Gets the connection that reaches the physical connection while this lease is open.
+     */
+    Connection getLogical() {
+      return logical;
+    }
+
+    /**
+     * Gets the pool the connection was borrowed from.
+     */
+    ConnectionPool getPool() {
+      return ConnectionPool.this;
+    }
+
+    /**
+     * Gets the wrapper the connection was borrowed for.
+     */
+    ConnectionWrapperImpl getConnection() {
+      return connection;
+    }
+
+    /**
+     * Checks if the given connection is the physical connection, such as the connection of a statement.
+     */
+    boolean isPhysical(Connection connection) {
+      return connection == entry.physical;
+    }
+
+    /**
+     * Gets the physical connection while this lease is open.
+     *
+     * @throws  SQLException  when this lease is closed
+     */
+    Connection getPhysical() throws SQLException {
+      if (closed) {
+        throw new SQLException("Connection is closed");
+      }
+      return entry.physical;
+    }
+
+    /**
+     * Checks if this lease has been closed, returning the connection to the pool.
+     */
+    boolean isReleased() {
+      return closed;
+    }
+
+    /**
+     * Checks if this lease has been closed or the physical connection has been closed.
+     */
+    boolean isClosed() throws SQLException {
+      return closed || entry.physical.isClosed();
+    }
+
+    /**
+     * Resets the session state changed through the given wrapper and returns the connection to the pool.  The
+     * connection is closed instead when it cannot be reset.
+     */
+    void close(ConnectionWrapperImpl connection) throws SQLException {
+      if (!closed) {
+        closed = true;
+        boolean reusable = false;
+        try {
+          entry.reset(connection);
+          reusable = true;
+        } finally {
+          release(entry, reusable);
+        }
+      }
+    }
+
+    /**
+     * Closes the physical connection after it has been lost, removing it from the pool.
+     */
+    private void discard() {
+      closed = true;
+      remove(entry);
+    }
+
+    /**
+     * Aborts the physical connection, which is removed from the pool.
+     */
+    void abort(Executor executor) throws SQLException {
+      closed = true;
+      try {
+        entry.physical.abort(executor);
+      } finally {
+        remove(entry);
+      }
+    }
+  }
+
+  private final DriverWrapper driver;
+  private final String wrappedUrl;
+  private final Properties info;
+  private final int maxSize;
+
+  private final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<>();
+  private final AtomicInteger total = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final SynchronousQueue<Entry> handoff = new SynchronousQueue<>(true);
+  private final ThreadLocal<List<Entry>> recent = ThreadLocal.withInitial(() -> new ArrayList<>(RECENT_SIZE));
+  private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+  private volatile boolean closed;
+
+  ConnectionPool(DriverWrapper driver, String wrappedUrl, Properties info) {
+    this.driver = driver;
+    this.wrappedUrl = wrappedUrl;
+    this.info = info;
+    this.maxSize = Math.max(1, driver.getPoolMaxSize());
+  }
+
+  @Override
+  public String toString() {
+    return ConnectionPool.class.getSimpleName() + "(" + wrappedUrl + ", total=" + total.get() + ", idle=" + getIdle()
+        + ", waiting=" + waiting.get() + ")";
+  }
+
+  /**
+   * Gets the number of physical connections, idle and in use.
+   */
+  public int getTotal() {
+    return total.get();
+  }
+
+  /**
+   * Gets the number of idle physical connections.
+   */
+  public int getIdle() {
+    int idle = 0;
+    for (Entry entry : entries) {
+      if (entry.state.get() == IDLE) {
+        idle++;
+      }
+    }
+    return idle;
+  }
+
+  /**
+   * Gets the number of threads waiting for a connection.
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  /**
+   * Borrows a connection, wrapped by the driver.
+   *
+   * @throws  SQLTransientConnectionException  when no connection becomes available within
+   *                                           {@linkplain DriverWrapper#getPoolConnectionTimeoutMillis() the timeout}
+   */
+  ConnectionWrapperImpl getConnection() throws SQLException {
+    Entry entry = borrow();
+    try {
+      Lease lease = new Lease(entry);
+      ConnectionWrapperImpl connection = driver.wrapConnection(lease.getLogical());
+      lease.connection = connection;
+      connection.setLease(lease);
+      return connection;
+    } catch (Throwable t) {
+      release(entry, true);
+      throw t;
+    }
+  }
+
+  /**
+   * Replaces a lost physical connection of a wrapper that is reconnecting: the lost connection is closed and removed
+   * from the pool, and another connection is borrowed for the same wrapper.
+   *
+   * @return  The lease of the connection borrowed in its place
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  Lease replace(Lease lost) throws SQLException {
+    lost.discard();
+    Lease lease = new Lease(borrow());
+    lease.connection = lost.connection;
+    return lease;
+  }
+
+  private Entry borrow() throws SQLException {
+    if (closed) {
+      throw new SQLTransientConnectionException("Connection pool is closed: " + this);
+    }
+    long startNanos = System.nanoTime();
+    sweep(startNanos);
+    // Thread-affinity fast path, most recently returned first
+    List<Entry> myRecent = recent.get();
+    for (int i = myRecent.size() - 1; i >= 0; i--) {
+      Entry entry = myRecent.remove(i);
+      if (entry.state.compareAndSet(IDLE, IN_USE) && checkout(entry)) {
+        return entry;
+      }
+    }
+    long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(driver.getPoolConnectionTimeoutMillis());
+    Deadline deadline = Deadline.get();
+    if (deadline != null) {
+      timeoutNanos = Math.min(timeoutNanos, deadline.getRemainingNanos());
+    }
+    waiting.incrementAndGet();
+    try {
+      while (true) {
+        for (Entry entry : entries) {
+          if (entry.state.compareAndSet(IDLE, IN_USE) && checkout(entry)) {
+            return entry;
+          }
+        }
+        int current = total.get();
+        if (current < maxSize) {
+          if (total.compareAndSet(current, current + 1)) {
+            return create();
+          }
+          continue;
+        }
+        long remaining = timeoutNanos - (System.nanoTime() - startNanos);
+        if (remaining <= 0) {
+          throw new SQLTransientConnectionException(
+              "No connection available within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms: " + this
+          );
+        }
+        Entry entry;
+        try {
+          entry = handoff.poll(Math.min(remaining, HANDOFF_SLICE_NANOS), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("Interrupted waiting for a connection: " + this, e);
+        }
+        if (entry != null && entry.state.compareAndSet(IDLE, IN_USE) && checkout(entry)) {
+          return entry;
+        }
+      }
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  /**
+   * Creates a new connection, already counted in the total.
+   */
+  private Entry create() throws SQLException {
+    Connection physical = null;
+    try {
+      physical = driver.connectWrapped(wrappedUrl, info);
+      if (physical == null) {
+        throw new SQLException("URL not accepted by wrapped driver: " + wrappedUrl);
+      }
+      Entry entry = new Entry(physical);
+      entries.add(entry);
+      return entry;
+    } catch (Throwable t) {
+      total.decrementAndGet();
+      if (physical != null) {
+        closeQuietly(physical);
+      }
+      throw t;
+    }
+  }
+
+  /**
+   * Checks if a connection just changed to in use may be borrowed, removing it otherwise.
+   */
+  private boolean checkout(Entry entry) {
+    long now = System.nanoTime();
+    if (isExpired(entry, now)) {
+      remove(entry);
+      return false;
+    }
+    if (now - entry.lastUsedNanos > VALIDATION_BYPASS_NANOS) {
+      boolean valid;
+      try {
+        valid = entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+      } catch (SQLException e) {
+        logger.log(Level.FINE, "Unable to validate pooled connection", e);
+        valid = false;
+      }
+      if (!valid) {
+        remove(entry);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    long maxLifetime = TimeUnit.MILLISECONDS.toNanos(driver.getPoolMaxLifetimeMillis());
+    long idleTimeout = TimeUnit.MILLISECONDS.toNanos(driver.getPoolIdleTimeoutMillis());
+    return (maxLifetime > 0 && now - entry.createdNanos > maxLifetime)
+        || (idleTimeout > 0 && now - entry.lastUsedNanos > idleTimeout);
+  }
+
+  /**
+   * Closes idle connections that have expired, at most once per {@link #SWEEP_NANOS}.
+   */
+  private void sweep(long now) {
+    long last = lastSweepNanos.get();
+    if (now - last >= SWEEP_NANOS && lastSweepNanos.compareAndSet(last, now)) {
+      for (Entry entry : entries) {
+        if (entry.state.get() == IDLE && isExpired(entry, now) && entry.state.compareAndSet(IDLE, IN_USE)) {
+          remove(entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a connection to the pool, handing it off to a waiting thread when there is one.
+   *
+   * @param  reusable  {@code false} to close the connection instead
+   */
+  private void release(Entry entry, boolean reusable) {
+    long now = System.nanoTime();
+    entry.lastUsedNanos = now;
+    if (!reusable || closed || isExpired(entry, now)) {
+      remove(entry);
+      return;
+    }
+    entry.state.set(IDLE);
+    for (int attempt = 0; attempt < HANDOFF_ATTEMPTS && waiting.get() > 0 && entry.state.get() == IDLE; attempt++) {
+      if (handoff.offer(entry)) {
+        return;
+      }
+      Thread.yield();
+    }
+    List<Entry> myRecent = recent.get();
+    if (myRecent.size() >= RECENT_SIZE) {
+      myRecent.remove(0);
+    }
+    myRecent.add(entry);
+    if (closed && entry.state.compareAndSet(IDLE, IN_USE)) {
+      remove(entry);
+    }
+  }
+
+  /**
+   * Removes a connection that is in use, closing it.
+   */
+  private void remove(Entry entry) {
+    if (entry.state.getAndSet(REMOVED) != REMOVED) {
+      entries.remove(entry);
+      total.decrementAndGet();
+      closeQuietly(entry.physical);
+    }
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      logger.log(Level.FINE, "Unable to close pooled connection", e);
+    }
+  }
+
+  /**
+   * Closes all idle connections and stops pooling.  Connections in use are closed when returned.
+   */
+  void close() {
+    closed = true;
+    for (Entry entry : entries) {
+      if (entry.state.compareAndSet(IDLE, IN_USE)) {
+        remove(entry);
+      }
+    }
+  }
+}
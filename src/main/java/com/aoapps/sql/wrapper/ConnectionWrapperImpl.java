@@ -1,6 +1,6 @@
 /*
  * ao-sql-wrapper - JDBC API wrapper.
- * Copyright (C) 2008, 2009, 2010, 2011, 2013, 2016, 2019, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2010, 2011, 2013, 2016, 2019, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,6 +23,7 @@
 
 package com.aoapps.sql.wrapper;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
@@ -40,16 +41,33 @@ import java.sql.Ref;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.RowId;
+import java.sql.SQLClientInfoException;
 import java.sql.SQLData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLInput;
 import java.sql.SQLOutput;
 import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Wraps a {@link Connection}.
@@ -58,30 +76,1806 @@ import java.util.concurrent.Executor;
  */
 public class ConnectionWrapperImpl implements ConnectionWrapper {
 
+  private static final Logger logger = Logger.getLogger(ConnectionWrapperImpl.class.getName());
+
+  /**
+   * The time allowed to check if the physical connection is still valid after a connection exception.
+   *
+   * @see  #isReconnecting()
+   */
+  private static final int RECONNECT_VALIDATION_SECONDS = 1;
+
   private final DriverWrapper driver;
-  private final Connection wrapped;
 
-  public ConnectionWrapperImpl(DriverWrapper driverWrapper, Connection wrapped) {
-    this.driver = driverWrapper;
-    this.wrapped = wrapped;
+  /**
+   * The physical connection, replaced when reconnecting.
+   *
+   * @see  #isReconnecting()
+   */
+  private volatile Connection wrapped;
+
+  /**
+   * The URL and properties this connection was obtained with, when obtained from {@link DriverWrapper}.
+   */
+  private String url;
+  private Properties info;
+
+  /**
+   * The measurements of the backend of this connection, when load balancing.
+   *
+   * @see  DriverWrapper#isLoadBalancing()
+   */
+  private LoadBalancer.Backend backend;
+
+  private int deferredUpdateBatchSize;
+  private boolean optimisticUpdateCount;
+  private int multiRowInsertSize;
+  private long batchChunkTargetMillis;
+  private boolean batchFailureIsolation;
+  private boolean batchGeneratedKeysRowByRow;
+  private Boolean batchGeneratedKeysSupported;
+  private boolean blockingOffload;
+  private boolean queryTimeoutEnforced;
+  private boolean queryCoalescing;
+  private boolean hedgedReads;
+  private boolean admissionControl;
+  private boolean readWriteSplitting;
+  private boolean replicaQueries;
+  private boolean reconnecting;
+  private boolean clientInfoCoalescing;
+  private boolean bufferedStreams;
+  private final boolean hotSqlRecording;
+
+  /**
+   * The session state set through this wrapper, {@code null} while not set.
+   *
+   * @see  #getCoalescingContext(boolean)
+   * @see  ConnectionPool
+   */
+  private volatile Boolean autoCommit;
+  private volatile Boolean readOnly;
+  private volatile String catalog;
+  private volatile String schema;
+  private volatile Integer transactionIsolation;
+
+  /**
+   * The auto-commit mode of the wrapped connection read when first needed, {@code null} while not read.  Only used while
+   * the auto-commit mode has not been set through this wrapper.
+   *
+   * @see  #getKnownAutoCommit()
+   */
+  private volatile Boolean wrappedAutoCommit;
+
+  /**
+   * The session state set through this wrapper that is only replayed when reconnecting, {@code null} while not set.
+   *
+   * @see  #isReconnecting()
+   * @see  ConnectionPool
+   */
+  private volatile Properties clientInfo;
+  private volatile Integer networkTimeout;
+  private volatile Executor networkTimeoutExecutor;
+  private volatile Map<String, Class<?>> typeMap;
+  private volatile Integer holdability;
+
+  /**
+   * The client info changes not yet applied to the wrapped connection, in the order set, with {@code null} values for
+   * properties that are cleared.
+   *
+   * @see  #isClientInfoCoalescing()
+   */
+  private volatile Map<String, String> pendingClientInfo;
+
+  /**
+   * The client info last known to be on {@link #appliedClientInfoConnection}.
+   */
+  private volatile Properties appliedClientInfo;
+  private volatile Connection appliedClientInfoConnection;
+
+  /**
+   * The number of times the physical connection has been replaced, so that statements prepared on a lost connection
+   * are prepared again on the new connection.
+   *
+   * @see  #isReconnecting()
+   */
+  private volatile int generation;
+
+  /**
+   * Held while replacing the physical connection.  A lock instead of {@code synchronized}, since reconnecting blocks on
+   * the network and would otherwise pin the carrier of a virtual thread.
+   *
+   * @see  #reconnect(java.sql.SQLException, int)
+   */
+  private final Lock reconnectLock = new ReentrantLock();
+
+  /**
+   * The SQL of the last failed execution of a prepared statement, for measuring contention.
+   *
+   * @see  #retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)
+   */
+  private volatile String failedSql;
+
+  /**
+   * The borrowing of the physical connection from a pool, or {@code null} when not pooled.
+   */
+  private volatile ConnectionPool.Lease lease;
+
+  /**
+   * The statements not yet closed, tracked only when pooled so they may be closed when the connection is returned to
+   * the pool.
+   */
+  private Set<StatementWrapperImpl> openStatements;
+
+  /**
+   * The connection to a replica that read-only work is routed to, connected when first needed.
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  private volatile ConnectionWrapperImpl replica;
+
+  /**
+   * Whether work is currently routed to the {@link #replica}, while read-only.
+   */
+  private volatile boolean onReplica;
+
+  /**
+   * Whether statements have been executed since the current transaction began, tracked only for read/write splitting
+   * and reconnecting.
+   */
+  private volatile boolean inTransaction;
+
+  /**
+   * Whether the current transaction on the primary has executed statements other than queries, tracked only for
+   * read/write splitting.
+   */
+  private volatile boolean uncommittedWrites;
+
+  /**
+   * The statement currently holding deferred updates, if any.
+   */
+  private PreparedStatementWrapperImpl deferredUpdatesStatement;
+
+  /**
+   * The number of {@linkplain ResultSetWrapperImpl#prefetch(int) prefetching} result sets still reading rows in the
+   * background.
+   */
+  private final AtomicInteger prefetching = new AtomicInteger();
+
+  public ConnectionWrapperImpl(DriverWrapper driverWrapper, Connection wrapped) {
+    this.driver = driverWrapper;
+    this.wrapped = wrapped;
+    this.deferredUpdateBatchSize = (driverWrapper == null) ? 0 : driverWrapper.getDeferredUpdateBatchSize();
+    this.optimisticUpdateCount = driverWrapper != null && driverWrapper.isOptimisticUpdateCount();
+    this.multiRowInsertSize = (driverWrapper == null) ? 0 : driverWrapper.getMultiRowInsertSize();
+    this.batchChunkTargetMillis = (driverWrapper == null) ? 0 : driverWrapper.getBatchChunkTargetMillis();
+    this.batchFailureIsolation = driverWrapper != null && driverWrapper.isBatchFailureIsolation();
+    this.batchGeneratedKeysRowByRow = driverWrapper != null && driverWrapper.isBatchGeneratedKeysRowByRow();
+    this.blockingOffload = driverWrapper != null && driverWrapper.isBlockingOffload();
+    this.queryTimeoutEnforced = driverWrapper != null && driverWrapper.isQueryTimeoutEnforced();
+    this.queryCoalescing = driverWrapper != null && driverWrapper.isQueryCoalescing();
+    this.hedgedReads = driverWrapper != null && driverWrapper.isHedgedReads();
+    this.admissionControl = driverWrapper != null && driverWrapper.isAdmissionControl();
+    this.readWriteSplitting = driverWrapper != null && driverWrapper.isReadWriteSplitting();
+    this.replicaQueries = driverWrapper != null && driverWrapper.isReplicaQueries();
+    this.reconnecting = driverWrapper != null && driverWrapper.isReconnecting();
+    this.clientInfoCoalescing = driverWrapper != null && driverWrapper.isClientInfoCoalescing();
+    this.bufferedStreams = driverWrapper != null && driverWrapper.isBufferedStreams();
+    this.hotSqlRecording = driverWrapper != null && driverWrapper.isHotSqlRecording();
+  }
+
+  public ConnectionWrapperImpl(Connection wrapped) {
+    this(null, wrapped);
+  }
+
+  protected Optional<? extends DriverWrapper> getDriver() {
+    return Optional.ofNullable(driver);
+  }
+
+  /**
+   * Records the borrowing of the physical connection from a pool.
+   * Called by {@link ConnectionPool} after wrapping a newly borrowed connection.
+   */
+  void setLease(ConnectionPool.Lease lease) {
+    this.lease = lease;
+    this.openStatements = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Gets the pool this connection was borrowed from, including its metrics.
+   *
+   * @return  The pool or {@link Optional#empty()} when this connection is not pooled
+   *
+   * @see  DriverWrapper#isPooling()
+   */
+  public Optional<ConnectionPool> getConnectionPool() {
+    ConnectionPool.Lease myLease = lease;
+    return (myLease == null) ? Optional.empty() : Optional.of(myLease.getPool());
+  }
+
+  /**
+   * Tracks a newly created statement, when pooled.
+   */
+  private <S extends StatementWrapperImpl> S opened(S stmtWrapper) {
+    Set<StatementWrapperImpl> myOpenStatements = openStatements;
+    if (myOpenStatements != null && stmtWrapper != null) {
+      myOpenStatements.add(stmtWrapper);
+    }
+    return stmtWrapper;
+  }
+
+  /**
+   * Stops tracking a closed statement.
+   * Called by {@link StatementWrapperImpl#close()}.
+   */
+  void closed(StatementWrapperImpl stmtWrapper) {
+    Set<StatementWrapperImpl> myOpenStatements = openStatements;
+    if (myOpenStatements != null) {
+      myOpenStatements.remove(stmtWrapper);
+    }
+  }
+
+  /**
+   * Gets the auto-commit mode set through this wrapper, or {@code null} when not set.
+   */
+  Boolean getChangedAutoCommit() {
+    return autoCommit;
+  }
+
+  /**
+   * Gets the auto-commit mode without a call to the driver once known: the mode set through this wrapper, or the mode of
+   * the wrapped connection read once.  Used on every execution, where many drivers would otherwise query the server.
+   */
+  boolean getKnownAutoCommit() throws SQLException {
+    Boolean myAutoCommit = autoCommit;
+    if (myAutoCommit == null) {
+      myAutoCommit = wrappedAutoCommit;
+      if (myAutoCommit == null) {
+        myAutoCommit = getWrapped().getAutoCommit();
+        wrappedAutoCommit = myAutoCommit;
+      }
+    }
+    return myAutoCommit;
+  }
+
+  /**
+   * Gets the read-only mode set through this wrapper, or {@code null} when not set.
+   */
+  Boolean getChangedReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * Gets the catalog set through this wrapper, or {@code null} when not set.
+   */
+  String getChangedCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Gets the schema set through this wrapper, or {@code null} when not set.
+   */
+  String getChangedSchema() {
+    return schema;
+  }
+
+  /**
+   * Gets the transaction isolation level set through this wrapper, or {@code null} when not set.
+   */
+  Integer getChangedTransactionIsolation() {
+    return transactionIsolation;
+  }
+
+  /**
+   * Gets the client info set through this wrapper, or {@code null} when not set.
+   */
+  Properties getChangedClientInfo() {
+    return clientInfo;
+  }
+
+  /**
+   * Gets the network timeout set through this wrapper, or {@code null} when not set.
+   */
+  Integer getChangedNetworkTimeout() {
+    return networkTimeout;
+  }
+
+  /**
+   * Gets the executor of the network timeout set through this wrapper, or {@code null} when not set.
+   */
+  Executor getChangedNetworkTimeoutExecutor() {
+    return networkTimeoutExecutor;
+  }
+
+  /**
+   * Gets the type map set through this wrapper, or {@code null} when not set.
+   */
+  Map<String, Class<?>> getChangedTypeMap() {
+    return typeMap;
+  }
+
+  /**
+   * Gets the holdability set through this wrapper, or {@code null} when not set.
+   */
+  Integer getChangedHoldability() {
+    return holdability;
+  }
+
+  /**
+   * Records the URL and properties this connection was obtained with.
+   * Called by {@link DriverWrapper#connect(java.lang.String, java.util.Properties)}.
+   */
+  void setConnectInfo(String url, Properties info) {
+    Properties copy = new Properties();
+    if (info != null) {
+      copy.putAll(info);
+    }
+    this.url = url;
+    this.info = copy;
+    this.backend = (driver != null && driver.isLoadBalancing()) ? driver.getLoadBalancer().getBackend(url) : null;
+  }
+
+  /**
+   * Gets the measurements of the backend that executes the given statement, when load balancing.
+   *
+   * @return  The backend or {@code null} when not load balancing
+   *
+   * @see  DriverWrapper#isLoadBalancing()
+   */
+  LoadBalancer.Backend getBackend(Statement statement) throws SQLException {
+    ConnectionWrapperImpl myReplica = replica;
+    if (myReplica != null && myReplica.backend != null && myReplica.isWrapping(statement.getConnection())) {
+      return myReplica.backend;
+    }
+    return backend;
+  }
+
+  /**
+   * Gets the URL this connection was obtained with, when obtained from {@link DriverWrapper}.
+   */
+  protected Optional<String> getUrl() {
+    return Optional.ofNullable(url);
+  }
+
+  /**
+   * Gets a copy of the properties this connection was obtained with, when obtained from {@link DriverWrapper}.
+   */
+  protected Optional<Properties> getInfo() {
+    Properties myInfo = info;
+    if (myInfo == null) {
+      return Optional.empty();
+    }
+    Properties copy = new Properties();
+    copy.putAll(myInfo);
+    return Optional.of(copy);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>While work is routed to a replica, this is the connection to the replica.</p>
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  @Override
+  public Connection getWrapped() {
+    return onReplica ? replica.getWrapped() : wrapped;
+  }
+
+  /**
+   * Checks if the given connection is wrapped by this wrapper, including the physical connection of a pooled connection
+   * and the connection to a replica, such as the connection of a statement.
+   */
+  boolean isWrapping(Connection connection) throws SQLException {
+    if (connection == wrapped) {
+      return true;
+    }
+    ConnectionPool.Lease myLease = lease;
+    if (myLease != null && myLease.isPhysical(connection)) {
+      return true;
+    }
+    ConnectionWrapperImpl myReplica = replica;
+    return myReplica != null && myReplica.isWrapping(connection);
+  }
+
+  @Override
+  public String toString() {
+    return getWrapped().toString();
+  }
+
+  /**
+   * Gets the maximum number of calls to {@link PreparedStatement#executeUpdate()} that will be deferred into a single
+   * batch while in a transaction, or {@code 0} when automatic statement batching is disabled.
+   *
+   * <p>When enabled, repeated updates on the same prepared statement are added to the batch of the wrapped statement
+   * instead of each being a separate round trip to the database.  The deferred batch is flushed transparently before
+   * any other execution, {@linkplain #commit() commit}, {@linkplain #setSavepoint() savepoint},
+   * {@linkplain #setAutoCommit(boolean) change of auto-commit}, or when the batch size is reached.
+   * Deferred updates are discarded on {@linkplain #rollback() rollback}.</p>
+   *
+   * <p>Updates are only deferred while {@linkplain #isOptimisticUpdateCount() optimistic update counts} are enabled,
+   * since the actual update count of a deferred update is not known until the batch is flushed.  Otherwise, each update
+   * is executed immediately and returns its actual update count.</p>
+   *
+   * <p>Since a deferred update is not executed immediately, any failure is reported by the call that flushes the
+   * batch, typically as a {@link java.sql.BatchUpdateException}.</p>
+   *
+   * @see  DriverWrapper#getDeferredUpdateBatchSize()
+   * @see  PreparedStatementWrapperImpl#deferUpdate()
+   */
+  public int getDeferredUpdateBatchSize() {
+    return deferredUpdateBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of calls to {@link PreparedStatement#executeUpdate()} that will be deferred into a single
+   * batch while in a transaction.  Any currently deferred updates are flushed first.
+   *
+   * @param  batchSize  The maximum batch size or {@code 0} to disable automatic statement batching.
+   *
+   * @see  #getDeferredUpdateBatchSize()
+   */
+  public void setDeferredUpdateBatchSize(int batchSize) throws SQLException {
+    if (batchSize < 0) {
+      throw new IllegalArgumentException("batchSize < 0: " + batchSize);
+    }
+    flushDeferredUpdates();
+    this.deferredUpdateBatchSize = batchSize;
+  }
+
+  /**
+   * When {@code true}, updates may be deferred by {@linkplain #getDeferredUpdateBatchSize() automatic statement
+   * batching}, and {@link PreparedStatement#executeUpdate()} and {@link PreparedStatement#getUpdateCount()} return an
+   * optimistic update count of one while the update is deferred.  When {@code false}, updates are not deferred, so
+   * that callers relying on the update count, such as for optimistic locking, get the actual update count.
+   *
+   * <p>Once the deferred updates are flushed, {@link PreparedStatement#getUpdateCount()} returns the update count of
+   * the last deferred update.  When the driver reports {@link java.sql.Statement#SUCCESS_NO_INFO} for that update,
+   * such as for a multi-row insert that does not report the count of each row, the optimistic update count of one is
+   * returned instead.</p>
+   *
+   * @see  DriverWrapper#isOptimisticUpdateCount()
+   * @see  #getDeferredUpdateBatchSize()
+   */
+  public boolean isOptimisticUpdateCount() {
+    return optimisticUpdateCount;
+  }
+
+  /**
+   * Sets whether an optimistic update count is returned for deferred updates.
+   *
+   * @see  #isOptimisticUpdateCount()
+   */
+  public void setOptimisticUpdateCount(boolean optimisticUpdateCount) {
+    this.optimisticUpdateCount = optimisticUpdateCount;
+  }
+
+  /**
+   * Gets the maximum number of rows per rewritten multi-row insert, or {@code 0} when multi-row insert rewriting is
+   * disabled.
+   *
+   * <p>When enabled, prepared statements that are simple single-row inserts of the form
+   * <code>INSERT INTO ... VALUES (?, ...)</code> record their batches in the wrapper, and
+   * {@link PreparedStatement#executeBatch()} executes the batch as multi-row
+   * <code>INSERT INTO ... VALUES (?, ...), (?, ...), ...</code> statements of up to this many rows, further limited by
+   * {@link #getMaxParameters()}.  The per-row update counts expected from the batch are reconstructed from the total
+   * update count of each multi-row statement.</p>
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#getMultiRowInsertSize()
+   */
+  public int getMultiRowInsertSize() {
+    return multiRowInsertSize;
+  }
+
+  /**
+   * Sets the maximum number of rows per rewritten multi-row insert, applied to statements prepared after this call.
+   *
+   * @param  multiRowInsertSize  The maximum number of rows or {@code 0} to disable multi-row insert rewriting.
+   *
+   * @see  #getMultiRowInsertSize()
+   */
+  public void setMultiRowInsertSize(int multiRowInsertSize) {
+    if (multiRowInsertSize < 0) {
+      throw new IllegalArgumentException("multiRowInsertSize < 0: " + multiRowInsertSize);
+    }
+    this.multiRowInsertSize = multiRowInsertSize;
+  }
+
+  /**
+   * Gets the target time, in milliseconds, for each round trip of a chunked batch, or {@code 0} when adaptive batch
+   * chunking is disabled.
+   *
+   * <p>When enabled, statements record their batches in the wrapper, and {@link Statement#executeBatch()} sends the
+   * batch to the database in chunks.  The size of each chunk adapts to the latency observed for the previous chunks of
+   * the same statement, aiming for each round trip to take about this long, and is halved after any failed chunk.  The
+   * update counts of the chunks are reassembled into the single array expected by the caller.</p>
+   *
+   * <p>This keeps very large batches from exceeding statement timeouts or holding the entire batch in the driver,
+   * without wasting round trips on undersized chunks.  Since the chunks are separate round trips, a failure leaves any
+   * earlier chunks executed, just as for a driver that continues processing after a failed statement.</p>
+   *
+   * <p>This setting is applied to prepared statements when they are prepared, and to other statements when their
+   * batch is started.</p>
+   *
+   * @see  DriverWrapper#getBatchChunkTargetMillis()
+   */
+  public long getBatchChunkTargetMillis() {
+    return batchChunkTargetMillis;
+  }
+
+  /**
+   * Sets the target time, in milliseconds, for each round trip of a chunked batch.
+   *
+   * @param  batchChunkTargetMillis  The target time or {@code 0} to disable adaptive batch chunking.
+   *
+   * @see  #getBatchChunkTargetMillis()
+   */
+  public void setBatchChunkTargetMillis(long batchChunkTargetMillis) {
+    if (batchChunkTargetMillis < 0) {
+      throw new IllegalArgumentException("batchChunkTargetMillis < 0: " + batchChunkTargetMillis);
+    }
+    this.batchChunkTargetMillis = batchChunkTargetMillis;
+  }
+
+  /**
+   * When {@code true}, a failed batch of a prepared statement is retried by bisection, each part under its own
+   * savepoint, until the failed rows are isolated.  The rows that succeed remain executed, and
+   * {@link PreparedStatement#executeBatch()} reports the failed rows as a {@link java.sql.BatchUpdateException} with
+   * the update count of every row, {@link Statement#EXECUTE_FAILED} for the failed rows, and the failure of each failed
+   * row chained as {@linkplain SQLException#getNextException() next exceptions}.
+   *
+   * <p>This isolates {@code k} failed rows of a batch of {@code n} rows in {@code O(k log n)} round trips, instead of
+   * falling back to executing row by row.  The per-row outcomes are also available directly from
+   * {@link PreparedStatementWrapperImpl#executeIsolatedBatch()}.  A failed attempt that includes rows with stream
+   * parameters is thrown instead of being retried, since its streams have been consumed.</p>
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isBatchFailureIsolation()
+   */
+  public boolean isBatchFailureIsolation() {
+    return batchFailureIsolation;
+  }
+
+  /**
+   * Sets whether batch failure isolation is enabled for statements prepared after this call.
+   *
+   * @see  #isBatchFailureIsolation()
+   */
+  public void setBatchFailureIsolation(boolean batchFailureIsolation) {
+    this.batchFailureIsolation = batchFailureIsolation;
+  }
+
+  /**
+   * When {@code true}, blocking driver calls made from virtual threads run on a
+   * {@linkplain #getBlockingOffload() bounded pool of platform threads} while the virtual thread parks.  Many drivers
+   * block inside {@code synchronized} blocks, which would otherwise pin the carrier thread for the duration of each
+   * call.  Calls made from platform threads are not affected.
+   *
+   * <p>The offloaded calls are statement executions, the calls of {@link ResultSet#next()} that are expected to fetch
+   * from the backend, {@link #commit()}, {@link #rollback()}, the reads of {@link Blob} and {@link Clob} values, and
+   * the reads of the {@linkplain InputStreamWrapper streams} and {@linkplain ReaderWrapper readers} of the driver.
+   * When {@linkplain #isBufferedStreams() buffering streams}, only the reads that refill the buffer are
+   * offloaded.</p>
+   *
+   * @see  DriverWrapper#isBlockingOffload()
+   */
+  public boolean isBlockingOffload() {
+    return blockingOffload;
+  }
+
+  /**
+   * Sets whether blocking driver calls of virtual threads are offloaded.
+   *
+   * @see  #isBlockingOffload()
+   */
+  public void setBlockingOffload(boolean blockingOffload) {
+    this.blockingOffload = blockingOffload;
+  }
+
+  /**
+   * Gets the pool that runs blocking driver calls of virtual threads, including its metrics.
+   *
+   * @see  DriverWrapper#getBlockingOffload()
+   */
+  public BlockingOffload getBlockingOffload() {
+    return (driver == null) ? DriverWrapper.OffloadDefaults.BLOCKING_OFFLOAD : driver.getBlockingOffload();
+  }
+
+  /**
+   * Runs a blocking driver call, offloaded from virtual threads when enabled.
+   *
+   * @see  #isBlockingOffload()
+   */
+  <R> R offload(StatementWrapperImpl.Execution<R> call) throws SQLException {
+    return blockingOffload ? getBlockingOffload().execute(call) : call.execute();
+  }
+
+  /**
+   * A blocking read of a stream or reader of the driver.
+   */
+  @FunctionalInterface
+  interface StreamRead<R> {
+    R read() throws IOException;
+  }
+
+  /**
+   * Carries an {@link IOException} of an offloaded read back to the reading thread.
+   */
+  private static final class StreamReadException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private StreamReadException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+
+  /**
+   * Runs a blocking read of a stream or reader of the driver, offloaded from virtual threads when enabled.
+   *
+   * @see  #isBlockingOffload()
+   */
+  <R> R offloadRead(StreamRead<R> read) throws IOException {
+    if (!blockingOffload) {
+      return read.read();
+    }
+    try {
+      return getBlockingOffload().execute(() -> {
+        try {
+          return read.read();
+        } catch (IOException e) {
+          throw new StreamReadException(e);
+        }
+      });
+    } catch (StreamReadException e) {
+      throw e.getCause();
+    } catch (SQLException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * When {@code true}, {@linkplain Statement#setQueryTimeout(int) query timeouts} are enforced by the wrapper instead
+   * of being passed to the driver.  Each execution with a timeout is scheduled on a timer wheel shared by all
+   * connections of the driver.  When the timeout expires, the statement is {@linkplain Statement#cancel() cancelled},
+   * and when it still has not completed after {@linkplain #getQueryTimeoutAbortMillis() a further delay}, the
+   * connection is {@linkplain Connection#abort(java.util.concurrent.Executor) aborted}.
+   *
+   * <p>This setting is applied when a query timeout is set on a statement.</p>
+   *
+   * @see  DriverWrapper#isQueryTimeoutEnforced()
+   */
+  public boolean isQueryTimeoutEnforced() {
+    return queryTimeoutEnforced;
+  }
+
+  /**
+   * Sets whether query timeouts set after this call are enforced by the wrapper.
+   *
+   * @see  #isQueryTimeoutEnforced()
+   */
+  public void setQueryTimeoutEnforced(boolean queryTimeoutEnforced) {
+    this.queryTimeoutEnforced = queryTimeoutEnforced;
+  }
+
+  /**
+   * Gets the time to wait after cancelling a timed-out statement before aborting the connection.
+   *
+   * @return  The milliseconds to wait, or {@code 0} to never abort the connection
+   *
+   * @see  DriverWrapper#getQueryTimeoutAbortMillis()
+   */
+  protected long getQueryTimeoutAbortMillis() {
+    return (driver == null) ? DriverWrapper.DEFAULT_QUERY_TIMEOUT_ABORT_MILLIS : driver.getQueryTimeoutAbortMillis();
+  }
+
+  /**
+   * Gets the timer wheel enforcing query timeouts, shared by all connections of the driver.
+   *
+   * @see  #isQueryTimeoutEnforced()
+   */
+  TimeoutWheel getTimeoutWheel() {
+    return (driver == null) ? DriverWrapper.TimeoutDefaults.TIMEOUT_WHEEL : driver.getTimeoutWheel();
+  }
+
+  /**
+   * When {@code true}, identical concurrent queries of {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent}
+   * statements share a single execution, across all connections of the driver obtained with the same URL and
+   * properties.  The first query executes, while identical queries arriving before it completes wait for its rows
+   * instead of executing.  Only when queries are waiting are the rows buffered, up to
+   * {@linkplain DriverWrapper#getQueryCoalescingMaxRows() a maximum number of rows}, and each query reads the buffered
+   * rows through its own cursor.  When there are more rows, the waiting queries execute themselves.
+   *
+   * <p>Queries are only coalesced in auto-commit mode, when each query is its own transaction, and only with other
+   * queries routed to the same backend and in the same catalog, schema, and transaction isolation level, as set
+   * through this wrapper.  Session state changed by executing SQL directly, such as {@code SET search_path}, is not
+   * known to the wrapper.  Queries whose parameters include streams, LOBs, or other values that do not compare by
+   * value are executed without coalescing, as are queries within the
+   * {@linkplain DriverWrapper#getReadYourWritesMillis() read-your-writes window} of the current thread.</p>
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isQueryCoalescing()
+   */
+  public boolean isQueryCoalescing() {
+    return queryCoalescing;
+  }
+
+  /**
+   * Sets whether identical concurrent queries of statements prepared after this call are coalesced.
+   *
+   * @see  #isQueryCoalescing()
+   */
+  public void setQueryCoalescing(boolean queryCoalescing) {
+    this.queryCoalescing = queryCoalescing;
+  }
+
+  /**
+   * Gets the coalescer shared by all connections of the driver, when query coalescing is possible.
+   *
+   * @return  The coalescer or {@code null} when this connection was not obtained from {@link DriverWrapper}
+   *
+   * @see  #isQueryCoalescing()
+   */
+  QueryCoalescer getQueryCoalescer() {
+    return (driver == null || url == null) ? null : driver.getQueryCoalescer();
+  }
+
+  /**
+   * Gets the context in which queries of this connection may be coalesced with queries of other connections,
+   * including the URL of the backend the query is routed to, so queries on the primary are never given the rows of a
+   * replica.
+   *
+   * <p>With {@linkplain #isReadWriteSplitting() read/write splitting}, queries are not coalesced within the
+   * {@linkplain DriverWrapper#getReadYourWritesMillis() read-your-writes window} of the current thread, since the
+   * writes of the thread must be visible to its queries even when other threads read from the primary.</p>
+   *
+   * @param  replicaQuery  Whether the query may be {@linkplain #isReplicaQueries() routed to a replica}
+   *
+   * @return  The context or {@code null} when queries may not currently be coalesced, such as when in a transaction
+   *
+   * @see  #isQueryCoalescing()
+   */
+  List<Object> getCoalescingContext(boolean replicaQuery) throws SQLException {
+    String myUrl = url;
+    if (myUrl == null || !getKnownAutoCommit()) {
+      return null;
+    }
+    String route = myUrl;
+    ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+    if (splitting != null) {
+      if (splitting.isReadingOwnWrites()) {
+        return null;
+      }
+      ConnectionWrapperImpl myReplica = (onReplica || (replicaQuery && getReplicaQueryConnection() != null))
+          ? replica
+          : null;
+      if (myReplica != null && myReplica.url != null) {
+        route = myReplica.url;
+      }
+    }
+    return Arrays.asList(myUrl, route, info, catalog, schema, transactionIsolation);
+  }
+
+  /**
+   * When {@code true}, slow queries of {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent} statements
+   * are hedged: a query that has not completed within the 95th percentile of its latency is executed again on
+   * {@linkplain DriverWrapper#getHedgeUrls(java.lang.String) another backend}, and whichever execution completes first
+   * is used while the other is cancelled.  The number of hedges is limited to
+   * {@linkplain DriverWrapper#getHedgeBudgetPercent() a percentage} of the hedged queries.
+   *
+   * <p>Like {@linkplain #isQueryCoalescing() query coalescing}, queries are only hedged in auto-commit mode, and only
+   * when their parameters all compare by value, so they may be applied to another connection.  Queries are also not
+   * hedged after the catalog, schema, or transaction isolation level has been set through this wrapper, since the hedge
+   * connections have the default session state, nor while {@linkplain #isReadWriteSplitting() reading own writes}
+   * from the primary, since the hedge backends may lag behind it.</p>
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isHedgedReads()
+   */
+  public boolean isHedgedReads() {
+    return hedgedReads;
+  }
+
+  /**
+   * Sets whether slow queries of statements prepared after this call are hedged.
+   *
+   * @see  #isHedgedReads()
+   */
+  public void setHedgedReads(boolean hedgedReads) {
+    this.hedgedReads = hedgedReads;
+  }
+
+  /**
+   * Gets the hedging of queries shared by all connections of the driver, when queries may currently be hedged.
+   *
+   * @return  The hedging or {@code null} when queries of this connection may not currently be hedged
+   *
+   * @see  #isHedgedReads()
+   */
+  HedgedReads getHedgedReads() throws SQLException {
+    if (
+        driver == null
+            || url == null
+            || catalog != null
+            || schema != null
+            || transactionIsolation != null
+            || !getKnownAutoCommit()
+    ) {
+      return null;
+    }
+    ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+    if (splitting != null && splitting.isReadingOwnWrites()) {
+      return null;
+    }
+    return driver.getHedgedReads();
+  }
+
+  /**
+   * When {@code true}, statement executions are limited by the {@linkplain #getAdmissionControl() admission control}
+   * of the backend, shared by all connections of the driver obtained with the same URL.  Executions beyond the adaptive
+   * limit wait in the application, in the {@linkplain StatementWrapperImpl#getAdmissionLane() lane} of their statement,
+   * and are rejected quickly when the backend is saturated.
+   *
+   * <p>Admission control requires a connection obtained from {@link DriverWrapper}.  This setting is applied at each
+   * execution.</p>
+   *
+   * @see  DriverWrapper#isAdmissionControl()
+   */
+  public boolean isAdmissionControl() {
+    return admissionControl;
+  }
+
+  /**
+   * Sets whether statement executions are limited by admission control.
+   *
+   * @see  #isAdmissionControl()
+   */
+  public void setAdmissionControl(boolean admissionControl) {
+    this.admissionControl = admissionControl;
+  }
+
+  /**
+   * Gets the admission control of the backend of this connection, including its metrics.
+   *
+   * @return  The admission control, or {@link Optional#empty()} when this connection was not obtained from
+   *          {@link DriverWrapper}
+   *
+   * @see  DriverWrapper#getAdmissionControl(java.lang.String)
+   */
+  public Optional<AdmissionControl> getAdmissionControl() {
+    String myUrl = url;
+    return (driver == null || myUrl == null) ? Optional.empty() : Optional.of(driver.getAdmissionControl(myUrl));
+  }
+
+  /**
+   * Gets the admission control limiting the executions of this connection, when enabled.
+   *
+   * @return  The admission control or {@code null} when executions are not limited
+   *
+   * @see  #isAdmissionControl()
+   */
+  AdmissionControl getEnabledAdmissionControl() {
+    String myUrl = url;
+    return (!admissionControl || driver == null || myUrl == null) ? null : driver.getAdmissionControl(myUrl);
+  }
+
+  /**
+   * When {@code true}, {@linkplain #setReadOnly(boolean) read-only} work is routed to a connection to one of the
+   * {@linkplain DriverWrapper#getReplicaUrls(java.lang.String) replicas}, connected when first needed and kept until
+   * this connection is closed.  Everything else stays on the primary.
+   *
+   * <p>The routing only changes at transaction boundaries: once statements have been executed in a transaction, the
+   * read-only mode may not be changed until the transaction ends, so that each transaction runs entirely on one
+   * backend.  Setting the read-only mode within the
+   * {@linkplain DriverWrapper#getReadYourWritesMillis() read-your-writes window} of the current thread leaves work on
+   * the primary.  The auto-commit mode, catalog, schema, and transaction isolation level are set on both
+   * connections.</p>
+   *
+   * <p>Statements are executed on the connection they were prepared on, so statements should be prepared after
+   * setting the read-only mode.  Read/write splitting requires a connection obtained from {@link DriverWrapper}.  This
+   * setting is applied when the read-only mode is set.</p>
+   *
+   * @see  DriverWrapper#isReadWriteSplitting()
+   * @see  #isReplicaQueries()
+   */
+  public boolean isReadWriteSplitting() {
+    return readWriteSplitting;
+  }
+
+  /**
+   * Sets whether read-only work is routed to replicas.
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  public void setReadWriteSplitting(boolean readWriteSplitting) {
+    this.readWriteSplitting = readWriteSplitting;
+  }
+
+  /**
+   * When {@code true}, along with {@linkplain #isReadWriteSplitting() read/write splitting}, queries of prepared
+   * statements of a single {@code SELECT} are routed to a replica in auto-commit mode, even while not read-only.
+   * Queries outside the {@linkplain DriverWrapper#getReadYourWritesMillis() read-your-writes window} of the current
+   * thread are routed at each execution, over a statement prepared again on the replica.
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isReplicaQueries()
+   */
+  public boolean isReplicaQueries() {
+    return replicaQueries;
+  }
+
+  /**
+   * Sets whether queries of statements prepared after this call may be routed to a replica in auto-commit mode.
+   *
+   * @see  #isReplicaQueries()
+   */
+  public void setReplicaQueries(boolean replicaQueries) {
+    this.replicaQueries = replicaQueries;
+  }
+
+  /**
+   * Gets the read/write splitting shared by all connections of the driver, when enabled.
+   *
+   * @return  The read/write splitting or {@code null} when disabled
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  private ReadWriteSplitting getEnabledReadWriteSplitting() {
+    return (!readWriteSplitting || driver == null || url == null) ? null : driver.getReadWriteSplitting();
+  }
+
+  /**
+   * Gets the connection to the replica, connecting when first needed with the current session state.
+   *
+   * @return  The replica connection or {@code null} when no replica may be connected to
+   */
+  private ConnectionWrapperImpl getReplica(ReadWriteSplitting splitting) {
+    ConnectionWrapperImpl myReplica = replica;
+    if (myReplica != null && myReplica.backend != null && myReplica.backend.isEjected(info)) {
+      // Not routed to the replica now, so it may be replaced by a healthy one
+      replica = null;
+      closeQuietly(myReplica);
+      myReplica = null;
+    }
+    if (myReplica == null) {
+      myReplica = splitting.connectReplica(url, info);
+      if (myReplica != null) {
+        try {
+          Boolean myAutoCommit = autoCommit;
+          if (myAutoCommit != null) {
+            myReplica.setAutoCommit(myAutoCommit);
+          }
+          Integer myTransactionIsolation = transactionIsolation;
+          if (myTransactionIsolation != null) {
+            myReplica.setTransactionIsolation(myTransactionIsolation);
+          }
+          String myCatalog = catalog;
+          if (myCatalog != null) {
+            myReplica.setCatalog(myCatalog);
+          }
+          String mySchema = schema;
+          if (mySchema != null) {
+            myReplica.setSchema(mySchema);
+          }
+        } catch (SQLException e) {
+          logger.log(Level.FINE, "Unable to set session state of replica, staying on primary", e);
+          closeQuietly(myReplica);
+          return null;
+        }
+        replica = myReplica;
+      }
+    }
+    return myReplica;
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      logger.log(Level.FINE, "Unable to close connection", e);
+    }
+  }
+
+  /**
+   * Closes the connection to the replica, if any, routing work back to the primary.
+   */
+  private void closeReplica() throws SQLException {
+    onReplica = false;
+    ConnectionWrapperImpl myReplica = replica;
+    if (myReplica != null) {
+      replica = null;
+      myReplica.close();
+    }
+  }
+
+  /**
+   * Gets the connection to the replica that a query may be routed to at this time.
+   *
+   * @return  The wrapped connection to the replica or {@code null} when the query must be executed on the primary
+   *
+   * @see  #isReplicaQueries()
+   */
+  Connection getReplicaQueryConnection() throws SQLException {
+    if (onReplica) {
+      return null;
+    }
+    ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+    if (splitting == null || inTransaction || !getKnownAutoCommit() || splitting.isReadingOwnWrites()) {
+      return null;
+    }
+    ConnectionWrapperImpl myReplica = getReplica(splitting);
+    return (myReplica == null) ? null : myReplica.getWrapped();
+  }
+
+  /**
+   * Tracks transactions and writes after a statement execution, when read/write splitting or reconnecting.
+   * Called by {@link StatementWrapperImpl} after each execution.
+   *
+   * @param  query  Whether the execution was a query, which does not write
+   */
+  void executed(boolean query) {
+    ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+    if (splitting != null || reconnecting) {
+      boolean write = splitting != null && !query && !onReplica;
+      boolean myAutoCommit;
+      try {
+        myAutoCommit = getKnownAutoCommit();
+      } catch (SQLException e) {
+        logger.log(Level.FINE, "Unable to get auto-commit mode, assuming in a transaction", e);
+        myAutoCommit = false;
+      }
+      if (myAutoCommit) {
+        if (write) {
+          splitting.recordWrite();
+        }
+      } else {
+        inTransaction = true;
+        if (write) {
+          uncommittedWrites = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Called when a {@linkplain ResultSetWrapperImpl#prefetch(int) prefetching} result set starts reading rows in the
+   * background.
+   */
+  void prefetchStarted() {
+    prefetching.incrementAndGet();
+  }
+
+  /**
+   * Called when a {@linkplain ResultSetWrapperImpl#prefetch(int) prefetching} result set has stopped reading rows in
+   * the background.
+   */
+  void prefetchEnded() {
+    prefetching.decrementAndGet();
+  }
+
+  /**
+   * Fails while a {@linkplain ResultSetWrapperImpl#prefetch(int) prefetching} result set is reading rows in the
+   * background, since the rows are read from the connection on another thread, and drivers do not support using a
+   * connection from multiple threads at once.
+   */
+  void checkNotPrefetching() throws SQLException {
+    if (prefetching.get() > 0) {
+      throw new SQLException("Connection is in use by a prefetching result set until it is closed");
+    }
+  }
+
+
+  /**
+   * Ends the tracking of the current transaction, starting the read-your-writes window when committed after writing.
+   */
+  private void transactionEnded(boolean committed) {
+    inTransaction = false;
+    if (uncommittedWrites) {
+      uncommittedWrites = false;
+      if (committed) {
+        ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+        if (splitting != null) {
+          splitting.recordWrite();
+        }
+      }
+    }
+  }
+
+  /**
+   * A change to the session state.
+   */
+  @FunctionalInterface
+  private static interface SessionChange {
+    void apply(Connection connection) throws SQLException;
+  }
+
+  /**
+   * Applies a change to the session state to the connection work is routed to, then to the other connection when
+   * there is a replica.  A replica that fails to change is closed, and connected again when next needed.
+   */
+  private void changeSession(SessionChange change) throws SQLException {
+    ConnectionWrapperImpl myReplica = replica;
+    if (onReplica) {
+      change.apply(myReplica);
+      change.apply(wrapped);
+    } else {
+      change.apply(getWrapped());
+      if (myReplica != null) {
+        try {
+          change.apply(myReplica);
+        } catch (SQLException e) {
+          logger.log(Level.FINE, "Unable to change session state of replica, closing", e);
+          replica = null;
+          closeQuietly(myReplica);
+        }
+      }
+    }
+  }
+
+  /**
+   * When {@code true}, a lost physical connection is replaced transparently outside of a transaction: a new physical
+   * connection is opened, from the pool when pooled, and the session state set through this wrapper is replayed onto
+   * it.  This includes the auto-commit mode, transaction isolation level, read-only mode, catalog, schema, client info,
+   * network timeout, type map, and holdability.
+   *
+   * <p>The connection is lost when an execution fails with a {@linkplain SQLException#getSQLState() connection
+   * exception} and the connection is no longer {@linkplain Connection#isValid(int) valid}.  It is replaced only when in
+   * auto-commit mode or before any statement of the current transaction, since the work of a transaction is lost with
+   * its connection.  The failed execution is retried once on the new connection when it is a query of a statement
+   * flagged {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent}, otherwise its failure is thrown.</p>
+   *
+   * <p>Prepared statements are prepared again on the new connection when next executed, with their parameters and
+   * limits.  Other statements are lost with the connection and must be created again.  Reconnecting requires a
+   * connection obtained from {@link DriverWrapper}, and is not done while work is routed to a
+   * {@linkplain #isReadWriteSplitting() replica}.  This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isReconnecting()
+   */
+  public boolean isReconnecting() {
+    return reconnecting;
+  }
+
+  /**
+   * Sets whether lost connections are replaced transparently.
+   *
+   * @see  #isReconnecting()
+   */
+  public void setReconnecting(boolean reconnecting) {
+    this.reconnecting = reconnecting;
+  }
+
+  /**
+   * When {@code true}, {@link #setClientInfo(java.lang.String, java.lang.String)} changes are kept by this wrapper and
+   * applied to the wrapped connection with a single {@link Connection#setClientInfo(java.util.Properties)} before the
+   * next statement execution, or when the client info is read.  When the client info is unchanged, nothing is applied.
+   *
+   * <p>The client info of the wrapped connection is read once, when first applying changes, since
+   * {@link Connection#setClientInfo(java.util.Properties)} replaces all the client info properties.  A failure to apply
+   * the changes is thrown by the statement execution.</p>
+   *
+   * @see  DriverWrapper#isClientInfoCoalescing()
+   */
+  public boolean isClientInfoCoalescing() {
+    return clientInfoCoalescing;
+  }
+
+  /**
+   * Sets whether client info changes are coalesced.  Any changes already coalesced are still applied before the next
+   * statement execution.
+   *
+   * @see  #isClientInfoCoalescing()
+   */
+  public void setClientInfoCoalescing(boolean clientInfoCoalescing) {
+    this.clientInfoCoalescing = clientInfoCoalescing;
+  }
+
+  /**
+   * When {@code true}, the streams, readers, and writers of large objects are buffered with buffers taken from the pool
+   * of the driver, and returned to the pool when closed.  Requires a connection obtained from a {@link DriverWrapper}.
+   *
+   * @see  DriverWrapper#isBufferedStreams()
+   */
+  public boolean isBufferedStreams() {
+    return bufferedStreams;
+  }
+
+  /**
+   * Sets whether the streams, readers, and writers of large objects are buffered.  Only affects streams obtained
+   * afterwards.
+   *
+   * @see  #isBufferedStreams()
+   */
+  public void setBufferedStreams(boolean bufferedStreams) {
+    this.bufferedStreams = bufferedStreams;
+  }
+
+  /**
+   * Gets the buffers for a new stream.
+   *
+   * @return  The buffers or {@code null} when not buffering
+   *
+   * @see  #isBufferedStreams()
+   */
+  private StreamBufferPool getStreamBufferPool() {
+    return (bufferedStreams && driver != null) ? driver.getStreamBufferPool() : null;
+  }
+
+  /**
+   * Applies any coalesced client info changes to the wrapped connection, with a single call when the client info has
+   * changed.
+   *
+   * @see  #isClientInfoCoalescing()
+   */
+  private void flushClientInfo() throws SQLException {
+    Map<String, String> pending = pendingClientInfo;
+    if (pending != null) {
+      pendingClientInfo = null;
+      Connection connection = getWrapped();
+      Properties applied = (appliedClientInfoConnection == connection) ? appliedClientInfo : null;
+      if (applied == null) {
+        applied = connection.getClientInfo();
+      }
+      Properties updated = new Properties();
+      if (applied != null) {
+        updated.putAll(applied);
+      }
+      for (Map.Entry<String, String> change : pending.entrySet()) {
+        String value = change.getValue();
+        if (value == null) {
+          updated.remove(change.getKey());
+        } else {
+          updated.setProperty(change.getKey(), value);
+        }
+      }
+      if (!updated.equals(applied)) {
+        appliedClientInfoConnection = null;
+        connection.setClientInfo(updated);
+      }
+      appliedClientInfo = updated;
+      appliedClientInfoConnection = connection;
+    }
+  }
+
+  /**
+   * Gets the number of times the physical connection has been replaced.
+   *
+   * @see  #isReconnecting()
+   */
+  int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Replaces the physical connection after an execution failed, when the connection has been lost outside of a
+   * transaction.  Any failure to reconnect is added to the suppressed exceptions of the execution failure.
+   *
+   * @param  failure  The failure of the execution
+   * @param  failedGeneration  The generation of the physical connection the execution failed on
+   *
+   * @return  {@code true} when the physical connection has been replaced, possibly by another thread
+   *
+   * @see  #isReconnecting()
+   */
+  boolean reconnect(SQLException failure, int failedGeneration) {
+    if (
+        !reconnecting
+            || driver == null
+            || url == null
+            || onReplica
+            || !LoadBalancer.isBackendFailure(failure)
+    ) {
+      return false;
+    }
+    reconnectLock.lock();
+    try {
+      if (generation != failedGeneration) {
+        return true;
+      }
+      if (inTransaction || deferredUpdatesStatement != null) {
+        // The work of the transaction is lost with the connection
+        return false;
+      }
+      Connection lost = wrapped;
+      try {
+        if (lost.isValid(RECONNECT_VALIDATION_SECONDS)) {
+          return false;
+        }
+      } catch (SQLException e) {
+        // Not valid
+      }
+      Connection connection;
+      ConnectionPool.Lease newLease = null;
+      try {
+        ConnectionPool.Lease myLease = lease;
+        if (myLease != null) {
+          newLease = myLease.getPool().replace(myLease);
+          connection = newLease.getLogical();
+        } else {
+          closeQuietly(lost);
+          connection = driver.reconnectWrapped(url, info);
+        }
+        try {
+          replaySession(connection);
+        } catch (SQLException e) {
+          closeQuietly(connection);
+          throw e;
+        }
+      } catch (SQLException e) {
+        logger.log(Level.FINE, "Unable to reconnect", e);
+        failure.addSuppressed(e);
+        return false;
+      }
+      if (newLease != null) {
+        lease = newLease;
+      }
+      wrapped = connection;
+      wrappedAutoCommit = null;
+      inTransaction = false;
+      uncommittedWrites = false;
+      generation = failedGeneration + 1;
+      logger.log(Level.INFO, "Reconnected after connection lost: " + url, failure);
+      return true;
+    } finally {
+      reconnectLock.unlock();
+    }
+  }
+
+  /**
+   * Replays the session state set through this wrapper onto a new physical connection.
+   *
+   * @see  #isReconnecting()
+   */
+  private void replaySession(Connection connection) throws SQLException {
+    Boolean myAutoCommit = autoCommit;
+    if (myAutoCommit != null) {
+      connection.setAutoCommit(myAutoCommit);
+    }
+    Integer myTransactionIsolation = transactionIsolation;
+    if (myTransactionIsolation != null) {
+      connection.setTransactionIsolation(myTransactionIsolation);
+    }
+    Boolean myReadOnly = readOnly;
+    if (myReadOnly != null) {
+      connection.setReadOnly(myReadOnly);
+    }
+    String myCatalog = catalog;
+    if (myCatalog != null) {
+      connection.setCatalog(myCatalog);
+    }
+    String mySchema = schema;
+    if (mySchema != null) {
+      connection.setSchema(mySchema);
+    }
+    Properties myClientInfo = clientInfo;
+    if (myClientInfo != null) {
+      connection.setClientInfo(myClientInfo);
+    }
+    Integer myNetworkTimeout = networkTimeout;
+    if (myNetworkTimeout != null) {
+      connection.setNetworkTimeout(networkTimeoutExecutor, myNetworkTimeout);
+    }
+    Map<String, Class<?>> myTypeMap = typeMap;
+    if (myTypeMap != null) {
+      connection.setTypeMap(myTypeMap);
+    }
+    Integer myHoldability = holdability;
+    if (myHoldability != null) {
+      connection.setHoldability(myHoldability);
+    }
+  }
+
+  /**
+   * Records the SQL of a failed execution, for measuring contention.
+   * Called by {@link StatementWrapperImpl} when an execution fails.
+   *
+   * @param  sql  The SQL of the prepared statement or {@code null} when not known
+   */
+  void executionFailed(String sql) {
+    failedSql = sql;
+  }
+
+  /**
+   * A unit of work run in a transaction that may be retried.
+   *
+   * @see  #retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)
+   */
+  @FunctionalInterface
+  public interface UnitOfWork<R> {
+    /**
+     * Runs the work of the transaction, without committing.  Called once per attempt, so must not have effects outside
+     * of the transaction.
+     */
+    R run(ConnectionWrapperImpl connection) throws SQLException;
+  }
+
+  /**
+   * Gets the SQL states of the failures that transactions are retried after.
+   *
+   * @see  DriverWrapper#getTransactionRetrySQLStates()
+   */
+  protected Set<String> getTransactionRetrySQLStates() {
+    return (driver == null) ? DriverWrapper.DEFAULT_TRANSACTION_RETRY_SQL_STATES : driver.getTransactionRetrySQLStates();
+  }
+
+  /**
+   * Gets the maximum number of attempts of a retried transaction, including the first.
+   *
+   * @see  DriverWrapper#getTransactionRetryAttempts()
+   */
+  protected int getTransactionRetryAttempts() {
+    return (driver == null) ? DriverWrapper.DEFAULT_TRANSACTION_RETRY_ATTEMPTS : driver.getTransactionRetryAttempts();
+  }
+
+  /**
+   * Gets the backoff before the first retry of a transaction.
+   *
+   * @see  DriverWrapper#getTransactionRetryBackoffMillis()
+   */
+  protected long getTransactionRetryBackoffMillis() {
+    return (driver == null) ? DriverWrapper.DEFAULT_TRANSACTION_RETRY_BACKOFF_MILLIS
+        : driver.getTransactionRetryBackoffMillis();
+  }
+
+  /**
+   * Gets the maximum backoff before retrying a transaction.
+   *
+   * @see  DriverWrapper#getTransactionRetryMaxBackoffMillis()
+   */
+  protected long getTransactionRetryMaxBackoffMillis() {
+    return (driver == null) ? DriverWrapper.DEFAULT_TRANSACTION_RETRY_MAX_BACKOFF_MILLIS
+        : driver.getTransactionRetryMaxBackoffMillis();
+  }
+
+  /**
+   * Runs a unit of work in a transaction, retrying the transaction when it fails with a
+   * {@linkplain DriverWrapper#getTransactionRetrySQLStates() serialization failure or deadlock}.  The transaction is
+   * committed when the work completes, and rolled back when it fails.
+   *
+   * <p>Before each retry, the transaction waits a random time up to a backoff that starts at
+   * {@linkplain #getTransactionRetryBackoffMillis() the initial backoff} and doubles with each retry, up to
+   * {@linkplain #getTransactionRetryMaxBackoffMillis() the maximum}, so that contending transactions do not collide
+   * again.  The failure is thrown once the transaction has been attempted
+   * {@linkplain #getTransactionRetryAttempts() the maximum number of times}, or when the backoff would pass the
+   * {@linkplain Deadline deadline} of the current thread.  Other failures are thrown immediately.</p>
+   *
+   * <p>This must be called outside of a transaction.  Auto-commit is disabled during the work, and restored after.  The
+   * failures are measured by the fingerprint of the SQL of the prepared statement that failed, available from
+   * {@link DriverWrapper#getContention()} when this connection was obtained from {@link DriverWrapper}.</p>
+   *
+   * @return  The result of the work in the transaction that committed
+   *
+   * @throws  SQLException  when the work or commit fails, or when interrupted while backing off
+   */
+  public <R> R retryTransaction(UnitOfWork<R> work) throws SQLException {
+    boolean restoreAutoCommit = getAutoCommit();
+    if (restoreAutoCommit) {
+      setAutoCommit(false);
+    }
+    R result;
+    try {
+      result = retryTransactionAttempts(work);
+    } catch (Throwable t) {
+      if (restoreAutoCommit) {
+        try {
+          setAutoCommit(true);
+        } catch (SQLException e) {
+          t.addSuppressed(e);
+        }
+      }
+      throw t;
+    }
+    if (restoreAutoCommit) {
+      setAutoCommit(true);
+    }
+    return result;
+  }
+
+  /**
+   * Runs the attempts of a transaction, with auto-commit disabled.
+   */
+  private <R> R retryTransactionAttempts(UnitOfWork<R> work) throws SQLException {
+    Set<String> sqlStates = getTransactionRetrySQLStates();
+    int maxAttempts = Math.max(1, getTransactionRetryAttempts());
+    long backoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, getTransactionRetryBackoffMillis()));
+    long maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, getTransactionRetryMaxBackoffMillis()));
+    for (int attempt = 1; ; attempt++) {
+      failedSql = null;
+      boolean committing = false;
+      try {
+        R result = work.run(this);
+        committing = true;
+        commit();
+        return result;
+      } catch (Throwable t) {
+        try {
+          rollback();
+        } catch (SQLException e) {
+          t.addSuppressed(e);
+        }
+        if (Contention.getRetryableFailure(t, sqlStates) == null) {
+          throw t;
+        }
+        long sleepNanos = -1;
+        if (attempt < maxAttempts) {
+          sleepNanos = ThreadLocalRandom.current().nextLong(backoffNanos + 1);
+          Deadline deadline = Deadline.get();
+          if (deadline != null && sleepNanos >= deadline.getRemainingNanos()) {
+            sleepNanos = -1;
+          }
+        }
+        String myUrl = url;
+        Contention contention = (driver == null || myUrl == null) ? null
+            : driver.getContention(committing ? Contention.COMMIT : failedSql);
+        if (sleepNanos < 0) {
+          if (contention != null) {
+            contention.exhausted();
+          }
+          throw t;
+        }
+        if (contention != null) {
+          contention.retried(sleepNanos);
+        }
+        logger.log(Level.FINE, "Retrying transaction, attempt " + (attempt + 1) + " of " + maxAttempts, t);
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          SQLException interrupted = new SQLException("Interrupted backing off before retrying transaction", e);
+          interrupted.addSuppressed(t);
+          throw interrupted;
+        }
+        backoffNanos = Math.min(maxBackoffNanos, backoffNanos * 2);
+      }
+    }
+  }
+
+  /**
+   * Gets the maximum number of parameters allowed in a single statement, used to limit the size of rewritten
+   * statements.
+   *
+   * @see  DriverWrapper#getMaxParameters()
+   */
+  protected int getMaxParameters() {
+    return (driver == null) ? DriverWrapper.DEFAULT_MAX_PARAMETERS : driver.getMaxParameters();
+  }
+
+  /**
+   * Gets the write-behind queue shared by all connections obtained from the same driver with the same URL and
+   * properties.
+   *
+   * @throws  SQLFeatureNotSupportedException  when this connection was not obtained from {@link DriverWrapper}
+   *
+   * @see  DriverWrapper#getWriteBehindQueue(java.lang.String, java.util.Properties)
+   */
+  protected WriteBehindQueue getWriteBehindQueue() throws SQLException {
+    String myUrl = url;
+    if (driver == null || myUrl == null) {
+      throw new SQLFeatureNotSupportedException("Write-behind requires a connection obtained from a DriverWrapper");
+    }
+    return driver.getWriteBehindQueue(myUrl, info);
   }
 
-  public ConnectionWrapperImpl(Connection wrapped) {
-    this(null, wrapped);
+  /**
+   * Gets the executor that runs the blocking driver calls of asynchronous executions.
+   *
+   * @see  DriverWrapper#getAsyncExecutor()
+   * @see  StatementWrapperImpl#executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  protected Executor getAsyncExecutor() {
+    return (driver == null) ? DriverWrapper.AsyncDefaults.EXECUTOR : driver.getAsyncExecutor();
   }
 
-  protected Optional<? extends DriverWrapper> getDriver() {
-    return Optional.ofNullable(driver);
+  /**
+   * Gets the limiter of concurrent asynchronous executions, shared by all connections of the driver.
+   *
+   * @see  DriverWrapper#getAsyncConcurrency()
+   */
+  AsyncLimiter getAsyncLimiter() {
+    return (driver == null) ? DriverWrapper.AsyncDefaults.LIMITER : driver.getAsyncLimiter();
   }
 
-  @Override
-  public Connection getWrapped() {
-    return wrapped;
+  /**
+   * Enqueues a fire-and-forget update to be written in the background, over a separate connection, taking the write
+   * off the calling thread.  Blocks only while the write-behind queue is full.
+   *
+   * <p>The update is not part of any transaction of this connection, and it is not visible to this connection until
+   * written.  A failed update is reported to {@link DriverWrapper#onWriteBehindFailure(java.lang.String, java.lang.Object[], java.sql.SQLException)}.</p>
+   *
+   * @param  parameters  The parameters for the update, which are set with {@link PreparedStatement#setObject(int, java.lang.Object)}
+   *
+   * @see  WriteBehindQueue
+   * @see  #flushEnqueuedUpdates()
+   */
+  public void enqueueUpdate(String sql, Object... parameters) throws SQLException {
+    getWriteBehindQueue().enqueue(null, sql, parameters);
   }
 
-  @Override
-  public String toString() {
-    return getWrapped().toString();
+  /**
+   * Enqueues a fire-and-forget update to be written in the background, over a separate connection, taking the write
+   * off the calling thread.  Blocks only while the write-behind queue is full.
+   *
+   * <p>The update is not part of any transaction of this connection, and it is not visible to this connection until
+   * written.</p>
+   *
+   * @param  onFailure   Called by the writer thread when the update fails
+   * @param  parameters  The parameters for the update, which are set with {@link PreparedStatement#setObject(int, java.lang.Object)}
+   *
+   * @see  WriteBehindQueue
+   * @see  #flushEnqueuedUpdates()
+   */
+  public void enqueueUpdate(Consumer<? super SQLException> onFailure, String sql, Object... parameters)
+      throws SQLException {
+    getWriteBehindQueue().enqueue(onFailure, sql, parameters);
+  }
+
+  /**
+   * Blocks until every update enqueued before this call, by any connection sharing the same write-behind queue, has
+   * been written or reported as failed.
+   *
+   * @see  #enqueueUpdate(java.lang.String, java.lang.Object...)
+   */
+  public void flushEnqueuedUpdates() throws SQLException {
+    getWriteBehindQueue().flush();
+  }
+
+  /**
+   * Records the SQL and options of a newly prepared statement that does not return generated keys.
+   *
+   * @see  PreparedStatementWrapperImpl#setPrepared(java.lang.String, boolean, com.aoapps.sql.wrapper.PreparedStatementWrapperImpl.Preparer)
+   */
+  private <S extends PreparedStatementWrapperImpl> S prepared(
+      S stmtWrapper,
+      String sql,
+      PreparedStatementWrapperImpl.Preparer preparer
+  ) throws SQLException {
+    return prepared(stmtWrapper, sql, false, preparer);
+  }
+
+  /**
+   * Records the SQL and options of a newly prepared statement.
+   *
+   * @see  PreparedStatementWrapperImpl#setPrepared(java.lang.String, boolean, com.aoapps.sql.wrapper.PreparedStatementWrapperImpl.Preparer)
+   */
+  private <S extends PreparedStatementWrapperImpl> S prepared(
+      S stmtWrapper,
+      String sql,
+      boolean generatedKeys,
+      PreparedStatementWrapperImpl.Preparer preparer
+  ) throws SQLException {
+    if (stmtWrapper != null) {
+      stmtWrapper.setPrepared(sql, generatedKeys, preparer);
+    }
+    String myUrl = url;
+    if (hotSqlRecording && myUrl != null && sql != null) {
+      driver.recordHotSql(myUrl, sql);
+    }
+    return opened(stmtWrapper);
+  }
+
+  /**
+   * When {@code true}, the batches of statements that return generated keys are executed row by row when the driver
+   * does not {@linkplain #isBatchGeneratedKeysSupported() return every generated key of a batch}, so that every key is
+   * available from {@link PreparedStatement#getGeneratedKeys()}.  This costs a round trip per row, so is off by
+   * default, leaving the keys of a batch to the driver.
+   *
+   * <p>This setting is applied when a statement is prepared.</p>
+   *
+   * @see  DriverWrapper#isBatchGeneratedKeysRowByRow()
+   */
+  public boolean isBatchGeneratedKeysRowByRow() {
+    return batchGeneratedKeysRowByRow;
+  }
+
+  /**
+   * Sets whether the batches of statements prepared after this call to return generated keys are executed row by row
+   * when the driver does not return every generated key of a batch.
+   *
+   * @see  #isBatchGeneratedKeysRowByRow()
+   */
+  public void setBatchGeneratedKeysRowByRow(boolean batchGeneratedKeysRowByRow) {
+    this.batchGeneratedKeysRowByRow = batchGeneratedKeysRowByRow;
+  }
+
+  /**
+   * Checks if the driver returns the generated keys of every row from {@link PreparedStatement#getGeneratedKeys()}
+   * after {@link PreparedStatement#executeBatch()}.  When not supported, and
+   * {@linkplain #isBatchGeneratedKeysRowByRow() enabled}, the batches of statements that return generated keys are
+   * executed row by row by the wrapper so that every key is available from
+   * {@link StatementWrapperImpl#getGeneratedLongKeys()}.
+   *
+   * <p>This default implementation asks {@link DriverWrapper#isBatchGeneratedKeysSupported(java.lang.String)} for the
+   * database product of this connection, caching the result.  Once a batch returns fewer keys than rows, this returns
+   * {@code false} for the rest of the life of this connection.</p>
+   */
+  protected boolean isBatchGeneratedKeysSupported() throws SQLException {
+    Boolean supported = batchGeneratedKeysSupported;
+    if (supported == null) {
+      String product = getWrapped().getMetaData().getDatabaseProductName();
+      supported = (driver == null)
+          ? DriverWrapper.isDefaultBatchGeneratedKeysSupported(product)
+          : driver.isBatchGeneratedKeysSupported(product);
+      batchGeneratedKeysSupported = supported;
+    }
+    return supported;
+  }
+
+  /**
+   * Records that a batch returned fewer generated keys than rows.
+   *
+   * @see  #isBatchGeneratedKeysSupported()
+   */
+  void batchGeneratedKeysUnsupported() {
+    batchGeneratedKeysSupported = Boolean.FALSE;
+  }
+
+  /**
+   * Sets the statement currently holding deferred updates, flushing any other statement's deferred updates first.
+   */
+  void setDeferredUpdatesStatement(PreparedStatementWrapperImpl stmtWrapper) throws SQLException {
+    PreparedStatementWrapperImpl current = deferredUpdatesStatement;
+    if (current != stmtWrapper) {
+      if (current != null) {
+        current.flushDeferredUpdates();
+      }
+      deferredUpdatesStatement = stmtWrapper;
+    }
+  }
+
+  /**
+   * Clears the statement currently holding deferred updates, if it is the given statement.
+   */
+  void clearDeferredUpdatesStatement(PreparedStatementWrapperImpl stmtWrapper) {
+    if (deferredUpdatesStatement == stmtWrapper) {
+      deferredUpdatesStatement = null;
+    }
+  }
+
+  /**
+   * Executes any updates deferred by automatic statement batching.
+   *
+   * @see  #getDeferredUpdateBatchSize()
+   */
+  protected void flushDeferredUpdates() throws SQLException {
+    PreparedStatementWrapperImpl current = deferredUpdatesStatement;
+    if (current != null) {
+      current.flushDeferredUpdates();
+    }
+  }
+
+  /**
+   * Discards any updates deferred by automatic statement batching.
+   *
+   * @see  #getDeferredUpdateBatchSize()
+   */
+  protected void discardDeferredUpdates() throws SQLException {
+    PreparedStatementWrapperImpl current = deferredUpdatesStatement;
+    if (current != null) {
+      current.discardDeferredUpdates();
+    }
+  }
+
+  /**
+   * Called before each execution of a statement created by this connection.
+   *
+   * <p>This default implementation flushes any deferred updates, then applies any coalesced client info changes.</p>
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  #flushDeferredUpdates()
+   * @see  #isClientInfoCoalescing()
+   */
+  protected void beforeExecute(StatementWrapperImpl stmtWrapper) throws SQLException {
+    flushDeferredUpdates();
+    flushClientInfo();
   }
 
   /**
@@ -130,12 +1924,13 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Creates a new {@link InputStreamWrapper}.
+   * Creates a new {@link InputStreamWrapper}, buffered when {@linkplain #isBufferedStreams() buffering streams}.
    *
    * @see  ConnectionWrapperImpl#wrapInputStream(java.io.InputStream)
    */
   protected InputStreamWrapper newInputStreamWrapper(InputStream in) {
-    return new InputStreamWrapper(this, in);
+    StreamBufferPool buffers = getStreamBufferPool();
+    return (buffers == null) ? new InputStreamWrapper(this, in) : new BufferedInputStreamWrapper(this, in, buffers);
   }
 
   /**
@@ -148,12 +1943,13 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Creates a new {@link OutputStreamWrapper}.
+   * Creates a new {@link OutputStreamWrapper}, buffered when {@linkplain #isBufferedStreams() buffering streams}.
    *
    * @see  ConnectionWrapperImpl#wrapOutputStream(java.io.OutputStream)
    */
   protected OutputStreamWrapper newOutputStreamWrapper(OutputStream out) {
-    return new OutputStreamWrapper(this, out);
+    StreamBufferPool buffers = getStreamBufferPool();
+    return (buffers == null) ? new OutputStreamWrapper(this, out) : new BufferedOutputStreamWrapper(this, out, buffers);
   }
 
   /**
@@ -175,12 +1971,13 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Creates a new {@link ReaderWrapper}.
+   * Creates a new {@link ReaderWrapper}, buffered when {@linkplain #isBufferedStreams() buffering streams}.
    *
    * @see  ConnectionWrapperImpl#wrapReader(java.io.Reader)
    */
   protected ReaderWrapper newReaderWrapper(Reader in) {
-    return new ReaderWrapper(this, in);
+    StreamBufferPool buffers = getStreamBufferPool();
+    return (buffers == null) ? new ReaderWrapper(this, in) : new BufferedReaderWrapper(this, in, buffers);
   }
 
   /**
@@ -283,12 +2080,13 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Creates a new {@link WriterWrapper}.
+   * Creates a new {@link WriterWrapper}, buffered when {@linkplain #isBufferedStreams() buffering streams}.
    *
    * @see  ConnectionWrapperImpl#wrapWriter(java.io.Writer)
    */
   protected WriterWrapper newWriterWrapper(Writer out) {
-    return new WriterWrapper(this, out);
+    StreamBufferPool buffers = getStreamBufferPool();
+    return (buffers == null) ? new WriterWrapper(this, out) : new BufferedWriterWrapper(this, out, buffers);
   }
 
   /**
@@ -480,7 +2278,8 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Unwraps an {@link InputStream}, if wrapped by this wrapper.
+   * Unwraps an {@link InputStream}, if wrapped by this wrapper.  A {@linkplain #isBufferedStreams() buffered} stream
+   * that has read ahead is not unwrapped, so the buffered bytes are not lost.
    *
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    * @see  ResultSetWrapperImpl#unwrapInputStream(java.io.InputStream)
@@ -492,7 +2291,11 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
     }
     if (in instanceof InputStreamWrapper) {
       InputStreamWrapper inWrapper = (InputStreamWrapper) in;
-      if (inWrapper.getConnectionWrapper() == this) {
+      if (
+          inWrapper.getConnectionWrapper() == this
+              && !(inWrapper instanceof BufferedInputStreamWrapper
+              && ((BufferedInputStreamWrapper) inWrapper).hasBuffered())
+      ) {
         return inWrapper.getWrapped();
       }
     }
@@ -626,7 +2429,8 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   }
 
   /**
-   * Unwraps a {@link Reader}, if wrapped by this wrapper.
+   * Unwraps a {@link Reader}, if wrapped by this wrapper.  A {@linkplain #isBufferedStreams() buffered} reader that
+   * has read ahead is not unwrapped, so the buffered characters are not lost.
    *
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    * @see  ResultSetWrapperImpl#unwrapReader(java.io.Reader)
@@ -638,7 +2442,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
     }
     if (in instanceof ReaderWrapper) {
       ReaderWrapper inWrapper = (ReaderWrapper) in;
-      if (inWrapper.getConnectionWrapper() == this) {
+      if (
+          inWrapper.getConnectionWrapper() == this
+              && !(inWrapper instanceof BufferedReaderWrapper && ((BufferedReaderWrapper) inWrapper).hasBuffered())
+      ) {
         return inWrapper.getWrapped();
       }
     }
@@ -991,7 +2798,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public StatementWrapperImpl createStatement() throws SQLException {
-    return wrapStatement(getWrapped().createStatement());
+    return opened(wrapStatement(getWrapped().createStatement()));
   }
 
   /**
@@ -1001,7 +2808,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql));
+    return prepared(wrapPreparedStatement(getWrapped().prepareStatement(sql)), sql, Connection::prepareStatement);
   }
 
   /**
@@ -1011,17 +2818,121 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public CallableStatementWrapperImpl prepareCall(String sql) throws SQLException {
-    return wrapCallableStatement(getWrapped().prepareCall(sql));
+    return prepared(wrapCallableStatement(getWrapped().prepareCall(sql)), sql, Connection::prepareCall);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation flushes any deferred updates then calls {@code getWrapped().setAutoCommit(autoCommit)}
+   * and records the mode.</p>
+   *
+   * @see  #flushDeferredUpdates()
+   * @see  ConnectionPool
+   * @see  #isReadWriteSplitting()
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    flushDeferredUpdates();
+    changeSession(conn -> conn.setAutoCommit(autoCommit));
+    this.autoCommit = autoCommit;
+    if (autoCommit) {
+      transactionEnded(true);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation flushes any deferred updates then calls {@code getWrapped().commit()}.</p>
+   *
+   * @see  #flushDeferredUpdates()
+   * @see  #isBlockingOffload()
+   */
+  @Override
+  public void commit() throws SQLException {
+    checkNotPrefetching();
+    flushDeferredUpdates();
+    offload(() -> {
+      getWrapped().commit();
+      return null;
+    });
+    transactionEnded(true);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation discards any deferred updates then calls {@code getWrapped().rollback()}.</p>
+   *
+   * @see  #discardDeferredUpdates()
+   * @see  #isBlockingOffload()
+   */
+  @Override
+  public void rollback() throws SQLException {
+    checkNotPrefetching();
+    discardDeferredUpdates();
+    offload(() -> {
+      getWrapped().rollback();
+      return null;
+    });
+    transactionEnded(false);
   }
 
   /**
    * {@inheritDoc}
    *
-   * <p>This default implementation calls {@code getWrapped().close()}.</p>
+   * <p>This default implementation flushes any deferred updates then calls {@code getWrapped().close()}.  When pooled,
+   * any statements left open are closed, and the physical connection is returned to the pool instead.  Any connection
+   * to a replica is closed.</p>
+   *
+   * @see  #flushDeferredUpdates()
+   * @see  ConnectionPool
+   * @see  #isReadWriteSplitting()
    */
   @Override
   public void close() throws SQLException {
-    getWrapped().close();
+    try {
+      try {
+        flushDeferredUpdates();
+      } finally {
+        closeReplica();
+      }
+    } finally {
+      ConnectionPool.Lease myLease = lease;
+      if (myLease == null) {
+        getWrapped().close();
+      } else {
+        try {
+          closeOpenStatements();
+        } finally {
+          myLease.close(this);
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the statements left open, when pooled.
+   */
+  private void closeOpenStatements() throws SQLException {
+    SQLException failure = null;
+    for (StatementWrapperImpl stmtWrapper : openStatements) {
+      try {
+        stmtWrapper.close();
+      } catch (SQLException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    openStatements.clear();
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   /**
@@ -1034,6 +2945,72 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
     return wrapDatabaseMetaData(getWrapped().getMetaData());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setReadOnly(readOnly)} then records the mode.  When
+   * {@linkplain #isReadWriteSplitting() read/write splitting}, becoming read-only routes work to a replica instead.</p>
+   *
+   * @throws  SQLException  when read/write splitting and the routing would change during a transaction
+   *
+   * @see  ConnectionPool
+   * @see  #isReadWriteSplitting()
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    ReadWriteSplitting splitting = getEnabledReadWriteSplitting();
+    if (readOnly) {
+      if (!onReplica && splitting != null && !inTransaction && !splitting.isReadingOwnWrites()) {
+        flushDeferredUpdates();
+        if (getReplica(splitting) != null) {
+          // The replica connection is already read-only
+          onReplica = true;
+          this.readOnly = true;
+          return;
+        }
+      }
+    } else if (onReplica) {
+      if (inTransaction) {
+        throw new SQLException("Unable to leave read-only mode during a transaction routed to a replica");
+      }
+      onReplica = false;
+    }
+    getWrapped().setReadOnly(readOnly);
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setCatalog(catalog)} then records the catalog.</p>
+   *
+   * @see  #isQueryCoalescing()
+   * @see  #isReadWriteSplitting()
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    changeSession(conn -> conn.setCatalog(catalog));
+    this.catalog = catalog;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setTransactionIsolation(level)} then records the
+   * level.</p>
+   *
+   * @see  #isQueryCoalescing()
+   * @see  #isReadWriteSplitting()
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    changeSession(conn -> conn.setTransactionIsolation(level));
+    this.transactionIsolation = level;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -1041,7 +3018,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public StatementWrapperImpl createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
-    return wrapStatement(getWrapped().createStatement(resultSetType, resultSetConcurrency));
+    return opened(wrapStatement(getWrapped().createStatement(resultSetType, resultSetConcurrency)));
   }
 
   /**
@@ -1051,7 +3028,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql, resultSetType, resultSetConcurrency));
+    return prepared(wrapPreparedStatement(getWrapped().prepareStatement(sql, resultSetType, resultSetConcurrency)), sql, (conn, s) -> conn.prepareStatement(s, resultSetType, resultSetConcurrency));
   }
 
   /**
@@ -1061,37 +3038,54 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public CallableStatementWrapperImpl prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-    return wrapCallableStatement(getWrapped().prepareCall(sql, resultSetType, resultSetConcurrency));
+    return prepared(wrapCallableStatement(getWrapped().prepareCall(sql, resultSetType, resultSetConcurrency)), sql, (conn, s) -> conn.prepareCall(s, resultSetType, resultSetConcurrency));
   }
 
   /**
    * {@inheritDoc}
    *
+   * <p>Any deferred updates are flushed first.</p>
+   *
+   * @see  ConnectionWrapperImpl#flushDeferredUpdates()
    * @see  ConnectionWrapperImpl#wrapSavepoint(java.sql.Savepoint)
    */
   @Override
   public SavepointWrapperImpl setSavepoint() throws SQLException {
+    flushDeferredUpdates();
     return wrapSavepoint(getWrapped().setSavepoint());
   }
 
   /**
    * {@inheritDoc}
    *
+   * <p>Any deferred updates are flushed first.</p>
+   *
+   * @see  ConnectionWrapperImpl#flushDeferredUpdates()
    * @see  ConnectionWrapperImpl#wrapSavepoint(java.sql.Savepoint)
    */
   @Override
   public SavepointWrapperImpl setSavepoint(String name) throws SQLException {
+    flushDeferredUpdates();
     return wrapSavepoint(getWrapped().setSavepoint(name));
   }
 
   /**
    * {@inheritDoc}
    *
+   * <p>Any deferred updates are discarded first.  They were all deferred after the most recent savepoint.</p>
+   *
+   * @see  ConnectionWrapperImpl#discardDeferredUpdates()
    * @see  ConnectionWrapperImpl#unwrapSavepoint(java.sql.Savepoint)
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    */
   @Override
   public void rollback(Savepoint savepoint) throws SQLException {
-    getWrapped().rollback(unwrapSavepoint(savepoint));
+    discardDeferredUpdates();
+    Savepoint unwrapped = unwrapSavepoint(savepoint);
+    offload(() -> {
+      getWrapped().rollback(unwrapped);
+      return null;
+    });
   }
 
   /**
@@ -1111,7 +3105,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public StatementWrapperImpl createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    return wrapStatement(getWrapped().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+    return opened(wrapStatement(getWrapped().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability)));
   }
 
   /**
@@ -1121,7 +3115,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    return prepared(wrapPreparedStatement(getWrapped().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability)), sql, (conn, s) -> conn.prepareStatement(s, resultSetType, resultSetConcurrency, resultSetHoldability));
   }
 
   /**
@@ -1131,7 +3125,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public CallableStatementWrapperImpl prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    return wrapCallableStatement(getWrapped().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    return prepared(wrapCallableStatement(getWrapped().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability)), sql, (conn, s) -> conn.prepareCall(s, resultSetType, resultSetConcurrency, resultSetHoldability));
   }
 
   /**
@@ -1141,7 +3135,12 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql, autoGeneratedKeys));
+    return prepared(
+        wrapPreparedStatement(getWrapped().prepareStatement(sql, autoGeneratedKeys)),
+        sql,
+        autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS,
+        (conn, s) -> conn.prepareStatement(s, autoGeneratedKeys)
+    );
   }
 
   /**
@@ -1151,7 +3150,12 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql, columnIndexes));
+    return prepared(
+        wrapPreparedStatement(getWrapped().prepareStatement(sql, columnIndexes)),
+        sql,
+        columnIndexes != null && columnIndexes.length != 0,
+        (conn, s) -> conn.prepareStatement(s, columnIndexes)
+    );
   }
 
   /**
@@ -1161,7 +3165,12 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
    */
   @Override
   public PreparedStatementWrapperImpl prepareStatement(String sql, String[] columnNames) throws SQLException {
-    return wrapPreparedStatement(getWrapped().prepareStatement(sql, columnNames));
+    return prepared(
+        wrapPreparedStatement(getWrapped().prepareStatement(sql, columnNames)),
+        sql,
+        columnNames != null && columnNames.length != 0,
+        (conn, s) -> conn.prepareStatement(s, columnNames)
+    );
   }
 
   /**
@@ -1227,10 +3236,187 @@ public class ConnectionWrapperImpl implements ConnectionWrapper {
   /**
    * {@inheritDoc}
    *
-   * <p>This default implementation calls {@code getWrapped().abort(executor)}.</p>
+   * <p>This default implementation calls {@code getWrapped().setTypeMap(map)} then records the type map.</p>
+   *
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    getWrapped().setTypeMap(map);
+    this.typeMap = map;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setHoldability(holdability)} then records the
+   * holdability.</p>
+   *
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    getWrapped().setHoldability(holdability);
+    this.holdability = holdability;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setClientInfo(name, value)} then records the value.  When
+   * {@linkplain #isClientInfoCoalescing() coalescing}, the change is applied before the next statement execution
+   * instead.</p>
+   *
+   * @see  #isReconnecting()
+   * @see  #isClientInfoCoalescing()
+   */
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    if (clientInfoCoalescing) {
+      Map<String, String> pending = pendingClientInfo;
+      if (pending == null) {
+        pending = new LinkedHashMap<>();
+        pendingClientInfo = pending;
+      }
+      pending.put(name, value);
+    } else {
+      getWrapped().setClientInfo(name, value);
+      appliedClientInfoConnection = null;
+      Map<String, String> pending = pendingClientInfo;
+      if (pending != null) {
+        // Not overwritten by an earlier change still coalesced
+        pending.remove(name);
+      }
+    }
+    Properties myClientInfo = new Properties();
+    Properties oldClientInfo = clientInfo;
+    if (oldClientInfo != null) {
+      myClientInfo.putAll(oldClientInfo);
+    }
+    if (value == null) {
+      myClientInfo.remove(name);
+    } else {
+      myClientInfo.setProperty(name, value);
+    }
+    this.clientInfo = myClientInfo;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setClientInfo(properties)} then records the values.  When
+   * {@linkplain #isClientInfoCoalescing() coalescing}, any coalesced changes are discarded, and nothing is applied
+   * when the client info is unchanged.</p>
+   *
+   * @see  #isReconnecting()
+   * @see  #isClientInfoCoalescing()
+   */
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    Properties myClientInfo = new Properties();
+    if (properties != null) {
+      myClientInfo.putAll(properties);
+    }
+    Connection connection = getWrapped();
+    if (clientInfoCoalescing) {
+      pendingClientInfo = null;
+      if (appliedClientInfoConnection != connection || !myClientInfo.equals(appliedClientInfo)) {
+        appliedClientInfoConnection = null;
+        connection.setClientInfo(properties);
+        appliedClientInfo = myClientInfo;
+        appliedClientInfoConnection = connection;
+      }
+    } else {
+      connection.setClientInfo(properties);
+      appliedClientInfoConnection = null;
+    }
+    this.clientInfo = myClientInfo;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation applies any coalesced client info changes then calls
+   * {@code getWrapped().getClientInfo(name)}.</p>
+   *
+   * @see  #isClientInfoCoalescing()
+   */
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    flushClientInfo();
+    return getWrapped().getClientInfo(name);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation applies any coalesced client info changes then calls
+   * {@code getWrapped().getClientInfo()}.</p>
+   *
+   * @see  #isClientInfoCoalescing()
+   */
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    flushClientInfo();
+    return getWrapped().getClientInfo();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setSchema(schema)} then records the schema.</p>
+   *
+   * @see  #isQueryCoalescing()
+   * @see  #isReadWriteSplitting()
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setSchema(String schema) throws SQLException {
+    changeSession(conn -> conn.setSchema(schema));
+    this.schema = schema;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation discards any deferred updates then calls {@code getWrapped().abort(executor)}.  When
+   * pooled, the physical connection is aborted and removed from the pool.  Any connection to a replica is also
+   * aborted.</p>
+   *
+   * @see  #discardDeferredUpdates()
    */
   @Override
   public void abort(Executor executor) throws SQLException {
-    getWrapped().abort(executor);
+    try {
+      discardDeferredUpdates();
+    } finally {
+      onReplica = false;
+      ConnectionWrapperImpl myReplica = replica;
+      if (myReplica != null) {
+        replica = null;
+        myReplica.abort(executor);
+      }
+      ConnectionPool.Lease myLease = lease;
+      if (myLease == null) {
+        getWrapped().abort(executor);
+      } else {
+        myLease.abort(executor);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This default implementation calls {@code getWrapped().setNetworkTimeout(executor, milliseconds)} then records
+   * the timeout.</p>
+   *
+   * @see  #isReconnecting()
+   */
+  @Override
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    getWrapped().setNetworkTimeout(executor, milliseconds);
+    this.networkTimeoutExecutor = executor;
+    this.networkTimeout = milliseconds;
   }
 }
@@ -0,0 +1,157 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * The contention of one statement, as measured by {@link ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)}:
+ * the transactions that failed with a {@linkplain DriverWrapper#getTransactionRetrySQLStates() serialization failure or
+ * deadlock} on the statement, and whether they were retried.
+ *
+ * <p>Statements are identified by a fingerprint of their SQL, with literals replaced by {@code ?} and whitespace
+ * collapsed, so that statements differing only in literals are counted together.  A failure to commit is counted under
+ * {@code COMMIT}.</p>
+ *
+ * @see  DriverWrapper#getContention()
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Contention {
+
+  /**
+   * The fingerprint of failures not from an execution of a prepared statement of the wrapper.
+   */
+  static final String UNKNOWN = "?";
+
+  /**
+   * The fingerprint of failures to commit.
+   */
+  static final String COMMIT = "COMMIT";
+
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$])[-+]?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?(?![\\w$])");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  /**
+   * Gets the fingerprint of the given SQL.
+   */
+  static String fingerprint(String sql) {
+    if (sql == null) {
+      return UNKNOWN;
+    }
+    String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+    fingerprint = NUMERIC_LITERAL.matcher(fingerprint).replaceAll("?");
+    return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+  }
+
+  /**
+   * Gets the failure that a transaction may be retried after, searching the causes and chained exceptions.
+   *
+   * @return  The failure with one of the given SQL states, or {@code null} when not retryable
+   */
+  static SQLException getRetryableFailure(Throwable t, Set<String> sqlStates) {
+    for (int depth = 0; t != null && depth < 10; depth++) {
+      if (t instanceof SQLException) {
+        for (SQLException e = (SQLException) t; e != null; e = e.getNextException()) {
+          String sqlState = e.getSQLState();
+          if (sqlState != null && sqlStates.contains(sqlState)) {
+            return e;
+          }
+        }
+      }
+      t = t.getCause();
+    }
+    return null;
+  }
+
+  private final String fingerprint;
+  private final LongAdder retried = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+  private final LongAdder backoffNanos = new LongAdder();
+
+  Contention(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  @Override
+  public String toString() {
+    return Contention.class.getSimpleName() + "(" + fingerprint + ", retried=" + retried.sum() + ", exhausted="
+        + exhausted.sum() + ", backoff=" + getBackoffMillis() + " ms)";
+  }
+
+  /**
+   * Gets the fingerprint of the statement.
+   */
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Gets the number of transactions that failed on this statement.
+   */
+  public long getFailures() {
+    return retried.sum() + exhausted.sum();
+  }
+
+  /**
+   * Gets the number of transactions that were retried after failing on this statement.
+   */
+  public long getRetried() {
+    return retried.sum();
+  }
+
+  /**
+   * Gets the number of transactions that failed on this statement after exhausting their retries.
+   */
+  public long getExhausted() {
+    return exhausted.sum();
+  }
+
+  /**
+   * Gets the total time spent backing off before retrying transactions that failed on this statement.
+   */
+  public long getBackoffMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(backoffNanos.sum());
+  }
+
+  /**
+   * Records a failure that is retried after the given backoff.
+   */
+  void retried(long nanos) {
+    retried.increment();
+    backoffNanos.add(nanos);
+  }
+
+  /**
+   * Records a failure that is not retried.
+   */
+  void exhausted() {
+    exhausted.increment();
+  }
+}
@@ -295,7 +295,7 @@ public class DatabaseMetaDataWrapperImpl implements DatabaseMetaDataWrapper {
   @Override
   public ConnectionWrapperImpl getConnection() throws SQLException {
     ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
-    assert getWrapped().getConnection() == myConnectionWrapper.getWrapped();
+    assert myConnectionWrapper.isWrapping(getWrapped().getConnection());
     return myConnectionWrapper;
   }
 
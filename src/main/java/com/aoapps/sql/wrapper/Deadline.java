@@ -0,0 +1,170 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * An absolute deadline for the work of a request, propagated to every statement execution of the current thread.
+ *
+ * <p>While a deadline is {@linkplain #enter() entered}, each execution of a statement wrapper is limited to the time
+ * remaining until the deadline, enforced by the timer wheel of the driver the same as
+ * {@linkplain ConnectionWrapperImpl#isQueryTimeoutEnforced() wrapper-enforced query timeouts}.  When the deadline has
+ * already passed, the execution fails with a {@link java.sql.SQLTimeoutException} without a round trip to the
+ * database.  The deadline only shortens the timeout of an execution, never lengthens it.</p>
+ *
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(Duration.ofSeconds(2)).enter()) {
+ *   // Executions here fail once two seconds have passed
+ * }
+ * </pre>
+ *
+ * <p>The deadline is carried to {@linkplain StatementWrapperImpl#executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution) asynchronous executions}
+ * started within its scope.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Deadline {
+
+  private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+  /**
+   * The furthest a deadline may be from now, in either direction.
+   */
+  private static final long MAX_NANOS = Long.MAX_VALUE >> 2;
+
+  /**
+   * Gets the deadline of the current thread, or {@code null} when none.
+   */
+  static Deadline get() {
+    return current.get();
+  }
+
+  /**
+   * Gets the deadline of the current thread.
+   */
+  public static Optional<Deadline> current() {
+    return Optional.ofNullable(get());
+  }
+
+  /**
+   * Creates a deadline at the given instant of the system clock.
+   */
+  public static Deadline at(Instant instant) {
+    long nanos;
+    try {
+      nanos = Duration.between(Instant.now(), instant).toNanos();
+    } catch (ArithmeticException e) {
+      nanos = instant.isBefore(Instant.now()) ? -MAX_NANOS : MAX_NANOS;
+    }
+    return afterNanos(nanos);
+  }
+
+  /**
+   * Creates a deadline the given duration from now.
+   */
+  public static Deadline after(Duration duration) {
+    long nanos;
+    try {
+      nanos = duration.toNanos();
+    } catch (ArithmeticException e) {
+      nanos = duration.isNegative() ? -MAX_NANOS : MAX_NANOS;
+    }
+    return afterNanos(nanos);
+  }
+
+  private static Deadline afterNanos(long nanos) {
+    // Limited so that differences between System.nanoTime() values never overflow
+    return new Deadline(System.nanoTime() + Math.max(-MAX_NANOS, Math.min(MAX_NANOS, nanos)));
+  }
+
+  /**
+   * The deadline, in {@link System#nanoTime()}.
+   */
+  private final long nanoTime;
+
+  private Deadline(long nanoTime) {
+    this.nanoTime = nanoTime;
+  }
+
+  @Override
+  public String toString() {
+    return Deadline.class.getSimpleName() + "(remaining=" + getRemaining() + ")";
+  }
+
+  /**
+   * Gets the nanoseconds remaining until this deadline, which is zero or negative once passed.
+   */
+  public long getRemainingNanos() {
+    return nanoTime - System.nanoTime();
+  }
+
+  /**
+   * Gets the time remaining until this deadline, which is zero or negative once passed.
+   */
+  public Duration getRemaining() {
+    return Duration.ofNanos(getRemainingNanos());
+  }
+
+  /**
+   * Checks if this deadline has passed.
+   */
+  public boolean isExpired() {
+    return getRemainingNanos() <= 0;
+  }
+
+  /**
+   * Makes this the deadline of the current thread until the returned scope is closed.  When the current thread
+   * already has an earlier deadline, the earlier deadline remains in effect.
+   */
+  public Scope enter() {
+    Deadline previous = get();
+    Deadline effective = (previous != null && previous.nanoTime - nanoTime < 0) ? previous : this;
+    current.set(effective);
+    return new Scope(previous);
+  }
+
+  /**
+   * Restores the previous deadline of the thread when closed.  Must be closed by the thread that entered the deadline.
+   */
+  public static final class Scope implements AutoCloseable {
+
+    private final Deadline previous;
+
+    private Scope(Deadline previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        current.remove();
+      } else {
+        current.set(previous);
+      }
+    }
+  }
+}
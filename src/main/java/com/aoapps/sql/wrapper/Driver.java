@@ -27,6 +27,8 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ServiceLoader;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
@@ -46,6 +48,12 @@ public class Driver extends DriverWrapper {
     }
   }
 
+  /**
+   * Guards registration.  A lock is used instead of {@code synchronized} because deregistration writes any enqueued
+   * updates, which would otherwise pin the carrier of a virtual thread while blocked on the database.
+   */
+  private static final Lock REGISTRATION_LOCK = new ReentrantLock();
+
   private static Driver registered;
 
   /**
@@ -55,14 +63,20 @@ public class Driver extends DriverWrapper {
    *
    * @see  DriverManager#registerDriver(java.sql.Driver)
    */
-  public static synchronized boolean register() throws SQLException {
-    if (registered == null) {
-      Driver d = new Driver();
-      DriverManager.registerDriver(d, d::onDeregister);
-      registered = d;
-      return true;
-    } else {
-      return false;
+  public static boolean register() throws SQLException {
+    REGISTRATION_LOCK.lock();
+    try {
+      if (registered == null) {
+        Driver d = new Driver();
+        DriverManager.registerDriver(d, d::onDeregister);
+        registered = d;
+        clearResolvedDrivers();
+        return true;
+      } else {
+        return false;
+      }
+    } finally {
+      REGISTRATION_LOCK.unlock();
     }
   }
 
@@ -73,13 +87,19 @@ public class Driver extends DriverWrapper {
    *
    * @see  DriverManager#deregisterDriver(java.sql.Driver)
    */
-  public static synchronized boolean deregister() throws SQLException {
-    if (registered != null) {
-      DriverManager.deregisterDriver(registered);
-      registered = null;
-      return true;
-    } else {
-      return false;
+  public static boolean deregister() throws SQLException {
+    REGISTRATION_LOCK.lock();
+    try {
+      if (registered != null) {
+        DriverManager.deregisterDriver(registered);
+        registered = null;
+        clearResolvedDrivers();
+        return true;
+      } else {
+        return false;
+      }
+    } finally {
+      REGISTRATION_LOCK.unlock();
     }
   }
 
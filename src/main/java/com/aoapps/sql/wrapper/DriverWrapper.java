@@ -1,6 +1,6 @@
 /*
  * ao-sql-wrapper - JDBC API wrapper.
- * Copyright (C) 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,24 @@ import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -42,6 +59,140 @@ public abstract class DriverWrapper implements Driver {
 
   private static final String JDBC_SCHEMA = "jdbc:";
 
+  /**
+   * A wrapped URL beginning with this prefix, after the prefix of this driver, obtains pooled connections.  For
+   * example, "jdbc:<var>prefix</var>:pool:postgresql://<var>host</var>/<var>database</var>"
+   *
+   * @see  #isPooling()
+   */
+  private static final String POOL_URL_PREFIX = JDBC_SCHEMA + "pool:";
+
+  /**
+   * The time a resolved wrapped driver is used before being resolved again, so that drivers registered or deregistered
+   * outside of {@link #clearResolvedDrivers()} are eventually seen.
+   */
+  private static final long RESOLVED_DRIVER_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * Incremented on each {@linkplain #clearResolvedDrivers() change in driver registrations}, discarding the wrapped
+   * drivers resolved before.
+   */
+  private static final AtomicInteger registrations = new AtomicInteger();
+
+  /**
+   * A wrapped driver resolved from {@link DriverManager}.
+   */
+  private static final class ResolvedDriver {
+
+    private final Driver driver;
+    private final int registration;
+    private final long resolvedNanos;
+
+    private ResolvedDriver(Driver driver, int registration) {
+      this.driver = driver;
+      this.registration = registration;
+      this.resolvedNanos = System.nanoTime();
+    }
+
+    private boolean isCurrent() {
+      return registration == registrations.get() && (System.nanoTime() - resolvedNanos) < RESOLVED_DRIVER_NANOS;
+    }
+  }
+
+  /**
+   * The resolved wrapped drivers, by the prefix of the wrapped URL through its sub-protocol, such as "jdbc:postgresql:".
+   */
+  private final ConcurrentMap<String, ResolvedDriver> resolvedDrivers = new ConcurrentHashMap<>();
+
+  /**
+   * The write-behind queues, by URL and connection properties.
+   */
+  private final ConcurrentMap<Map.Entry<String, Properties>, WriteBehindQueue> writeBehindQueues = new ConcurrentHashMap<>();
+
+  /**
+   * Limits the number of concurrent asynchronous executions, created when first needed.
+   *
+   * @see  #getAsyncConcurrency()
+   */
+  private volatile AsyncLimiter asyncLimiter;
+
+  /**
+   * The pool that runs blocking driver calls of virtual threads, created when first needed.
+   *
+   * @see  #getBlockingOffloadThreads()
+   */
+  private volatile BlockingOffload blockingOffload;
+
+  /**
+   * The timer wheel enforcing query timeouts, created when first needed.
+   *
+   * @see  #isQueryTimeoutEnforced()
+   */
+  private volatile TimeoutWheel timeoutWheel;
+
+  /**
+   * Coalesces identical concurrent queries, created when first needed.
+   *
+   * @see  #isQueryCoalescing()
+   */
+  private volatile QueryCoalescer queryCoalescer;
+
+  /**
+   * Hedges slow read-only queries, created when first needed.
+   *
+   * @see  #isHedgedReads()
+   */
+  private volatile HedgedReads hedgedReads;
+
+  /**
+   * Routes read-only work to replicas, created when first needed.
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  private volatile ReadWriteSplitting readWriteSplitting;
+
+  /**
+   * Chooses among equivalent backends, created when first needed.
+   *
+   * @see  #isLoadBalancing()
+   */
+  private volatile LoadBalancer loadBalancer;
+
+  /**
+   * The admission control of each backend, by URL.
+   *
+   * @see  #isAdmissionControl()
+   */
+  private final ConcurrentMap<String, AdmissionControl> admissionControls = new ConcurrentHashMap<>();
+
+  /**
+   * The connection pools, by wrapped URL and properties.
+   *
+   * @see  #isPooling()
+   */
+  private final ConcurrentMap<Map.Entry<String, Properties>, ConnectionPool> connectionPools = new ConcurrentHashMap<>();
+
+  /**
+   * The SQL prepared by connections of this driver, by URL.
+   *
+   * @see  #isHotSqlRecording()
+   */
+  private final WarmUp.Recorder hotSql = new WarmUp.Recorder();
+
+  /**
+   * The contention of statements, by fingerprint.
+   *
+   * @see  ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)
+   */
+  private final ConcurrentMap<String, Contention> contention = new ConcurrentHashMap<>();
+
+  /**
+   * The buffers of buffered streams, created when first needed.
+   *
+   * @see  #isBufferedStreams()
+   */
+  private volatile StreamBufferPool streamBufferPool;
+
   protected DriverWrapper() {
     // Do nothing
   }
@@ -170,59 +321,1257 @@ public abstract class DriverWrapper implements Driver {
     return getMinorVersion();
   }
 
-  @Override
-  public ConnectionWrapperImpl connect(String url, Properties info) throws SQLException {
-    String wrappedUrl = toWrappedUrl(url);
-    if (wrappedUrl != null) {
+  /**
+   * Gets the default maximum number of updates deferred into a single batch for new connections, or {@code 0} to
+   * disable automatic statement batching by default.
+   *
+   * <p>This default implementation returns {@code 0}.</p>
+   *
+   * @see  ConnectionWrapperImpl#getDeferredUpdateBatchSize()
+   */
+  protected int getDeferredUpdateBatchSize() {
+    return 0;
+  }
+
+  /**
+   * Enables optimistic update counts for deferred updates by default for new connections.  Updates are only deferred
+   * while optimistic update counts are enabled.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isOptimisticUpdateCount()
+   */
+  protected boolean isOptimisticUpdateCount() {
+    return false;
+  }
+
+  /**
+   * Gets the default maximum number of rows per rewritten multi-row insert for new connections, or {@code 0} to
+   * disable multi-row insert rewriting by default.
+   *
+   * <p>This default implementation returns {@code 0}.</p>
+   *
+   * @see  ConnectionWrapperImpl#getMultiRowInsertSize()
+   */
+  protected int getMultiRowInsertSize() {
+    return 0;
+  }
+
+  /**
+   * Gets the default target time, in milliseconds, for each round trip of a chunked batch for new connections, or
+   * {@code 0} to disable adaptive batch chunking by default.
+   *
+   * <p>This default implementation returns {@code 0}.</p>
+   *
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  protected long getBatchChunkTargetMillis() {
+    return 0;
+  }
+
+  /**
+   * Gets whether batch failure isolation is enabled by default for new connections.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBatchFailureIsolation()
+   */
+  protected boolean isBatchFailureIsolation() {
+    return false;
+  }
+
+  /**
+   * The default maximum number of parameters in a single statement.  This is conservative, below the limits of
+   * commonly used databases.
+   */
+  static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+  /**
+   * Gets the maximum number of parameters allowed in a single statement, used to limit the size of rewritten
+   * statements.
+   *
+   * <p>This default implementation returns {@code 2000}, which is below the limits of commonly used databases.</p>
+   *
+   * @see  ConnectionWrapperImpl#getMaxParameters()
+   */
+  protected int getMaxParameters() {
+    return DEFAULT_MAX_PARAMETERS;
+  }
+
+  /**
+   * Gets the maximum number of updates held by each write-behind queue before enqueuing blocks.
+   *
+   * <p>This default implementation returns {@code 10000}.</p>
+   *
+   * @see  WriteBehindQueue
+   */
+  protected int getWriteBehindCapacity() {
+    return 10000;
+  }
+
+  /**
+   * Gets the maximum number of updates written by a write-behind queue in a single transaction.
+   *
+   * <p>This default implementation returns {@code 1000}.</p>
+   *
+   * @see  WriteBehindQueue
+   */
+  protected int getWriteBehindBatchSize() {
+    return 1000;
+  }
+
+  /**
+   * Creates a new {@link WriteBehindQueue}.
+   *
+   * @see  DriverWrapper#getWriteBehindQueue(java.lang.String, java.util.Properties)
+   */
+  protected WriteBehindQueue newWriteBehindQueue(String url, Properties info) {
+    return new WriteBehindQueue(this, url, info);
+  }
+
+  /**
+   * Gets the write-behind queue for the given URL and connection properties, creating it when first needed.  The
+   * queue writes over its own connection, obtained from this driver with the same URL and properties.
+   *
+   * @see  DriverWrapper#newWriteBehindQueue(java.lang.String, java.util.Properties)
+   * @see  ConnectionWrapperImpl#enqueueUpdate(java.lang.String, java.lang.Object...)
+   */
+  protected WriteBehindQueue getWriteBehindQueue(String url, Properties info) {
+    Properties key = new Properties();
+    if (info != null) {
+      key.putAll(info);
+    }
+    return writeBehindQueues.computeIfAbsent(
+        new AbstractMap.SimpleImmutableEntry<>(url, key),
+        entry -> newWriteBehindQueue(entry.getKey(), entry.getValue())
+    );
+  }
+
+  /**
+   * Closes all write-behind queues, waiting for their enqueued updates to be written.  The closed queues are retained,
+   * so any further updates are rejected instead of starting new queues.
+   *
+   * @see  WriteBehindQueue#close()
+   */
+  protected void closeWriteBehindQueues() throws SQLException {
+    SQLException error = null;
+    for (WriteBehindQueue queue : writeBehindQueues.values()) {
       try {
-        return wrapConnection(DriverManager.getDriver(wrappedUrl).connect(url, info));
+        queue.close();
       } catch (SQLException e) {
-        // DriverManager.getDriver(String) throws exception when no match found
-        // fall-through to return null
+        if (error == null) {
+          error = e;
+        } else {
+          error.addSuppressed(e);
+        }
       }
     }
-    return null;
+    if (error != null) {
+      throw error;
+    }
   }
 
-  @Override
-  public boolean acceptsURL(String url) throws SQLException {
-    return toWrappedUrl(url) != null;
+  /**
+   * Called by the writer thread when a write-behind update fails and no failure handler was provided, or the failure
+   * handler failed.
+   *
+   * <p>This default implementation logs a warning to the {@linkplain #getParentLogger() parent logger}.</p>
+   *
+   * @see  ConnectionWrapperImpl#enqueueUpdate(java.lang.String, java.lang.Object...)
+   */
+  protected void onWriteBehindFailure(String sql, Object[] parameters, SQLException e) {
+    getLogger().log(Level.WARNING, e, () -> "Write-behind update failed: " + sql + " " + Arrays.toString(parameters));
   }
 
-  @Override
-  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
-    return new DriverPropertyInfo[0];
+  /**
+   * Gets the {@linkplain #getParentLogger() parent logger}, or a logger for this class when not supported.
+   */
+  private Logger getLogger() {
+    try {
+      return getParentLogger();
+    } catch (SQLFeatureNotSupportedException e) {
+      return Logger.getLogger(DriverWrapper.class.getName());
+    }
   }
 
   /**
-   * Gets the full version string, which may be used for
-   * {@linkplain DatabaseMetaDataWrapper#getDriverVersion() the driver version meta data associated with connections}.
+   * Gets whether the batches of statements that return generated keys are executed row by row by default for new
+   * connections, when the driver does not return every generated key of a batch.
    *
-   * @see  DriverWrapper#getDriverVersion(java.lang.String)
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBatchGeneratedKeysRowByRow()
    */
-  protected abstract String getVersion();
+  protected boolean isBatchGeneratedKeysRowByRow() {
+    return false;
+  }
 
-  @Override
-  public abstract int getMajorVersion();
+  /**
+   * The database products whose drivers are known to return the generated keys of every row of a batch.
+   */
+  private static final Set<String> BATCH_GENERATED_KEYS_PRODUCTS = Set.of("H2", "MariaDB", "MySQL", "PostgreSQL");
 
-  @Override
-  public abstract int getMinorVersion();
+  /**
+   * The default implementation of {@link #isBatchGeneratedKeysSupported(java.lang.String)}, also used by connections
+   * not obtained from a driver wrapper.
+   */
+  static boolean isDefaultBatchGeneratedKeysSupported(String databaseProductName) {
+    return databaseProductName != null && BATCH_GENERATED_KEYS_PRODUCTS.contains(databaseProductName);
+  }
 
-  @Override
-  public boolean jdbcCompliant() {
+  /**
+   * Checks if the driver for the given database product returns the generated keys of every row from
+   * {@link java.sql.Statement#getGeneratedKeys()} after {@link java.sql.Statement#executeBatch()}.
+   *
+   * <p>This default implementation returns {@code true} for H2, MariaDB, MySQL, and PostgreSQL.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBatchGeneratedKeysSupported()
+   */
+  protected boolean isBatchGeneratedKeysSupported(String databaseProductName) {
+    return isDefaultBatchGeneratedKeysSupported(databaseProductName);
+  }
+
+  /**
+   * The default maximum number of concurrent asynchronous executions.
+   */
+  static final int DEFAULT_ASYNC_CONCURRENCY = 64;
+
+  /**
+   * The maximum number of threads of the default asynchronous executor before Java 21.
+   */
+  static final int MAX_ASYNC_THREADS = 256;
+
+  /**
+   * The default executor and concurrency limit for asynchronous executions, created when first needed.
+   */
+  static final class AsyncDefaults {
+
+    private AsyncDefaults() {
+      // Do nothing
+    }
+
+    /**
+     * Runs each execution in a new virtual thread on Java 21+, otherwise in a pool of at most
+     * {@link #MAX_ASYNC_THREADS} daemon threads, which rejects executions beyond its threads.
+     */
+    static final ExecutorService EXECUTOR = newExecutor();
+
+    /**
+     * The concurrency limit shared by connections not obtained from a driver wrapper.
+     */
+    static final AsyncLimiter LIMITER = new AsyncLimiter(DEFAULT_ASYNC_CONCURRENCY);
+
+    private static ExecutorService newExecutor() {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        AtomicInteger threadNum = new AtomicInteger();
+        return new ThreadPoolExecutor(0, MAX_ASYNC_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+          Thread thread = new Thread(r, DriverWrapper.class.getSimpleName() + "-async-" + threadNum.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+    }
+  }
+
+  /**
+   * Gets the executor that runs the blocking driver calls of asynchronous executions.
+   *
+   * <p>This default implementation runs each execution in a new virtual thread on Java 21+, otherwise in a shared
+   * pool of at most {@code 256} daemon threads, which rejects executions beyond its threads.</p>
+   *
+   * @see  StatementWrapperImpl#executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  protected Executor getAsyncExecutor() {
+    return AsyncDefaults.EXECUTOR;
+  }
+
+  /**
+   * Gets the maximum number of asynchronous executions running at once, across all connections of this driver.
+   * Further executions are queued, without holding a thread, until a running execution completes.
+   *
+   * <p>This default implementation returns {@code 64}.</p>
+   *
+   * @see  StatementWrapperImpl#executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  protected int getAsyncConcurrency() {
+    return DEFAULT_ASYNC_CONCURRENCY;
+  }
+
+  /**
+   * Gets the limiter of concurrent asynchronous executions.
+   *
+   * @see  #getAsyncConcurrency()
+   */
+  AsyncLimiter getAsyncLimiter() {
+    AsyncLimiter limiter = asyncLimiter;
+    if (limiter == null) {
+      synchronized (this) {
+        limiter = asyncLimiter;
+        if (limiter == null) {
+          limiter = new AsyncLimiter(Math.max(1, getAsyncConcurrency()));
+          asyncLimiter = limiter;
+        }
+      }
+    }
+    return limiter;
+  }
+
+  /**
+   * Enables running blocking driver calls of virtual threads on a {@linkplain #getBlockingOffload() bounded pool of
+   * platform threads}, so drivers that block inside {@code synchronized} blocks do not pin the carrier threads.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  protected boolean isBlockingOffload() {
     return false;
   }
 
-  @Override
-  public abstract Logger getParentLogger() throws SQLFeatureNotSupportedException;
+  /**
+   * The default maximum number of threads running offloaded blocking calls.
+   */
+  static final int DEFAULT_BLOCKING_OFFLOAD_THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
 
   /**
-   * Called on driver deregistration.
+   * The default pool for connections not obtained from a driver wrapper, created when first needed.
+   */
+  static final class OffloadDefaults {
+
+    private OffloadDefaults() {
+      // Do nothing
+    }
+
+    static final BlockingOffload BLOCKING_OFFLOAD = new BlockingOffload(
+        ConnectionWrapperImpl.class.getSimpleName(),
+        DEFAULT_BLOCKING_OFFLOAD_THREADS
+    );
+  }
+
+  /**
+   * Gets the maximum number of platform threads running offloaded blocking calls, across all connections of this
+   * driver.  Further calls wait for a running call to complete.
    *
-   * @see  DriverAction
+   * <p>This default implementation returns four times the number of available processors, with a minimum of
+   * {@code 16}.</p>
+   *
+   * @see  #isBlockingOffload()
    */
-  @SuppressWarnings("NoopMethodInAbstractClass")
-  protected void onDeregister() {
-    // Nothing to do
+  protected int getBlockingOffloadThreads() {
+    return DEFAULT_BLOCKING_OFFLOAD_THREADS;
+  }
+
+  /**
+   * Gets the pool that runs blocking driver calls of virtual threads, shared by all connections of this driver.
+   * The pool also provides metrics on the offloaded calls.
+   *
+   * @see  #isBlockingOffload()
+   * @see  #getBlockingOffloadThreads()
+   */
+  public BlockingOffload getBlockingOffload() {
+    BlockingOffload offload = blockingOffload;
+    if (offload == null) {
+      synchronized (this) {
+        offload = blockingOffload;
+        if (offload == null) {
+          offload = new BlockingOffload(getClass().getSimpleName(), getBlockingOffloadThreads());
+          blockingOffload = offload;
+        }
+      }
+    }
+    return offload;
+  }
+
+  /**
+   * Enables enforcing {@linkplain java.sql.Statement#setQueryTimeout(int) query timeouts} in the wrapper instead of
+   * the driver.  The timeouts of all connections of this driver share a single timer wheel and thread, instead of any
+   * thread or timer per statement of the driver, and are enforced even by drivers that ignore query timeouts.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isQueryTimeoutEnforced()
+   */
+  protected boolean isQueryTimeoutEnforced() {
+    return false;
+  }
+
+  /**
+   * The default time to wait after cancelling a timed-out statement before aborting its connection.
+   */
+  static final long DEFAULT_QUERY_TIMEOUT_ABORT_MILLIS = 30_000;
+
+  /**
+   * Gets the time to wait after cancelling a timed-out statement before escalating to
+   * {@linkplain Connection#abort(java.util.concurrent.Executor) aborting its connection}, for drivers that do not
+   * support cancel or when the database does not respond to the cancel.
+   *
+   * <p>This default implementation returns {@code 30000}.</p>
+   *
+   * @return  The milliseconds to wait, or {@code 0} to never abort the connection
+   *
+   * @see  #isQueryTimeoutEnforced()
+   */
+  protected long getQueryTimeoutAbortMillis() {
+    return DEFAULT_QUERY_TIMEOUT_ABORT_MILLIS;
+  }
+
+  /**
+   * The default timer wheel for connections not obtained from a driver wrapper, created when first needed.
+   */
+  static final class TimeoutDefaults {
+
+    private TimeoutDefaults() {
+      // Do nothing
+    }
+
+    static final TimeoutWheel TIMEOUT_WHEEL = new TimeoutWheel(ConnectionWrapperImpl.class.getSimpleName());
+  }
+
+  /**
+   * Gets the timer wheel enforcing the query timeouts of all connections of this driver.
+   *
+   * @see  #isQueryTimeoutEnforced()
+   */
+  TimeoutWheel getTimeoutWheel() {
+    TimeoutWheel wheel = timeoutWheel;
+    if (wheel == null) {
+      synchronized (this) {
+        wheel = timeoutWheel;
+        if (wheel == null) {
+          wheel = new TimeoutWheel(getClass().getSimpleName());
+          timeoutWheel = wheel;
+        }
+      }
+    }
+    return wheel;
+  }
+
+  /**
+   * Enables coalescing identical concurrent queries of {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent}
+   * statements.  When many threads execute the same query with the same parameters at the same time, such as after a
+   * cache miss, only one of them executes the query while the others wait for its rows.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isQueryCoalescing()
+   */
+  protected boolean isQueryCoalescing() {
+    return false;
+  }
+
+  /**
+   * Gets the maximum number of rows of a coalesced query buffered in memory for the queries waiting for it.  When a
+   * query has more rows, the waiting queries execute it themselves instead.  Rows are only buffered when identical
+   * queries are waiting.
+   *
+   * <p>This default implementation returns {@code 10000}.</p>
+   *
+   * @see  #isQueryCoalescing()
+   */
+  protected int getQueryCoalescingMaxRows() {
+    return 10000;
+  }
+
+  /**
+   * Gets the coalescer shared by all connections of this driver.
+   *
+   * @see  #isQueryCoalescing()
+   */
+  QueryCoalescer getQueryCoalescer() {
+    QueryCoalescer coalescer = queryCoalescer;
+    if (coalescer == null) {
+      synchronized (this) {
+        coalescer = queryCoalescer;
+        if (coalescer == null) {
+          coalescer = new QueryCoalescer(getQueryCoalescingMaxRows());
+          queryCoalescer = coalescer;
+        }
+      }
+    }
+    return coalescer;
+  }
+
+  /**
+   * Enables hedging slow queries of {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent} statements:
+   * when a query has not completed within the 95th percentile of its latency, it is executed again on another backend,
+   * given by {@link #getHedgeUrls(java.lang.String)}, and whichever execution completes first is used.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isHedgedReads()
+   */
+  protected boolean isHedgedReads() {
+    return false;
+  }
+
+  /**
+   * Gets the URLs of the other backends that hedged queries of connections obtained with the given URL may be executed
+   * on, such as replicas.  Each URL must be accepted by this driver.  Hedges are spread over the URLs in turn.
+   *
+   * <p>This default implementation returns an empty list, which disables hedging.</p>
+   *
+   * @param  url  The URL the connection was obtained with
+   *
+   * @see  #isHedgedReads()
+   */
+  protected List<String> getHedgeUrls(String url) {
+    return List.of();
+  }
+
+  /**
+   * Gets the percentage of hedged queries that may be executed a second time.  This bounds the extra load of hedging,
+   * even when every backend is slow.
+   *
+   * <p>This default implementation returns {@code 5}.</p>
+   *
+   * @see  #isHedgedReads()
+   */
+  protected int getHedgeBudgetPercent() {
+    return 5;
+  }
+
+  /**
+   * Gets the maximum number of rows of a hedge buffered in memory.  A hedge with more rows gives up, leaving the query
+   * to its first execution.
+   *
+   * <p>This default implementation returns {@code 10000}.</p>
+   *
+   * @see  #isHedgedReads()
+   */
+  protected int getHedgedReadsMaxRows() {
+    return 10000;
+  }
+
+  /**
+   * Gets the hedging of queries shared by all connections of this driver.
+   *
+   * @see  #isHedgedReads()
+   */
+  HedgedReads getHedgedReads() {
+    HedgedReads hedged = hedgedReads;
+    if (hedged == null) {
+      synchronized (this) {
+        hedged = hedgedReads;
+        if (hedged == null) {
+          hedged = new HedgedReads(this);
+          hedgedReads = hedged;
+        }
+      }
+    }
+    return hedged;
+  }
+
+  /**
+   * Enables admission control, which limits the statement executions in flight to each backend and queues the rest in
+   * the application.  The limit adapts to the latency of the executions.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isAdmissionControl()
+   * @see  AdmissionControl
+   */
+  protected boolean isAdmissionControl() {
+    return false;
+  }
+
+  /**
+   * Gets the initial limit of statement executions in flight to each backend, before adapting to latency.
+   *
+   * <p>This default implementation returns {@code 16}.</p>
+   *
+   * @see  #isAdmissionControl()
+   */
+  protected int getAdmissionInitialLimit() {
+    return 16;
+  }
+
+  /**
+   * Gets the maximum limit of statement executions in flight to each backend.
+   *
+   * <p>This default implementation returns {@code 256}.</p>
+   *
+   * @see  #isAdmissionControl()
+   */
+  protected int getAdmissionMaxLimit() {
+    return 256;
+  }
+
+  /**
+   * Gets the maximum number of statement executions in flight of the given query class, to each backend.
+   *
+   * <p>This default implementation returns {@link Integer#MAX_VALUE}, limiting query classes only by the limit of the
+   * backend.</p>
+   *
+   * @see  StatementWrapperImpl#getQueryClass()
+   */
+  protected int getAdmissionClassLimit(String queryClass) {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Gets the maximum number of statement executions waiting to be admitted to each backend, after which executions
+   * are rejected immediately.
+   *
+   * <p>This default implementation returns {@code 1000}.</p>
+   *
+   * @see  #isAdmissionControl()
+   */
+  protected int getAdmissionMaxQueued() {
+    return 1000;
+  }
+
+  /**
+   * Gets the maximum time a statement execution waits to be admitted.
+   *
+   * <p>This default implementation returns {@code 1000}.</p>
+   *
+   * @see  #isAdmissionControl()
+   */
+  protected long getAdmissionQueueTimeoutMillis() {
+    return 1000;
+  }
+
+  /**
+   * Gets the admission control of the backend of the given URL, creating it when first needed.
+   *
+   * @see  #isAdmissionControl()
+   */
+  public AdmissionControl getAdmissionControl(String url) {
+    return admissionControls.computeIfAbsent(url, u -> new AdmissionControl(this, u));
+  }
+
+  /**
+   * Enables pooling: closing a connection obtained from this driver returns its physical connection to a
+   * {@link ConnectionPool} for reuse, instead of closing it.  Connections are pooled by wrapped URL and properties.
+   *
+   * <p>Pooling is also enabled for any URL with "pool:" following the prefix of this driver, such as
+   * "jdbc:<var>prefix</var>:pool:postgresql://<var>host</var>/<var>database</var>", which gives pooling to code that
+   * calls {@link DriverManager#getConnection(java.lang.String)} directly.</p>
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#getConnectionPool()
+   */
+  protected boolean isPooling() {
+    return false;
+  }
+
+  /**
+   * Gets the maximum number of physical connections of each pool.
+   *
+   * <p>This default implementation returns {@code 10}.</p>
+   *
+   * @see  #isPooling()
+   */
+  protected int getPoolMaxSize() {
+    return 10;
+  }
+
+  /**
+   * Gets the maximum time to wait for a pooled connection when every connection is in use.
+   *
+   * <p>This default implementation returns {@code 30000}.</p>
+   *
+   * @see  #isPooling()
+   */
+  protected long getPoolConnectionTimeoutMillis() {
+    return 30_000;
+  }
+
+  /**
+   * Gets the time after which an idle pooled connection is closed.
+   *
+   * <p>This default implementation returns {@code 600000}.</p>
+   *
+   * @return  The milliseconds or {@code 0} to keep idle connections indefinitely
+   *
+   * @see  #isPooling()
+   */
+  protected long getPoolIdleTimeoutMillis() {
+    return 600_000;
+  }
+
+  /**
+   * Gets the maximum lifetime of a pooled connection, after which it is closed once no longer in use.
+   *
+   * <p>This default implementation returns {@code 1800000}.</p>
+   *
+   * @return  The milliseconds or {@code 0} for no maximum lifetime
+   *
+   * @see  #isPooling()
+   */
+  protected long getPoolMaxLifetimeMillis() {
+    return 1_800_000;
+  }
+
+  /**
+   * Gets the connection pool for the given wrapped URL and connection properties, creating it when first needed.
+   *
+   * @see  #isPooling()
+   */
+  ConnectionPool getConnectionPool(String wrappedUrl, Properties info) {
+    Properties key = new Properties();
+    if (info != null) {
+      key.putAll(info);
+    }
+    return connectionPools.computeIfAbsent(
+        new AbstractMap.SimpleImmutableEntry<>(wrappedUrl, key),
+        entry -> new ConnectionPool(this, entry.getKey(), entry.getValue())
+    );
+  }
+
+  /**
+   * Enables read/write splitting: while a connection is {@linkplain Connection#setReadOnly(boolean) read-only}, its
+   * work is routed to a connection to one of the {@linkplain #getReplicaUrls(java.lang.String) replicas} instead.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isReadWriteSplitting()
+   */
+  protected boolean isReadWriteSplitting() {
+    return false;
+  }
+
+  /**
+   * Gets the URLs of the replicas that read-only work of connections obtained with the given URL may be routed to.
+   * Each URL must be accepted by this driver.  Connections are spread over the URLs in turn.
+   *
+   * <p>This default implementation returns an empty list, which disables read/write splitting.</p>
+   *
+   * @param  url  The URL the connection was obtained with, which is the primary
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  protected List<String> getReplicaUrls(String url) {
+    return List.of();
+  }
+
+  /**
+   * Enables routing queries to replicas in auto-commit mode, even while a connection is not read-only.  Only
+   * prepared statements of a single {@code SELECT} without a locking clause or {@code INTO} are routed, and only when
+   * not reading the recent writes of the current thread.  A query that writes, such as by calling a function with side
+   * effects, must not be prepared while enabled.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isReplicaQueries()
+   */
+  protected boolean isReplicaQueries() {
+    return false;
+  }
+
+  /**
+   * Gets the time after the current thread writes to a primary during which its read-only work stays on the primary,
+   * so that it reads its own writes despite replication lag.
+   *
+   * <p>This default implementation returns {@code 1000}.</p>
+   *
+   * @return  The milliseconds or {@code 0} to route read-only work to replicas immediately after writing
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  protected long getReadYourWritesMillis() {
+    return 1000;
+  }
+
+  /**
+   * Gets the read/write splitting shared by all connections of this driver.
+   *
+   * @see  #isReadWriteSplitting()
+   */
+  ReadWriteSplitting getReadWriteSplitting() {
+    ReadWriteSplitting splitting = readWriteSplitting;
+    if (splitting == null) {
+      synchronized (this) {
+        splitting = readWriteSplitting;
+        if (splitting == null) {
+          splitting = new ReadWriteSplitting(this);
+          readWriteSplitting = splitting;
+        }
+      }
+    }
+    return splitting;
+  }
+
+  /**
+   * Enables latency-aware load balancing: a connection to one of several equivalent backends, such as the
+   * {@linkplain #getReplicaUrls(java.lang.String) replicas} or {@linkplain #getHedgeUrls(java.lang.String) hedge URLs},
+   * is made to the faster, less busy of two backends chosen at random, as measured by this driver.  Backends that fail
+   * repeatedly are ejected until they pass a probe.  Otherwise, the backends are used in turn.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  LoadBalancer
+   */
+  protected boolean isLoadBalancing() {
+    return false;
+  }
+
+  /**
+   * Gets the load balancing shared by all connections of this driver.
+   *
+   * @see  #isLoadBalancing()
+   */
+  LoadBalancer getLoadBalancer() {
+    LoadBalancer balancer = loadBalancer;
+    if (balancer == null) {
+      synchronized (this) {
+        balancer = loadBalancer;
+        if (balancer == null) {
+          balancer = new LoadBalancer(this);
+          loadBalancer = balancer;
+        }
+      }
+    }
+    return balancer;
+  }
+
+  /**
+   * Enables recording the SQL of the statements prepared by connections of this driver, by URL, so that the hottest
+   * statements are prepared by the next {@linkplain #warmUp(java.lang.String, java.util.Properties) warm-up}.  At most
+   * 1000 distinct statements are recorded for each URL.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  #getHotSql(java.lang.String, int)
+   */
+  protected boolean isHotSqlRecording() {
+    return false;
+  }
+
+  /**
+   * Records the SQL of a statement prepared by a connection obtained with the given URL.
+   *
+   * @see  #isHotSqlRecording()
+   */
+  void recordHotSql(String url, String sql) {
+    hotSql.record(url, sql);
+  }
+
+  /**
+   * Gets the SQL most often prepared by connections obtained with the given URL, most often first, such as for
+   * persisting between runs of the application and preparing on startup.
+   *
+   * @return  The SQL or an empty list when none recorded
+   *
+   * @see  #isHotSqlRecording()
+   */
+  public List<String> getHotSql(String url, int limit) {
+    return hotSql.getHotSql(url, limit);
+  }
+
+  /**
+   * Gets the number of connections opened by a {@linkplain #warmUp(java.lang.String, java.util.Properties) warm-up}
+   * of the given URL.
+   *
+   * <p>This default implementation returns the {@linkplain #getPoolMaxSize() maximum size of the pool} when pooled,
+   * otherwise {@code 1}.</p>
+   */
+  protected int getWarmUpConnections(String url) {
+    String wrappedUrl = toWrappedUrl(url);
+    return (isPooling() || (wrappedUrl != null && wrappedUrl.startsWith(POOL_URL_PREFIX))) ? getPoolMaxSize() : 1;
+  }
+
+  /**
+   * Gets the SQL prepared on each connection by a {@linkplain #warmUp(java.lang.String, java.util.Properties) warm-up}
+   * of the given URL, feeding any statement cache of the wrapped driver.
+   *
+   * <p>This default implementation returns the 100 statements {@linkplain #getHotSql(java.lang.String, int) most often
+   * prepared} so far.</p>
+   */
+  protected List<String> getWarmUpSql(String url) {
+    return getHotSql(url, 100);
+  }
+
+  /**
+   * Gets the time allowed for a {@linkplain #warmUp(java.lang.String, java.util.Properties) warm-up}, after which it
+   * returns and any work still in progress is stopped.
+   *
+   * <p>This default implementation returns {@code 10000}.</p>
+   */
+  protected long getWarmUpMillis() {
+    return 10_000;
+  }
+
+  /**
+   * Gets the number of times a {@linkplain #warmUp(java.lang.String, java.util.Properties) warm-up} exercises the hot
+   * paths of the wrapper against a stub connection, so that they are compiled before the first real statement.
+   *
+   * <p>This default implementation returns {@code 10000}.</p>
+   *
+   * @return  The number of iterations or {@code 0} to not exercise the wrapper
+   */
+  protected long getWarmUpIterations() {
+    return 10_000;
+  }
+
+  /**
+   * Warms up this driver for the given URL before traffic arrives, such as on application startup: opens connections,
+   * prepares the hot SQL on each, and exercises the hot paths of the wrapper, in parallel within a
+   * {@linkplain #getWarmUpMillis() time limit}.
+   *
+   * @return  The outcome, incomplete when the time limit was reached
+   *
+   * @throws  SQLException  when no connection could be opened
+   *
+   * @see  WarmUp
+   */
+  public WarmUp warmUp(String url, Properties info) throws SQLException {
+    return WarmUp.warmUp(this, url, info);
+  }
+
+  /**
+   * Enables transparent reconnects: when the physical connection of a connection obtained from this driver is lost
+   * outside of a transaction, a new physical connection is opened and the session state set through the wrapper is
+   * replayed onto it.  Queries of statements flagged {@linkplain PreparedStatementWrapperImpl#isIdempotent() idempotent}
+   * are retried on the new connection.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  protected boolean isReconnecting() {
+    return false;
+  }
+
+  /**
+   * Enables client info coalescing: changes by {@link Connection#setClientInfo(java.lang.String, java.lang.String)}
+   * are kept by the wrapper and applied to the wrapped connection with a single call before the next statement
+   * execution, skipping the call when nothing has changed.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isClientInfoCoalescing()
+   */
+  protected boolean isClientInfoCoalescing() {
+    return false;
+  }
+
+  /**
+   * Enables buffering of the streams and readers of large objects read from connections of this driver, and of the
+   * streams and writers that set them.  Single byte or character reads and small writes, such as by a parser reading a
+   * {@link java.sql.Clob} one character at a time, are then served by a buffer instead of each being forwarded to the
+   * driver.  The buffers are taken from a pool shared by all connections of this driver and are returned to the pool
+   * when the stream is closed.
+   *
+   * <p>Buffered input streams and readers do not support {@linkplain java.io.InputStream#mark(int) mark}.  Buffered
+   * writes reach the driver when the buffer is full, or when the stream or writer is flushed or closed.</p>
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBufferedStreams()
+   * @see  #getStreamBufferSize()
+   * @see  #getStreamBufferPoolSize()
+   */
+  protected boolean isBufferedStreams() {
+    return false;
+  }
+
+  /**
+   * Gets the size of the buffers of buffered streams, in bytes for streams and characters for readers and writers.
+   * Reads and writes of at least this length bypass the buffer.
+   *
+   * <p>This default implementation returns {@code 8192}.</p>
+   *
+   * @see  #isBufferedStreams()
+   */
+  protected int getStreamBufferSize() {
+    return 8192;
+  }
+
+  /**
+   * Gets the maximum number of idle buffers of each kind kept for buffered streams.  When more streams are open at
+   * once, the additional buffers are allocated as needed and discarded on close.
+   *
+   * <p>This default implementation returns {@code 64}.</p>
+   *
+   * @see  #isBufferedStreams()
+   */
+  protected int getStreamBufferPoolSize() {
+    return 64;
+  }
+
+  /**
+   * Gets the buffers shared by all buffered streams of this driver.
+   *
+   * @see  #isBufferedStreams()
+   */
+  StreamBufferPool getStreamBufferPool() {
+    StreamBufferPool pool = streamBufferPool;
+    if (pool == null) {
+      synchronized (this) {
+        pool = streamBufferPool;
+        if (pool == null) {
+          pool = new StreamBufferPool(getStreamBufferSize(), getStreamBufferPoolSize());
+          streamBufferPool = pool;
+        }
+      }
+    }
+    return pool;
+  }
+
+  /**
+   * The default SQL states of the failures that transactions are retried after: serialization failure and deadlock.
+   */
+  static final Set<String> DEFAULT_TRANSACTION_RETRY_SQL_STATES = Set.of("40001", "40P01");
+
+  /**
+   * Gets the SQL states of the failures that
+   * {@linkplain ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork) transactions are retried after}.
+   *
+   * <p>This default implementation returns {@code 40001} (serialization failure) and {@code 40P01} (deadlock detected,
+   * PostgreSQL).</p>
+   */
+  protected Set<String> getTransactionRetrySQLStates() {
+    return DEFAULT_TRANSACTION_RETRY_SQL_STATES;
+  }
+
+  /**
+   * The default maximum number of attempts of a retried transaction.
+   */
+  static final int DEFAULT_TRANSACTION_RETRY_ATTEMPTS = 10;
+
+  /**
+   * Gets the maximum number of attempts of a
+   * {@linkplain ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork) retried transaction},
+   * including the first.
+   *
+   * <p>This default implementation returns {@code 10}.</p>
+   */
+  protected int getTransactionRetryAttempts() {
+    return DEFAULT_TRANSACTION_RETRY_ATTEMPTS;
+  }
+
+  /**
+   * The default backoff before the first retry of a transaction.
+   */
+  static final long DEFAULT_TRANSACTION_RETRY_BACKOFF_MILLIS = 10;
+
+  /**
+   * Gets the backoff before the first retry of a transaction, which doubles for each further retry up to the
+   * {@linkplain #getTransactionRetryMaxBackoffMillis() maximum}.  Each retry waits a random time up to its backoff, so
+   * that contending transactions do not retry in lockstep.
+   *
+   * <p>This default implementation returns {@code 10}.</p>
+   *
+   * @see  ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)
+   */
+  protected long getTransactionRetryBackoffMillis() {
+    return DEFAULT_TRANSACTION_RETRY_BACKOFF_MILLIS;
+  }
+
+  /**
+   * The default maximum backoff before retrying a transaction.
+   */
+  static final long DEFAULT_TRANSACTION_RETRY_MAX_BACKOFF_MILLIS = 1000;
+
+  /**
+   * Gets the maximum backoff before retrying a transaction.
+   *
+   * <p>This default implementation returns {@code 1000}.</p>
+   *
+   * @see  #getTransactionRetryBackoffMillis()
+   */
+  protected long getTransactionRetryMaxBackoffMillis() {
+    return DEFAULT_TRANSACTION_RETRY_MAX_BACKOFF_MILLIS;
+  }
+
+  /**
+   * The maximum number of statements measured for contention.
+   */
+  private static final int MAX_CONTENTION = 1000;
+
+  /**
+   * Gets the contention of the statement with the given SQL, created when first needed.  At most 1000 statements are
+   * measured, after which other statements are counted under {@code ?}.
+   *
+   * @see  #getContention()
+   */
+  Contention getContention(String sql) {
+    String fingerprint = Contention.fingerprint(sql);
+    Contention statement = contention.get(fingerprint);
+    if (statement == null) {
+      if (contention.size() >= MAX_CONTENTION) {
+        fingerprint = Contention.UNKNOWN;
+      }
+      statement = contention.computeIfAbsent(fingerprint, Contention::new);
+    }
+    return statement;
+  }
+
+  /**
+   * Gets the contention of the statements of transactions run by
+   * {@link ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)}, most
+   * failures first.
+   */
+  public List<Contention> getContention() {
+    List<Contention> statements = new ArrayList<>(contention.values());
+    statements.sort(Comparator.comparingLong(Contention::getFailures).reversed());
+    return statements;
+  }
+
+  /**
+   * Discards the wrapped drivers resolved by all driver wrappers, so that the next connection resolves its driver from
+   * {@link DriverManager} again.  This is called when the driver of this package is registered or deregistered, and
+   * may be called after registering or deregistering other drivers to see the change immediately.  Otherwise, changes
+   * are seen within a second.
+   *
+   * @see  com.aoapps.sql.wrapper.Driver#register()
+   * @see  com.aoapps.sql.wrapper.Driver#deregister()
+   */
+  public static void clearResolvedDrivers() {
+    registrations.incrementAndGet();
+  }
+
+  /**
+   * Gets the prefix of a wrapped URL through its sub-protocol, such as "jdbc:postgresql:", which is assumed to be
+   * accepted by the same driver as the URLs it was resolved for.
+   */
+  private static String getSubProtocolPrefix(String wrappedUrl) {
+    int colon = wrappedUrl.indexOf(':', JDBC_SCHEMA.length());
+    return (colon == -1) ? wrappedUrl : wrappedUrl.substring(0, colon + 1);
+  }
+
+  /**
+   * Checks if a driver accepts a URL, treating a failure the same as not accepting the URL, like
+   * {@link DriverManager#getDriver(java.lang.String)}.
+   */
+  private static boolean accepts(Driver driver, String url) {
+    try {
+      return driver.acceptsURL(url);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the wrapped driver for the given wrapped URL.  The driver resolved from {@link DriverManager} is reused for
+   * other URLs with the same sub-protocol, while it accepts them, until
+   * {@linkplain #clearResolvedDrivers() driver registrations change}.  Unlike
+   * {@link DriverManager#getDriver(java.lang.String)}, no exception is thrown when no driver accepts the URL.
+   *
+   * @return  The driver or {@code null} when no driver accepts the URL
+   */
+  Driver getWrappedDriver(String wrappedUrl) {
+    String key = getSubProtocolPrefix(wrappedUrl);
+    ResolvedDriver resolved = resolvedDrivers.get(key);
+    if (resolved != null && resolved.isCurrent() && accepts(resolved.driver, wrappedUrl)) {
+      return resolved.driver;
+    }
+    int registration = registrations.get();
+    Driver driver = DriverManager.drivers()
+        .filter(d -> accepts(d, wrappedUrl))
+        .findFirst()
+        .orElse(null);
+    if (driver != null) {
+      resolvedDrivers.put(key, new ResolvedDriver(driver, registration));
+    } else {
+      resolvedDrivers.remove(key);
+    }
+    return driver;
+  }
+
+  /**
+   * Connects to the wrapped driver.
+   *
+   * @return  The physical connection or {@code null} when no wrapped driver accepts the URL
+   */
+  Connection connectWrapped(String wrappedUrl, Properties info) throws SQLException {
+    Driver driver = getWrappedDriver(wrappedUrl);
+    return (driver == null) ? null : driver.connect(wrappedUrl, info);
+  }
+
+  /**
+   * Connects a new physical connection for the given URL of this driver, without wrapping or pooling, such as to
+   * replace a lost connection.
+   *
+   * @throws  SQLException  when no wrapped driver accepts the URL
+   *
+   * @see  #isReconnecting()
+   */
+  Connection reconnectWrapped(String url, Properties info) throws SQLException {
+    String wrappedUrl = toWrappedUrl(url);
+    Connection connection = (wrappedUrl == null) ? null : connectWrapped(wrappedUrl, info);
+    if (connection == null) {
+      throw new SQLException("URL not accepted by wrapped driver: " + url);
+    }
+    return connection;
+  }
+
+  @Override
+  public ConnectionWrapperImpl connect(String url, Properties info) throws SQLException {
+    String wrappedUrl = toWrappedUrl(url);
+    if (wrappedUrl != null) {
+      ConnectionWrapperImpl connection;
+      if (wrappedUrl.startsWith(POOL_URL_PREFIX)) {
+        connection = getConnectionPool(JDBC_SCHEMA + wrappedUrl.substring(POOL_URL_PREFIX.length()), info).getConnection();
+      } else if (isPooling()) {
+        connection = getConnectionPool(wrappedUrl, info).getConnection();
+      } else {
+        connection = wrapConnection(connectWrapped(wrappedUrl, info));
+      }
+      if (connection != null) {
+        connection.setConnectInfo(url, info);
+      }
+      return connection;
+    }
+    return null;
+  }
+
+  @Override
+  public boolean acceptsURL(String url) throws SQLException {
+    return toWrappedUrl(url) != null;
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+    return new DriverPropertyInfo[0];
+  }
+
+  /**
+   * Gets the full version string, which may be used for
+   * {@linkplain DatabaseMetaDataWrapper#getDriverVersion() the driver version meta data associated with connections}.
+   *
+   * @see  DriverWrapper#getDriverVersion(java.lang.String)
+   */
+  protected abstract String getVersion();
+
+  @Override
+  public abstract int getMajorVersion();
+
+  @Override
+  public abstract int getMinorVersion();
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public abstract Logger getParentLogger() throws SQLFeatureNotSupportedException;
+
+  /**
+   * Called on driver deregistration.
+   *
+   * <p>This default implementation {@linkplain #closeWriteBehindQueues() closes all write-behind queues}, which writes
+   * their enqueued updates first, then closes the idle connections of hedged queries and connection pools.</p>
+   *
+   * @see  DriverAction
+   */
+  protected void onDeregister() {
+    try {
+      closeWriteBehindQueues();
+    } catch (SQLException e) {
+      getLogger().log(Level.WARNING, "Unable to close write-behind queues", e);
+    }
+    HedgedReads hedged = hedgedReads;
+    if (hedged != null) {
+      hedged.close();
+    }
+    for (ConnectionPool pool : connectionPools.values()) {
+      pool.close();
+    }
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Accumulates generated keys as primitive {@code long} values, without boxing each key.
+ *
+ * @see  StatementWrapperImpl#getGeneratedLongKeys()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class GeneratedKeys {
+
+  private long[] keys;
+  private int size;
+
+  GeneratedKeys(int initialCapacity) {
+    keys = new long[Math.max(1, initialCapacity)];
+  }
+
+  /**
+   * Reads the first column of all rows of the given generated keys, which are closed.
+   *
+   * @return  The number of keys read
+   */
+  int read(ResultSet results) throws SQLException {
+    int count = 0;
+    if (results != null) {
+      try (ResultSet r = results) {
+        while (r.next()) {
+          if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+          }
+          keys[size++] = r.getLong(1);
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of keys.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Discards the keys after the given number of keys, such as the keys of rows rolled back to a savepoint.
+   */
+  void truncate(int newSize) {
+    if (newSize < 0 || newSize > size) {
+      throw new IllegalArgumentException("newSize out of range: " + newSize);
+    }
+    size = newSize;
+  }
+
+  /**
+   * Gets a copy of the keys.
+   */
+  long[] toArray() {
+    return Arrays.copyOf(keys, size);
+  }
+
+  /**
+   * Gets the keys as a result set of a single {@code BIGINT} column, one row per key.
+   */
+  ResultSet toResultSet() {
+    RowBuffer rows = new RowBuffer(new RowBuffer.Columns("GENERATED_KEY", Types.BIGINT, "BIGINT", Long.class));
+    for (int i = 0; i < size; i++) {
+      rows.add((Object) keys[i]);
+    }
+    return new RowBufferResultSet(rows);
+  }
+}
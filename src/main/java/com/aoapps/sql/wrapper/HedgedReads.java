@@ -0,0 +1,429 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hedges slow read-only queries by executing them a second time on another backend, shared by all connections of a
+ * driver.
+ *
+ * <p>The latency of each query is tracked by its SQL.  Once enough latencies are known, a query that has not completed
+ * within the {@linkplain #PERCENTILE 95th percentile} of its latency is executed again over a connection to the next of
+ * the {@linkplain DriverWrapper#getHedgeUrls(java.lang.String) hedge URLs}, or to the one chosen by
+ * {@linkplain DriverWrapper#isLoadBalancing() load balancing}.  Whichever execution completes first is used, and the
+ * other is {@linkplain java.sql.Statement#cancel() cancelled}.  The rows of a hedge are read into a {@link RowBuffer}
+ * before it is considered complete.  A hedge with more than
+ * {@linkplain DriverWrapper#getHedgedReadsMaxRows() a maximum number of rows} gives up, leaving the query to the
+ * primary execution.</p>
+ *
+ * <p>Hedges are limited by a budget: each hedged query adds
+ * {@linkplain DriverWrapper#getHedgeBudgetPercent() a percentage} of a hedge to the budget, and each hedge spends a
+ * whole one.  This keeps the extra load bounded even when every backend is slow, such as under overload, when hedging
+ * could otherwise double the load.</p>
+ *
+ * <p>Hedges execute on {@linkplain ConnectionWrapperImpl#getAsyncExecutor() the asynchronous executor}, over
+ * connections kept idle between hedges.</p>
+ *
+ * @see  ConnectionWrapperImpl#isHedgedReads()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class HedgedReads {
+
+  private static final Logger logger = Logger.getLogger(HedgedReads.class.getName());
+
+  /**
+   * The percentile of latency after which a query is hedged.
+   */
+  static final double PERCENTILE = 95;
+
+  /**
+   * The number of latencies required before a query is hedged.
+   */
+  private static final int MIN_SAMPLES = 20;
+
+  /**
+   * The maximum number of distinct statements with their own latencies.  The latencies of any other statements are
+   * tracked together.
+   */
+  private static final int MAX_STATEMENTS = 1000;
+
+  /**
+   * The budget spent by each hedge.
+   */
+  private static final long HEDGE_COST = 100;
+
+  /**
+   * The maximum budget, limiting how many hedges may be made at once after a period without any.
+   */
+  private static final long MAX_BUDGET = HEDGE_COST * 10;
+
+  private static final int PENDING = 0;
+  private static final int HEDGING = 1;
+  private static final int PRIMARY_WON = 2;
+  private static final int HEDGE_WON = 3;
+  private static final int PRIMARY_FAILED = 4;
+
+  private final DriverWrapper driver;
+  private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+  private final LatencyHistogram otherLatencies = new LatencyHistogram();
+  private final AtomicLong budget = new AtomicLong();
+  private final AtomicInteger nextUrl = new AtomicInteger();
+  private final ConcurrentMap<Map.Entry<String, Properties>, Queue<ConnectionWrapperImpl>> idleConnections = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  HedgedReads(DriverWrapper driver) {
+    this.driver = driver;
+  }
+
+  private LatencyHistogram getLatencies(String sql) {
+    LatencyHistogram histogram = latencies.get(sql);
+    if (histogram == null) {
+      if (latencies.size() >= MAX_STATEMENTS) {
+        return otherLatencies;
+      }
+      histogram = latencies.computeIfAbsent(sql, s -> new LatencyHistogram());
+    }
+    return histogram;
+  }
+
+  private boolean tryAcquireBudget() {
+    long current;
+    do {
+      current = budget.get();
+      if (current < HEDGE_COST) {
+        return false;
+      }
+    } while (!budget.compareAndSet(current, current - HEDGE_COST));
+    return true;
+  }
+
+  private void addBudget(long amount) {
+    long current;
+    do {
+      current = budget.get();
+    } while (current < MAX_BUDGET && !budget.compareAndSet(current, Math.min(MAX_BUDGET, current + amount)));
+  }
+
+  /**
+   * Gets an idle connection to the given URL, or connects when none is idle.
+   */
+  private ConnectionWrapperImpl borrow(Map.Entry<String, Properties> key) throws SQLException {
+    Queue<ConnectionWrapperImpl> idle = idleConnections.get(key);
+    if (idle != null) {
+      ConnectionWrapperImpl conn = idle.poll();
+      if (conn != null) {
+        return conn;
+      }
+    }
+    ConnectionWrapperImpl conn;
+    try {
+      conn = driver.connect(key.getKey(), key.getValue());
+    } catch (SQLException e) {
+      if (driver.isLoadBalancing()) {
+        driver.getLoadBalancer().getBackend(key.getKey()).failed();
+      }
+      throw e;
+    }
+    if (conn == null) {
+      throw new SQLException("Hedge URL not accepted by " + driver + ": " + key.getKey());
+    }
+    conn.setReadOnly(true);
+    return conn;
+  }
+
+  /**
+   * Keeps a connection idle for the next hedge, or closes it.
+   */
+  private void release(Map.Entry<String, Properties> key, ConnectionWrapperImpl conn, boolean reusable) {
+    if (reusable && !closed) {
+      idleConnections.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(conn);
+      if (!closed) {
+        return;
+      }
+    }
+    closeQuietly(conn);
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      logger.log(Level.FINE, "Unable to close hedge connection", e);
+    }
+  }
+
+  /**
+   * Closes all idle connections.  Any hedges in progress close their connections when done.
+   */
+  void close() {
+    closed = true;
+    for (Queue<ConnectionWrapperImpl> idle : idleConnections.values()) {
+      ConnectionWrapperImpl conn;
+      while ((conn = idle.poll()) != null) {
+        closeQuietly(conn);
+      }
+    }
+  }
+
+  /**
+   * Executes a query, hedging it on another backend when it is slower than usual.
+   *
+   * @param  stmtWrapper  The statement executing the query
+   * @param  sql          The SQL of the query
+   * @param  params       The parameters of the query, which must all compare by value
+   * @param  primary      Executes the query with the statement
+   */
+  ResultSetWrapperImpl executeQuery(
+      PreparedStatementWrapperImpl stmtWrapper,
+      String sql,
+      Parameters params,
+      StatementWrapperImpl.Execution<? extends ResultSet> primary
+  ) throws SQLException {
+    ConnectionWrapperImpl connectionWrapper = stmtWrapper.getConnectionWrapper();
+    String url = connectionWrapper.getUrl().orElse(null);
+    List<String> hedgeUrls = (url == null) ? List.of() : driver.getHedgeUrls(url);
+    LatencyHistogram histogram = getLatencies(sql);
+    long delay = (hedgeUrls.isEmpty() || histogram.getCount() < MIN_SAMPLES) ? -1 : histogram.getPercentile(PERCENTILE);
+    Hedge hedge;
+    if (delay < 0) {
+      hedge = null;
+    } else {
+      addBudget(driver.getHedgeBudgetPercent());
+      Properties info = connectionWrapper.getInfo().orElseGet(Properties::new);
+      String hedgeUrl = driver.isLoadBalancing()
+          ? driver.getLoadBalancer().choose(hedgeUrls, info)
+          : hedgeUrls.get(Math.floorMod(nextUrl.getAndIncrement(), hedgeUrls.size()));
+      hedge = new Hedge(stmtWrapper, new AbstractMap.SimpleImmutableEntry<>(hedgeUrl, info), sql, params);
+      CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, connectionWrapper.getAsyncExecutor()).execute(hedge);
+    }
+    long startNanos = System.nanoTime();
+    ResultSet results;
+    try {
+      results = primary.execute();
+    } catch (Throwable t) {
+      RowBuffer rows = (hedge == null) ? null : hedge.primaryFailed(t);
+      if (rows == null) {
+        throw t;
+      }
+      return new CachedResultSetWrapperImpl(connectionWrapper, stmtWrapper, new RowBufferResultSet(rows));
+    }
+    if (hedge == null || hedge.primarySucceeded()) {
+      histogram.record(System.nanoTime() - startNanos);
+      return stmtWrapper.wrapResultSet(results);
+    }
+    results.close();
+    return new CachedResultSetWrapperImpl(connectionWrapper, stmtWrapper, new RowBufferResultSet(hedge.getRows()));
+  }
+
+  /**
+   * A second execution of a query, started after a delay unless the first execution completes first.
+   */
+  private final class Hedge implements Runnable {
+
+    private final PreparedStatementWrapperImpl stmtWrapper;
+    private final Map.Entry<String, Properties> key;
+    private final String sql;
+    private final Parameters params;
+    private final int queryTimeout;
+    private final int maxRows;
+    private final Deadline deadline;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    /**
+     * Completed with the rows when the hedge wins, with {@code null} when it completes after the primary execution or
+     * has too many rows, or with the failure of the hedge.
+     */
+    private final CompletableFuture<RowBuffer> result = new CompletableFuture<>();
+    private volatile PreparedStatement statement;
+
+    private Hedge(PreparedStatementWrapperImpl stmtWrapper, Map.Entry<String, Properties> key, String sql, Parameters params)
+        throws SQLException {
+      this.stmtWrapper = stmtWrapper;
+      this.key = key;
+      this.sql = sql;
+      this.params = params;
+      this.queryTimeout = stmtWrapper.getQueryTimeout();
+      this.maxRows = stmtWrapper.getMaxRows();
+      this.deadline = Deadline.get();
+    }
+
+    /**
+     * Gets the query timeout of the hedge, limited by any deadline.
+     *
+     * @return  The timeout in seconds, {@code 0} for no timeout, or {@code -1} when the deadline has passed
+     */
+    private int getQueryTimeout() {
+      if (deadline == null) {
+        return queryTimeout;
+      }
+      long remaining = deadline.getRemainingNanos();
+      if (remaining <= 0) {
+        return -1;
+      }
+      long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+      return (int) ((queryTimeout == 0) ? Math.min(Integer.MAX_VALUE, seconds) : Math.min(queryTimeout, seconds));
+    }
+
+    @Override
+    public void run() {
+      int timeout = getQueryTimeout();
+      if (closed || timeout < 0 || state.get() != PENDING || !tryAcquireBudget()) {
+        return;
+      }
+      if (!state.compareAndSet(PENDING, HEDGING)) {
+        addBudget(HEDGE_COST);
+        return;
+      }
+      ConnectionWrapperImpl conn = null;
+      boolean reusable = false;
+      try {
+        conn = borrow(key);
+        try (PreparedStatement pstmt = stmtWrapper.prepare(conn, sql)) {
+          statement = pstmt;
+          if (state.get() == HEDGING) {
+            if (timeout != 0) {
+              pstmt.setQueryTimeout(timeout);
+            }
+            if (maxRows != 0) {
+              pstmt.setMaxRows(maxRows);
+            }
+            params.apply(pstmt, 0);
+            RowBuffer rows;
+            boolean allRows;
+            try (ResultSet results = pstmt.executeQuery()) {
+              rows = new RowBuffer(new RowBuffer.Columns(results.getMetaData()));
+              allRows = rows.readFrom(results, driver.getHedgedReadsMaxRows());
+            }
+            reusable = true;
+            // Too many rows to buffer leaves the query to the primary execution
+            if (allRows && state.compareAndSet(HEDGING, HEDGE_WON)) {
+              // Cancelled before completing, so the cancel cannot reach any later execution of the statement
+              try {
+                Statement executing = stmtWrapper.getExecutingStatement();
+                if (executing != null) {
+                  executing.cancel();
+                }
+              } catch (SQLException e) {
+                logger.log(Level.FINE, "Unable to cancel hedged statement", e);
+              }
+              result.complete(rows);
+              return;
+            }
+          } else {
+            reusable = true;
+          }
+        } finally {
+          statement = null;
+        }
+        result.complete(null);
+      } catch (Throwable t) {
+        // A hedge cancelled by the primary execution leaves its connection usable
+        reusable = reusable || state.get() == PRIMARY_WON;
+        result.completeExceptionally(t);
+      } finally {
+        if (conn != null) {
+          release(key, conn, reusable);
+        }
+      }
+    }
+
+    /**
+     * Called when the primary execution has succeeded.
+     *
+     * @return  {@code true} when the primary execution won, or {@code false} when the hedge won
+     */
+    private boolean primarySucceeded() {
+      while (true) {
+        int current = state.get();
+        if (current == PENDING) {
+          if (state.compareAndSet(PENDING, PRIMARY_WON)) {
+            return true;
+          }
+        } else if (current == HEDGING) {
+          if (state.compareAndSet(HEDGING, PRIMARY_WON)) {
+            PreparedStatement pstmt = statement;
+            if (pstmt != null) {
+              try {
+                pstmt.cancel();
+              } catch (SQLException e) {
+                logger.log(Level.FINE, "Unable to cancel hedge", e);
+              }
+            }
+            return true;
+          }
+        } else {
+          assert current == HEDGE_WON;
+          return false;
+        }
+      }
+    }
+
+    /**
+     * Called when the primary execution has failed, including when cancelled by the hedge.
+     *
+     * @return  The rows of the hedge, or {@code null} when there is no hedge, it also failed, or it had too many rows
+     */
+    private RowBuffer primaryFailed(Throwable t) {
+      if (state.compareAndSet(PENDING, PRIMARY_FAILED)) {
+        return null;
+      }
+      // The hedge is in progress or has won
+      try {
+        return result.join();
+      } catch (CompletionException e) {
+        t.addSuppressed(e.getCause());
+        return null;
+      }
+    }
+
+    /**
+     * Gets the rows of the hedge once it has won.
+     */
+    private RowBuffer getRows() {
+      return result.join();
+    }
+  }
+}
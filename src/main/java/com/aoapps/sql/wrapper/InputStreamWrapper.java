@@ -71,37 +71,37 @@ public class InputStreamWrapper extends InputStream implements Wrapper, NoClose
 
   @Override
   public int read() throws IOException {
-    return getWrapped().read();
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read());
   }
 
   @Override
   public int read(byte[] b) throws IOException {
-    return getWrapped().read(b);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read(b));
   }
 
   @Override
   public int read(byte[] b, int off, int len) throws IOException {
-    return getWrapped().read(b, off, len);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read(b, off, len));
   }
 
   @Override
   public byte[] readAllBytes() throws IOException {
-    return getWrapped().readAllBytes();
+    return getConnectionWrapper().offloadRead(() -> getWrapped().readAllBytes());
   }
 
   @Override
   public byte[] readNBytes(int len) throws IOException {
-    return getWrapped().readNBytes(len);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().readNBytes(len));
   }
 
   @Override
   public int readNBytes(byte[] b, int off, int len) throws IOException {
-    return getWrapped().readNBytes(b, off, len);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().readNBytes(b, off, len));
   }
 
   @Override
   public long skip(long n) throws IOException {
-    return getWrapped().skip(n);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().skip(n));
   }
 
   @Override
@@ -129,8 +129,18 @@ public class InputStreamWrapper extends InputStream implements Wrapper, NoClose
     return getWrapped().markSupported();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When {@linkplain ConnectionWrapperImpl#isBlockingOffload() offloading blocking calls}, the bytes are transferred
+   * by offloaded reads, so the output stream is written by the calling thread.</p>
+   */
   @Override
   public long transferTo(OutputStream out) throws IOException {
-    return getWrapped().transferTo(out);
+    if (getConnectionWrapper().isBlockingOffload()) {
+      return super.transferTo(out);
+    } else {
+      return getWrapped().transferTo(out);
+    }
   }
 }
@@ -0,0 +1,136 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of recent latencies, for estimating latency percentiles.
+ *
+ * <p>Latencies are counted in logarithmic buckets, four per power of two, so each percentile is accurate to within
+ * about 19%.  Once {@link #WINDOW} latencies have been recorded, all counts are halved, so the percentiles follow
+ * changes in latency while still being based on the most recent samples.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LatencyHistogram {
+
+  /**
+   * The number of buckets per power of two.
+   */
+  private static final int SUB_BUCKET_BITS = 2;
+
+  private static final int BUCKETS = (Long.SIZE << SUB_BUCKET_BITS);
+
+  /**
+   * The number of latencies recorded between halving all counts.
+   */
+  static final int WINDOW = 1024;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicInteger sinceDecay = new AtomicInteger();
+
+  /**
+   * Gets the bucket for the given latency.
+   */
+  private static int getBucket(long nanos) {
+    if (nanos < (1L << SUB_BUCKET_BITS)) {
+      return (int) Math.max(0, nanos);
+    }
+    int log2 = (Long.SIZE - 1) - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (log2 - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+    return ((log2 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+  }
+
+  /**
+   * Gets the highest latency of the given bucket.
+   */
+  private static long getUpperBound(int bucket) {
+    if (bucket < (1 << SUB_BUCKET_BITS)) {
+      return bucket;
+    }
+    int log2 = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+    int subBucket = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+    long lower = (1L << log2) | ((long) subBucket << (log2 - SUB_BUCKET_BITS));
+    long width = 1L << (log2 - SUB_BUCKET_BITS);
+    return (lower > Long.MAX_VALUE - width) ? Long.MAX_VALUE : lower + width - 1;
+  }
+
+  /**
+   * Records one latency.
+   */
+  void record(long nanos) {
+    counts.incrementAndGet(getBucket(nanos));
+    if (sinceDecay.incrementAndGet() >= WINDOW) {
+      sinceDecay.set(0);
+      for (int i = 0; i < BUCKETS; i++) {
+        long count;
+        do {
+          count = counts.get(i);
+        } while (count != 0 && !counts.compareAndSet(i, count, count >> 1));
+      }
+    }
+  }
+
+  /**
+   * Gets the number of latencies currently counted.
+   */
+  long getCount() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * Gets an estimate of the given percentile of the counted latencies.
+   *
+   * @param  percentile  The percentile, between {@code 0} and {@code 100}
+   *
+   * @return  The latency in nanoseconds, or {@code -1} when no latencies are counted
+   */
+  long getPercentile(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      long count = counts.get(i);
+      snapshot[i] = count;
+      total += count;
+    }
+    if (total == 0) {
+      return -1;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return getUpperBound(i);
+      }
+    }
+    return getUpperBound(BUCKETS - 1);
+  }
+}
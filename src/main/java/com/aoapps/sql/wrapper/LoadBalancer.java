@@ -0,0 +1,319 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses among equivalent backends by their latency and load, shared by all connections of a driver.
+ *
+ * <p>The latency of the statement executions of each backend is measured by the connections to it, as an exponentially
+ * weighted moving average, along with the number of executions in flight.  A backend is chosen by the power of two
+ * choices: of two backends picked at random, the one with the lower product of the two is used.  This avoids both the
+ * herding of always choosing the best backend and the degraded backends chosen by round-robin.</p>
+ *
+ * <p>A backend is ejected after {@linkplain #EJECT_FAILURES consecutive failures} to connect or of executions with
+ * connection-level errors.  Once its ejection expires, the backend is probed in the background by connecting and
+ * {@linkplain Connection#isValid(int) validating} the connection, and re-admitted when the probe succeeds.  The
+ * ejection doubles after each failed probe.  When every backend is ejected, the one ejected the soonest to expire is
+ * used.</p>
+ *
+ * @see  DriverWrapper#isLoadBalancing()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LoadBalancer {
+
+  private static final Logger logger = Logger.getLogger(LoadBalancer.class.getName());
+
+  /**
+   * The weight of each new latency in the moving average.
+   */
+  private static final double ALPHA = 0.2;
+
+  /**
+   * The number of consecutive failures that ejects a backend.
+   */
+  private static final int EJECT_FAILURES = 5;
+
+  /**
+   * The time a backend is first ejected for, before it is probed.
+   */
+  private static final long EJECT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  /**
+   * The maximum time a backend is ejected for after failed probes.
+   */
+  private static final long MAX_EJECT_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+  private static final int PROBE_TIMEOUT_SECONDS = 5;
+
+  /**
+   * Checks if an exception indicates a failure of the backend, instead of the statement, such as a lost connection or
+   * a timeout.  The causes are checked too, since the failure of a later chunk of a chunked batch is the cause of the
+   * {@link java.sql.BatchUpdateException} thrown.
+   *
+   * @see  StatementWrapperImpl#executeChunked(int, int, com.aoapps.sql.wrapper.StatementWrapperImpl.BatchChunk)
+   */
+  static boolean isBackendFailure(SQLException e) {
+    for (Throwable t = e; t instanceof SQLException; t = t.getCause()) {
+      if (
+          t instanceof SQLTransientConnectionException
+              || t instanceof SQLNonTransientConnectionException
+              || t instanceof SQLRecoverableException
+              || t instanceof SQLTimeoutException
+      ) {
+        return true;
+      }
+      String sqlState = ((SQLException) t).getSQLState();
+      // Class 08: Connection Exception
+      if (sqlState != null && sqlState.startsWith("08")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The measurements and state of one backend.
+   */
+  final class Backend {
+
+    private final String url;
+
+    /**
+     * The moving average of latency, in nanoseconds, or {@code -1} before the first execution.
+     */
+    private final AtomicLong averageNanos = new AtomicLong(-1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    // Locked by this
+    private int ejections;
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+
+    private Backend(String url) {
+      this.url = url;
+    }
+
+    @Override
+    public String toString() {
+      return url + "(average=" + TimeUnit.NANOSECONDS.toMicros(Math.max(0, averageNanos.get())) + " us, inFlight="
+          + inFlight.get() + (ejected ? ", ejected" : "") + ")";
+    }
+
+    /**
+     * Gets the load of this backend, which is lower for faster, less busy backends.  A backend without any latency
+     * yet has the lowest load so that it is tried.
+     */
+    private double getLoad() {
+      return (Math.max(0, averageNanos.get()) + 1.0) * (inFlight.get() + 1);
+    }
+
+    /**
+     * Runs an execution against this backend, measuring its latency and any failure.  An execution failing for any
+     * other reason than a {@linkplain #isBackendFailure(java.sql.SQLException) failure of the backend}, such as a
+     * constraint violation, is neutral: it neither resets the consecutive failures nor affects the latency.
+     */
+    <R> R execute(StatementWrapperImpl.Execution<R> execution) throws SQLException {
+      inFlight.incrementAndGet();
+      long startNanos = System.nanoTime();
+      R result;
+      try {
+        result = execution.execute();
+      } catch (SQLException e) {
+        inFlight.decrementAndGet();
+        if (isBackendFailure(e)) {
+          failed();
+        }
+        throw e;
+      } catch (Throwable t) {
+        inFlight.decrementAndGet();
+        throw t;
+      }
+      inFlight.decrementAndGet();
+      succeeded(System.nanoTime() - startNanos);
+      return result;
+    }
+
+    private void succeeded(long nanos) {
+      consecutiveFailures.set(0);
+      long current;
+      long next;
+      do {
+        current = averageNanos.get();
+        next = (current == -1) ? nanos : Math.round(current + (nanos - current) * ALPHA);
+      } while (!averageNanos.compareAndSet(current, next));
+    }
+
+    /**
+     * Records a failure to connect to, or of an execution against, this backend.
+     */
+    void failed() {
+      if (consecutiveFailures.incrementAndGet() >= EJECT_FAILURES) {
+        eject();
+      }
+    }
+
+    private void eject() {
+      synchronized (this) {
+        if (!ejected) {
+          ejected = true;
+          long nanos = Math.min(MAX_EJECT_NANOS, EJECT_NANOS << Math.min(ejections, 30));
+          ejections++;
+          ejectedUntilNanos = System.nanoTime() + nanos;
+          logger.log(Level.WARNING, "Ejected backend for {0} ms: {1}", new Object[] {TimeUnit.NANOSECONDS.toMillis(nanos), url});
+        }
+      }
+    }
+
+    private void readmit() {
+      synchronized (this) {
+        consecutiveFailures.set(0);
+        ejections = 0;
+        ejected = false;
+      }
+      logger.log(Level.INFO, "Re-admitted backend: {0}", url);
+    }
+
+    /**
+     * Checks if this backend is ejected, starting a probe once the ejection has expired.
+     */
+    boolean isEjected(Properties info) {
+      if (!ejected) {
+        return false;
+      }
+      if (System.nanoTime() - ejectedUntilNanos >= 0 && probing.compareAndSet(false, true)) {
+        try {
+          driver.getAsyncExecutor().execute(() -> probe(info));
+        } catch (RejectedExecutionException e) {
+          probing.set(false);
+        }
+      }
+      return true;
+    }
+
+    private void probe(Properties info) {
+      try {
+        boolean valid;
+        try (Connection conn = driver.connect(url, info)) {
+          valid = conn != null && conn.isValid(PROBE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+          logger.log(Level.FINE, "Probe failed: " + url, e);
+          valid = false;
+        }
+        if (valid) {
+          readmit();
+        } else {
+          synchronized (this) {
+            ejected = false;
+            eject();
+          }
+        }
+      } finally {
+        probing.set(false);
+      }
+    }
+  }
+
+  private final DriverWrapper driver;
+  private final ConcurrentMap<String, Backend> backends = new ConcurrentHashMap<>();
+
+  LoadBalancer(DriverWrapper driver) {
+    this.driver = driver;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadBalancer" + backends.values();
+  }
+
+  /**
+   * Gets the backend for the given URL.
+   */
+  Backend getBackend(String url) {
+    return backends.computeIfAbsent(url, Backend::new);
+  }
+
+  /**
+   * Chooses the backend for a new connection among the given equivalent URLs.
+   *
+   * @param  urls  The URLs, which must not be empty
+   * @param  info  The properties that ejected backends are probed with
+   */
+  String choose(List<String> urls, Properties info) {
+    int size = urls.size();
+    if (size == 1) {
+      return urls.get(0);
+    }
+    List<Backend> available = new ArrayList<>(size);
+    Backend soonest = null;
+    for (String url : urls) {
+      Backend backend = getBackend(url);
+      if (!backend.isEjected(info)) {
+        available.add(backend);
+      } else if (soonest == null || backend.ejectedUntilNanos - soonest.ejectedUntilNanos < 0) {
+        soonest = backend;
+      }
+    }
+    int count = available.size();
+    if (count == 0) {
+      // All ejected: use the one expiring soonest
+      return soonest.url;
+    }
+    if (count == 1) {
+      return available.get(0).url;
+    }
+    // The power of two choices
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int i = random.nextInt(count);
+    int j = random.nextInt(count - 1);
+    if (j >= i) {
+      j++;
+    }
+    Backend first = available.get(i);
+    Backend second = available.get(j);
+    return (first.getLoad() <= second.getLoad()) ? first.url : second.url;
+  }
+}
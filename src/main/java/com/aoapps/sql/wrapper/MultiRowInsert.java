@@ -0,0 +1,207 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+/**
+ * Recognizes simple single-row <code>INSERT ... VALUES (?, ...)</code> statements and rewrites them into multi-row
+ * <code>INSERT ... VALUES (?, ...), (?, ...), ...</code> statements.
+ *
+ * <p>Only statements where all parameters are within the single <code>VALUES</code> row, with nothing but optional
+ * whitespace or a semicolon following the row, are recognized.  Statements containing comments are never
+ * recognized.  Neither are statements with a dollar sign outside of quotes, such as PostgreSQL dollar-quoted strings,
+ * or a backslash within quotes, such as MySQL escapes, since their quoting is not parsed and a parameter marker within
+ * them would be miscounted.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class MultiRowInsert {
+
+  private static final String INSERT = "INSERT";
+  private static final String VALUES = "VALUES";
+
+  /**
+   * Parses the given SQL.
+   *
+   * @return  The multi-row insert or {@code null} when not a simple single-row insert.
+   */
+  static MultiRowInsert parse(String sql) {
+    int len = sql.length();
+    int pos = skipWhitespace(sql, 0);
+    if (!sql.regionMatches(true, pos, INSERT, 0, INSERT.length())) {
+      return null;
+    }
+    // Find the VALUES keyword outside of any quotes, counting parameters before it
+    int valuesPos = -1;
+    int parametersBefore = 0;
+    int i = pos + INSERT.length();
+    while (i < len) {
+      char ch = sql.charAt(i);
+      if (ch == '\'' || ch == '"' || ch == '`') {
+        i = skipQuoted(sql, i);
+        if (i == -1) {
+          return null;
+        }
+      } else if (ch == '$' || isCommentStart(sql, i)) {
+        return null;
+      } else if (ch == '?') {
+        parametersBefore++;
+        i++;
+      } else if (
+          (ch == 'V' || ch == 'v')
+              && sql.regionMatches(true, i, VALUES, 0, VALUES.length())
+              && !Character.isJavaIdentifierPart(sql.charAt(i - 1))
+              && (i + VALUES.length() == len || !Character.isJavaIdentifierPart(sql.charAt(i + VALUES.length())))
+      ) {
+        valuesPos = i;
+        break;
+      } else {
+        i++;
+      }
+    }
+    if (valuesPos == -1 || parametersBefore != 0) {
+      return null;
+    }
+    int rowStart = skipWhitespace(sql, valuesPos + VALUES.length());
+    if (rowStart == len || sql.charAt(rowStart) != '(') {
+      return null;
+    }
+    // Find the end of the row, counting parameters
+    int depth = 0;
+    int parametersPerRow = 0;
+    int rowEnd = -1;
+    i = rowStart;
+    while (i < len) {
+      char ch = sql.charAt(i);
+      if (ch == '\'' || ch == '"' || ch == '`') {
+        i = skipQuoted(sql, i);
+        if (i == -1) {
+          return null;
+        }
+      } else if (ch == '$' || isCommentStart(sql, i)) {
+        return null;
+      } else {
+        if (ch == '(') {
+          depth++;
+        } else if (ch == ')') {
+          depth--;
+          if (depth == 0) {
+            rowEnd = i + 1;
+            break;
+          }
+        } else if (ch == '?') {
+          parametersPerRow++;
+        }
+        i++;
+      }
+    }
+    if (rowEnd == -1 || parametersPerRow == 0) {
+      return null;
+    }
+    // Only whitespace or a single trailing semicolon may follow
+    int after = skipWhitespace(sql, rowEnd);
+    if (after < len && sql.charAt(after) == ';') {
+      after = skipWhitespace(sql, after + 1);
+    }
+    if (after != len) {
+      return null;
+    }
+    return new MultiRowInsert(sql.substring(0, rowStart), sql.substring(rowStart, rowEnd), parametersPerRow);
+  }
+
+  private static int skipWhitespace(String sql, int pos) {
+    int len = sql.length();
+    while (pos < len && Character.isWhitespace(sql.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static boolean isCommentStart(String sql, int pos) {
+    if (pos + 1 >= sql.length()) {
+      return false;
+    }
+    char ch = sql.charAt(pos);
+    char next = sql.charAt(pos + 1);
+    return (ch == '-' && next == '-') || (ch == '/' && next == '*');
+  }
+
+  /**
+   * Skips a quoted literal or identifier, where the quote is escaped by doubling.
+   *
+   * @return  The position after the closing quote or {@code -1} when unterminated or containing a backslash, which
+   *          may or may not escape the quote depending on the database.
+   */
+  private static int skipQuoted(String sql, int pos) {
+    char quote = sql.charAt(pos);
+    int len = sql.length();
+    int i = pos + 1;
+    while (i < len) {
+      char ch = sql.charAt(i);
+      if (ch == '\\') {
+        return -1;
+      } else if (ch == quote) {
+        if (i + 1 < len && sql.charAt(i + 1) == quote) {
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return -1;
+  }
+
+  private final String prefix;
+  private final String row;
+  private final int parametersPerRow;
+
+  private MultiRowInsert(String prefix, String row, int parametersPerRow) {
+    this.prefix = prefix;
+    this.row = row;
+    this.parametersPerRow = parametersPerRow;
+  }
+
+  /**
+   * Gets the number of parameters in each row.
+   */
+  int getParametersPerRow() {
+    return parametersPerRow;
+  }
+
+  /**
+   * Gets the SQL inserting the given number of rows.
+   */
+  String getSql(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("rows < 1: " + rows);
+    }
+    StringBuilder sql = new StringBuilder(prefix.length() + rows * (row.length() + 2));
+    sql.append(prefix).append(row);
+    for (int i = 1; i < rows; i++) {
+      sql.append(", ").append(row);
+    }
+    return sql.toString();
+  }
+}
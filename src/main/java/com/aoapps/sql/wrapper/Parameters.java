@@ -0,0 +1,245 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Parameters recorded by a {@link PreparedStatementWrapperImpl} so they may be applied later, possibly to a different
+ * statement and at a different parameter offset.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Parameters {
+
+  /**
+   * Sets one parameter on a statement.
+   */
+  @FunctionalInterface
+  interface Setter {
+    void set(PreparedStatement pstmt, int parameterIndex) throws SQLException;
+  }
+
+  private static final Setter[] EMPTY_SETTERS = {};
+  private static final Object[] EMPTY_VALUES = {};
+  private static final boolean[] EMPTY_FLAGS = {};
+
+  /**
+   * The immutable value types that may be compared for equality as part of a key.
+   */
+  private static final Set<Class<?>> KEY_TYPES = Set.of(
+      String.class,
+      Boolean.class,
+      Byte.class,
+      Short.class,
+      Integer.class,
+      Long.class,
+      Float.class,
+      Double.class,
+      BigDecimal.class,
+      BigInteger.class,
+      UUID.class
+  );
+
+  private Setter[] setters;
+  private Object[] values;
+  private boolean[] streams;
+  private boolean[] unkeyed;
+
+  /**
+   * The highest parameter index set.
+   */
+  private int size;
+
+  /**
+   * The number of parameters that may only be applied once, such as streams.
+   */
+  private int streamCount;
+
+  /**
+   * The number of parameters whose value alone does not determine how they are applied.
+   */
+  private int unkeyedCount;
+
+  Parameters() {
+    setters = EMPTY_SETTERS;
+    values = EMPTY_VALUES;
+    streams = EMPTY_FLAGS;
+    unkeyed = EMPTY_FLAGS;
+  }
+
+  private Parameters(Parameters other) {
+    int otherSize = other.size;
+    setters = Arrays.copyOf(other.setters, otherSize);
+    values = Arrays.copyOf(other.values, otherSize);
+    streams = Arrays.copyOf(other.streams, otherSize);
+    unkeyed = Arrays.copyOf(other.unkeyed, otherSize);
+    size = otherSize;
+    streamCount = other.streamCount;
+    unkeyedCount = other.unkeyedCount;
+  }
+
+  /**
+   * Gets a copy of these parameters, such as for a row added to a batch.
+   */
+  Parameters copy() {
+    return new Parameters(this);
+  }
+
+  private void set(int parameterIndex, Object value, Setter setter, boolean stream, boolean keyed) throws SQLException {
+    if (parameterIndex < 1) {
+      throw new SQLException("Invalid parameter index: " + parameterIndex);
+    }
+    int i = parameterIndex - 1;
+    if (i >= setters.length) {
+      int newLength = Math.max(parameterIndex, setters.length * 2);
+      setters = Arrays.copyOf(setters, newLength);
+      values = Arrays.copyOf(values, newLength);
+      streams = Arrays.copyOf(streams, newLength);
+      unkeyed = Arrays.copyOf(unkeyed, newLength);
+    }
+    if (streams[i]) {
+      streamCount--;
+    }
+    if (unkeyed[i]) {
+      unkeyedCount--;
+    }
+    setters[i] = setter;
+    values[i] = value;
+    streams[i] = stream;
+    if (stream) {
+      streamCount++;
+    }
+    unkeyed[i] = !keyed;
+    if (!keyed) {
+      unkeyedCount++;
+    }
+    if (parameterIndex > size) {
+      size = parameterIndex;
+    }
+  }
+
+  /**
+   * Records a parameter that may be applied any number of times.
+   */
+  void set(int parameterIndex, Object value, Setter setter) throws SQLException {
+    set(parameterIndex, value, setter, false, true);
+  }
+
+  /**
+   * Records a parameter that may be applied any number of times, but is applied with options beyond its value, such as
+   * a calendar or target SQL type.  These parameters are never part of a {@linkplain #toKey() key}.
+   */
+  void setUnkeyed(int parameterIndex, Object value, Setter setter) throws SQLException {
+    set(parameterIndex, value, setter, false, false);
+  }
+
+  /**
+   * Records a parameter that may only be applied once, such as a stream.
+   */
+  void setStream(int parameterIndex, Object value, Setter setter) throws SQLException {
+    set(parameterIndex, value, setter, true, false);
+  }
+
+  void clear() {
+    Arrays.fill(setters, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    Arrays.fill(streams, 0, size, false);
+    Arrays.fill(unkeyed, 0, size, false);
+    size = 0;
+    streamCount = 0;
+    unkeyedCount = 0;
+  }
+
+  /**
+   * Gets the highest parameter index set.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks if these parameters may be applied more than once.
+   */
+  boolean isRepeatable() {
+    return streamCount == 0;
+  }
+
+  /**
+   * Gets a snapshot of the values of these parameters that may be compared for equality, such as to identify identical
+   * executions of a statement.
+   *
+   * @return  The values, or {@code null} when any parameter is not set, is applied with options beyond its value, or
+   *          is not of an immutable type known to compare by value
+   */
+  Object[] toKey() {
+    if (unkeyedCount != 0) {
+      return null;
+    }
+    Object[] key = new Object[size];
+    for (int i = 0; i < size; i++) {
+      if (setters[i] == null) {
+        return null;
+      }
+      Object value = values[i];
+      if (value instanceof byte[]) {
+        value = ByteBuffer.wrap(((byte[]) value).clone());
+      } else if (value instanceof Date) {
+        // Includes java.sql.Date, Time, and Timestamp, which are mutable
+        value = ((Date) value).clone();
+      } else if (
+          value != null
+              && !KEY_TYPES.contains(value.getClass())
+              && !(value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time."))
+      ) {
+        return null;
+      }
+      key[i] = value;
+    }
+    return key;
+  }
+
+  /**
+   * Applies these parameters to the given statement.
+   *
+   * @param  offset  The offset added to each parameter index
+   */
+  void apply(PreparedStatement pstmt, int offset) throws SQLException {
+    for (int i = 0; i < size; i++) {
+      Setter setter = setters[i];
+      if (setter != null) {
+        setter.set(pstmt, offset + i + 1);
+      }
+    }
+  }
+}
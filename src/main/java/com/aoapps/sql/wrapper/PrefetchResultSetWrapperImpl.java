@@ -0,0 +1,355 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetches the rows of a forward-only result set in the background, double-buffered in chunks.
+ *
+ * <p>A helper task reads and decodes the next chunk of rows into a {@link RowBuffer} while the caller consumes the
+ * current chunk, so fetch latency overlaps with the processing of each row.  At most two chunks are held at once: the
+ * chunk being consumed and the chunk being filled, which the helper hands off only when the caller is ready for it.
+ * A failure reading the rows is thrown from {@link #next()} once the rows before it have been consumed.</p>
+ *
+ * <p>Since the helper reads from the connection on another thread, and drivers do not support using a connection from
+ * multiple threads at once, statement executions, commits, and rollbacks on the connection fail while the helper is
+ * reading, until the last row has been read or this result set is closed.</p>
+ *
+ * <p>The getters read the current row from the buffered chunk, with the conversions of {@link RowBufferResultSet},
+ * including {@link #getObject(int, java.lang.Class)} to the {@code java.time} types.  This result set is
+ * {@link ResultSet#TYPE_FORWARD_ONLY} and {@link ResultSet#CONCUR_READ_ONLY}.</p>
+ *
+ * @see  ResultSetWrapperImpl#prefetch(int)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class PrefetchResultSetWrapperImpl extends ResultSetWrapperImpl {
+
+  /**
+   * The maximum time the helper waits to hand off a chunk before checking whether closed.
+   */
+  private static final long HANDOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * Handed off after the last chunk when all rows have been read.
+   */
+  private static final Object END = new Object();
+
+  private final int chunkSize;
+  private final StatementWrapperImpl statement;
+
+  /**
+   * Hands off each chunk from the helper, followed by {@link #END} or the {@link Throwable} that failed the helper.
+   */
+  private final SynchronousQueue<Object> handoff = new SynchronousQueue<>();
+  private final CountDownLatch helperDone = new CountDownLatch(1);
+  private volatile boolean closed;
+
+  // Only accessed by the caller
+  private boolean started;
+  private RowBufferResultSet current;
+  private boolean ended;
+  private SQLException failure;
+  private long row;
+  private boolean afterLast;
+
+  /**
+   * @param  chunkSize  The number of rows per chunk
+   */
+  PrefetchResultSetWrapperImpl(ResultSetWrapperImpl results, int chunkSize) throws SQLException {
+    super(results.getConnectionWrapper(), results.getStatementWrapper().orElse(null), results.getWrapped());
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize < 1: " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    this.statement = results.getStatement();
+  }
+
+  /**
+   * Gets the current chunk, or the wrapped result set before the first row.
+   */
+  @Override
+  public ResultSet getWrapped() {
+    RowBufferResultSet chunk = current;
+    return (chunk != null) ? chunk : super.getWrapped();
+  }
+
+  /**
+   * Reads chunks on the helper, handing off each to the caller, until the end of the rows, a failure, or closed.
+   * A failure reading the next row ends the chunk, so the rows before the failure are still handed off.
+   */
+  private void readChunks() {
+    try {
+      ResultSet wrapped = super.getWrapped();
+      RowBuffer.Columns columns = new RowBuffer.Columns(wrapped.getMetaData());
+      while (!closed) {
+        RowBuffer chunk = new RowBuffer(columns);
+        SQLException chunkFailure = null;
+        try {
+          while (chunk.size() < chunkSize && wrapped.next()) {
+            chunk.add(wrapped);
+          }
+        } catch (SQLException e) {
+          chunkFailure = e;
+        }
+        boolean end = chunkFailure != null || chunk.size() < chunkSize;
+        if (chunk.size() > 0 && !handOff(new RowBufferResultSet(chunk))) {
+          break;
+        }
+        if (end) {
+          handOff(chunkFailure != null ? chunkFailure : END);
+          break;
+        }
+      }
+    } catch (Throwable t) {
+      handOff(t);
+    } finally {
+      getConnectionWrapper().prefetchEnded();
+      helperDone.countDown();
+    }
+  }
+
+  /**
+   * Hands off to the caller, waiting while the caller is consuming the current chunk.
+   *
+   * @return  {@code false} when closed before the caller took it
+   */
+  private boolean handOff(Object chunkOrFailure) {
+    boolean interrupted = false;
+    try {
+      while (!closed) {
+        try {
+          if (handoff.offer(chunkOrFailure, HANDOFF_NANOS, TimeUnit.NANOSECONDS)) {
+            return true;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      return false;
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Takes the next chunk from the helper, starting the helper when first called.
+   *
+   * @return  The next chunk, or {@link #END} after the last chunk
+   */
+  private Object takeChunk() throws SQLException {
+    if (!started) {
+      started = true;
+      ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
+      myConnectionWrapper.prefetchStarted();
+      try {
+        myConnectionWrapper.getAsyncExecutor().execute(this::readChunks);
+      } catch (RejectedExecutionException e) {
+        myConnectionWrapper.prefetchEnded();
+        helperDone.countDown();
+        failure = new SQLException("Unable to start prefetching rows", e);
+        throw failure;
+      }
+    }
+    Object chunkOrFailure;
+    try {
+      chunkOrFailure = handoff.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for prefetched rows", e);
+    }
+    if (!(chunkOrFailure instanceof Throwable)) {
+      return chunkOrFailure;
+    }
+    Throwable t = (Throwable) chunkOrFailure;
+    failure = (t instanceof SQLException) ? (SQLException) t : new SQLException(t);
+    throw failure;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Moves to the next buffered row, waiting for the helper when the current chunk has been consumed.</p>
+   */
+  @Override
+  public boolean next() throws SQLException {
+    if (closed) {
+      throw new SQLException("Result set is closed");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    while (true) {
+      if (ended) {
+        afterLast = row > 0;
+        return false;
+      }
+      RowBufferResultSet chunk = current;
+      if (chunk != null && chunk.next()) {
+        row++;
+        return true;
+      }
+      Object next = takeChunk();
+      if (next == END) {
+        // Remain on the consumed chunk, positioned after its last row
+        ended = true;
+      } else {
+        if (chunk != null) {
+          chunk.close();
+        }
+        current = (RowBufferResultSet) next;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Stops the helper, waiting for it to finish any chunk being read, then closes the wrapped result set.</p>
+   */
+  @Override
+  public void close() throws SQLException {
+    if (!closed) {
+      closed = true;
+      if (started) {
+        boolean interrupted = false;
+        while (true) {
+          try {
+            helperDone.await();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      RowBufferResultSet chunk = current;
+      if (chunk != null) {
+        current = null;
+        chunk.close();
+      }
+    }
+    super.getWrapped().close();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed || super.getWrapped().isClosed();
+  }
+
+  @Override
+  public StatementWrapperImpl getStatement() throws SQLException {
+    return statement;
+  }
+
+  @Override
+  public int getType() throws SQLException {
+    return ResultSet.TYPE_FORWARD_ONLY;
+  }
+
+  @Override
+  public int getConcurrency() throws SQLException {
+    return ResultSet.CONCUR_READ_ONLY;
+  }
+
+  @Override
+  public int getRow() throws SQLException {
+    return afterLast ? 0 : (int) row;
+  }
+
+  @Override
+  public boolean isBeforeFirst() throws SQLException {
+    return !started && super.getWrapped().isBeforeFirst();
+  }
+
+  @Override
+  public boolean isAfterLast() throws SQLException {
+    return afterLast;
+  }
+
+  @Override
+  public boolean isFirst() throws SQLException {
+    return row == 1 && !afterLast;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws  SQLFeatureNotSupportedException  always, which is allowed for {@link ResultSet#TYPE_FORWARD_ONLY}
+   */
+  @Override
+  public boolean isLast() throws SQLException {
+    throw new SQLFeatureNotSupportedException("isLast is not supported while prefetching");
+  }
+
+  private static SQLException forwardOnly() {
+    return new SQLException("Prefetching result set is TYPE_FORWARD_ONLY");
+  }
+
+  @Override
+  public void beforeFirst() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public void afterLast() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean first() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean last() throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean absolute(int row) throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean relative(int rows) throws SQLException {
+    throw forwardOnly();
+  }
+
+  @Override
+  public boolean previous() throws SQLException {
+    throw forwardOnly();
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-sql-wrapper - JDBC API wrapper.
- * Copyright (C) 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,17 +25,38 @@ package com.aoapps.sql.wrapper;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
+import java.sql.CallableStatement;
 import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
 import java.sql.NClob;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.Ref;
+import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.RowId;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLType;
 import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Wraps a {@link PreparedStatement}.
@@ -44,6 +65,112 @@ import java.sql.SQLXML;
  */
 public class PreparedStatementWrapperImpl extends StatementWrapperImpl implements PreparedStatementWrapper {
 
+  /**
+   * Prepares a statement with the same options as the wrapped statement, such as for a rewritten form of its SQL.
+   */
+  @FunctionalInterface
+  protected interface Preparer {
+    PreparedStatement prepare(Connection connection, String sql) throws SQLException;
+  }
+
+  private String sql;
+  private Preparer preparer;
+
+  /**
+   * The parameters of the current row while recording parameters, or {@code null} when parameters are set directly on
+   * the wrapped statement.
+   *
+   * @see  #isRecordingParameters()
+   */
+  private Parameters parameters;
+
+  /**
+   * The recorded rows of the current batch while recording parameters.
+   */
+  private List<Parameters> batch;
+
+  /**
+   * The multi-row form of this statement, when this is a simple single-row insert and multi-row insert rewriting is
+   * enabled.
+   *
+   * @see  ConnectionWrapperImpl#getMultiRowInsertSize()
+   */
+  private MultiRowInsert multiRowInsert;
+
+  /**
+   * The cached multi-row statement for full-sized chunks.
+   */
+  private PreparedStatement multiRowStatement;
+  private int multiRowStatementRows;
+
+  /**
+   * Whether failed batches are retried by bisection to isolate the failed rows.
+   *
+   * @see  ConnectionWrapperImpl#isBatchFailureIsolation()
+   */
+  private boolean batchFailureIsolation;
+
+  /**
+   * Whether this statement was prepared to return generated keys.
+   */
+  private boolean generatedKeys;
+
+  /**
+   * Whether batches are executed row by row when the driver does not return every generated key of a batch.
+   *
+   * @see  ConnectionWrapperImpl#isBatchGeneratedKeysRowByRow()
+   */
+  private boolean batchGeneratedKeysRowByRow;
+
+  /**
+   * The generated keys of the batch executed by this wrapper, or {@code null} when the generated keys are obtained from
+   * the wrapped statement.
+   */
+  private GeneratedKeys batchKeys;
+
+  /**
+   * The number of calls to {@link #executeUpdate()} that have been deferred into the batch of the wrapped statement.
+   *
+   * @see  ConnectionWrapperImpl#getDeferredUpdateBatchSize()
+   */
+  private int deferredUpdates;
+
+  /**
+   * The update count of the last deferred update, available after the deferred updates have been flushed and until the
+   * next execution.  {@code -1} when not available.
+   */
+  private long flushedUpdateCount = -1;
+
+  /**
+   * Whether identical concurrent queries may be coalesced, once flagged {@linkplain #isIdempotent() idempotent}.
+   *
+   * @see  ConnectionWrapperImpl#isQueryCoalescing()
+   */
+  private boolean queryCoalescing;
+
+  /**
+   * Whether slow queries may be hedged, once flagged {@linkplain #isIdempotent() idempotent}.
+   *
+   * @see  ConnectionWrapperImpl#isHedgedReads()
+   */
+  private boolean hedgedReads;
+
+  /**
+   * Whether queries may be routed to a replica in auto-commit mode.
+   *
+   * @see  ConnectionWrapperImpl#isReplicaQueries()
+   */
+  private boolean replicaQuery;
+
+  /**
+   * The statement prepared again on the replica connection it was prepared on, when queries have been routed to a
+   * replica.
+   */
+  private PreparedStatement replicaStatement;
+  private Connection replicaStatementConnection;
+
+  private volatile boolean idempotent;
+
   public PreparedStatementWrapperImpl(ConnectionWrapperImpl connectionWrapper, PreparedStatement wrapped) {
     super(connectionWrapper, wrapped);
   }
@@ -53,6 +180,524 @@ public class PreparedStatementWrapperImpl extends StatementWrapperImpl implement
     return (PreparedStatement) super.getWrapped();
   }
 
+  /**
+   * Sets the SQL this statement was prepared with, whether it returns generated keys, along with how to prepare the
+   * same statement again.
+   * Called by {@link ConnectionWrapperImpl} after wrapping a newly prepared statement.
+   */
+  void setPrepared(String sql, boolean generatedKeys, Preparer preparer) throws SQLException {
+    this.sql = sql;
+    this.generatedKeys = generatedKeys;
+    this.preparer = preparer;
+    // Batches of callable statements are left to the driver, since their named parameters are not recorded
+    if (!(this instanceof CallableStatement)) {
+      ConnectionWrapperImpl connectionWrapper = getConnectionWrapper();
+      if (generatedKeys && connectionWrapper.isBatchGeneratedKeysRowByRow()) {
+        batchGeneratedKeysRowByRow = true;
+        if (!connectionWrapper.isBatchGeneratedKeysSupported()) {
+          // Batches are executed row by row to obtain every generated key
+          recordParameters();
+        }
+      }
+      if (multiRowInsert == null && connectionWrapper.getMultiRowInsertSize() > 1) {
+        MultiRowInsert insert = MultiRowInsert.parse(sql);
+        if (insert != null) {
+          multiRowInsert = insert;
+          recordParameters();
+        }
+      }
+      if (connectionWrapper.isBatchFailureIsolation()) {
+        batchFailureIsolation = true;
+        recordParameters();
+      }
+      if (connectionWrapper.getBatchChunkTargetMillis() > 0) {
+        recordParameters();
+      }
+      if (connectionWrapper.isQueryCoalescing()) {
+        // Parameters are compared to identify identical queries
+        queryCoalescing = true;
+        recordParameters();
+      }
+      if (connectionWrapper.isHedgedReads()) {
+        // Parameters are applied again to the hedge
+        hedgedReads = true;
+        recordParameters();
+      }
+      if (connectionWrapper.isReadWriteSplitting() && connectionWrapper.isReplicaQueries()
+          && ReadWriteSplitting.isReplicaQuery(sql)) {
+        // Parameters are applied to the statement on the replica instead
+        replicaQuery = true;
+        recordParameters();
+      }
+      if (connectionWrapper.isReconnecting()) {
+        // Parameters are applied again to the statement prepared on a new connection
+        recordParameters();
+      }
+    }
+  }
+
+  /**
+   * Checks if this statement has been flagged as idempotent: a read-only query whose results depend only on its SQL,
+   * its parameters, and the committed state of the database.  When query coalescing is enabled, identical concurrent
+   * queries of idempotent statements share a single execution.  When hedged reads are enabled, slow queries of
+   * idempotent statements are executed again on another backend.  When reconnecting, queries of idempotent statements
+   * are retried on the new connection.
+   *
+   * @see  ConnectionWrapperImpl#isQueryCoalescing()
+   * @see  ConnectionWrapperImpl#isHedgedReads()
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  public boolean isIdempotent() {
+    return idempotent;
+  }
+
+  /**
+   * Flags whether this statement is idempotent.
+   *
+   * @see  #isIdempotent()
+   */
+  public void setIdempotent(boolean idempotent) {
+    this.idempotent = idempotent;
+  }
+
+  /**
+   * Gets the key identifying identical executions of this query, when this query may be coalesced.
+   *
+   * @return  The key or {@code null} when this query may not currently be coalesced
+   *
+   * @see  ConnectionWrapperImpl#isQueryCoalescing()
+   */
+  private List<Object> getCoalescingKey() throws SQLException {
+    Parameters params = parameters;
+    String mySql = sql;
+    if (!queryCoalescing || !idempotent || params == null || mySql == null) {
+      return null;
+    }
+    Object[] values = params.toKey();
+    if (values == null) {
+      return null;
+    }
+    List<Object> context = getConnectionWrapper().getCoalescingContext(replicaQuery);
+    if (context == null) {
+      return null;
+    }
+    return Arrays.asList(context, mySql, getMaxRows(), Arrays.asList(values));
+  }
+
+  /**
+   * Gets the SQL this statement was prepared with, when known.
+   */
+  protected Optional<String> getSql() {
+    return Optional.ofNullable(sql);
+  }
+
+  @Override
+  String getPreparedSql() {
+    return sql;
+  }
+
+  /**
+   * Prepares a new statement with the same options as the wrapped statement, on the given connection.
+   *
+   * @throws  SQLException  when the options of the wrapped statement are not known
+   */
+  protected PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+    Preparer myPreparer = preparer;
+    if (myPreparer == null) {
+      throw new SQLException("Statement options not known, unable to prepare: " + sql);
+    }
+    return myPreparer.prepare(connection, sql);
+  }
+
+  /**
+   * Starts recording parameters in this wrapper instead of setting them directly on the wrapped statement.  Recorded
+   * parameters are applied to the wrapped statement immediately before execution, and rows added to the batch are
+   * retained by this wrapper until the batch is executed.
+   *
+   * <p>Any parameters already set directly on the wrapped statement are cleared.</p>
+   *
+   * @see  #isRecordingParameters()
+   */
+  protected void recordParameters() throws SQLException {
+    if (parameters == null) {
+      getWrapped().clearParameters();
+      parameters = new Parameters();
+      batch = new ArrayList<>();
+    }
+  }
+
+  /**
+   * Checks if parameters are being recorded in this wrapper instead of being set directly on the wrapped statement.
+   *
+   * @see  #recordParameters()
+   */
+  protected boolean isRecordingParameters() {
+    return parameters != null;
+  }
+
+  /**
+   * Applies the recorded parameters of the current row to the wrapped statement, when recording parameters.  The
+   * wrapped statement is first prepared again when the physical connection has been replaced.
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  private void applyParameters() throws SQLException {
+    Parameters params = parameters;
+    if (params != null) {
+      reopenIfReconnected();
+      PreparedStatement pstmt = getWrapped();
+      pstmt.clearParameters();
+      params.apply(pstmt, 0);
+    }
+  }
+
+  /**
+   * Adds the current row to the batch.
+   */
+  private void addBatchRow() throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().addBatch();
+    } else {
+      batch.add(params.copy());
+    }
+  }
+
+  /**
+   * Clears the batch.
+   */
+  private void clearBatchRows() throws SQLException {
+    if (parameters == null) {
+      getWrapped().clearBatch();
+    } else {
+      batch.clear();
+    }
+  }
+
+  /**
+   * Gets the number of rows per multi-row statement, limited by the maximum number of parameters.
+   */
+  private int getMultiRowInsertRows() {
+    ConnectionWrapperImpl connectionWrapper = getConnectionWrapper();
+    return Math.max(
+        1,
+        Math.min(
+            connectionWrapper.getMultiRowInsertSize(),
+            connectionWrapper.getMaxParameters() / multiRowInsert.getParametersPerRow()
+        )
+    );
+  }
+
+  /**
+   * Prepares the multi-row form of this statement.
+   */
+  private PreparedStatement prepareMultiRow(int rows) throws SQLException {
+    PreparedStatement pstmt = prepare(getConnectionWrapper().getWrapped(), multiRowInsert.getSql(rows));
+    try {
+      int queryTimeout = getWrapped().getQueryTimeout();
+      if (queryTimeout != 0) {
+        pstmt.setQueryTimeout(queryTimeout);
+      }
+      return pstmt;
+    } catch (Throwable t) {
+      pstmt.close();
+      throw t;
+    }
+  }
+
+  /**
+   * Executes the given rows as a batch of the wrapped statement.
+   *
+   * @return  The update count for each row
+   */
+  private long[] executeBatchRows(List<Parameters> rows, int from, int to) throws SQLException {
+    PreparedStatement pstmt = getWrapped();
+    for (int row = from; row < to; row++) {
+      pstmt.clearParameters();
+      rows.get(row).apply(pstmt, 0);
+      pstmt.addBatch();
+    }
+    long[] counts = toLargeCounts(pstmt.executeBatch());
+    GeneratedKeys keys = batchKeys;
+    if (keys != null && keys.read(pstmt.getGeneratedKeys()) < to - from) {
+      getConnectionWrapper().batchGeneratedKeysUnsupported();
+    }
+    return counts;
+  }
+
+  /**
+   * Executes the given rows one at a time, for drivers that do not return every generated key of a batch.
+   *
+   * @return  The update count for each row
+   */
+  private long[] executeEachRow(List<Parameters> rows, int from, int to) throws SQLException {
+    PreparedStatement pstmt = getWrapped();
+    long[] counts = new long[to - from];
+    for (int row = from; row < to; row++) {
+      pstmt.clearParameters();
+      rows.get(row).apply(pstmt, 0);
+      counts[row - from] = pstmt.executeUpdate();
+      readBatchKeys(pstmt);
+    }
+    return counts;
+  }
+
+  /**
+   * Reads the generated keys into the keys of the batch, when collecting generated keys.
+   */
+  private void readBatchKeys(Statement stmt) throws SQLException {
+    GeneratedKeys keys = batchKeys;
+    if (keys != null) {
+      keys.read(stmt.getGeneratedKeys());
+    }
+  }
+
+  /**
+   * Executes the given rows as a single multi-row insert.  The multi-row statement is cached for reuse, except for the
+   * final partial chunk of a batch.
+   *
+   * @return  The update count for each row
+   */
+  private long[] executeMultiRow(List<Parameters> rows, int from, int to) throws SQLException {
+    int numRows = to - from;
+    long[] counts = new long[numRows];
+    if (numRows == 1) {
+      PreparedStatement pstmt = getWrapped();
+      pstmt.clearParameters();
+      rows.get(from).apply(pstmt, 0);
+      counts[0] = pstmt.executeUpdate();
+      readBatchKeys(pstmt);
+    } else {
+      PreparedStatement pstmt = multiRowStatement;
+      boolean cached;
+      if (pstmt != null && multiRowStatementRows == numRows) {
+        cached = true;
+      } else if (to < rows.size()) {
+        if (pstmt != null) {
+          multiRowStatement = null;
+          pstmt.close();
+        }
+        pstmt = prepareMultiRow(numRows);
+        multiRowStatement = pstmt;
+        multiRowStatementRows = numRows;
+        cached = true;
+      } else {
+        pstmt = prepareMultiRow(numRows);
+        cached = false;
+      }
+      try {
+        int parametersPerRow = multiRowInsert.getParametersPerRow();
+        for (int row = from; row < to; row++) {
+          rows.get(row).apply(pstmt, (row - from) * parametersPerRow);
+        }
+        int total = pstmt.executeUpdate();
+        // Counts may only be attributed to each row when every row inserted exactly one row
+        Arrays.fill(counts, total == numRows ? 1 : Statement.SUCCESS_NO_INFO);
+        readBatchKeys(pstmt);
+      } finally {
+        if (!cached) {
+          pstmt.close();
+        }
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Executes the recorded batch in chunks, rewriting into multi-row inserts of bounded size when possible.
+   * The batch is cleared.
+   *
+   * @return  The update count for each row of the batch
+   *
+   * @throws  BatchUpdateException  when any chunk fails, containing the update counts of the rows before the
+   *                                failed chunk
+   *
+   * @see  StatementWrapperImpl#executeChunked(int, int, com.aoapps.sql.wrapper.StatementWrapperImpl.BatchChunk)
+   */
+  private long[] executeRecordedBatch() throws SQLException {
+    List<Parameters> rows = batch;
+    batchKeys = generatedKeys ? new GeneratedKeys(rows.size()) : null;
+    try {
+      if (batchFailureIsolation) {
+        BatchResult result = executeIsolated(rows);
+        if (!result.isSuccess()) {
+          throw result.toBatchUpdateException();
+        }
+        return result.getLargeUpdateCounts();
+      }
+      return executeChunked(rows.size(), getMaxChunk(), (from, to) -> executeRows(rows, from, to));
+    } finally {
+      rows.clear();
+    }
+  }
+
+  /**
+   * Gets the maximum number of rows executed in a single round trip.
+   */
+  private int getMaxChunk() {
+    return (multiRowInsert == null) ? Integer.MAX_VALUE : getMultiRowInsertRows();
+  }
+
+  /**
+   * Executes the given rows in a single round trip, as a multi-row insert when possible.
+   *
+   * @return  The update count for each row
+   */
+  private long[] executeRows(List<Parameters> rows, int from, int to) throws SQLException {
+    if (multiRowInsert != null) {
+      return executeMultiRow(rows, from, to);
+    } else if (batchGeneratedKeysRowByRow && !getConnectionWrapper().isBatchGeneratedKeysSupported()) {
+      return executeEachRow(rows, from, to);
+    } else {
+      return executeBatchRows(rows, from, to);
+    }
+  }
+
+  /**
+   * Executes the given rows, isolating failed rows by bisection.  Each attempt is made under its own savepoint, so a
+   * failed attempt is rolled back before its halves are retried.  When the connection is in auto-commit mode, the
+   * batch is executed in a transaction and the rows that succeed are committed.
+   *
+   * @return  The outcome of each row
+   */
+  private BatchResult executeIsolated(List<Parameters> rows) throws SQLException {
+    Connection conn = getConnectionWrapper().getWrapped();
+    boolean autoCommit = conn.getAutoCommit();
+    if (autoCommit) {
+      conn.setAutoCommit(false);
+    }
+    try {
+      int numRows = rows.size();
+      SortedMap<Integer, SQLException> failures = new TreeMap<>();
+      int[] roundTrips = {0};
+      long[] counts = executeChunked(numRows, getMaxChunk(), (from, to) -> {
+        long[] chunkCounts = new long[to - from];
+        isolate(conn, rows, from, from, to, chunkCounts, failures, roundTrips);
+        return chunkCounts;
+      });
+      if (autoCommit) {
+        conn.commit();
+      }
+      return new BatchResult(counts, failures, roundTrips[0]);
+    } catch (Throwable t) {
+      if (autoCommit) {
+        try {
+          conn.rollback();
+        } catch (Throwable t2) {
+          t.addSuppressed(t2);
+        }
+      }
+      throw t;
+    } finally {
+      if (autoCommit) {
+        conn.setAutoCommit(true);
+      }
+    }
+  }
+
+  /**
+   * Checks if the given rows may be applied again, having no stream parameters.
+   */
+  private static boolean isRepeatable(List<Parameters> rows, int from, int to) {
+    for (int row = from; row < to; row++) {
+      if (!rows.get(row).isRepeatable()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Executes the given rows under a savepoint, bisecting on failure until each failed row is isolated.  The generated
+   * keys of a failed attempt are discarded along with its rows.
+   *
+   * @param  offset  The index of the row stored at the start of {@code counts}
+   *
+   * @throws  SQLException  the failure of the attempt, unchanged, when any of its rows has a stream parameter, since
+   *                        streams are consumed by the failed attempt and may not be applied again
+   */
+  private void isolate(
+      Connection conn,
+      List<Parameters> rows,
+      int offset,
+      int from,
+      int to,
+      long[] counts,
+      SortedMap<Integer, SQLException> failures,
+      int[] roundTrips
+  ) throws SQLException {
+    Savepoint savepoint = conn.setSavepoint();
+    GeneratedKeys keys = batchKeys;
+    int keysSize = (keys == null) ? 0 : keys.size();
+    long[] rowCounts;
+    try {
+      roundTrips[0]++;
+      rowCounts = executeRows(rows, from, to);
+    } catch (SQLException e) {
+      conn.rollback(savepoint);
+      if (keys != null) {
+        keys.truncate(keysSize);
+      }
+      if (to - from > 1 && !isRepeatable(rows, from, to)) {
+        throw e;
+      }
+      if (to - from == 1) {
+        counts[from - offset] = Statement.EXECUTE_FAILED;
+        failures.put(from, e);
+      } else {
+        int mid = (from + to) >>> 1;
+        isolate(conn, rows, offset, from, mid, counts, failures, roundTrips);
+        isolate(conn, rows, offset, mid, to, counts, failures, roundTrips);
+      }
+      return;
+    }
+    try {
+      conn.releaseSavepoint(savepoint);
+    } catch (SQLFeatureNotSupportedException e) {
+      // Savepoint is released at the end of the transaction
+    }
+    int numCounts = Math.min(to - from, rowCounts.length);
+    System.arraycopy(rowCounts, 0, counts, from - offset, numCounts);
+    if (numCounts < to - from) {
+      Arrays.fill(counts, from - offset + numCounts, to - offset, Statement.SUCCESS_NO_INFO);
+    }
+  }
+
+  /**
+   * Executes the batch, isolating any failed rows by bisection.  Each attempt is made under its own savepoint, so the
+   * rows that succeed remain executed while each failed row is rolled back.  When the connection is in auto-commit
+   * mode, the batch is executed in a transaction and the rows that succeed are committed.
+   *
+   * <p>This isolates {@code k} failed rows of a batch of {@code n} rows in {@code O(k log n)} round trips.</p>
+   *
+   * <p>Rows with stream parameters are not isolated, since a stream is consumed by the failed attempt: the failure of
+   * an attempt that includes such rows is thrown instead.</p>
+   *
+   * @return  The outcome of each row, which may include failures
+   *
+   * @throws  SQLException  when parameters are not being recorded, when the batch cannot be executed at all, such as
+   *                        a failure to set a savepoint, or when a failed attempt includes rows with stream parameters
+   *
+   * @see  ConnectionWrapperImpl#isBatchFailureIsolation()
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  public BatchResult executeIsolatedBatch() throws SQLException {
+    beforeExecute();
+    if (parameters == null) {
+      throw new SQLException(
+          "Parameters are not being recorded, enable ConnectionWrapperImpl.setBatchFailureIsolation(true) before"
+              + " preparing the statement"
+      );
+    }
+    List<Parameters> rows = batch;
+    batchKeys = generatedKeys ? new GeneratedKeys(rows.size()) : null;
+    try {
+      return executeWrapped(() -> executeIsolated(rows));
+    } finally {
+      rows.clear();
+    }
+  }
+
   /**
    * Unwraps an {@link Array}, if wrapped by this wrapper.
    *
@@ -155,92 +800,1052 @@ public class PreparedStatementWrapperImpl extends StatementWrapperImpl implement
   /**
    * {@inheritDoc}
    *
+   * <p>Also discards the update count of any previously flushed deferred updates and the generated keys of any
+   * previous batch.</p>
+   */
+  @Override
+  protected void beforeExecute() throws SQLException {
+    super.beforeExecute();
+    flushedUpdateCount = -1;
+    batchKeys = null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>After a batch executed by this wrapper, such as when recording parameters, these are the generated keys of every
+   * round trip of the batch, in the order the rows were executed.  When the driver does not return every generated key
+   * of a batch, and {@linkplain ConnectionWrapperImpl#isBatchGeneratedKeysRowByRow() enabled}, the wrapper executes
+   * the batch row by row to obtain every key.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBatchGeneratedKeysSupported()
+   */
+  @Override
+  public long[] getGeneratedLongKeys() throws SQLException {
+    GeneratedKeys keys = batchKeys;
+    return (keys == null) ? super.getGeneratedLongKeys() : keys.toArray();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>After a batch executed by this wrapper, these are the {@linkplain #getGeneratedLongKeys() keys collected from
+   * every round trip of the batch}, as a single {@code BIGINT} column, since the generated keys of the wrapped statement
+   * have already been read.</p>
+   */
+  @Override
+  public ResultSetWrapperImpl getGeneratedKeys() throws SQLException {
+    GeneratedKeys keys = batchKeys;
+    return (keys == null) ? super.getGeneratedKeys() : wrapResultSet(keys.toResultSet());
+  }
+
+  /**
+   * Gets the number of updates currently deferred into the batch of the wrapped statement.
+   *
+   * @see  ConnectionWrapperImpl#getDeferredUpdateBatchSize()
+   */
+  protected int getDeferredUpdates() {
+    return deferredUpdates;
+  }
+
+  /**
+   * Defers the current update into the batch of the wrapped statement when automatic statement batching is enabled with
+   * {@linkplain ConnectionWrapperImpl#isOptimisticUpdateCount() optimistic update counts}, and the connection is in a
+   * transaction.
+   *
+   * @return  {@code true} when the update has been deferred, or {@code false} when it should be executed now.
+   *
+   * @see  ConnectionWrapperImpl#getDeferredUpdateBatchSize()
+   */
+  protected boolean deferUpdate() throws SQLException {
+    ConnectionWrapperImpl connectionWrapper = getConnectionWrapper();
+    int batchSize = connectionWrapper.getDeferredUpdateBatchSize();
+    if (
+        batchSize <= 0
+            // The actual update count is expected from the update
+            || !connectionWrapper.isOptimisticUpdateCount()
+            // Out parameters are not available from batches
+            || this instanceof CallableStatement
+            // Generated keys are expected immediately after the update
+            || generatedKeys
+            || connectionWrapper.getKnownAutoCommit()
+    ) {
+      return false;
+    }
+    // Flushes any other statement
+    connectionWrapper.setDeferredUpdatesStatement(this);
+    flushedUpdateCount = -1;
+    addBatchRow();
+    if (++deferredUpdates >= batchSize) {
+      flushDeferredUpdates();
+    }
+    return true;
+  }
+
+  /**
+   * Executes any updates deferred by automatic statement batching.
+   *
+   * @throws  java.sql.BatchUpdateException  when any of the deferred updates fail
+   *
+   * @see  ConnectionWrapperImpl#flushDeferredUpdates()
+   */
+  protected void flushDeferredUpdates() throws SQLException {
+    if (deferredUpdates != 0) {
+      deferredUpdates = 0;
+      getConnectionWrapper().clearDeferredUpdatesStatement(this);
+      if (parameters == null) {
+        int[] counts = executeWrapped(() -> getWrapped().executeBatch());
+        flushedUpdateCount = counts.length == 0 ? -1 : toFlushedUpdateCount(counts[counts.length - 1]);
+      } else {
+        long[] counts = executeWrapped(this::executeRecordedBatch);
+        flushedUpdateCount = counts.length == 0 ? -1 : toFlushedUpdateCount(counts[counts.length - 1]);
+      }
+    }
+  }
+
+  /**
+   * Gets the update count reported for the last flushed update.  {@link Statement#SUCCESS_NO_INFO} is reported as the
+   * optimistic update count of one, since the update succeeded without a known count.
+   *
+   * @see  ConnectionWrapperImpl#isOptimisticUpdateCount()
+   */
+  private static long toFlushedUpdateCount(long count) {
+    return (count == Statement.SUCCESS_NO_INFO) ? 1 : count;
+  }
+
+  /**
+   * Discards any updates deferred by automatic statement batching, such as when the transaction is rolled back.
+   *
+   * @see  ConnectionWrapperImpl#discardDeferredUpdates()
+   */
+  protected void discardDeferredUpdates() throws SQLException {
+    if (deferredUpdates != 0) {
+      deferredUpdates = 0;
+      getConnectionWrapper().clearDeferredUpdatesStatement(this);
+      clearBatchRows();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#isQueryCoalescing()
+   * @see  ConnectionWrapperImpl#isHedgedReads()
+   * @see  ConnectionWrapperImpl#isReplicaQueries()
    * @see  PreparedStatementWrapperImpl#wrapResultSet(java.sql.ResultSet)
    */
   @Override
   public ResultSetWrapperImpl executeQuery() throws SQLException {
-    return wrapResultSet(getWrapped().executeQuery());
+    beforeExecute();
+    List<Object> key = getCoalescingKey();
+    if (key != null) {
+      QueryCoalescer coalescer = getConnectionWrapper().getQueryCoalescer();
+      if (coalescer != null) {
+        return coalescer.executeQuery(key, this, this::executeQueryHedged);
+      }
+    }
+    return executeQueryHedged();
+  }
+
+  /**
+   * Executes the query, hedged on another backend when enabled.
+   *
+   * @see  ConnectionWrapperImpl#isHedgedReads()
+   */
+  private ResultSetWrapperImpl executeQueryHedged() throws SQLException {
+    Parameters params = parameters;
+    String mySql = sql;
+    if (hedgedReads && idempotent && params != null && mySql != null && params.toKey() != null) {
+      HedgedReads hedged = getConnectionWrapper().getHedgedReads();
+      if (hedged != null) {
+        return hedged.executeQuery(this, mySql, params.copy(), this::executeQueryRouted);
+      }
+    }
+    return wrapResultSet(executeQueryRouted());
+  }
+
+  /**
+   * Executes the query, routed to a replica when enabled and not currently reading from the primary.
+   *
+   * @see  ConnectionWrapperImpl#isReplicaQueries()
+   */
+  private ResultSet executeQueryRouted() throws SQLException {
+    Parameters params = parameters;
+    if (replicaQuery && params != null) {
+      Connection replicaConnection = getConnectionWrapper().getReplicaQueryConnection();
+      if (replicaConnection != null) {
+        PreparedStatement pstmt = getReplicaStatement(replicaConnection);
+        pstmt.clearParameters();
+        params.apply(pstmt, 0);
+        return executeWrapped(pstmt, true, pstmt::executeQuery);
+      }
+    }
+    applyParameters();
+    return executeWrapped(getWrapped(), true, () -> getWrapped().executeQuery());
+  }
+
+  /**
+   * Gets this statement prepared again on the given replica connection, with the current limits of the wrapped
+   * statement.
+   */
+  private PreparedStatement getReplicaStatement(Connection replicaConnection) throws SQLException {
+    PreparedStatement pstmt = replicaStatement;
+    if (pstmt == null || replicaStatementConnection != replicaConnection) {
+      replicaStatement = null;
+      replicaStatementConnection = null;
+      if (pstmt != null) {
+        pstmt.close();
+      }
+      pstmt = prepare(replicaConnection, sql);
+      replicaStatement = pstmt;
+      replicaStatementConnection = replicaConnection;
+    }
+    copyLimits(getWrapped(), pstmt);
+    return pstmt;
+  }
+
+  /**
+   * Copies the limits of one statement to another.
+   */
+  private static void copyLimits(PreparedStatement from, PreparedStatement to) throws SQLException {
+    to.setMaxRows(from.getMaxRows());
+    to.setFetchSize(from.getFetchSize());
+    to.setMaxFieldSize(from.getMaxFieldSize());
+    // Zero when the query timeout is enforced by this wrapper
+    to.setQueryTimeout(from.getQueryTimeout());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Prepares this statement again with the same options and limits, then applies the recorded parameters.  This
+   * requires the parameters to be recorded, since any parameters set directly on the wrapped statement are lost with
+   * it.</p>
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  @Override
+  boolean reopen() throws SQLException {
+    String mySql = sql;
+    if (mySql == null || preparer == null || !isRecordingParameters()) {
+      return false;
+    }
+    PreparedStatement lost = getWrapped();
+    PreparedStatement pstmt = prepare(getConnectionWrapper().getWrapped(), mySql);
+    try {
+      copyLimits(lost, pstmt);
+    } catch (Throwable t) {
+      pstmt.close();
+      throw t;
+    }
+    setWrapped(pstmt);
+    closeLost(lost);
+    PreparedStatement lostMultiRow = multiRowStatement;
+    if (lostMultiRow != null) {
+      multiRowStatement = null;
+      closeLost(lostMultiRow);
+    }
+    applyParameters();
+    return true;
+  }
+
+  /**
+   * Closes a statement of a lost connection, ignoring any failure.
+   */
+  private static void closeLost(PreparedStatement pstmt) {
+    try {
+      pstmt.close();
+    } catch (SQLException e) {
+      // Lost with the connection
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Queries of statements flagged {@linkplain #isIdempotent() idempotent} may be retried.</p>
+   */
+  @Override
+  boolean isRetryable() {
+    return idempotent;
+  }
+
+  /**
+   * Asynchronous form of {@link #executeQuery()}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<ResultSetWrapperImpl> executeQueryAsync() {
+    return executeAsync(this::executeQuery);
+  }
+
+  /**
+   * Asynchronous form of {@link #executeUpdate()}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<Integer> executeUpdateAsync() {
+    return executeAsync(this::executeUpdate);
+  }
+
+  /**
+   * Asynchronous form of {@link #executeLargeUpdate()}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<Long> executeLargeUpdateAsync() {
+    return executeAsync(this::executeLargeUpdate);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When automatic statement batching is enabled with
+   * {@linkplain ConnectionWrapperImpl#isOptimisticUpdateCount() optimistic update counts} and the connection is in a
+   * transaction, the update is deferred into a batch and an optimistic update count of one is returned.  Otherwise, the
+   * update is executed now and its actual update count is returned.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#deferUpdate()
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public int executeUpdate() throws SQLException {
+    if (deferUpdate()) {
+      return 1;
+    }
+    beforeExecute();
+    applyParameters();
+    return executeWrapped(() -> getWrapped().executeUpdate());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When automatic statement batching is enabled with
+   * {@linkplain ConnectionWrapperImpl#isOptimisticUpdateCount() optimistic update counts} and the connection is in a
+   * transaction, the update is deferred into a batch and an optimistic update count of one is returned.  Otherwise, the
+   * update is executed now and its actual update count is returned.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#deferUpdate()
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public long executeLargeUpdate() throws SQLException {
+    if (deferUpdate()) {
+      return 1;
+    }
+    beforeExecute();
+    applyParameters();
+    return executeWrapped(() -> getWrapped().executeLargeUpdate());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean execute() throws SQLException {
+    beforeExecute();
+    applyParameters();
+    return executeWrapped(() -> getWrapped().execute());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Any deferred updates are flushed first, so they are not mixed into the batch.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#flushDeferredUpdates()
+   */
+  @Override
+  public void addBatch() throws SQLException {
+    flushDeferredUpdates();
+    addBatchRow();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>SQL batches are not recorded for prepared statements, since they are not supported by prepared statements.</p>
+   */
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    getWrapped().addBatch(sql);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Any deferred updates are flushed first, so they are not lost.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#flushDeferredUpdates()
+   */
+  @Override
+  public void clearBatch() throws SQLException {
+    flushDeferredUpdates();
+    clearBatchRows();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When recording parameters, the recorded batch is executed in chunks, rewritten into multi-row inserts when
+   * possible.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#getMultiRowInsertSize()
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  @Override
+  public int[] executeBatch() throws SQLException {
+    beforeExecute();
+    if (parameters == null) {
+      return executeWrapped(() -> getWrapped().executeBatch());
+    } else {
+      try {
+        return toIntCounts(executeWrapped(this::executeRecordedBatch));
+      } catch (BatchUpdateException e) {
+        throw toIntCounts(e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When recording parameters, the recorded batch is executed in chunks, rewritten into multi-row inserts when
+   * possible.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#getMultiRowInsertSize()
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    beforeExecute();
+    if (parameters == null) {
+      return executeWrapped(() -> getWrapped().executeLargeBatch());
+    } else {
+      return executeWrapped(this::executeRecordedBatch);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void clearParameters() throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().clearParameters();
+    } else {
+      params.clear();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>While updates are deferred, either an optimistic update count of one is returned or the deferred updates are
+   * flushed, depending on {@link ConnectionWrapperImpl#isOptimisticUpdateCount()}.  After the deferred updates are
+   * flushed, this is the update count of the last deferred update, with {@link Statement#SUCCESS_NO_INFO} reported as
+   * one.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#flushDeferredUpdates()
+   */
+  @Override
+  public int getUpdateCount() throws SQLException {
+    long count = getDeferredUpdateCount();
+    return count == Long.MIN_VALUE ? getWrapped().getUpdateCount() : (int) count;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>While updates are deferred, either an optimistic update count of one is returned or the deferred updates are
+   * flushed, depending on {@link ConnectionWrapperImpl#isOptimisticUpdateCount()}.  After the deferred updates are
+   * flushed, this is the update count of the last deferred update, with {@link Statement#SUCCESS_NO_INFO} reported as
+   * one.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#flushDeferredUpdates()
+   */
+  @Override
+  public long getLargeUpdateCount() throws SQLException {
+    long count = getDeferredUpdateCount();
+    return count == Long.MIN_VALUE ? getWrapped().getLargeUpdateCount() : count;
+  }
+
+  /**
+   * Gets the update count for deferred updates.
+   *
+   * @return  The update count or {@link Long#MIN_VALUE} when the update count should be obtained from the wrapped
+   *          statement.
+   */
+  private long getDeferredUpdateCount() throws SQLException {
+    if (deferredUpdates != 0) {
+      if (getConnectionWrapper().isOptimisticUpdateCount()) {
+        return 1;
+      }
+      flushDeferredUpdates();
+    }
+    long count = flushedUpdateCount;
+    return count == -1 ? Long.MIN_VALUE : count;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Any deferred updates are flushed first, and any multi-row statement and statement prepared on a replica are
+   * closed.</p>
+   *
+   * @see  PreparedStatementWrapperImpl#flushDeferredUpdates()
+   */
+  @Override
+  public void close() throws SQLException {
+    try {
+      flushDeferredUpdates();
+    } finally {
+      try {
+        PreparedStatement pstmt = multiRowStatement;
+        if (pstmt != null) {
+          multiRowStatement = null;
+          pstmt.close();
+        }
+      } finally {
+        try {
+          PreparedStatement pstmt = replicaStatement;
+          if (pstmt != null) {
+            replicaStatement = null;
+            replicaStatementConnection = null;
+            pstmt.close();
+          }
+        } finally {
+          super.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNull(parameterIndex, sqlType);
+    } else {
+      params.set(parameterIndex, null, (pstmt, i) -> pstmt.setNull(i, sqlType));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBoolean(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setBoolean(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setByte(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setByte(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setShort(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setShort(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setInt(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setInt(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setLong(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setLong(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setFloat(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setFloat(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setDouble(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setDouble(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBigDecimal(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setBigDecimal(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setString(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setString(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBytes(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setBytes(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setDate(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setDate(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setTime(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setTime(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setTimestamp(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setTimestamp(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setObject(parameterIndex, x, targetSqlType);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setObject(i, x, targetSqlType));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setObject(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setObject(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setDate(parameterIndex, x, cal);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setDate(i, x, cal));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setTime(parameterIndex, x, cal);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setTime(i, x, cal));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setTimestamp(parameterIndex, x, cal);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setTimestamp(i, x, cal));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNull(parameterIndex, sqlType, typeName);
+    } else {
+      params.set(parameterIndex, null, (pstmt, i) -> pstmt.setNull(i, sqlType, typeName));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setURL(parameterIndex, x);
+    } else {
+      params.set(parameterIndex, x, (pstmt, i) -> pstmt.setURL(i, x));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNString(parameterIndex, value);
+    } else {
+      params.set(parameterIndex, value, (pstmt, i) -> pstmt.setNString(i, value));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setObject(i, x, targetSqlType, scaleOrLength));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setObject(i, x, targetSqlType, scaleOrLength));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
+   */
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setObject(parameterIndex, x, targetSqlType);
+    } else {
+      params.setUnkeyed(parameterIndex, x, (pstmt, i) -> pstmt.setObject(i, x, targetSqlType));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
-    getWrapped().setAsciiStream(parameterIndex, unwrapInputStream(x), length);
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setAsciiStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setAsciiStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   @Deprecated(since = "1.2")
   public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
-    getWrapped().setUnicodeStream(parameterIndex, unwrapInputStream(x), length);
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setUnicodeStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setUnicodeStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
-    getWrapped().setBinaryStream(parameterIndex, unwrapInputStream(x), length);
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBinaryStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBinaryStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
-    getWrapped().setCharacterStream(parameterIndex, unwrapReader(reader), length);
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setCharacterStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setCharacterStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapRef(java.sql.Ref)
    */
   @Override
   public void setRef(int parameterIndex, Ref x) throws SQLException {
-    getWrapped().setRef(parameterIndex, unwrapRef(x));
+    Ref unwrapped = unwrapRef(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setRef(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setRef(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapBlob(java.sql.Blob)
    */
   @Override
   public void setBlob(int parameterIndex, Blob x) throws SQLException {
-    getWrapped().setBlob(parameterIndex, unwrapBlob(x));
+    Blob unwrapped = unwrapBlob(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBlob(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBlob(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapClob(java.sql.Clob)
    */
   @Override
   public void setClob(int parameterIndex, Clob x) throws SQLException {
-    getWrapped().setClob(parameterIndex, unwrapClob(x));
+    Clob unwrapped = unwrapClob(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setClob(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setClob(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapArray(java.sql.Array)
    */
   @Override
   public void setArray(int parameterIndex, Array x) throws SQLException {
-    getWrapped().setArray(parameterIndex, unwrapArray(x));
+    Array unwrapped = unwrapArray(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setArray(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setArray(i, unwrapped));
+    }
   }
 
   /**
@@ -266,170 +1871,289 @@ public class PreparedStatementWrapperImpl extends StatementWrapperImpl implement
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapRowId(java.sql.RowId)
    */
   @Override
   public void setRowId(int parameterIndex, RowId x) throws SQLException {
-    getWrapped().setRowId(parameterIndex, unwrapRowId(x));
+    RowId unwrapped = unwrapRowId(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setRowId(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setRowId(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
-    getWrapped().setNCharacterStream(parameterIndex, unwrapReader(value), length);
+    Reader unwrapped = unwrapReader(value);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNCharacterStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setNCharacterStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapNClob(java.sql.NClob)
    */
   @Override
   public void setNClob(int parameterIndex, NClob value) throws SQLException {
-    getWrapped().setNClob(parameterIndex, unwrapNClob(value));
+    NClob unwrapped = unwrapNClob(value);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNClob(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setNClob(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
-    getWrapped().setClob(parameterIndex, unwrapReader(reader), length);
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setClob(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setClob(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
-    getWrapped().setBlob(parameterIndex, unwrapInputStream(inputStream), length);
+    InputStream unwrapped = unwrapInputStream(inputStream);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBlob(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBlob(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
-    getWrapped().setNClob(parameterIndex, unwrapReader(reader), length);
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNClob(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setNClob(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapSQLXML(java.sql.SQLXML)
    */
   @Override
   public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
-    getWrapped().setSQLXML(parameterIndex, unwrapSQLXML(xmlObject));
+    SQLXML unwrapped = unwrapSQLXML(xmlObject);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setSQLXML(parameterIndex, unwrapped);
+    } else {
+      params.set(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setSQLXML(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
-    getWrapped().setAsciiStream(parameterIndex, unwrapInputStream(x), length);
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setAsciiStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setAsciiStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-    getWrapped().setBinaryStream(parameterIndex, unwrapInputStream(x), length);
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBinaryStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBinaryStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
-    getWrapped().setCharacterStream(parameterIndex, unwrapReader(reader), length);
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setCharacterStream(parameterIndex, unwrapped, length);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setCharacterStream(i, unwrapped, length));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
-    getWrapped().setAsciiStream(parameterIndex, unwrapInputStream(x));
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setAsciiStream(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setAsciiStream(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-    getWrapped().setBinaryStream(parameterIndex, unwrapInputStream(x));
+    InputStream unwrapped = unwrapInputStream(x);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBinaryStream(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBinaryStream(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-    getWrapped().setCharacterStream(parameterIndex, unwrapReader(reader));
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setCharacterStream(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setCharacterStream(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
-    getWrapped().setNCharacterStream(parameterIndex, unwrapReader(value));
+    Reader unwrapped = unwrapReader(value);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNCharacterStream(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setNCharacterStream(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setClob(int parameterIndex, Reader reader) throws SQLException {
-    getWrapped().setClob(parameterIndex, unwrapReader(reader));
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setClob(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setClob(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapInputStream(java.io.InputStream)
    */
   @Override
   public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
-    getWrapped().setBlob(parameterIndex, unwrapInputStream(inputStream));
+    InputStream unwrapped = unwrapInputStream(inputStream);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setBlob(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setBlob(i, unwrapped));
+    }
   }
 
   /**
    * {@inheritDoc}
    *
+   * @see  PreparedStatementWrapperImpl#isRecordingParameters()
    * @see  PreparedStatementWrapperImpl#unwrapReader(java.io.Reader)
    */
   @Override
   public void setNClob(int parameterIndex, Reader reader) throws SQLException {
-    getWrapped().setNClob(parameterIndex, unwrapReader(reader));
+    Reader unwrapped = unwrapReader(reader);
+    Parameters params = parameters;
+    if (params == null) {
+      getWrapped().setNClob(parameterIndex, unwrapped);
+    } else {
+      params.setStream(parameterIndex, unwrapped, (pstmt, i) -> pstmt.setNClob(i, unwrapped));
+    }
   }
 }
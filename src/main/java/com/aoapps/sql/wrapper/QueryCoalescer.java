@@ -0,0 +1,220 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces identical concurrent queries into a single in-flight execution, shared by all connections of a driver.
+ *
+ * <p>The first caller of a key becomes the leader and executes the query.  Callers of the same key arriving while the
+ * leader executes join it as followers, waiting for the leader instead of executing the query themselves.  When the
+ * leader completes without followers, it reads its own result set directly, without buffering any rows.  Otherwise
+ * the leader reads the rows into a {@link RowBuffer}, and every caller, including the leader, then reads the buffered
+ * rows through its own cursor.  A failure of the leader is thrown to every follower.  The key is removed once the
+ * leader completes, so results are never reused by later executions.</p>
+ *
+ * <p>At most {@linkplain DriverWrapper#getQueryCoalescingMaxRows() a maximum number of rows} are buffered.  When the
+ * query has more rows, the followers execute the query themselves, while the leader continues reading the remaining
+ * rows from its result set after the buffered rows.</p>
+ *
+ * @see  PreparedStatementWrapperImpl#isIdempotent()
+ * @see  ConnectionWrapperImpl#isQueryCoalescing()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class QueryCoalescer {
+
+  /**
+   * The number of followers once no more may join.
+   */
+  private static final int CLOSED = -1;
+
+  /**
+   * An in-flight execution, with the number of followers waiting for its rows.
+   */
+  private static final class InFlight {
+
+    private final AtomicInteger followers = new AtomicInteger();
+
+    /**
+     * The buffered rows, or {@code null} when the followers must execute the query themselves.
+     */
+    private final CompletableFuture<RowBuffer> rows = new CompletableFuture<>();
+
+    /**
+     * Joins as a follower.
+     *
+     * @return  {@code false} when the leader has already completed, and the caller must execute the query itself
+     */
+    private boolean join() {
+      while (true) {
+        int count = followers.get();
+        if (count == CLOSED) {
+          return false;
+        }
+        if (followers.compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  private final int maxRows;
+  private final ConcurrentMap<List<Object>, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * @param  maxRows  The maximum number of rows buffered for the followers
+   */
+  QueryCoalescer(int maxRows) {
+    if (maxRows < 0) {
+      throw new IllegalArgumentException("maxRows < 0: " + maxRows);
+    }
+    this.maxRows = maxRows;
+  }
+
+  /**
+   * Executes a query, or waits for an identical query already in flight.
+   *
+   * @param  key        Identifies the query, including the statement, its parameters, and the context it executes in
+   * @param  execution  Executes the query when this caller is the leader, or when the rows of the leader are not
+   *                    shared
+   *
+   * @return  The result set of the leader when it has no followers, otherwise an independent cursor over the buffered
+   *          rows
+   *
+   * @throws  SQLTimeoutException  when the {@linkplain Deadline#current() deadline} passes while waiting for the
+   *                               leader
+   */
+  ResultSetWrapperImpl executeQuery(
+      List<Object> key,
+      PreparedStatementWrapperImpl stmtWrapper,
+      StatementWrapperImpl.Execution<? extends ResultSetWrapperImpl> execution
+  ) throws SQLException {
+    InFlight entry = new InFlight();
+    InFlight leader = inFlight.putIfAbsent(key, entry);
+    if (leader == null) {
+      return lead(key, entry, stmtWrapper, execution);
+    }
+    if (leader.join()) {
+      RowBuffer rows = await(leader.rows);
+      if (rows != null) {
+        return new CachedResultSetWrapperImpl(
+            stmtWrapper.getConnectionWrapper(), stmtWrapper, new RowBufferResultSet(rows)
+        );
+      }
+    }
+    // The leader completed before joining, or had too many rows to share
+    return execution.execute();
+  }
+
+  /**
+   * Executes the query as the leader, sharing its rows with any followers.
+   */
+  private ResultSetWrapperImpl lead(
+      List<Object> key,
+      InFlight entry,
+      PreparedStatementWrapperImpl stmtWrapper,
+      StatementWrapperImpl.Execution<? extends ResultSetWrapperImpl> execution
+  ) throws SQLException {
+    ResultSetWrapperImpl results = null;
+    try {
+      try {
+        results = execution.execute();
+      } finally {
+        inFlight.remove(key, entry);
+      }
+      if (entry.followers.getAndSet(CLOSED) == 0) {
+        // No followers: read the result set directly
+        entry.rows.complete(null);
+        return results;
+      }
+      RowBuffer rows = new RowBuffer(new RowBuffer.Columns(results.getMetaData()));
+      if (rows.readFrom(results, maxRows)) {
+        results.close();
+        entry.rows.complete(rows);
+        return new CachedResultSetWrapperImpl(
+            stmtWrapper.getConnectionWrapper(), stmtWrapper, new RowBufferResultSet(rows)
+        );
+      }
+      // Too many rows to share: continue with the remaining rows after the buffered rows
+      entry.rows.complete(null);
+      return new CachedResultSetWrapperImpl(
+          stmtWrapper.getConnectionWrapper(), stmtWrapper, new RowBufferResultSet(rows, results)
+      );
+    } catch (Throwable t) {
+      entry.followers.set(CLOSED);
+      entry.rows.completeExceptionally(t);
+      if (results != null) {
+        try {
+          results.close();
+        } catch (Throwable t2) {
+          t.addSuppressed(t2);
+        }
+      }
+      throw t;
+    }
+  }
+
+  /**
+   * Waits for the leader, limited by any {@linkplain Deadline#current() deadline}.
+   */
+  private static RowBuffer await(CompletableFuture<RowBuffer> leader) throws SQLException {
+    Deadline deadline = Deadline.get();
+    try {
+      return (deadline == null)
+          ? leader.get()
+          : leader.get(Math.max(0, deadline.getRemainingNanos()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for coalesced query", e);
+    } catch (TimeoutException e) {
+      throw new SQLTimeoutException("Deadline passed waiting for coalesced query", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        // A new exception for each caller, since exceptions are not safe to share between threads
+        SQLException sqlEx = (SQLException) cause;
+        throw new SQLException(sqlEx.getMessage(), sqlEx.getSQLState(), sqlEx.getErrorCode(), sqlEx);
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException(cause);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Routes the read-only work of connections to replicas, shared by all connections of a driver.
+ *
+ * <p>Each connection routing work to a replica obtains its own connection to the next of the
+ * {@linkplain DriverWrapper#getReplicaUrls(java.lang.String) replica URLs} in turn, or to the replica chosen by
+ * {@linkplain DriverWrapper#isLoadBalancing() load balancing}.  When no replica may be connected to, the work stays on
+ * the primary.</p>
+ *
+ * <p>After the current thread writes to a primary, whether by a statement in auto-commit mode or by committing a
+ * transaction that executed statements other than queries, its read-only work stays on the primary for the
+ * {@linkplain DriverWrapper#getReadYourWritesMillis() read-your-writes window}, so that it reads its own writes despite
+ * replication lag.</p>
+ *
+ * @see  ConnectionWrapperImpl#isReadWriteSplitting()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ReadWriteSplitting {
+
+  private static final Logger logger = Logger.getLogger(ReadWriteSplitting.class.getName());
+
+  /**
+   * Matches SQL beginning with {@code SELECT}, after any whitespace and comments.
+   */
+  private static final Pattern SELECT = Pattern.compile(
+      "^(?:\\s|/\\*.*?\\*/|--[^\\n]*(?:\\n|$))*SELECT\\b",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+  );
+
+  /**
+   * Matches SQL that may write or lock even though it begins with {@code SELECT}: locking clauses, {@code INTO}, and
+   * multiple statements.
+   */
+  private static final Pattern NOT_READ_ONLY = Pattern.compile(
+      "\\bFOR\\s+(?:UPDATE|SHARE|NO\\s+KEY\\s+UPDATE|KEY\\s+SHARE)\\b|\\bINTO\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b|;\\s*\\S",
+      Pattern.CASE_INSENSITIVE
+  );
+
+  /**
+   * Checks if the given SQL is a single {@code SELECT} that may be routed to a replica in auto-commit mode.
+   *
+   * @see  DriverWrapper#isReplicaQueries()
+   */
+  static boolean isReplicaQuery(String sql) {
+    return sql != null && SELECT.matcher(sql).lookingAt() && !NOT_READ_ONLY.matcher(sql).find();
+  }
+
+  private final DriverWrapper driver;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /**
+   * The {@link System#nanoTime()} of the most recent write by each thread.
+   */
+  private final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+
+  ReadWriteSplitting(DriverWrapper driver) {
+    this.driver = driver;
+  }
+
+  /**
+   * Records a write to a primary by the current thread, starting its read-your-writes window.
+   */
+  void recordWrite() {
+    if (driver.getReadYourWritesMillis() > 0) {
+      lastWriteNanos.set(System.nanoTime());
+    }
+  }
+
+  /**
+   * Checks if the current thread is within the read-your-writes window of its most recent write.
+   */
+  boolean isReadingOwnWrites() {
+    Long last = lastWriteNanos.get();
+    if (last == null) {
+      return false;
+    }
+    if (System.nanoTime() - last < TimeUnit.MILLISECONDS.toNanos(driver.getReadYourWritesMillis())) {
+      return true;
+    }
+    lastWriteNanos.remove();
+    return false;
+  }
+
+  /**
+   * Connects to the next replica of the given primary URL that accepts a connection.  The replica connection is
+   * read-only and does not itself route work to replicas.
+   *
+   * @param  url  The URL the primary connection was obtained with
+   *
+   * @return  The replica connection or {@code null} when there are no replicas or none may be connected to
+   */
+  ConnectionWrapperImpl connectReplica(String url, Properties info) {
+    List<String> replicaUrls = driver.getReplicaUrls(url);
+    int size = replicaUrls.size();
+    if (size == 0) {
+      return null;
+    }
+    LoadBalancer balancer = driver.isLoadBalancing() ? driver.getLoadBalancer() : null;
+    List<String> candidates = (balancer == null) ? null : new ArrayList<>(replicaUrls);
+    int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      String replicaUrl;
+      if (balancer == null) {
+        replicaUrl = replicaUrls.get((start + i) % size);
+      } else {
+        replicaUrl = balancer.choose(candidates, info);
+        candidates.remove(replicaUrl);
+      }
+      ConnectionWrapperImpl replica = null;
+      try {
+        replica = driver.connect(replicaUrl, info);
+        if (replica == null) {
+          logger.log(Level.WARNING, "Replica URL not accepted by {0}: {1}", new Object[] {driver, replicaUrl});
+        } else {
+          replica.setReadWriteSplitting(false);
+          replica.setReplicaQueries(false);
+          replica.setReadOnly(true);
+          return replica;
+        }
+      } catch (SQLException e) {
+        logger.log(Level.FINE, "Unable to connect to replica, trying the next", e);
+        if (balancer != null) {
+          balancer.getBackend(replicaUrl).failed();
+        }
+        if (replica != null) {
+          try {
+            replica.close();
+          } catch (SQLException e2) {
+            logger.log(Level.FINE, "Unable to close replica connection", e2);
+          }
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -72,27 +72,27 @@ public class ReaderWrapper extends Reader implements Wrapper, NoClose {
 
   @Override
   public int read(CharBuffer target) throws IOException {
-    return getWrapped().read(target);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read(target));
   }
 
   @Override
   public int read() throws IOException {
-    return getWrapped().read();
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read());
   }
 
   @Override
   public int read(char[] cbuf) throws IOException {
-    return getWrapped().read(cbuf);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read(cbuf));
   }
 
   @Override
   public int read(char[] cbuf, int off, int len) throws IOException {
-    return getWrapped().read(cbuf, off, len);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().read(cbuf, off, len));
   }
 
   @Override
   public long skip(long n) throws IOException {
-    return getWrapped().skip(n);
+    return getConnectionWrapper().offloadRead(() -> getWrapped().skip(n));
   }
 
   @Override
@@ -120,8 +120,18 @@ public class ReaderWrapper extends Reader implements Wrapper, NoClose {
     getWrapped().close();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When {@linkplain ConnectionWrapperImpl#isBlockingOffload() offloading blocking calls}, the characters are
+   * transferred by offloaded reads, so the writer is written by the calling thread.</p>
+   */
   @Override
   public long transferTo(Writer out) throws IOException {
-    return getWrapped().transferTo(out);
+    if (getConnectionWrapper().isBlockingOffload()) {
+      return super.transferTo(out);
+    } else {
+      return getWrapped().transferTo(out);
+    }
   }
 }
@@ -0,0 +1,245 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the remaining rows of a result set, driven by subscriber demand.
+ *
+ * <p>Rows are read on the {@linkplain ConnectionWrapperImpl#getAsyncExecutor() async executor}, only while there is
+ * outstanding demand.  The fetch size is raised to follow the outstanding demand, up to the maximum fetch size, so that
+ * large requests are fetched in few round trips.  It is never set below the fetch size of the result set when
+ * published, or {@link #MIN_FETCH_SIZE} rows when using the driver default, and is never lowered, so that a subscriber
+ * requesting one row at a time does not cost a round trip per row.  The result set and its statement are closed when
+ * the subscription completes, fails, or is cancelled.</p>
+ *
+ * @see  ResultSetWrapperImpl#publish(com.aoapps.sql.wrapper.ResultSetWrapperImpl.RowMapper, int)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ResultSetPublisher<T> implements Flow.Publisher<T> {
+
+  /**
+   * The smallest fetch size set when the result set uses the fetch size of the driver.
+   */
+  static final int MIN_FETCH_SIZE = 32;
+
+  private final ResultSetWrapperImpl results;
+  private final ResultSetWrapperImpl.RowMapper<? extends T> mapper;
+  private final int maxFetchSize;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  ResultSetPublisher(ResultSetWrapperImpl results, ResultSetWrapperImpl.RowMapper<? extends T> mapper, int maxFetchSize) {
+    if (maxFetchSize < 1) {
+      throw new IllegalArgumentException("maxFetchSize < 1: " + maxFetchSize);
+    }
+    this.results = results;
+    this.mapper = Objects.requireNonNull(mapper);
+    this.maxFetchSize = maxFetchSize;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber);
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          // Already failed
+        }
+
+        @Override
+        public void cancel() {
+          // Already failed
+        }
+      });
+      subscriber.onError(new IllegalStateException("Result set may only be published to a single subscriber"));
+      return;
+    }
+    RowSubscription subscription = new RowSubscription(subscriber);
+    try {
+      subscriber.onSubscribe(subscription);
+    } catch (RuntimeException e) {
+      subscription.cancel();
+      throw e;
+    }
+  }
+
+  private final class RowSubscription implements Flow.Subscription, Runnable {
+
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Executor executor;
+    private final AtomicLong demand = new AtomicLong();
+
+    /**
+     * Serializes the draining of rows, counting the signals received while draining.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+
+    /**
+     * Only accessed while draining.  The fetch size is read from the result set on the first drain, with
+     * {@code minFetchSize} being {@code -1} until then.
+     */
+    private boolean done;
+    private int minFetchSize = -1;
+    private int fetchSize;
+
+    private RowSubscription(Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+      this.executor = results.getConnectionWrapper().getAsyncExecutor();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+      } else {
+        demand.accumulateAndGet(n, (current, add) -> {
+          long sum = current + add;
+          return sum < 0 ? Long.MAX_VALUE : sum;
+        });
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          cancelled = true;
+          wip.set(0);
+          close(e);
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        drain();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drain() {
+      if (done) {
+        return;
+      }
+      IllegalArgumentException invalid = invalidRequest;
+      if (invalid != null) {
+        done = true;
+        close(invalid);
+        subscriber.onError(invalid);
+        return;
+      }
+      try {
+        if (minFetchSize == -1) {
+          fetchSize = results.getFetchSize();
+          minFetchSize = (fetchSize > 0) ? fetchSize : Math.min(MIN_FETCH_SIZE, maxFetchSize);
+        }
+        long outstanding;
+        while (!cancelled && (outstanding = demand.get()) > 0) {
+          // Follow demand upward as it arrives, never below the floor
+          int newFetchSize = (int) Math.max(minFetchSize, Math.min(outstanding, maxFetchSize));
+          if (newFetchSize > fetchSize) {
+            results.setFetchSize(newFetchSize);
+            fetchSize = newFetchSize;
+          }
+          if (!results.next()) {
+            done = true;
+            close(null);
+            subscriber.onComplete();
+            return;
+          }
+          T item = mapper.map(results);
+          demand.decrementAndGet();
+          try {
+            subscriber.onNext(item);
+          } catch (RuntimeException e) {
+            // A subscriber that throws is considered to have cancelled
+            cancelled = true;
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        done = true;
+        close(e);
+        subscriber.onError(e);
+        return;
+      }
+      if (cancelled) {
+        done = true;
+        close(null);
+      }
+    }
+
+    /**
+     * Closes the result set and its statement.
+     *
+     * @param  cause  Any close failure is added as suppressed to this cause, or discarded when {@code null}
+     */
+    private void close(Throwable cause) {
+      try {
+        try {
+          Statement stmt = results.getStatement();
+          try {
+            results.close();
+          } finally {
+            if (stmt != null) {
+              stmt.close();
+            }
+          }
+        } catch (SQLException e) {
+          if (cause != null) {
+            cause.addSuppressed(e);
+          }
+        }
+      } catch (RuntimeException e) {
+        if (cause != null) {
+          cause.addSuppressed(e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Splits the remaining rows of a result set into blocks of mapped rows, so a parallel stream can process the blocks on
+ * other threads while the cursor is only ever read by one thread at a time.
+ *
+ * <p>Each {@link #trySplit()} reads and maps the next block of rows into an array, with the block size growing
+ * arithmetically, the same as {@link Spliterators#spliteratorUnknownSize(java.util.Iterator, int)}.</p>
+ *
+ * @see  ResultSetWrapperImpl#stream(com.aoapps.sql.wrapper.ResultSetWrapperImpl.RowMapper)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ResultSetSpliterator<T> implements Spliterator<T> {
+
+  /**
+   * The growth of the block size on each split.
+   */
+  private static final int BLOCK_UNIT = 1 << 10;
+
+  /**
+   * The maximum block size.
+   */
+  private static final int MAX_BLOCK = 1 << 25;
+
+  private final ResultSetWrapperImpl results;
+  private final ResultSetWrapperImpl.RowMapper<? extends T> mapper;
+
+  private int block;
+  private boolean ended;
+
+  ResultSetSpliterator(ResultSetWrapperImpl results, ResultSetWrapperImpl.RowMapper<? extends T> mapper) {
+    this.results = results;
+    this.mapper = Objects.requireNonNull(mapper);
+  }
+
+  /**
+   * Moves to the next row.
+   *
+   * @return  {@code false} when there are no more rows
+   */
+  private boolean next() throws SQLException {
+    if (ended) {
+      return false;
+    }
+    if (results.next()) {
+      return true;
+    }
+    ended = true;
+    return false;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    Objects.requireNonNull(action);
+    T mapped;
+    try {
+      if (!next()) {
+        return false;
+      }
+      mapped = mapper.map(results);
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(e);
+    }
+    action.accept(mapped);
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    Objects.requireNonNull(action);
+    try {
+      while (next()) {
+        action.accept(mapper.map(results));
+      }
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(e);
+    }
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    int size = Math.min(block + BLOCK_UNIT, MAX_BLOCK);
+    Object[] rows = new Object[size];
+    int count = 0;
+    try {
+      while (count < size && next()) {
+        rows[count++] = mapper.map(results);
+      }
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(e);
+    }
+    if (count == 0) {
+      return null;
+    }
+    block = count;
+    return Spliterators.spliterator(rows, 0, count, ORDERED);
+  }
+
+  @Override
+  public long estimateSize() {
+    return ended ? 0 : Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+}
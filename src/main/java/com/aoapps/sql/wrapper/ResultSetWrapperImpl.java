@@ -37,6 +37,9 @@ import java.sql.SQLException;
 import java.sql.SQLXML;
 import java.sql.Statement;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Wraps a {@link ResultSet}.
@@ -49,6 +52,12 @@ public class ResultSetWrapperImpl implements ResultSetWrapper {
   private final StatementWrapperImpl stmtWrapper;
   private final ResultSet wrapped;
 
+  /**
+   * The calls to {@link #next()} since, and including, the last one that was offloaded, or {@code -1} before the
+   * first call.
+   */
+  private int rowsSinceOffload = -1;
+
   /**
    * Wraps a {@link ResultSet}.
    */
@@ -82,6 +91,84 @@ public class ResultSetWrapperImpl implements ResultSetWrapper {
     return getWrapped().toString();
   }
 
+  /**
+   * Maps the current row of a result set to an object.
+   */
+  @FunctionalInterface
+  public interface RowMapper<T> {
+    T map(ResultSetWrapperImpl results) throws SQLException;
+  }
+
+  /**
+   * Publishes the remaining rows, mapped to objects, with a maximum fetch size of
+   * {@link Flow#defaultBufferSize()}.
+   *
+   * @see  #publish(com.aoapps.sql.wrapper.ResultSetWrapperImpl.RowMapper, int)
+   */
+  public <T> Flow.Publisher<T> publish(RowMapper<? extends T> mapper) {
+    return publish(mapper, Flow.defaultBufferSize());
+  }
+
+  /**
+   * Publishes the remaining rows, mapped to objects, to a single subscriber.
+   *
+   * <p>Subscriber demand drives {@link #next()}: rows are only read while there is outstanding demand, and the
+   * {@linkplain #setFetchSize(int) fetch size} is raised to follow the outstanding demand, up to {@code maxFetchSize},
+   * so a slow subscriber never causes the whole result to be held in memory.  The fetch size is never lowered below its
+   * value when published, so small requests do not cost a round trip per row.  Rows are read on the
+   * {@linkplain ConnectionWrapperImpl#getAsyncExecutor() async executor}.</p>
+   *
+   * <p>The publisher takes ownership of this result set and its statement, closing both when the subscription
+   * completes, fails, or is cancelled.  Neither may be used by the caller after subscribing.</p>
+   *
+   * @param  maxFetchSize  The maximum fetch size, which also limits the rows fetched ahead of demand
+   */
+  public <T> Flow.Publisher<T> publish(RowMapper<? extends T> mapper, int maxFetchSize) {
+    return new ResultSetPublisher<>(this, mapper, maxFetchSize);
+  }
+
+  /**
+   * Streams the remaining rows, mapped to objects.
+   *
+   * <p>The stream is sequential, but it may be made {@linkplain Stream#parallel() parallel} for CPU-heavy processing of
+   * each row: rows are then read and mapped in blocks by whichever thread splits the stream, and the blocks are
+   * processed by other threads.  The result set is still only read by one thread at a time, and the mapper must read
+   * everything it needs from the current row, since the cursor moves on before the mapped rows are processed.</p>
+   *
+   * <p>A {@link SQLException} reading or mapping a row is thrown as an {@link UncheckedSQLException}.  Closing the
+   * stream closes this result set.</p>
+   */
+  public <T> Stream<T> stream(RowMapper<? extends T> mapper) {
+    return StreamSupport.stream(new ResultSetSpliterator<T>(this, mapper), false).onClose(() -> {
+      try {
+        close();
+      } catch (SQLException e) {
+        throw new UncheckedSQLException(e);
+      }
+    });
+  }
+
+  /**
+   * Prefetches the remaining rows in the background, reading and decoding the next chunk of rows while the current
+   * chunk is consumed, so fetch latency overlaps with the processing of each row.  At most two chunks of rows are held
+   * in memory at once.
+   *
+   * <p>The returned result set takes over this result set, which must not be used after this call.  Its getters read
+   * the buffered row, converting the values as drivers do, including {@link #getObject(int, java.lang.Class)} to the
+   * {@code java.time} types.  It is forward-only and read-only, and a failure reading the rows is thrown by
+   * {@link #next()} after the rows before the failure.  Rows are read on the
+   * {@linkplain ConnectionWrapperImpl#getAsyncExecutor() async executor}, and the connection must not be used for
+   * anything else until the result set is closed: statement executions, commits, and rollbacks fail while rows are
+   * being read in the background.</p>
+   *
+   * @param  chunkSize  The number of rows per chunk, also set as the {@linkplain #setFetchSize(int) fetch size}
+   */
+  public ResultSetWrapperImpl prefetch(int chunkSize) throws SQLException {
+    PrefetchResultSetWrapperImpl prefetched = new PrefetchResultSetWrapperImpl(this, chunkSize);
+    getWrapped().setFetchSize(chunkSize);
+    return prefetched;
+  }
+
   /**
    * Wraps an {@link Array}, if not already wrapped by this wrapper.
    *
@@ -274,6 +361,43 @@ public class ResultSetWrapperImpl implements ResultSetWrapper {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When {@linkplain ConnectionWrapperImpl#isBlockingOffload() offloading blocking calls}, only the calls that
+   * are expected to fetch from the backend are offloaded: the first call, and then every
+   * {@linkplain #getFetchSize() fetch size} calls.  With a negative fetch size, used by some drivers for streaming
+   * results, every call is offloaded.  With a fetch size of zero, the rows are expected to have been read with the
+   * first call.</p>
+   *
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean next() throws SQLException {
+    ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
+    if (myConnectionWrapper.isBlockingOffload() && isFetchExpected()) {
+      return myConnectionWrapper.offload(() -> getWrapped().next());
+    } else {
+      return getWrapped().next();
+    }
+  }
+
+  /**
+   * Checks if the next call to {@link #next()} is expected to fetch from the backend, counting the call.
+   */
+  private boolean isFetchExpected() throws SQLException {
+    int rows = rowsSinceOffload;
+    if (rows != -1) {
+      int fetchSize = getWrapped().getFetchSize();
+      if (fetchSize == 0 || (fetchSize > 0 && rows < fetchSize)) {
+        rowsSinceOffload = rows + 1;
+        return false;
+      }
+    }
+    rowsSinceOffload = 1;
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    *
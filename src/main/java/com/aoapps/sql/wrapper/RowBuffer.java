@@ -0,0 +1,778 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows read from a result set into memory, with a snapshot of the metadata of the result set.  Once read, the rows are
+ * not modified and may be read by any number of {@linkplain RowBufferResultSet cursors} on any thread, such as by the
+ * callers sharing a coalesced query.
+ *
+ * <p>Each value is read with the getter of the driver for the type of its column, so the cursors return the values as
+ * the driver would: character and XML columns with {@link ResultSet#getString(int)}, long binary columns with
+ * {@link ResultSet#getBytes(int)}, and other columns with {@link ResultSet#getObject(int)}.  For boolean, date and
+ * time, and binary columns, whose text differs between drivers, the {@link ResultSet#getString(int)} of the driver is
+ * also kept when it differs from the {@link Object#toString()} of the value.  Large objects and arrays are read into
+ * memory, since the driver may only keep them valid while on their row.  Other driver-specific types, such as
+ * {@link java.sql.Ref} and {@link java.sql.Struct}, are kept as returned by the driver.</p>
+ *
+ * @see  RowBufferResultSet
+ *
+ * @author  AO Industries, Inc.
+ */
+final class RowBuffer {
+
+  /**
+   * Reads an optional property of the metadata.
+   */
+  @FunctionalInterface
+  private interface Property<T> {
+    T get(int column) throws SQLException;
+  }
+
+  /**
+   * A snapshot of the metadata of a result set, so the metadata remains available after the result set is closed and
+   * may be read from any thread.
+   */
+  static final class Columns implements ResultSetMetaData {
+
+    private final int columnCount;
+    private final String[] labels;
+    private final String[] names;
+    private final int[] types;
+    private final String[] typeNames;
+    private final String[] classNames;
+    private final String[] catalogNames;
+    private final String[] schemaNames;
+    private final String[] tableNames;
+    private final int[] precisions;
+    private final int[] scales;
+    private final int[] displaySizes;
+    private final int[] nullables;
+    private final boolean[] autoIncrements;
+    private final boolean[] caseSensitives;
+    private final boolean[] searchables;
+    private final boolean[] currencies;
+    private final boolean[] signeds;
+
+    /**
+     * Gets a property not supported by all drivers.
+     */
+    private static <T> T getOptional(Property<T> property, int column, T defaultValue) throws SQLException {
+      try {
+        return property.get(column);
+      } catch (SQLFeatureNotSupportedException e) {
+        return defaultValue;
+      }
+    }
+
+    Columns(ResultSetMetaData metaData) throws SQLException {
+      columnCount = metaData.getColumnCount();
+      labels = new String[columnCount];
+      names = new String[columnCount];
+      types = new int[columnCount];
+      typeNames = new String[columnCount];
+      classNames = new String[columnCount];
+      catalogNames = new String[columnCount];
+      schemaNames = new String[columnCount];
+      tableNames = new String[columnCount];
+      precisions = new int[columnCount];
+      scales = new int[columnCount];
+      displaySizes = new int[columnCount];
+      nullables = new int[columnCount];
+      autoIncrements = new boolean[columnCount];
+      caseSensitives = new boolean[columnCount];
+      searchables = new boolean[columnCount];
+      currencies = new boolean[columnCount];
+      signeds = new boolean[columnCount];
+      for (int i = 0; i < columnCount; i++) {
+        int column = i + 1;
+        labels[i] = metaData.getColumnLabel(column);
+        names[i] = metaData.getColumnName(column);
+        types[i] = metaData.getColumnType(column);
+        typeNames[i] = getOptional(metaData::getColumnTypeName, column, null);
+        classNames[i] = getOptional(metaData::getColumnClassName, column, Object.class.getName());
+        catalogNames[i] = getOptional(metaData::getCatalogName, column, "");
+        schemaNames[i] = getOptional(metaData::getSchemaName, column, "");
+        tableNames[i] = getOptional(metaData::getTableName, column, "");
+        precisions[i] = getOptional(metaData::getPrecision, column, 0);
+        scales[i] = getOptional(metaData::getScale, column, 0);
+        displaySizes[i] = getOptional(metaData::getColumnDisplaySize, column, 0);
+        nullables[i] = getOptional(metaData::isNullable, column, columnNullableUnknown);
+        autoIncrements[i] = getOptional(metaData::isAutoIncrement, column, false);
+        caseSensitives[i] = getOptional(metaData::isCaseSensitive, column, false);
+        searchables[i] = getOptional(metaData::isSearchable, column, false);
+        currencies[i] = getOptional(metaData::isCurrency, column, false);
+        signeds[i] = getOptional(metaData::isSigned, column, false);
+      }
+    }
+
+    /**
+     * Creates the metadata of a single column that is never {@code null}, such as generated keys.
+     */
+    Columns(String label, int type, String typeName, Class<?> valueClass) {
+      columnCount = 1;
+      labels = new String[] {label};
+      names = new String[] {label};
+      types = new int[] {type};
+      typeNames = new String[] {typeName};
+      classNames = new String[] {valueClass.getName()};
+      catalogNames = new String[] {""};
+      schemaNames = new String[] {""};
+      tableNames = new String[] {""};
+      precisions = new int[1];
+      scales = new int[1];
+      displaySizes = new int[1];
+      nullables = new int[] {columnNoNulls};
+      autoIncrements = new boolean[] {true};
+      caseSensitives = new boolean[1];
+      searchables = new boolean[1];
+      currencies = new boolean[1];
+      signeds = new boolean[] {true};
+    }
+
+    private int index(int column) throws SQLException {
+      if (column < 1 || column > columnCount) {
+        throw new SQLException("Invalid column index: " + column);
+      }
+      return column - 1;
+    }
+
+    /**
+     * Finds the index of the first column with the given label, ignoring case.
+     *
+     * @return  The column index or {@code -1} when not found
+     */
+    int findColumn(String columnLabel) {
+      for (int i = 0; i < columnCount; i++) {
+        if (labels[i] != null && labels[i].equalsIgnoreCase(columnLabel)) {
+          return i + 1;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return columnCount;
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+      return autoIncrements[index(column)];
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+      return caseSensitives[index(column)];
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+      return searchables[index(column)];
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+      return currencies[index(column)];
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+      return nullables[index(column)];
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+      return signeds[index(column)];
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+      return displaySizes[index(column)];
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+      return labels[index(column)];
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+      return names[index(column)];
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+      return schemaNames[index(column)];
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+      return precisions[index(column)];
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+      return scales[index(column)];
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+      return tableNames[index(column)];
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+      return catalogNames[index(column)];
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+      return types[index(column)];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+      return typeNames[index(column)];
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+      index(column);
+      return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+      index(column);
+      return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+      index(column);
+      return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+      return classNames[index(column)];
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+      if (iface.isInstance(this)) {
+        return iface.cast(this);
+      }
+      throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+      return iface.isInstance(this);
+    }
+  }
+
+  /**
+   * A value along with the {@link ResultSet#getString(int)} of the driver, when it differs from the
+   * {@link Object#toString()} of the value.
+   */
+  static final class Formatted {
+
+    private final Object value;
+    private final String string;
+
+    private Formatted(Object value, String string) {
+      this.value = value;
+      this.string = string;
+    }
+
+    /**
+     * Gets the value, as returned by {@link ResultSet#getObject(int)}.
+     */
+    Object getValue() {
+      return value;
+    }
+
+    /**
+     * Gets the value, as returned by {@link ResultSet#getString(int)}.
+     */
+    String getString() {
+      return string;
+    }
+  }
+
+  private static SQLException readOnly() {
+    return new SQLFeatureNotSupportedException("Buffered values are read-only");
+  }
+
+  /**
+   * Gets the length of a range of a buffered large object, checking the range.
+   *
+   * @param  pos  The one-based position
+   */
+  private static int rangeLength(long pos, long length, int size) throws SQLException {
+    if (pos < 1 || length < 0 || pos - 1 > size || length > size - (pos - 1)) {
+      throw new SQLException("Invalid range: pos = " + pos + ", length = " + length + ", size = " + size);
+    }
+    return (int) length;
+  }
+
+  /**
+   * A {@link Blob} read into memory.
+   */
+  static final class BufferedBlob implements Blob {
+
+    private final byte[] bytes;
+
+    BufferedBlob(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public long length() {
+      return bytes.length;
+    }
+
+    @Override
+    public byte[] getBytes(long pos, int length) throws SQLException {
+      int len = rangeLength(pos, Math.min(length, bytes.length - (pos - 1)), bytes.length);
+      byte[] copy = new byte[len];
+      System.arraycopy(bytes, (int) (pos - 1), copy, 0, len);
+      return copy;
+    }
+
+    @Override
+    public InputStream getBinaryStream() {
+      return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public InputStream getBinaryStream(long pos, long length) throws SQLException {
+      return new ByteArrayInputStream(bytes, (int) (pos - 1), rangeLength(pos, length, bytes.length));
+    }
+
+    private boolean matches(byte[] pattern, int index) {
+      for (int i = 0; i < pattern.length; i++) {
+        if (bytes[index + i] != pattern[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public long position(byte[] pattern, long start) throws SQLException {
+      if (start < 1) {
+        throw new SQLException("Invalid start: " + start);
+      }
+      for (long i = start - 1; i <= bytes.length - pattern.length; i++) {
+        if (matches(pattern, (int) i)) {
+          return i + 1;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public long position(Blob pattern, long start) throws SQLException {
+      return position(pattern.getBytes(1, Math.toIntExact(pattern.length())), start);
+    }
+
+    @Override
+    public int setBytes(long pos, byte[] bytes) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public OutputStream setBinaryStream(long pos) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public void truncate(long len) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public void free() {
+      // Nothing to free
+    }
+  }
+
+  /**
+   * A {@link Clob} or {@link NClob} read into memory.
+   */
+  static final class BufferedClob implements NClob {
+
+    private final String string;
+
+    BufferedClob(String string) {
+      this.string = string;
+    }
+
+    @Override
+    public long length() {
+      return string.length();
+    }
+
+    @Override
+    public String getSubString(long pos, int length) throws SQLException {
+      int len = rangeLength(pos, Math.min(length, string.length() - (pos - 1)), string.length());
+      int start = (int) (pos - 1);
+      return string.substring(start, start + len);
+    }
+
+    @Override
+    public Reader getCharacterStream() {
+      return new StringReader(string);
+    }
+
+    @Override
+    public Reader getCharacterStream(long pos, long length) throws SQLException {
+      int start = (int) (pos - 1);
+      return new StringReader(string.substring(start, start + rangeLength(pos, length, string.length())));
+    }
+
+    @Override
+    public InputStream getAsciiStream() {
+      return new ByteArrayInputStream(string.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public long position(String searchstr, long start) throws SQLException {
+      if (start < 1) {
+        throw new SQLException("Invalid start: " + start);
+      }
+      int index = string.indexOf(searchstr, (int) Math.min(start - 1, string.length()));
+      return (index == -1) ? -1 : (index + 1);
+    }
+
+    @Override
+    public long position(Clob searchstr, long start) throws SQLException {
+      return position(searchstr.getSubString(1, Math.toIntExact(searchstr.length())), start);
+    }
+
+    @Override
+    public int setString(long pos, String str) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public int setString(long pos, String str, int offset, int len) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public OutputStream setAsciiStream(long pos) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public Writer setCharacterStream(long pos) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public void truncate(long len) throws SQLException {
+      throw readOnly();
+    }
+
+    @Override
+    public void free() {
+      // Nothing to free
+    }
+  }
+
+  /**
+   * An {@link Array} read into memory.  Its elements are kept as returned by the driver.
+   */
+  static final class BufferedArray implements Array {
+
+    private final int baseType;
+    private final String baseTypeName;
+    private final Object elements;
+
+    BufferedArray(Array array) throws SQLException {
+      baseType = array.getBaseType();
+      baseTypeName = array.getBaseTypeName();
+      elements = array.getArray();
+    }
+
+    @Override
+    public int getBaseType() {
+      return baseType;
+    }
+
+    @Override
+    public String getBaseTypeName() {
+      return baseTypeName;
+    }
+
+    @Override
+    public Object getArray() {
+      int length = java.lang.reflect.Array.getLength(elements);
+      Object copy = java.lang.reflect.Array.newInstance(elements.getClass().getComponentType(), length);
+      System.arraycopy(elements, 0, copy, 0, length);
+      return copy;
+    }
+
+    @Override
+    public Object getArray(Map<String, Class<?>> map) throws SQLException {
+      if (map != null && !map.isEmpty()) {
+        throw new SQLFeatureNotSupportedException("Custom type mapping is not supported for buffered arrays");
+      }
+      return getArray();
+    }
+
+    @Override
+    public Object getArray(long index, int count) throws SQLException {
+      int length = java.lang.reflect.Array.getLength(elements);
+      int len = rangeLength(index, Math.min(count, length - (index - 1)), length);
+      Object copy = java.lang.reflect.Array.newInstance(elements.getClass().getComponentType(), len);
+      System.arraycopy(elements, (int) (index - 1), copy, 0, len);
+      return copy;
+    }
+
+    @Override
+    public Object getArray(long index, int count, Map<String, Class<?>> map) throws SQLException {
+      if (map != null && !map.isEmpty()) {
+        throw new SQLFeatureNotSupportedException("Custom type mapping is not supported for buffered arrays");
+      }
+      return getArray(index, count);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+      throw new SQLFeatureNotSupportedException("getResultSet is not supported for buffered arrays");
+    }
+
+    @Override
+    public ResultSet getResultSet(Map<String, Class<?>> map) throws SQLException {
+      throw new SQLFeatureNotSupportedException("getResultSet is not supported for buffered arrays");
+    }
+
+    @Override
+    public ResultSet getResultSet(long index, int count) throws SQLException {
+      throw new SQLFeatureNotSupportedException("getResultSet is not supported for buffered arrays");
+    }
+
+    @Override
+    public ResultSet getResultSet(long index, int count, Map<String, Class<?>> map) throws SQLException {
+      throw new SQLFeatureNotSupportedException("getResultSet is not supported for buffered arrays");
+    }
+
+    @Override
+    public void free() {
+      // Nothing to free
+    }
+  }
+
+  /**
+   * Frees a value read into memory, when supported by the driver.
+   */
+  private interface Free {
+    void free() throws SQLException;
+  }
+
+  private static void free(Free value) throws SQLException {
+    try {
+      value.free();
+    } catch (SQLFeatureNotSupportedException e) {
+      // Released by the driver when the transaction ends
+    }
+  }
+
+  private final Columns columns;
+  private final List<Object[]> rows = new ArrayList<>();
+
+  RowBuffer(Columns columns) {
+    this.columns = columns;
+  }
+
+  /**
+   * Gets the metadata of the rows.
+   */
+  Columns getColumns() {
+    return columns;
+  }
+
+  /**
+   * Reads a value of the current row of the given result set, with the getter of the driver for the type of its
+   * column.
+   *
+   * @return  The value, or a {@link Formatted} value
+   */
+  private static Object readValue(ResultSet results, int column, int type) throws SQLException {
+    switch (type) {
+      case Types.CHAR:
+      case Types.VARCHAR:
+      case Types.LONGVARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.LONGNVARCHAR:
+      case Types.SQLXML:
+        return results.getString(column);
+      case Types.BLOB: {
+        Blob blob = results.getBlob(column);
+        if (blob == null) {
+          return null;
+        }
+        BufferedBlob buffered = new BufferedBlob(blob.getBytes(1, Math.toIntExact(blob.length())));
+        free(blob::free);
+        return buffered;
+      }
+      case Types.CLOB:
+      case Types.NCLOB: {
+        Clob clob = results.getClob(column);
+        if (clob == null) {
+          return null;
+        }
+        BufferedClob buffered = new BufferedClob(clob.getSubString(1, Math.toIntExact(clob.length())));
+        free(clob::free);
+        return buffered;
+      }
+      case Types.ARRAY: {
+        Array array = results.getArray(column);
+        if (array == null) {
+          return null;
+        }
+        BufferedArray buffered = new BufferedArray(array);
+        free(array::free);
+        return buffered;
+      }
+      case Types.LONGVARBINARY:
+        return results.getBytes(column);
+      case Types.BIT:
+      case Types.BOOLEAN:
+      case Types.DATE:
+      case Types.TIME:
+      case Types.TIME_WITH_TIMEZONE:
+      case Types.TIMESTAMP:
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+      case Types.BINARY:
+      case Types.VARBINARY: {
+        Object value = results.getObject(column);
+        if (value == null || value instanceof String) {
+          return value;
+        }
+        String string = results.getString(column);
+        if (string == null || string.equals(value.toString())) {
+          return value;
+        }
+        return new Formatted(value, string);
+      }
+      default:
+        return results.getObject(column);
+    }
+  }
+
+  /**
+   * Reads the values of the current row of the given result set.
+   */
+  static Object[] readRow(ResultSet results, Columns columns) throws SQLException {
+    int columnCount = columns.getColumnCount();
+    Object[] row = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      int column = i + 1;
+      row[i] = readValue(results, column, columns.getColumnType(column));
+    }
+    return row;
+  }
+
+  /**
+   * Reads the current row of the given result set into this buffer.  Must not be called once the buffer is being read
+   * by cursors on other threads.
+   */
+  void add(ResultSet results) throws SQLException {
+    rows.add(readRow(results, columns));
+  }
+
+  /**
+   * Adds a row of values.  Must not be called once the buffer is being read by cursors on other threads.
+   */
+  void add(Object... row) {
+    if (row.length != columns.getColumnCount()) {
+      throw new IllegalArgumentException("Expected " + columns.getColumnCount() + " values, got " + row.length);
+    }
+    rows.add(row);
+  }
+
+  /**
+   * Gets the number of rows.
+   */
+  int size() {
+    return rows.size();
+  }
+
+  /**
+   * Gets the values of the given row.
+   *
+   * @param  index  The zero-based index of the row
+   */
+  Object[] get(int index) {
+    return rows.get(index);
+  }
+
+  /**
+   * Reads the remaining rows of the given result set into this buffer, while this buffer has fewer than the given
+   * number of rows.
+   *
+   * @return  {@code true} when all the rows have been read, or {@code false} when the result set has more rows, in
+   *          which case the result set is left positioned on the first row not read
+   */
+  boolean readFrom(ResultSet results, int maxRows) throws SQLException {
+    while (results.next()) {
+      if (rows.size() >= maxRows) {
+        return false;
+      }
+      add(results);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,1597 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * A read-only cursor over the rows of a {@link RowBuffer}.  Each cursor has its own position, so any number of cursors
+ * may read the same rows concurrently.
+ *
+ * <p>The getters return the values as read by the getters of the driver for the type of each column, and convert
+ * them as JDBC drivers do for the other getters, including {@link #getObject(int, java.lang.Class)} to the
+ * {@code java.time} types, such as a {@link Timestamp} read as a {@link LocalDateTime}.  Mutable values, such as {@code byte[]} and {@link Timestamp}, are copied so that one cursor
+ * cannot change the rows seen by another.</p>
+ *
+ * <p>After the buffered rows, a cursor may continue with the rows remaining in the result set they were read from,
+ * with the same conversions, in which case the cursor is {@link ResultSet#TYPE_FORWARD_ONLY}.  Otherwise the cursor is
+ * {@link ResultSet#TYPE_SCROLL_INSENSITIVE}.  The cursor is always {@link ResultSet#CONCUR_READ_ONLY}.</p>
+ *
+ * @see  RowBuffer
+ *
+ * @author  AO Industries, Inc.
+ */
+final class RowBufferResultSet implements ResultSet {
+
+  private final RowBuffer rows;
+  private final RowBuffer.Columns columns;
+
+  /**
+   * The result set continued after the buffered rows, already positioned on its first row to read, or {@code null}
+   * when all rows are buffered.
+   */
+  private final ResultSet remainder;
+
+  /**
+   * The position of the cursor: {@code 0} before the first row, {@code 1} to {@code rows.size()} on a buffered row,
+   * and {@code rows.size() + 1} after the last row or on the remainder.
+   */
+  private int position;
+
+  /**
+   * When on a row of the remainder, its values.
+   */
+  private Object[] remainderRow;
+  private int remainderRows;
+  private boolean remainderStarted;
+  private boolean remainderEnded;
+
+  private boolean wasNull;
+  private int fetchSize;
+  private boolean closed;
+
+  RowBufferResultSet(RowBuffer rows) {
+    this(rows, null);
+  }
+
+  /**
+   * @param  remainder  The result set to continue with after the buffered rows, positioned on its first row to read
+   */
+  RowBufferResultSet(RowBuffer rows, ResultSet remainder) {
+    this.rows = rows;
+    this.columns = rows.getColumns();
+    this.remainder = remainder;
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("ResultSet is closed");
+    }
+  }
+
+  private void checkScrollable() throws SQLException {
+    checkOpen();
+    if (remainder != null) {
+      throw new SQLException("ResultSet is TYPE_FORWARD_ONLY");
+    }
+  }
+
+  private static SQLException readOnly() {
+    return new SQLFeatureNotSupportedException("ResultSet is CONCUR_READ_ONLY");
+  }
+
+  /**
+   * Gets the value of the given column of the current row, recording whether it is {@code null}.
+   */
+  private Object getValue(int columnIndex) throws SQLException {
+    Object cell = getCell(columnIndex);
+    return (cell instanceof RowBuffer.Formatted) ? ((RowBuffer.Formatted) cell).getValue() : cell;
+  }
+
+  /**
+   * Gets the buffered value of the given column of the current row, which may be a {@link RowBuffer.Formatted} value,
+   * recording whether it is {@code null}.
+   */
+  private Object getCell(int columnIndex) throws SQLException {
+    checkOpen();
+    if (columnIndex < 1 || columnIndex > columns.getColumnCount()) {
+      throw new SQLException("Invalid column index: " + columnIndex);
+    }
+    Object[] row;
+    if (remainderRow != null) {
+      row = remainderRow;
+    } else if (position >= 1 && position <= rows.size()) {
+      row = rows.get(position - 1);
+    } else {
+      throw new SQLException("Not on a row");
+    }
+    Object value = row[columnIndex - 1];
+    wasNull = value == null;
+    return value;
+  }
+
+  private static SQLException cannotConvert(Object value, Class<?> type) {
+    return new SQLException("Cannot convert " + value.getClass().getName() + " to " + type.getName(), "22018");
+  }
+
+  // <editor-fold desc="Navigation">
+  @Override
+  public boolean next() throws SQLException {
+    checkOpen();
+    int size = rows.size();
+    if (position < size) {
+      position++;
+      return true;
+    }
+    position = size + 1;
+    if (remainder != null && !remainderEnded) {
+      // The remainder is already positioned on its first row
+      if (!remainderStarted || remainder.next()) {
+        remainderStarted = true;
+        remainderRow = RowBuffer.readRow(remainder, columns);
+        remainderRows++;
+        return true;
+      }
+      remainderRow = null;
+      remainderEnded = true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean previous() throws SQLException {
+    checkScrollable();
+    if (position > 0) {
+      position--;
+    }
+    return position > 0;
+  }
+
+  @Override
+  public boolean first() throws SQLException {
+    checkScrollable();
+    position = rows.size() == 0 ? 0 : 1;
+    return position == 1;
+  }
+
+  @Override
+  public boolean last() throws SQLException {
+    checkScrollable();
+    position = rows.size();
+    return position > 0;
+  }
+
+  @Override
+  public void beforeFirst() throws SQLException {
+    checkScrollable();
+    position = 0;
+  }
+
+  @Override
+  public void afterLast() throws SQLException {
+    checkScrollable();
+    position = rows.size() + 1;
+  }
+
+  @Override
+  public boolean absolute(int row) throws SQLException {
+    checkScrollable();
+    int size = rows.size();
+    if (row > 0) {
+      position = Math.min(row, size + 1);
+    } else if (row < 0) {
+      position = Math.max(size + 1 + row, 0);
+    } else {
+      position = 0;
+    }
+    return position >= 1 && position <= size;
+  }
+
+  @Override
+  public boolean relative(int rows) throws SQLException {
+    checkScrollable();
+    int size = this.rows.size();
+    position = (int) Math.max(0, Math.min((long) position + rows, size + 1L));
+    return position >= 1 && position <= size;
+  }
+
+  @Override
+  public boolean isBeforeFirst() throws SQLException {
+    checkOpen();
+    return position == 0 && (rows.size() > 0 || (remainder != null && !remainderStarted));
+  }
+
+  @Override
+  public boolean isAfterLast() throws SQLException {
+    checkOpen();
+    return position > rows.size()
+        && remainderRow == null
+        && (remainder == null || remainderEnded)
+        && (rows.size() + remainderRows) > 0;
+  }
+
+  @Override
+  public boolean isFirst() throws SQLException {
+    return getRow() == 1;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws  SQLFeatureNotSupportedException  when continuing with the remaining rows of a result set, which is allowed
+   *                                           for {@link ResultSet#TYPE_FORWARD_ONLY}
+   */
+  @Override
+  public boolean isLast() throws SQLException {
+    checkOpen();
+    if (remainder != null) {
+      throw new SQLFeatureNotSupportedException("isLast is not supported while reading the remaining rows");
+    }
+    return position > 0 && position == rows.size();
+  }
+
+  @Override
+  public int getRow() throws SQLException {
+    checkOpen();
+    if (remainderRow != null) {
+      return rows.size() + remainderRows;
+    }
+    return (position >= 1 && position <= rows.size()) ? position : 0;
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="Result set">
+  @Override
+  public void close() throws SQLException {
+    if (!closed) {
+      closed = true;
+      remainderRow = null;
+      if (remainder != null) {
+        remainder.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public boolean wasNull() throws SQLException {
+    checkOpen();
+    return wasNull;
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return null;
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+  }
+
+  @Override
+  public String getCursorName() throws SQLException {
+    throw new SQLFeatureNotSupportedException("Buffered rows have no cursor name");
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return columns;
+  }
+
+  @Override
+  public int findColumn(String columnLabel) throws SQLException {
+    checkOpen();
+    int column = columns.findColumn(columnLabel);
+    if (column == -1) {
+      throw new SQLException("Column not found: " + columnLabel, "42S22");
+    }
+    return column;
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    checkOpen();
+    boolean scrolling = direction == FETCH_REVERSE || direction == FETCH_UNKNOWN;
+    if (direction != FETCH_FORWARD && (remainder != null || !scrolling)) {
+      throw new SQLException("Unsupported fetch direction: " + direction);
+    }
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    checkOpen();
+    return FETCH_FORWARD;
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    checkOpen();
+    if (rows < 0) {
+      throw new SQLException("rows < 0: " + rows);
+    }
+    fetchSize = rows;
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    checkOpen();
+    return fetchSize;
+  }
+
+  @Override
+  public int getType() throws SQLException {
+    checkOpen();
+    return (remainder == null) ? TYPE_SCROLL_INSENSITIVE : TYPE_FORWARD_ONLY;
+  }
+
+  @Override
+  public int getConcurrency() throws SQLException {
+    checkOpen();
+    return CONCUR_READ_ONLY;
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    checkOpen();
+    return HOLD_CURSORS_OVER_COMMIT;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return  {@code null}, since the statement is provided by the wrapper of this cursor
+   */
+  @Override
+  public Statement getStatement() throws SQLException {
+    checkOpen();
+    return null;
+  }
+
+  @Override
+  public boolean rowUpdated() throws SQLException {
+    checkOpen();
+    return false;
+  }
+
+  @Override
+  public boolean rowInserted() throws SQLException {
+    checkOpen();
+    return false;
+  }
+
+  @Override
+  public boolean rowDeleted() throws SQLException {
+    checkOpen();
+    return false;
+  }
+
+  @Override
+  public void refreshRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void insertRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void deleteRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void cancelRowUpdates() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void moveToInsertRow() throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void moveToCurrentRow() throws SQLException {
+    checkOpen();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Not a wrapper for " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="Conversions">
+  /**
+   * Converts a value to a number, as drivers do for numeric getters.
+   */
+  private static BigDecimal toBigDecimal(Object value, Class<?> type) throws SQLException {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return BigDecimal.valueOf(((Number) value).longValue());
+    } else if (value instanceof Number) {
+      return BigDecimal.valueOf(((Number) value).doubleValue());
+    } else if (value instanceof Boolean) {
+      return ((Boolean) value) ? BigDecimal.ONE : BigDecimal.ZERO;
+    } else if (value instanceof String) {
+      try {
+        return new BigDecimal(((String) value).trim());
+      } catch (NumberFormatException e) {
+        throw new SQLException("Cannot convert \"" + value + "\" to " + type.getName(), "22018", e);
+      }
+    }
+    throw cannotConvert(value, type);
+  }
+
+  /**
+   * Converts a value to a number, with its exact type when numeric.
+   */
+  private static Number toNumber(Object value, Class<?> type) throws SQLException {
+    return (value instanceof Number) ? (Number) value : toBigDecimal(value, type);
+  }
+
+  private static long toLong(Object value, Class<?> type) throws SQLException {
+    Number number = toNumber(value, type);
+    if (number instanceof BigDecimal) {
+      return ((BigDecimal) number).setScale(0, RoundingMode.DOWN).longValue();
+    }
+    return number.longValue();
+  }
+
+  private static Object cloneIfMutable(Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (value instanceof java.util.Date) {
+      return ((java.util.Date) value).clone();
+    } else {
+      return value;
+    }
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value, Class<?> type) throws SQLException {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).toLocalDateTime();
+    } else if (value instanceof LocalDateTime) {
+      return (LocalDateTime) value;
+    } else if (value instanceof Date) {
+      return ((Date) value).toLocalDate().atStartOfDay();
+    } else if (value instanceof LocalDate) {
+      return ((LocalDate) value).atStartOfDay();
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    } else if (value instanceof Instant) {
+      return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+    } else if (value instanceof Time) {
+      // Time has no date part
+      throw cannotConvert(value, type);
+    } else if (value instanceof java.util.Date) {
+      return new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+    } else if (value instanceof String) {
+      try {
+        return Timestamp.valueOf(((String) value).trim()).toLocalDateTime();
+      } catch (IllegalArgumentException e) {
+        throw new SQLException("Cannot convert \"" + value + "\" to " + type.getName(), "22007", e);
+      }
+    }
+    throw cannotConvert(value, type);
+  }
+
+  private static LocalDate toLocalDate(Object value, Class<?> type) throws SQLException {
+    if (value instanceof Date) {
+      return ((Date) value).toLocalDate();
+    } else if (value instanceof LocalDate) {
+      return (LocalDate) value;
+    } else if (value instanceof String) {
+      try {
+        return Date.valueOf(((String) value).trim()).toLocalDate();
+      } catch (IllegalArgumentException e) {
+        throw new SQLException("Cannot convert \"" + value + "\" to " + type.getName(), "22007", e);
+      }
+    }
+    return toLocalDateTime(value, type).toLocalDate();
+  }
+
+  private static LocalTime toLocalTime(Object value, Class<?> type) throws SQLException {
+    if (value instanceof Time) {
+      return ((Time) value).toLocalTime();
+    } else if (value instanceof LocalTime) {
+      return (LocalTime) value;
+    } else if (value instanceof OffsetTime) {
+      return ((OffsetTime) value).toLocalTime();
+    } else if (value instanceof String) {
+      try {
+        return LocalTime.parse(((String) value).trim());
+      } catch (RuntimeException e) {
+        throw new SQLException("Cannot convert \"" + value + "\" to " + type.getName(), "22007", e);
+      }
+    } else if (value instanceof Date || value instanceof LocalDate) {
+      // Date has no time part
+      throw cannotConvert(value, type);
+    }
+    return toLocalDateTime(value, type).toLocalTime();
+  }
+
+  /**
+   * Converts a value to an instant, with values without a time zone in the default time zone.
+   */
+  private static Instant toInstant(Object value, Class<?> type) throws SQLException {
+    if (value instanceof Instant) {
+      return (Instant) value;
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toInstant();
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).toInstant();
+    } else if (value instanceof Timestamp) {
+      return ((Timestamp) value).toInstant();
+    }
+    return toLocalDateTime(value, type).atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  /**
+   * Interprets the fields of a date and time in the time zone of the given calendar, as drivers do for the getters
+   * with a calendar.
+   */
+  private static long inCalendar(LocalDateTime dateTime, Calendar cal) {
+    Calendar copy = (Calendar) cal.clone();
+    copy.clear();
+    copy.set(
+        dateTime.getYear(),
+        dateTime.getMonthValue() - 1,
+        dateTime.getDayOfMonth(),
+        dateTime.getHour(),
+        dateTime.getMinute(),
+        dateTime.getSecond()
+    );
+    return copy.getTimeInMillis();
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="Getters">
+  @Override
+  public Object getObject(int columnIndex) throws SQLException {
+    return cloneIfMutable(getValue(columnIndex));
+  }
+
+  @Override
+  public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value instanceof Struct && map != null && map.containsKey(((Struct) value).getSQLTypeName())) {
+      throw new SQLFeatureNotSupportedException("Custom type mapping is not supported for buffered rows");
+    }
+    return cloneIfMutable(value);
+  }
+
+  @Override
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    if (type == null) {
+      throw new SQLException("type is null");
+    }
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    }
+    if (type.isInstance(value)) {
+      return type.cast(cloneIfMutable(value));
+    }
+    Object converted;
+    if (type == String.class) {
+      converted = getString(columnIndex);
+    } else if (type == Boolean.class) {
+      converted = getBoolean(columnIndex);
+    } else if (type == Byte.class) {
+      converted = getByte(columnIndex);
+    } else if (type == Short.class) {
+      converted = getShort(columnIndex);
+    } else if (type == Integer.class) {
+      converted = getInt(columnIndex);
+    } else if (type == Long.class) {
+      converted = getLong(columnIndex);
+    } else if (type == Float.class) {
+      converted = getFloat(columnIndex);
+    } else if (type == Double.class) {
+      converted = getDouble(columnIndex);
+    } else if (type == BigDecimal.class) {
+      converted = getBigDecimal(columnIndex);
+    } else if (type == BigInteger.class) {
+      converted = getBigDecimal(columnIndex).toBigInteger();
+    } else if (type == byte[].class) {
+      converted = getBytes(columnIndex);
+    } else if (type == Date.class) {
+      converted = getDate(columnIndex);
+    } else if (type == Time.class) {
+      converted = getTime(columnIndex);
+    } else if (type == Timestamp.class) {
+      converted = getTimestamp(columnIndex);
+    } else if (type == LocalDateTime.class) {
+      converted = toLocalDateTime(value, type);
+    } else if (type == LocalDate.class) {
+      converted = toLocalDate(value, type);
+    } else if (type == LocalTime.class) {
+      converted = toLocalTime(value, type);
+    } else if (type == Instant.class) {
+      converted = toInstant(value, type);
+    } else if (type == OffsetDateTime.class) {
+      converted = (value instanceof ZonedDateTime)
+          ? ((ZonedDateTime) value).toOffsetDateTime()
+          : OffsetDateTime.ofInstant(toInstant(value, type), ZoneId.systemDefault());
+    } else if (type == ZonedDateTime.class) {
+      converted = (value instanceof OffsetDateTime)
+          ? ((OffsetDateTime) value).toZonedDateTime()
+          : ZonedDateTime.ofInstant(toInstant(value, type), ZoneId.systemDefault());
+    } else if (type == URL.class) {
+      converted = getURL(columnIndex);
+    } else {
+      throw cannotConvert(value, type);
+    }
+    return type.cast(converted);
+  }
+
+  @Override
+  public String getString(int columnIndex) throws SQLException {
+    Object value = getCell(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof RowBuffer.Formatted) {
+      return ((RowBuffer.Formatted) value).getString();
+    } else if (value instanceof Clob) {
+      Clob clob = (Clob) value;
+      return clob.getSubString(1, Math.toIntExact(clob.length()));
+    } else if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString();
+    } else if (value instanceof byte[]) {
+      throw cannotConvert(value, String.class);
+    }
+    return value.toString();
+  }
+
+  @Override
+  public String getNString(int columnIndex) throws SQLException {
+    return getString(columnIndex);
+  }
+
+  @Override
+  public boolean getBoolean(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return false;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value;
+    } else if (value instanceof String || value instanceof Character) {
+      String str = value.toString().trim();
+      if (
+          "1".equals(str) || "true".equalsIgnoreCase(str) || "t".equalsIgnoreCase(str)
+              || "yes".equalsIgnoreCase(str) || "y".equalsIgnoreCase(str) || "on".equalsIgnoreCase(str)
+      ) {
+        return true;
+      }
+      if (
+          "0".equals(str) || "false".equalsIgnoreCase(str) || "f".equalsIgnoreCase(str)
+              || "no".equalsIgnoreCase(str) || "n".equalsIgnoreCase(str) || "off".equalsIgnoreCase(str)
+      ) {
+        return false;
+      }
+      throw new SQLException("Cannot convert \"" + value + "\" to boolean", "22018");
+    }
+    return toBigDecimal(value, boolean.class).signum() != 0;
+  }
+
+  @Override
+  public byte getByte(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : (byte) toLong(value, byte.class);
+  }
+
+  @Override
+  public short getShort(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : (short) toLong(value, short.class);
+  }
+
+  @Override
+  public int getInt(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : (int) toLong(value, int.class);
+  }
+
+  @Override
+  public long getLong(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : toLong(value, long.class);
+  }
+
+  @Override
+  public float getFloat(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : toNumber(value, float.class).floatValue();
+  }
+
+  @Override
+  public double getDouble(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? 0 : toNumber(value, double.class).doubleValue();
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    return (value == null) ? null : toBigDecimal(value, BigDecimal.class);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @deprecated  Use {@link #getBigDecimal(int)}
+   */
+  @Deprecated
+  @Override
+  public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+    BigDecimal value = getBigDecimal(columnIndex);
+    return (value == null) ? null : value.setScale(scale, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public byte[] getBytes(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (value instanceof Blob) {
+      Blob blob = (Blob) value;
+      return blob.getBytes(1, Math.toIntExact(blob.length()));
+    }
+    throw cannotConvert(value, byte[].class);
+  }
+
+  @Override
+  public Date getDate(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Date) {
+      return (Date) ((Date) value).clone();
+    }
+    return Date.valueOf(toLocalDate(value, Date.class));
+  }
+
+  @Override
+  public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null || cal == null) {
+      return getDate(columnIndex);
+    }
+    return new Date(inCalendar(toLocalDate(value, Date.class).atStartOfDay(), cal));
+  }
+
+  @Override
+  public Time getTime(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Time) {
+      return (Time) ((Time) value).clone();
+    }
+    return Time.valueOf(toLocalTime(value, Time.class));
+  }
+
+  @Override
+  public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null || cal == null) {
+      return getTime(columnIndex);
+    }
+    return new Time(inCalendar(LocalDate.of(1970, 1, 1).atTime(toLocalTime(value, Time.class)), cal));
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Timestamp) {
+      return (Timestamp) ((Timestamp) value).clone();
+    } else if (value instanceof Instant || value instanceof OffsetDateTime || value instanceof ZonedDateTime) {
+      return Timestamp.from(toInstant(value, Timestamp.class));
+    }
+    return Timestamp.valueOf(toLocalDateTime(value, Timestamp.class));
+  }
+
+  @Override
+  public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null || cal == null) {
+      return getTimestamp(columnIndex);
+    }
+    LocalDateTime dateTime = toLocalDateTime(value, Timestamp.class);
+    Timestamp timestamp = new Timestamp(inCalendar(dateTime, cal));
+    timestamp.setNanos(dateTime.getNano());
+    return timestamp;
+  }
+
+  @Override
+  public InputStream getAsciiStream(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Clob) {
+      return ((Clob) value).getAsciiStream();
+    }
+    return new ByteArrayInputStream(getString(columnIndex).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @deprecated  Use {@link #getCharacterStream(int)}
+   */
+  @Deprecated
+  @Override
+  public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+    throw new SQLFeatureNotSupportedException("getUnicodeStream is not supported, use getCharacterStream");
+  }
+
+  @Override
+  public InputStream getBinaryStream(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Blob) {
+      return ((Blob) value).getBinaryStream();
+    }
+    return new ByteArrayInputStream(getBytes(columnIndex));
+  }
+
+  @Override
+  public Reader getCharacterStream(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (value instanceof Clob) {
+      return ((Clob) value).getCharacterStream();
+    }
+    return new StringReader(getString(columnIndex));
+  }
+
+  @Override
+  public Reader getNCharacterStream(int columnIndex) throws SQLException {
+    return getCharacterStream(columnIndex);
+  }
+
+  /**
+   * Gets a value of the given type, without conversion.
+   */
+  private <T> T getTyped(int columnIndex, Class<T> type) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value == null) {
+      return null;
+    } else if (type.isInstance(value)) {
+      return type.cast(value);
+    }
+    throw cannotConvert(value, type);
+  }
+
+  @Override
+  public Ref getRef(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, Ref.class);
+  }
+
+  @Override
+  public Blob getBlob(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, Blob.class);
+  }
+
+  @Override
+  public Clob getClob(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, Clob.class);
+  }
+
+  @Override
+  public NClob getNClob(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, NClob.class);
+  }
+
+  @Override
+  public Array getArray(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, Array.class);
+  }
+
+  @Override
+  public SQLXML getSQLXML(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, SQLXML.class);
+  }
+
+  @Override
+  public RowId getRowId(int columnIndex) throws SQLException {
+    return getTyped(columnIndex, RowId.class);
+  }
+
+  @Override
+  public URL getURL(int columnIndex) throws SQLException {
+    Object value = getValue(columnIndex);
+    if (value instanceof String) {
+      try {
+        return new URL((String) value);
+      } catch (MalformedURLException e) {
+        throw new SQLException("Invalid URL: " + value, "22000", e);
+      }
+    }
+    return getTyped(columnIndex, URL.class);
+  }
+
+  @Override
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+    return getObject(findColumn(columnLabel), type);
+  }
+
+  @Override
+  public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+    return getObject(findColumn(columnLabel), map);
+  }
+
+  @Override
+  public Array getArray(String columnLabel) throws SQLException {
+    return getArray(findColumn(columnLabel));
+  }
+
+  @Override
+  public InputStream getAsciiStream(String columnLabel) throws SQLException {
+    return getAsciiStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @deprecated  Use {@link #getBigDecimal(java.lang.String)}
+   */
+  @Deprecated
+  @Override
+  public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+    return getBigDecimal(findColumn(columnLabel), scale);
+  }
+
+  @Override
+  public InputStream getBinaryStream(String columnLabel) throws SQLException {
+    return getBinaryStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public Blob getBlob(String columnLabel) throws SQLException {
+    return getBlob(findColumn(columnLabel));
+  }
+
+  @Override
+  public boolean getBoolean(String columnLabel) throws SQLException {
+    return getBoolean(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte getByte(String columnLabel) throws SQLException {
+    return getByte(findColumn(columnLabel));
+  }
+
+  @Override
+  public byte[] getBytes(String columnLabel) throws SQLException {
+    return getBytes(findColumn(columnLabel));
+  }
+
+  @Override
+  public Reader getCharacterStream(String columnLabel) throws SQLException {
+    return getCharacterStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public Clob getClob(String columnLabel) throws SQLException {
+    return getClob(findColumn(columnLabel));
+  }
+
+  @Override
+  public Date getDate(String columnLabel) throws SQLException {
+    return getDate(findColumn(columnLabel));
+  }
+
+  @Override
+  public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+    return getDate(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public double getDouble(String columnLabel) throws SQLException {
+    return getDouble(findColumn(columnLabel));
+  }
+
+  @Override
+  public float getFloat(String columnLabel) throws SQLException {
+    return getFloat(findColumn(columnLabel));
+  }
+
+  @Override
+  public int getInt(String columnLabel) throws SQLException {
+    return getInt(findColumn(columnLabel));
+  }
+
+  @Override
+  public long getLong(String columnLabel) throws SQLException {
+    return getLong(findColumn(columnLabel));
+  }
+
+  @Override
+  public Reader getNCharacterStream(String columnLabel) throws SQLException {
+    return getNCharacterStream(findColumn(columnLabel));
+  }
+
+  @Override
+  public NClob getNClob(String columnLabel) throws SQLException {
+    return getNClob(findColumn(columnLabel));
+  }
+
+  @Override
+  public String getNString(String columnLabel) throws SQLException {
+    return getNString(findColumn(columnLabel));
+  }
+
+  @Override
+  public Object getObject(String columnLabel) throws SQLException {
+    return getObject(findColumn(columnLabel));
+  }
+
+  @Override
+  public Ref getRef(String columnLabel) throws SQLException {
+    return getRef(findColumn(columnLabel));
+  }
+
+  @Override
+  public RowId getRowId(String columnLabel) throws SQLException {
+    return getRowId(findColumn(columnLabel));
+  }
+
+  @Override
+  public SQLXML getSQLXML(String columnLabel) throws SQLException {
+    return getSQLXML(findColumn(columnLabel));
+  }
+
+  @Override
+  public short getShort(String columnLabel) throws SQLException {
+    return getShort(findColumn(columnLabel));
+  }
+
+  @Override
+  public String getString(String columnLabel) throws SQLException {
+    return getString(findColumn(columnLabel));
+  }
+
+  @Override
+  public Time getTime(String columnLabel) throws SQLException {
+    return getTime(findColumn(columnLabel));
+  }
+
+  @Override
+  public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+    return getTime(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public Timestamp getTimestamp(String columnLabel) throws SQLException {
+    return getTimestamp(findColumn(columnLabel));
+  }
+
+  @Override
+  public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+    return getTimestamp(findColumn(columnLabel), cal);
+  }
+
+  @Override
+  public URL getURL(String columnLabel) throws SQLException {
+    return getURL(findColumn(columnLabel));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @deprecated  Use {@link #getCharacterStream(java.lang.String)}
+   */
+  @Deprecated
+  @Override
+  public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+    return getUnicodeStream(findColumn(columnLabel));
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="Updates">
+  @Override
+  public void updateArray(String columnLabel, Array x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateArray(int columnIndex, Array x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, Blob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(String columnLabel, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, Blob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBlob(int columnIndex, InputStream x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateByte(String columnLabel, byte x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateByte(int columnIndex, byte x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(String columnLabel, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Clob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(String columnLabel, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Clob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateClob(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDate(String columnLabel, Date x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDate(int columnIndex, Date x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDouble(String columnLabel, double x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateDouble(int columnIndex, double x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateFloat(String columnLabel, float x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateFloat(int columnIndex, float x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateInt(String columnLabel, int x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateInt(int columnIndex, int x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateLong(String columnLabel, long x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateLong(int columnIndex, long x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(String columnLabel, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, NClob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(String columnLabel, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, NClob x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNClob(int columnIndex, Reader x, long length) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNString(String columnLabel, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNString(int columnIndex, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNull(String columnLabel) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateNull(int columnIndex) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRef(String columnLabel, Ref x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRef(int columnIndex, Ref x) throws SQLException {
+    throw readOnly();
+  }
+
+
+  @Override
+  public void updateRowId(String columnLabel, RowId x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateRowId(int columnIndex, RowId x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateSQLXML(String columnLabel, SQLXML x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateSQLXML(int columnIndex, SQLXML x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateShort(String columnLabel, short x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateShort(int columnIndex, short x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateString(String columnLabel, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateString(int columnIndex, String x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTime(String columnLabel, Time x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTime(int columnIndex, Time x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+    throw readOnly();
+  }
+
+  @Override
+  public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+    throw readOnly();
+  }
+  // </editor-fold>
+}
@@ -0,0 +1,93 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A future for an asynchronous execution that cancels the statement when cancelled while executing.
+ *
+ * @see  StatementWrapperImpl#executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+ *
+ * @author  AO Industries, Inc.
+ */
+final class StatementFuture<T> extends CompletableFuture<T> {
+
+  private final StatementWrapperImpl stmtWrapper;
+  private volatile boolean executing;
+
+  StatementFuture(StatementWrapperImpl stmtWrapper) {
+    this.stmtWrapper = stmtWrapper;
+  }
+
+  /**
+   * Marks the start of execution.
+   *
+   * @return  {@code false} when already cancelled and the execution must not start
+   */
+  boolean start() {
+    executing = true;
+    return !isDone();
+  }
+
+  /**
+   * Marks the end of execution.
+   */
+  void end() {
+    executing = false;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the execution has started, {@link Statement#cancel()} is also called on the
+   * {@linkplain StatementWrapperImpl#getExecutingStatement() statement currently being executed}, which may be a
+   * replica statement or a statement prepared again after a reconnect.</p>
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled && executing) {
+      Statement statement = stmtWrapper.getExecutingStatement();
+      if (statement != null) {
+        try {
+          statement.cancel();
+        } catch (SQLException e) {
+          // Cancellation is best-effort, the future is already cancelled
+        }
+      }
+    }
+    return cancelled;
+  }
+
+  /**
+   * Dependent futures are plain futures, so cancelling them does not cancel the statement.
+   */
+  @Override
+  public <U> CompletableFuture<U> newIncompleteFuture() {
+    return new CompletableFuture<>();
+  }
+}
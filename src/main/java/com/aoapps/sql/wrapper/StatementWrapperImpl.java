@@ -1,6 +1,6 @@
 /*
  * ao-sql-wrapper - JDBC API wrapper.
- * Copyright (C) 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,9 +23,18 @@
 
 package com.aoapps.sql.wrapper;
 
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Wraps a {@link Statement}.
@@ -35,11 +44,68 @@ import java.sql.Statement;
 public class StatementWrapperImpl implements StatementWrapper {
 
   private final ConnectionWrapperImpl connectionWrapper;
-  private final Statement wrapped;
+
+  /**
+   * The wrapped statement, replaced when prepared again after reconnecting.
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  private volatile Statement wrapped;
+
+  /**
+   * The {@linkplain ConnectionWrapperImpl#getGeneration() generation} of the physical connection the wrapped statement
+   * was created on.
+   */
+  private volatile int generation;
+
+  /**
+   * The batch recorded in this wrapper for adaptive batch chunking, or {@code null} when the batch is added directly to
+   * the wrapped statement.
+   *
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  private List<String> batch;
+
+  /**
+   * Set when the current batch has been added directly to the wrapped statement, so the batch is not split between the
+   * wrapped statement and this wrapper.
+   */
+  private boolean directBatch;
+
+  private BatchChunkSize batchChunkSize;
+
+  /**
+   * Set when the query timeout is enforced by this wrapper instead of the wrapped statement.
+   *
+   * @see  ConnectionWrapperImpl#isQueryTimeoutEnforced()
+   */
+  private boolean queryTimeoutEnforced;
+
+  /**
+   * The query timeout in seconds, when enforced by this wrapper.
+   */
+  private int queryTimeout;
+
+  /**
+   * The timeout of this statement, reused for every execution, created when first needed.
+   */
+  private QueryTimeout timeout;
+
+  /**
+   * The statement currently being executed, {@code null} while not executing.  This is the wrapped statement unless
+   * routed to a replica, and may have been prepared again since the execution was submitted.
+   *
+   * @see  #getExecutingStatement()
+   */
+  private volatile Statement executing;
+
+  private volatile AdmissionControl.Lane admissionLane = AdmissionControl.Lane.INTERACTIVE;
+  private volatile String queryClass;
 
   public StatementWrapperImpl(ConnectionWrapperImpl connectionWrapper, Statement wrapped) {
     this.connectionWrapper = connectionWrapper;
     this.wrapped = wrapped;
+    this.generation = (connectionWrapper == null) ? 0 : connectionWrapper.getGeneration();
   }
 
   /**
@@ -54,6 +120,64 @@ public class StatementWrapperImpl implements StatementWrapper {
     return wrapped;
   }
 
+  /**
+   * Replaces the wrapped statement, such as by a statement prepared again on a new physical connection.
+   *
+   * @see  #reopen()
+   */
+  void setWrapped(Statement wrapped) {
+    this.wrapped = wrapped;
+  }
+
+  /**
+   * Creates the wrapped statement again on the current physical connection after
+   * {@linkplain ConnectionWrapperImpl#isReconnecting() reconnecting}, when possible.
+   *
+   * <p>This default implementation returns {@code false}, since the options of a statement are not known.</p>
+   *
+   * @return  {@code true} when the wrapped statement has been replaced
+   */
+  boolean reopen() throws SQLException {
+    return false;
+  }
+
+  /**
+   * Gets the SQL this statement was prepared with, for measuring contention and admission latency baselines.
+   *
+   * <p>This default implementation returns {@code null}, since the SQL of a statement varies by execution.</p>
+   *
+   * @see  ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)
+   */
+  String getPreparedSql() {
+    return null;
+  }
+
+  /**
+   * Checks if a query of this statement may be retried after reconnecting.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   *
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  boolean isRetryable() {
+    return false;
+  }
+
+  /**
+   * Creates the wrapped statement again when the physical connection has been replaced since it was created.
+   *
+   * @return  {@code true} when the wrapped statement has been replaced
+   */
+  boolean reopenIfReconnected() throws SQLException {
+    int current = connectionWrapper.getGeneration();
+    if (generation == current) {
+      return false;
+    }
+    // Only attempted once per reconnect
+    generation = current;
+    return reopen();
+  }
+
   @Override
   public String toString() {
     return getWrapped().toString();
@@ -68,14 +192,586 @@ public class StatementWrapperImpl implements StatementWrapper {
     return getConnectionWrapper().wrapResultSet(this, results);
   }
 
+  /**
+   * Called before each execution against the wrapped statement.
+   *
+   * <p>This default implementation calls {@link ConnectionWrapperImpl#beforeExecute(com.aoapps.sql.wrapper.StatementWrapperImpl)}.</p>
+   */
+  protected void beforeExecute() throws SQLException {
+    getConnectionWrapper().beforeExecute(this);
+  }
+
+  /**
+   * Gets the lane executions of this statement wait in for {@linkplain ConnectionWrapperImpl#isAdmissionControl() admission}.
+   * Defaults to {@link AdmissionControl.Lane#INTERACTIVE}.
+   */
+  public AdmissionControl.Lane getAdmissionLane() {
+    return admissionLane;
+  }
+
+  /**
+   * Sets the lane executions of this statement wait in for admission.
+   *
+   * @see  #getAdmissionLane()
+   */
+  public void setAdmissionLane(AdmissionControl.Lane admissionLane) {
+    this.admissionLane = Objects.requireNonNull(admissionLane);
+  }
+
+  /**
+   * Gets the query class of this statement, which limits the executions in flight of all statements of the same class
+   * when {@linkplain ConnectionWrapperImpl#isAdmissionControl() admission control} is enabled.
+   *
+   * @return  The query class or {@code null} for none, the default
+   *
+   * @see  DriverWrapper#getAdmissionClassLimit(java.lang.String)
+   */
+  public String getQueryClass() {
+    return queryClass;
+  }
+
+  /**
+   * Sets the query class of this statement.
+   *
+   * @see  #getQueryClass()
+   */
+  public void setQueryClass(String queryClass) {
+    this.queryClass = queryClass;
+  }
+
+  /**
+   * A blocking call to the wrapped driver, such as an execution against the wrapped statement.
+   */
+  @FunctionalInterface
+  protected interface Execution<R> {
+    R execute() throws SQLException;
+  }
+
+  /**
+   * Expires the query timeout of this statement: first {@linkplain Statement#cancel() cancelling} the statement, then
+   * {@linkplain Connection#abort(java.util.concurrent.Executor) aborting} the connection when the statement still has
+   * not completed after the {@linkplain ConnectionWrapperImpl#getQueryTimeoutAbortMillis() abort delay}.
+   */
+  private final class QueryTimeout extends TimeoutWheel.Timeout {
+
+    /**
+     * The statement being executed, which is the wrapped statement unless routed to a replica.
+     */
+    private volatile Statement statement;
+
+    @Override
+    long expired(int expirations) throws SQLException {
+      ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
+      Statement myStatement = statement;
+      if (expirations == 1) {
+        myStatement.cancel();
+        return TimeUnit.MILLISECONDS.toNanos(myConnectionWrapper.getQueryTimeoutAbortMillis());
+      } else {
+        myStatement.getConnection().abort(myConnectionWrapper.getAsyncExecutor());
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Runs a blocking execution against the wrapped statement.  When the
+   * {@linkplain ConnectionWrapperImpl#isQueryTimeoutEnforced() query timeout is enforced by this wrapper}, or the
+   * current thread has a {@linkplain Deadline deadline}, the execution is timed on the shared timer wheel.  The
+   * execution runs on the {@linkplain ConnectionWrapperImpl#getBlockingOffload() offload pool} when called from a
+   * virtual thread and blocking offload is enabled, otherwise directly.
+   *
+   * <p>When {@linkplain ConnectionWrapperImpl#isAdmissionControl() admission control} is enabled, the execution first
+   * waits to be admitted.</p>
+   *
+   * <p>When {@linkplain ConnectionWrapperImpl#isReconnecting() reconnecting}, a statement prepared on a lost physical
+   * connection is first prepared again on the new connection, and a connection lost by the execution is replaced.</p>
+   *
+   * @throws  SQLTimeoutException  when the deadline of the current thread has already passed, without executing, or
+   *                               when not admitted in time
+   * @throws  java.sql.SQLTransientException  when rejected by admission control
+   *
+   * @see  ConnectionWrapperImpl#isQueryTimeoutEnforced()
+   * @see  Deadline
+   * @see  ConnectionWrapperImpl#isAdmissionControl()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#isReconnecting()
+   */
+  protected <R> R executeWrapped(Execution<R> execution) throws SQLException {
+    return executeWrapped(getWrapped(), false, execution);
+  }
+
+  /**
+   * Runs a blocking execution against the given statement.
+   *
+   * @param  statement  The statement being executed, which is cancelled on timeout
+   * @param  query  Whether the execution is a query, which does not write
+   *
+   * @see  #executeWrapped(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   * @see  ConnectionWrapperImpl#isReadWriteSplitting()
+   */
+  <R> R executeWrapped(Statement statement, boolean query, Execution<R> execution) throws SQLException {
+    ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
+    myConnectionWrapper.checkNotPrefetching();
+    try {
+      if (statement == getWrapped() && reopenIfReconnected()) {
+        statement = getWrapped();
+      }
+      try {
+        return executeAdmitted(statement, execution);
+      } catch (SQLException e) {
+        myConnectionWrapper.executionFailed(getPreparedSql());
+        if (statement == getWrapped() && myConnectionWrapper.reconnect(e, generation)) {
+          boolean reopened;
+          try {
+            reopened = reopenIfReconnected();
+          } catch (SQLException e2) {
+            e.addSuppressed(e2);
+            throw e;
+          }
+          if (reopened && query && isRetryable()) {
+            return executeAdmitted(getWrapped(), execution);
+          }
+        }
+        throw e;
+      }
+    } finally {
+      myConnectionWrapper.executed(query);
+    }
+  }
+
+  /**
+   * Runs a blocking execution once admitted by any admission control.
+   */
+  private <R> R executeAdmitted(Statement statement, Execution<R> execution) throws SQLException {
+    Deadline deadline = Deadline.get();
+    if (deadline != null) {
+      long remaining = deadline.getRemainingNanos();
+      if (remaining <= 0) {
+        throw new SQLTimeoutException("Deadline passed " + TimeUnit.NANOSECONDS.toMillis(-remaining) + " ms before execution");
+      }
+    }
+    AdmissionControl admission = getConnectionWrapper().getEnabledAdmissionControl();
+    if (admission == null) {
+      return executeTimed(statement, execution, deadline);
+    }
+    String myQueryClass = queryClass;
+    admission.acquire(admissionLane, myQueryClass, deadline);
+    long startNanos = System.nanoTime();
+    boolean overloaded = false;
+    try {
+      return executeTimed(statement, execution, deadline);
+    } catch (SQLTimeoutException e) {
+      overloaded = true;
+      throw e;
+    } finally {
+      admission.release(myQueryClass, getPreparedSql(), System.nanoTime() - startNanos, overloaded);
+    }
+  }
+
+  /**
+   * Runs a blocking execution, timed by any enforced query timeout or deadline, and measured when load balancing.
+   *
+   * @see  DriverWrapper#isLoadBalancing()
+   */
+  private <R> R executeTimed(Statement statement, Execution<R> unmeasured, Deadline deadline) throws SQLException {
+    ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
+    LoadBalancer.Backend backend = myConnectionWrapper.getBackend(statement);
+    Execution<R> execution = (backend == null) ? unmeasured : () -> backend.execute(unmeasured);
+    long nanos = queryTimeoutEnforced ? TimeUnit.SECONDS.toNanos(queryTimeout) : 0;
+    if (deadline != null) {
+      // At least one nanosecond, since the deadline may pass while waiting for admission
+      long remaining = Math.max(1, deadline.getRemainingNanos());
+      if (nanos == 0 || remaining < nanos) {
+        nanos = remaining;
+      }
+    }
+    executing = statement;
+    try {
+      if (nanos == 0) {
+        return myConnectionWrapper.offload(execution);
+      }
+      QueryTimeout myTimeout = timeout;
+      if (myTimeout == null) {
+        myTimeout = new QueryTimeout();
+        timeout = myTimeout;
+      }
+      myTimeout.statement = statement;
+      TimeoutWheel wheel = myConnectionWrapper.getTimeoutWheel();
+      wheel.schedule(myTimeout, nanos);
+      try {
+        return myConnectionWrapper.offload(execution);
+      } finally {
+        wheel.cancel(myTimeout);
+      }
+    } finally {
+      executing = null;
+    }
+  }
+
+  /**
+   * Gets the statement currently being executed, which is the one to {@linkplain Statement#cancel() cancel}.  This is
+   * the wrapped statement unless routed to a replica, or a statement prepared again on a new connection when
+   * {@linkplain ConnectionWrapperImpl#isReconnecting() reconnecting}.
+   *
+   * @return  The executing statement or {@code null} when not currently executing
+   */
+  Statement getExecutingStatement() {
+    return executing;
+  }
+
+  /**
+   * Runs a blocking execution asynchronously on the {@linkplain ConnectionWrapperImpl#getAsyncExecutor() async executor},
+   * limited by the {@linkplain DriverWrapper#getAsyncConcurrency() concurrency limit of the driver}.
+   *
+   * <p>Cancelling the returned future before the execution starts prevents it from starting, and cancelling while it
+   * is executing calls {@link Statement#cancel()}.  A result that is {@link AutoCloseable}, such as a result set, is
+   * closed when the future has already been cancelled.</p>
+   *
+   * <p>As with any use of a statement from multiple threads, this statement must not be used again until the returned
+   * future has completed.</p>
+   *
+   * <p>The {@linkplain Deadline deadline} of the current thread, if any, also applies to the execution.</p>
+   */
+  protected <R> CompletableFuture<R> executeAsync(Execution<R> execution) {
+    ConnectionWrapperImpl connectionWrapper = getConnectionWrapper();
+    StatementFuture<R> future = new StatementFuture<>(this);
+    Deadline deadline = Deadline.get();
+    // Queued without holding a thread while the concurrency limit is reached
+    connectionWrapper.getAsyncLimiter().execute(
+        connectionWrapper.getAsyncExecutor(),
+        () -> {
+          if (future.isDone()) {
+            return;
+          }
+          Deadline.Scope scope = (deadline == null) ? null : deadline.enter();
+          try {
+            if (future.start()) {
+              R result = execution.execute();
+              if (!future.complete(result) && result instanceof AutoCloseable) {
+                ((AutoCloseable) result).close();
+              }
+            }
+          } catch (Throwable t) {
+            future.completeExceptionally(t);
+          } finally {
+            if (scope != null) {
+              scope.close();
+            }
+            future.end();
+          }
+        },
+        future::completeExceptionally
+    );
+    return future;
+  }
+
+  /**
+   * Asynchronous form of {@link #executeQuery(java.lang.String)}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<ResultSetWrapperImpl> executeQueryAsync(String sql) {
+    return executeAsync(() -> executeQuery(sql));
+  }
+
+  /**
+   * Asynchronous form of {@link #executeUpdate(java.lang.String)}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+    return executeAsync(() -> executeUpdate(sql));
+  }
+
+  /**
+   * Asynchronous form of {@link #executeLargeUpdate(java.lang.String)}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<Long> executeLargeUpdateAsync(String sql) {
+    return executeAsync(() -> executeLargeUpdate(sql));
+  }
+
+  /**
+   * Asynchronous form of {@link #executeBatch()}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<int[]> executeBatchAsync() {
+    return executeAsync(this::executeBatch);
+  }
+
+  /**
+   * Asynchronous form of {@link #executeLargeBatch()}.
+   *
+   * @see  #executeAsync(com.aoapps.sql.wrapper.StatementWrapperImpl.Execution)
+   */
+  public CompletableFuture<long[]> executeLargeBatchAsync() {
+    return executeAsync(this::executeLargeBatch);
+  }
+
+  /**
+   * Gets the generated keys as a primitive array, reading the first column of {@link #getGeneratedKeys()} without
+   * boxing each key.
+   *
+   * @return  The generated keys, or an empty array when none
+   */
+  public long[] getGeneratedLongKeys() throws SQLException {
+    GeneratedKeys keys = new GeneratedKeys(16);
+    keys.read(getWrapped().getGeneratedKeys());
+    return keys.toArray();
+  }
+
+  /**
+   * Executes a chunk of rows of a batch.
+   */
+  @FunctionalInterface
+  interface BatchChunk {
+    /**
+     * Executes the rows from {@code from}, inclusive, to {@code to}, exclusive.
+     *
+     * @return  The update count of each row in the chunk
+     */
+    long[] execute(int from, int to) throws SQLException;
+  }
+
+  /**
+   * Gets the adaptive chunk size for this statement, or {@code null} when adaptive batch chunking is disabled.
+   *
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  private BatchChunkSize getBatchChunkSize() {
+    long targetMillis = getConnectionWrapper().getBatchChunkTargetMillis();
+    if (targetMillis <= 0) {
+      return null;
+    }
+    BatchChunkSize chunkSize = batchChunkSize;
+    if (chunkSize == null || chunkSize.getTargetMillis() != targetMillis) {
+      chunkSize = new BatchChunkSize(targetMillis);
+      batchChunkSize = chunkSize;
+    }
+    return chunkSize;
+  }
+
+  /**
+   * Executes a batch as a series of chunks, reassembling the update counts of the chunks.  When adaptive batch
+   * chunking is enabled, the size of each chunk adapts to the latency of the previous chunks.
+   *
+   * @param  numRows   The number of rows in the batch
+   * @param  maxChunk  The maximum number of rows per chunk, which is also the chunk size when adaptive batch chunking
+   *                   is disabled
+   *
+   * @return  The update count for each row of the batch
+   *
+   * @throws  BatchUpdateException  when any chunk after the first fails, containing the update counts of the rows
+   *                                before the failed chunk followed by any update counts provided for the failed chunk,
+   *                                with the failure of the chunk as its cause.  A failure of the first chunk is thrown
+   *                                unchanged.
+   *
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  long[] executeChunked(int numRows, int maxChunk, BatchChunk chunk) throws SQLException {
+    BatchChunkSize chunkSize = getBatchChunkSize();
+    long[] counts = new long[numRows];
+    int done = 0;
+    while (done < numRows) {
+      int rows = Math.min(numRows - done, (chunkSize == null) ? maxChunk : Math.min(chunkSize.get(), maxChunk));
+      long start = System.nanoTime();
+      long[] chunkCounts;
+      try {
+        chunkCounts = chunk.execute(done, done + rows);
+      } catch (BatchUpdateException e) {
+        if (chunkSize != null) {
+          chunkSize.failed();
+        }
+        if (done == 0) {
+          throw e;
+        }
+        long[] failedCounts = getLargeUpdateCounts(e);
+        long[] partialCounts = Arrays.copyOf(counts, done + failedCounts.length);
+        System.arraycopy(failedCounts, 0, partialCounts, done, failedCounts.length);
+        BatchUpdateException combined = new BatchUpdateException(
+            e.getMessage(), e.getSQLState(), e.getErrorCode(), partialCounts, e
+        );
+        combined.setNextException(e.getNextException());
+        throw combined;
+      } catch (SQLException e) {
+        if (chunkSize != null) {
+          chunkSize.failed();
+        }
+        if (done == 0) {
+          // Keep the type of the failure for classification, such as a lost connection or a timeout
+          throw e;
+        }
+        throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(counts, done), e);
+      }
+      if (chunkSize != null) {
+        chunkSize.succeeded(rows, System.nanoTime() - start);
+      }
+      int numCounts = Math.min(rows, chunkCounts.length);
+      System.arraycopy(chunkCounts, 0, counts, done, numCounts);
+      if (numCounts < rows) {
+        Arrays.fill(counts, done + numCounts, done + rows, Statement.SUCCESS_NO_INFO);
+      }
+      done += rows;
+    }
+    return counts;
+  }
+
+  /**
+   * Converts update counts to large update counts.
+   */
+  static long[] toLargeCounts(int[] counts) {
+    int len = counts.length;
+    long[] largeCounts = new long[len];
+    for (int i = 0; i < len; i++) {
+      largeCounts[i] = counts[i];
+    }
+    return largeCounts;
+  }
+
+  /**
+   * Converts large update counts to update counts.
+   */
+  static int[] toIntCounts(long[] largeCounts) {
+    int len = largeCounts.length;
+    int[] counts = new int[len];
+    for (int i = 0; i < len; i++) {
+      long count = largeCounts[i];
+      counts[i] = count > Integer.MAX_VALUE ? Statement.SUCCESS_NO_INFO : (int) count;
+    }
+    return counts;
+  }
+
+  /**
+   * Gets the large update counts from a {@link BatchUpdateException}, falling back to its update counts.
+   */
+  static long[] getLargeUpdateCounts(BatchUpdateException e) {
+    long[] largeCounts = e.getLargeUpdateCounts();
+    if (largeCounts == null) {
+      int[] counts = e.getUpdateCounts();
+      largeCounts = (counts == null) ? new long[0] : toLargeCounts(counts);
+    }
+    return largeCounts;
+  }
+
+  /**
+   * Converts a {@link BatchUpdateException} with large update counts to one with update counts, for
+   * {@link Statement#executeBatch()}.
+   */
+  static BatchUpdateException toIntCounts(BatchUpdateException e) {
+    long[] largeCounts = e.getLargeUpdateCounts();
+    if (largeCounts == null) {
+      return e;
+    }
+    BatchUpdateException converted = new BatchUpdateException(
+        e.getMessage(), e.getSQLState(), e.getErrorCode(), toIntCounts(largeCounts), e.getCause()
+    );
+    converted.setNextException(e.getNextException());
+    return converted;
+  }
+
+  /**
+   * Executes the batch recorded in this wrapper, in chunks.  The recorded batch is cleared.
+   */
+  private long[] executeRecordedBatch(List<String> sqls) throws SQLException {
+    batch = null;
+    Statement stmt = getWrapped();
+    return executeChunked(sqls.size(), Integer.MAX_VALUE, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        stmt.addBatch(sqls.get(i));
+      }
+      return toLargeCounts(stmt.executeBatch());
+    });
+  }
+
   /**
    * {@inheritDoc}
    *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
    * @see  StatementWrapperImpl#wrapResultSet(java.sql.ResultSet)
    */
   @Override
   public ResultSetWrapperImpl executeQuery(String sql) throws SQLException {
-    return wrapResultSet(getWrapped().executeQuery(sql));
+    beforeExecute();
+    return wrapResultSet(executeWrapped(getWrapped(), true, () -> getWrapped().executeQuery(sql)));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeUpdate(sql));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().execute(sql));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A statement of a pooled connection is no longer closed when the connection is returned to the pool.</p>
+   *
+   * @see  ConnectionPool
+   */
+  @Override
+  public void close() throws SQLException {
+    try {
+      getWrapped().close();
+    } finally {
+      getConnectionWrapper().closed(this);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  ConnectionWrapperImpl#isQueryTimeoutEnforced()
+   */
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    return queryTimeoutEnforced ? queryTimeout : getWrapped().getQueryTimeout();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the query timeout is enforced by this wrapper, the timeout is kept in this wrapper and the wrapped
+   * statement has no timeout.</p>
+   *
+   * @see  ConnectionWrapperImpl#isQueryTimeoutEnforced()
+   */
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    if (getConnectionWrapper().isQueryTimeoutEnforced()) {
+      if (seconds < 0) {
+        throw new SQLException("seconds < 0: " + seconds);
+      }
+      if (!queryTimeoutEnforced) {
+        getWrapped().setQueryTimeout(0);
+        queryTimeoutEnforced = true;
+      }
+      queryTimeout = seconds;
+    } else {
+      getWrapped().setQueryTimeout(seconds);
+      queryTimeoutEnforced = false;
+      queryTimeout = 0;
+    }
   }
 
   /**
@@ -91,7 +787,7 @@ public class StatementWrapperImpl implements StatementWrapper {
   @Override
   public ConnectionWrapperImpl getConnection() throws SQLException {
     ConnectionWrapperImpl myConnectionWrapper = getConnectionWrapper();
-    assert getWrapped().getConnection() == myConnectionWrapper.getWrapped();
+    assert myConnectionWrapper.isWrapping(getWrapped().getConnection());
     return myConnectionWrapper;
   }
 
@@ -104,4 +800,199 @@ public class StatementWrapperImpl implements StatementWrapper {
   public ResultSetWrapperImpl getGeneratedKeys() throws SQLException {
     return wrapResultSet(getWrapped().getGeneratedKeys());
   }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When adaptive batch chunking is enabled, the batch is recorded in this wrapper.</p>
+   *
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    List<String> myBatch = batch;
+    if (myBatch == null) {
+      if (directBatch || getConnectionWrapper().getBatchChunkTargetMillis() <= 0) {
+        getWrapped().addBatch(sql);
+        directBatch = true;
+        return;
+      }
+      myBatch = new ArrayList<>();
+      batch = myBatch;
+    }
+    myBatch.add(sql);
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    batch = null;
+    directBatch = false;
+    getWrapped().clearBatch();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the batch is recorded in this wrapper, it is executed in chunks.</p>
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  @Override
+  public int[] executeBatch() throws SQLException {
+    beforeExecute();
+    List<String> myBatch = batch;
+    if (myBatch == null) {
+      directBatch = false;
+      return executeWrapped(() -> getWrapped().executeBatch());
+    } else {
+      try {
+        return toIntCounts(executeWrapped(() -> executeRecordedBatch(myBatch)));
+      } catch (BatchUpdateException e) {
+        throw toIntCounts(e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeUpdate(sql, autoGeneratedKeys));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeUpdate(sql, columnIndexes));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeUpdate(sql, columnNames));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().execute(sql, autoGeneratedKeys));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().execute(sql, columnIndexes));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().execute(sql, columnNames));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the batch is recorded in this wrapper, it is executed in chunks.</p>
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   * @see  ConnectionWrapperImpl#getBatchChunkTargetMillis()
+   */
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    beforeExecute();
+    List<String> myBatch = batch;
+    if (myBatch == null) {
+      directBatch = false;
+      return executeWrapped(() -> getWrapped().executeLargeBatch());
+    } else {
+      return executeWrapped(() -> executeRecordedBatch(myBatch));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public long executeLargeUpdate(String sql) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeLargeUpdate(sql));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeLargeUpdate(sql, autoGeneratedKeys));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeLargeUpdate(sql, columnIndexes));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see  StatementWrapperImpl#beforeExecute()
+   * @see  ConnectionWrapperImpl#isBlockingOffload()
+   */
+  @Override
+  public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+    beforeExecute();
+    return executeWrapped(() -> getWrapped().executeLargeUpdate(sql, columnNames));
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The buffers of buffered streams, shared by all connections of a driver.  Idle buffers are kept in a fixed number of
+ * slots, so that taking and releasing buffers does not allocate once the pool is warm.  A buffer is allocated when no
+ * idle buffer is available, and discarded when released into a full pool.
+ *
+ * @see  DriverWrapper#isBufferedStreams()
+ *
+ * @author  AO Industries, Inc.
+ */
+final class StreamBufferPool {
+
+  private final int bufferSize;
+  private final AtomicReferenceArray<byte[]> byteBuffers;
+  private final AtomicReferenceArray<char[]> charBuffers;
+
+  StreamBufferPool(int bufferSize, int capacity) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize < 1: " + bufferSize);
+    }
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity < 0: " + capacity);
+    }
+    this.bufferSize = bufferSize;
+    this.byteBuffers = new AtomicReferenceArray<>(capacity);
+    this.charBuffers = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Gets the size of the buffers, in bytes or characters.
+   */
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Takes an idle slot, starting at a random slot to spread concurrent threads across the pool.
+   *
+   * @return  The buffer or {@code null} when no idle buffer is available
+   */
+  private static <B> B take(AtomicReferenceArray<B> slots) {
+    int capacity = slots.length();
+    if (capacity > 0) {
+      int start = ThreadLocalRandom.current().nextInt(capacity);
+      for (int i = 0; i < capacity; i++) {
+        int slot = (start + i) % capacity;
+        if (slots.get(slot) != null) {
+          B buffer = slots.getAndSet(slot, null);
+          if (buffer != null) {
+            return buffer;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Puts a buffer into an empty slot, discarding it when the pool is full.
+   */
+  private static <B> void put(AtomicReferenceArray<B> slots, B buffer) {
+    int capacity = slots.length();
+    if (capacity > 0) {
+      int start = ThreadLocalRandom.current().nextInt(capacity);
+      for (int i = 0; i < capacity; i++) {
+        int slot = (start + i) % capacity;
+        if (slots.get(slot) == null && slots.compareAndSet(slot, null, buffer)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes a byte buffer from the pool, allocating a new buffer when none is idle.
+   *
+   * @see  #release(byte[])
+   */
+  byte[] takeBytes() {
+    byte[] buffer = take(byteBuffers);
+    return (buffer == null) ? new byte[bufferSize] : buffer;
+  }
+
+  /**
+   * Returns a byte buffer to the pool.
+   *
+   * @see  #takeBytes()
+   */
+  void release(byte[] buffer) {
+    put(byteBuffers, buffer);
+  }
+
+  /**
+   * Takes a character buffer from the pool, allocating a new buffer when none is idle.
+   *
+   * @see  #release(char[])
+   */
+  char[] takeChars() {
+    char[] buffer = take(charBuffers);
+    return (buffer == null) ? new char[bufferSize] : buffer;
+  }
+
+  /**
+   * Returns a character buffer to the pool.
+   *
+   * @see  #takeChars()
+   */
+  void release(char[] buffer) {
+    put(charBuffers, buffer);
+  }
+}
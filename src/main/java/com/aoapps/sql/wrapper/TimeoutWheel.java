@@ -0,0 +1,264 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timer wheel, serviced by a single daemon thread, that expires {@linkplain Timeout timeouts}.
+ *
+ * <p>Each timeout is an intrusive node of a doubly-linked list in the bucket of its deadline, and a timeout object is
+ * reused for every scheduling, so scheduling and cancelling a timeout are constant-time and do not allocate.  The
+ * wheel thread sleeps while no timeouts are scheduled.</p>
+ *
+ * <p>Timeouts are expired with a resolution of {@link #TICK_NANOS}, never early.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class TimeoutWheel {
+
+  private static final Logger logger = Logger.getLogger(TimeoutWheel.class.getName());
+
+  /**
+   * The duration of each tick of the wheel.
+   */
+  static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * The number of buckets, which must be a power of two.  Timeouts further in the future than one rotation of the
+   * wheel share buckets with nearer timeouts and are skipped until their deadline.
+   */
+  private static final int WHEEL_SIZE = 512;
+
+  private static final int STATE_IDLE = 0;
+  private static final int STATE_SCHEDULED = 1;
+  private static final int STATE_EXPIRING = 2;
+
+  /**
+   * A reusable timeout.  Only one scheduling of a timeout is active at a time.
+   */
+  abstract static class Timeout {
+
+    // All fields guarded by the lock of the wheel, except while expiring
+    private Timeout prev;
+    private Timeout next;
+    private long deadlineTick;
+    private int state = STATE_IDLE;
+    private int expirations;
+
+    /**
+     * Called by the wheel thread when this timeout expires.  The wheel is not locked during this call, and cancelling
+     * this timeout waits for this call to return.
+     *
+     * @param  expirations  The number of times this timeout has expired since scheduled, including this time
+     *
+     * @return  The nanoseconds until this timeout should expire again, or {@code 0} to not expire again
+     */
+    abstract long expired(int expirations) throws Exception;
+  }
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+  private final long startNanos = System.nanoTime();
+
+  /**
+   * The next tick to be processed.
+   */
+  private long tick;
+
+  /**
+   * The number of scheduled timeouts.
+   */
+  private int size;
+
+  /**
+   * Creates a new wheel and starts its thread.
+   *
+   * @param  name  The prefix of the thread name
+   */
+  TimeoutWheel(String name) {
+    Thread thread = new Thread(this::run, name + "-timeout");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Gets the tick that is current at the given time.
+   */
+  private long getTick(long nanoTime) {
+    return (nanoTime - startNanos) / TICK_NANOS;
+  }
+
+  /**
+   * Links a timeout into the bucket of its deadline.  Must hold the lock.
+   */
+  private void link(Timeout timeout, long nanos) {
+    long deadlineTick = (System.nanoTime() - startNanos + nanos + TICK_NANOS - 1) / TICK_NANOS;
+    if (deadlineTick < tick) {
+      deadlineTick = tick;
+    }
+    int bucket = (int) deadlineTick & (WHEEL_SIZE - 1);
+    Timeout head = buckets[bucket];
+    timeout.prev = null;
+    timeout.next = head;
+    if (head != null) {
+      head.prev = timeout;
+    }
+    buckets[bucket] = timeout;
+    timeout.deadlineTick = deadlineTick;
+    timeout.state = STATE_SCHEDULED;
+    if (size++ == 0) {
+      changed.signalAll();
+    }
+  }
+
+  /**
+   * Unlinks a scheduled timeout from its bucket.  Must hold the lock.
+   */
+  private void unlink(Timeout timeout) {
+    Timeout prev = timeout.prev;
+    Timeout next = timeout.next;
+    if (prev == null) {
+      buckets[(int) timeout.deadlineTick & (WHEEL_SIZE - 1)] = next;
+    } else {
+      prev.next = next;
+    }
+    if (next != null) {
+      next.prev = prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.state = STATE_IDLE;
+    size--;
+  }
+
+  /**
+   * Waits for any expiration of a timeout in progress to complete.  Must hold the lock.
+   */
+  private void awaitNotExpiring(Timeout timeout) {
+    while (timeout.state == STATE_EXPIRING) {
+      changed.awaitUninterruptibly();
+    }
+  }
+
+  /**
+   * Schedules a timeout, replacing any current scheduling of the timeout.
+   *
+   * @param  nanos  The nanoseconds until the timeout expires
+   */
+  void schedule(Timeout timeout, long nanos) {
+    lock.lock();
+    try {
+      awaitNotExpiring(timeout);
+      if (timeout.state == STATE_SCHEDULED) {
+        unlink(timeout);
+      }
+      timeout.expirations = 0;
+      link(timeout, nanos);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Cancels a timeout, waiting for any expiration in progress to complete.
+   *
+   * @return  The number of times the timeout expired since it was scheduled
+   */
+  int cancel(Timeout timeout) {
+    lock.lock();
+    try {
+      awaitNotExpiring(timeout);
+      if (timeout.state == STATE_SCHEDULED) {
+        unlink(timeout);
+      }
+      return timeout.expirations;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run() {
+    while (true) {
+      Timeout expired = null;
+      lock.lock();
+      try {
+        while (size == 0) {
+          tick = getTick(System.nanoTime());
+          changed.awaitUninterruptibly();
+        }
+        long waitNanos = startNanos + tick * TICK_NANOS - System.nanoTime();
+        if (waitNanos > 0) {
+          try {
+            changed.awaitNanos(waitNanos);
+          } catch (InterruptedException e) {
+            // Continue servicing timeouts
+          }
+          continue;
+        }
+        Timeout timeout = buckets[(int) tick & (WHEEL_SIZE - 1)];
+        while (timeout != null) {
+          Timeout next = timeout.next;
+          if (timeout.deadlineTick <= tick) {
+            unlink(timeout);
+            timeout.state = STATE_EXPIRING;
+            timeout.next = expired;
+            expired = timeout;
+          }
+          timeout = next;
+        }
+        tick++;
+      } finally {
+        lock.unlock();
+      }
+      while (expired != null) {
+        Timeout timeout = expired;
+        expired = timeout.next;
+        timeout.next = null;
+        long again = 0;
+        try {
+          again = timeout.expired(++timeout.expirations);
+        } catch (Throwable t) {
+          logger.log(Level.WARNING, "Timeout expiration failed", t);
+        }
+        lock.lock();
+        try {
+          timeout.state = STATE_IDLE;
+          if (again > 0) {
+            link(timeout, again);
+          }
+          changed.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+}
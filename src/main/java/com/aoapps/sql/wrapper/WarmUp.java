@@ -0,0 +1,440 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * The outcome of {@linkplain DriverWrapper#warmUp(java.lang.String, java.util.Properties) warming up} a driver before
+ * traffic arrives.
+ *
+ * <p>A warm-up runs in parallel on the {@linkplain DriverWrapper#getAsyncExecutor() asynchronous executor}, within the
+ * {@linkplain DriverWrapper#getWarmUpMillis() startup budget}:</p>
+ * <ul>
+ *   <li>{@linkplain DriverWrapper#getWarmUpConnections(java.lang.String) Connections} are opened at once, filling
+ *       the pool when pooling, and the {@linkplain DriverWrapper#getWarmUpSql(java.lang.String) hot SQL} is prepared
+ *       on each, along with its {@linkplain PreparedStatement#getMetaData() result metadata}, feeding any statement
+ *       cache of the wrapped driver.  Statements are prepared but never executed.</li>
+ *   <li>The hot paths of the wrapper are exercised against a stub connection for a
+ *       {@linkplain DriverWrapper#getWarmUpIterations() number of iterations}, so they are compiled before the first
+ *       real statement.</li>
+ * </ul>
+ *
+ * @see  DriverWrapper#warmUp(java.lang.String, java.util.Properties)
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class WarmUp {
+
+  private static final Logger logger = Logger.getLogger(WarmUp.class.getName());
+
+  /**
+   * The maximum number of distinct statements recorded for each URL.
+   */
+  private static final int MAX_RECORDED = 1000;
+
+  /**
+   * The number of rows of each query against the stub.
+   */
+  private static final int STUB_ROWS = 4;
+
+  private static final String STUB_QUERY = "SELECT ?, ?, ?";
+
+  /**
+   * Records the SQL prepared by connections, by URL, so the hottest statements may be prepared by the next warm-up.
+   *
+   * @see  DriverWrapper#isHotSqlRecording()
+   */
+  static final class Recorder {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    void record(String url, String sql) {
+      ConcurrentMap<String, LongAdder> urlCounts = counts.computeIfAbsent(url, u -> new ConcurrentHashMap<>());
+      LongAdder count = urlCounts.get(sql);
+      if (count == null) {
+        if (urlCounts.size() >= MAX_RECORDED) {
+          return;
+        }
+        count = urlCounts.computeIfAbsent(sql, s -> new LongAdder());
+      }
+      count.increment();
+    }
+
+    List<String> getHotSql(String url, int limit) {
+      ConcurrentMap<String, LongAdder> urlCounts = counts.get(url);
+      if (urlCounts == null) {
+        return List.of();
+      }
+      return urlCounts.entrySet().stream()
+          .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+          .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+          .limit(limit)
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toList());
+    }
+  }
+
+  private final int connections;
+  private final int statements;
+  private final int failures;
+  private final long iterations;
+  private final long elapsedNanos;
+  private final boolean completed;
+
+  private WarmUp(int connections, int statements, int failures, long iterations, long elapsedNanos, boolean completed) {
+    this.connections = connections;
+    this.statements = statements;
+    this.failures = failures;
+    this.iterations = iterations;
+    this.elapsedNanos = elapsedNanos;
+    this.completed = completed;
+  }
+
+  @Override
+  public String toString() {
+    return "WarmUp(connections=" + connections + ", statements=" + statements + ", failures=" + failures
+        + ", iterations=" + iterations + ", elapsed=" + getElapsedMillis() + " ms" + (completed ? "" : ", incomplete")
+        + ")";
+  }
+
+  /**
+   * Gets the number of connections opened.
+   */
+  public int getConnections() {
+    return connections;
+  }
+
+  /**
+   * Gets the number of statements prepared, across all connections.
+   */
+  public int getStatements() {
+    return statements;
+  }
+
+  /**
+   * Gets the number of connections or statements that failed.
+   */
+  public int getFailures() {
+    return failures;
+  }
+
+  /**
+   * Gets the number of iterations of the hot paths against the stub connection.
+   */
+  public long getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Gets the time taken by the warm-up.
+   */
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+  }
+
+  /**
+   * Checks if the warm-up completed within the budget.  When not, any work still in progress is stopped as soon as
+   * possible.
+   */
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  /**
+   * Warms up the given driver.
+   *
+   * @throws  SQLException  when no connection could be opened
+   *
+   * @see  DriverWrapper#warmUp(java.lang.String, java.util.Properties)
+   */
+  static WarmUp warmUp(DriverWrapper driver, String url, Properties info) throws SQLException {
+    long startNanos = System.nanoTime();
+    long budgetNanos = TimeUnit.MILLISECONDS.toNanos(driver.getWarmUpMillis());
+    int numConnections = driver.getWarmUpConnections(url);
+    List<String> hotSql = driver.getWarmUpSql(url);
+    long maxIterations = driver.getWarmUpIterations();
+    Executor executor = driver.getAsyncExecutor();
+
+    AtomicInteger connectionCount = new AtomicInteger();
+    AtomicInteger statementCount = new AtomicInteger();
+    AtomicInteger failureCount = new AtomicInteger();
+    AtomicLong iterationCount = new AtomicLong();
+    // The connections are held open until the end, so that each is a distinct connection of any pool
+    List<Connection> opened = new ArrayList<>();
+    boolean[] stopped = {false};
+    SQLException[] firstFailure = {null};
+
+    List<CompletableFuture<Void>> tasks = new ArrayList<>(numConnections + 1);
+    for (int i = 0; i < numConnections; i++) {
+      tasks.add(CompletableFuture.runAsync(() -> {
+        Connection conn = null;
+        try {
+          conn = driver.connect(url, info);
+          if (conn == null) {
+            throw new SQLException("URL not accepted by " + driver + ": " + url);
+          }
+          connectionCount.incrementAndGet();
+          Connection wrapped = ((ConnectionWrapperImpl) conn).getWrapped();
+          for (String sql : hotSql) {
+            synchronized (opened) {
+              if (stopped[0]) {
+                break;
+              }
+            }
+            try (PreparedStatement pstmt = wrapped.prepareStatement(sql)) {
+              try {
+                pstmt.getMetaData();
+              } catch (SQLFeatureNotSupportedException e) {
+                // Preparing is enough
+              }
+              statementCount.incrementAndGet();
+            } catch (SQLException e) {
+              failureCount.incrementAndGet();
+              logger.log(Level.FINE, "Unable to prepare during warm-up: " + sql, e);
+            }
+          }
+        } catch (SQLException e) {
+          failureCount.incrementAndGet();
+          logger.log(Level.FINE, "Unable to connect during warm-up", e);
+          synchronized (opened) {
+            if (firstFailure[0] == null) {
+              firstFailure[0] = e;
+            }
+          }
+        } finally {
+          if (conn != null) {
+            boolean close;
+            synchronized (opened) {
+              close = stopped[0];
+              if (!close) {
+                opened.add(conn);
+              }
+            }
+            if (close) {
+              closeQuietly(conn);
+            }
+          }
+        }
+      }, executor));
+    }
+    if (maxIterations > 0) {
+      tasks.add(CompletableFuture.runAsync(() -> exerciseStub(driver, maxIterations, iterationCount, stopped, opened), executor));
+    }
+
+    boolean completed;
+    try {
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+          .get(Math.max(0, budgetNanos - (System.nanoTime() - startNanos)), TimeUnit.NANOSECONDS);
+      completed = true;
+    } catch (TimeoutException e) {
+      completed = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      completed = false;
+    } catch (ExecutionException e) {
+      // Tasks handle their own failures
+      logger.log(Level.WARNING, "Warm-up failed", e.getCause());
+      completed = false;
+    }
+    List<Connection> toClose;
+    SQLException failure;
+    synchronized (opened) {
+      stopped[0] = true;
+      toClose = new ArrayList<>(opened);
+      opened.clear();
+      failure = firstFailure[0];
+    }
+    for (Connection conn : toClose) {
+      closeQuietly(conn);
+    }
+    WarmUp warmUp = new WarmUp(
+        connectionCount.get(),
+        statementCount.get(),
+        failureCount.get(),
+        iterationCount.get(),
+        System.nanoTime() - startNanos,
+        completed
+    );
+    if (numConnections > 0 && warmUp.connections == 0 && failure != null) {
+      throw failure;
+    }
+    logger.log(Level.FINE, "{0}: {1}", new Object[] {url, warmUp});
+    return warmUp;
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      logger.log(Level.FINE, "Unable to close warm-up connection", e);
+    }
+  }
+
+  /**
+   * Exercises the hot paths of the wrapper against a stub connection: preparing, setting parameters, executing,
+   * reading rows, and closing.
+   */
+  private static void exerciseStub(
+      DriverWrapper driver,
+      long maxIterations,
+      AtomicLong iterationCount,
+      boolean[] stopped,
+      Object lock
+  ) {
+    try (ConnectionWrapperImpl conn = driver.newConnectionWrapper(newStubConnection())) {
+      for (long i = 0; i < maxIterations; i++) {
+        if ((i & 0xff) == 0) {
+          synchronized (lock) {
+            if (stopped[0]) {
+              break;
+            }
+          }
+        }
+        try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(STUB_QUERY)) {
+          pstmt.setInt(1, (int) i);
+          pstmt.setLong(2, i);
+          pstmt.setString(3, STUB_QUERY);
+          try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+            while (results.next()) {
+              results.getInt(1);
+              results.getLong(2);
+              results.getString(3);
+            }
+          }
+          pstmt.executeUpdate();
+        }
+        iterationCount.incrementAndGet();
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.log(Level.FINE, "Unable to exercise the stub connection", e);
+    }
+  }
+
+  /**
+   * Creates a connection that does nothing, with statements that return {@link #STUB_ROWS} rows of default values.
+   */
+  private static Connection newStubConnection() {
+    Connection[] conn = {null};
+    conn[0] = (Connection) Proxy.newProxyInstance(
+        WarmUp.class.getClassLoader(),
+        new Class<?>[] {Connection.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "prepareStatement":
+              return newStubStatement(conn[0]);
+            case "getAutoCommit":
+              return true;
+            default:
+              return defaultValue(method.getReturnType());
+          }
+        }
+    );
+    return conn[0];
+  }
+
+  private static PreparedStatement newStubStatement(Connection conn) {
+    PreparedStatement[] pstmt = {null};
+    pstmt[0] = (PreparedStatement) Proxy.newProxyInstance(
+        WarmUp.class.getClassLoader(),
+        new Class<?>[] {PreparedStatement.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "executeQuery":
+              return newStubResultSet(pstmt[0]);
+            case "executeUpdate":
+              return 1;
+            case "getConnection":
+              return conn;
+            default:
+              return defaultValue(method.getReturnType());
+          }
+        }
+    );
+    return pstmt[0];
+  }
+
+  private static ResultSet newStubResultSet(PreparedStatement pstmt) {
+    int[] row = {0};
+    return (ResultSet) Proxy.newProxyInstance(
+        WarmUp.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "next":
+              return ++row[0] <= STUB_ROWS;
+            case "getStatement":
+              return pstmt;
+            case "getString":
+              return "";
+            default:
+              return defaultValue(method.getReturnType());
+          }
+        }
+    );
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == short.class) {
+      return (short) 0;
+    } else if (type == byte.class) {
+      return (byte) 0;
+    } else if (type == double.class) {
+      return 0.0;
+    } else if (type == float.class) {
+      return 0.0f;
+    } else {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.sql.wrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A bounded queue of fire-and-forget updates, written in batches by a background writer over its own connection.
+ *
+ * <p>Enqueuing an update does not take any locks: the queue is a {@link ConcurrentLinkedQueue} bounded by a
+ * {@link Semaphore}.  When the queue is full, enqueuing blocks until the writer has made room, providing backpressure
+ * instead of unbounded memory growth.</p>
+ *
+ * <p>The writer drains up to {@link DriverWrapper#getWriteBehindBatchSize()} updates at a time, executes consecutive
+ * updates with the same SQL as a single batch, and commits them together.  When this fails, the updates are replayed
+ * one at a time so that only the updates that actually fail are reported to their failure handlers.</p>
+ *
+ * @see  ConnectionWrapperImpl#enqueueUpdate(java.lang.String, java.lang.Object...)
+ * @see  DriverWrapper#getWriteBehindQueue(java.lang.String, java.util.Properties)
+ *
+ * @author  AO Industries, Inc.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+  /**
+   * The maximum time the writer waits for new updates before checking its state again.
+   */
+  private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final AtomicInteger threadNum = new AtomicInteger();
+
+  private static final class Update {
+    private final String sql;
+    private final Object[] parameters;
+    private final Consumer<? super SQLException> onFailure;
+
+    private Update(String sql, Object[] parameters, Consumer<? super SQLException> onFailure) {
+      this.sql = sql;
+      this.parameters = parameters;
+      this.onFailure = onFailure;
+    }
+  }
+
+  private final DriverWrapper driver;
+  private final String url;
+  private final Properties info;
+  private final int batchSize;
+
+  private final Queue<Update> queue = new ConcurrentLinkedQueue<>();
+  private final Semaphore capacity;
+
+  /**
+   * The number of threads currently enqueuing, so the writer does not exit while an update is being added.
+   */
+  private final AtomicInteger enqueuing = new AtomicInteger();
+  private final AtomicLong enqueued = new AtomicLong();
+  /**
+   * Guards {@link #written}.  A lock is used instead of {@code synchronized} so that flushing from a virtual thread
+   * does not pin its carrier while waiting.
+   */
+  private final Lock writtenLock = new ReentrantLock();
+  private final Condition writtenChanged = writtenLock.newCondition();
+  private long written;
+
+  private volatile boolean closed;
+  private final Thread writer;
+
+  /**
+   * The connection of the writer, only accessed by the writer thread.
+   */
+  private Connection connection;
+
+  /**
+   * Creates a new queue and starts its writer.
+   *
+   * @param  url   The URL used by the writer to connect through the driver
+   * @param  info  The connection properties, which are copied
+   */
+  public WriteBehindQueue(DriverWrapper driver, String url, Properties info) {
+    this.driver = driver;
+    this.url = url;
+    this.info = new Properties();
+    if (info != null) {
+      this.info.putAll(info);
+    }
+    this.batchSize = Math.max(1, driver.getWriteBehindBatchSize());
+    this.capacity = new Semaphore(Math.max(1, driver.getWriteBehindCapacity()));
+    this.writer = new Thread(this::write, WriteBehindQueue.class.getSimpleName() + '-' + threadNum.incrementAndGet());
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public String toString() {
+    return WriteBehindQueue.class.getSimpleName() + '(' + driver + ", pending=" + getPending() + ')';
+  }
+
+  /**
+   * Gets the number of updates enqueued and not yet written.
+   */
+  public long getPending() {
+    writtenLock.lock();
+    try {
+      return enqueued.get() - written;
+    } finally {
+      writtenLock.unlock();
+    }
+  }
+
+  /**
+   * Enqueues an update, blocking while the queue is full.
+   *
+   * @param  parameters  The parameters for the update, which are set with {@link PreparedStatement#setObject(int, java.lang.Object)}.
+   *                     The array is copied, but the parameters themselves must not be modified after being enqueued.
+   * @param  onFailure   Called by the writer thread when the update fails
+   *
+   * @throws  SQLException  when this queue is closed or the current thread is interrupted while waiting for room
+   */
+  public void enqueue(Consumer<? super SQLException> onFailure, String sql, Object... parameters) throws SQLException {
+    Update update = new Update(sql, parameters.clone(), onFailure);
+    enqueuing.incrementAndGet();
+    try {
+      if (closed) {
+        throw new SQLException("Write-behind queue is closed");
+      }
+      try {
+        capacity.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted waiting for room in write-behind queue", e);
+      }
+      enqueued.incrementAndGet();
+      queue.add(update);
+    } finally {
+      enqueuing.decrementAndGet();
+    }
+    LockSupport.unpark(writer);
+  }
+
+  /**
+   * Blocks until every update enqueued before this call has been written or reported as failed.
+   *
+   * @throws  SQLException  when the current thread is interrupted
+   */
+  public void flush() throws SQLException {
+    long target = enqueued.get();
+    LockSupport.unpark(writer);
+    writtenLock.lock();
+    try {
+      while (written < target) {
+        if (!writer.isAlive()) {
+          throw new SQLException("Write-behind writer is not running");
+        }
+        try {
+          writtenChanged.awaitNanos(MAX_PARK_NANOS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("Interrupted flushing write-behind queue", e);
+        }
+      }
+    } finally {
+      writtenLock.unlock();
+    }
+  }
+
+  /**
+   * Stops accepting new updates, then waits for the writer to write every update already enqueued.
+   *
+   * @throws  SQLException  when the current thread is interrupted
+   */
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted closing write-behind queue", e);
+    }
+  }
+
+  /**
+   * The writer loop.
+   */
+  private void write() {
+    List<Update> updates = new ArrayList<>(Math.min(batchSize, 1024));
+    try {
+      while (true) {
+        Update update;
+        while (updates.size() < batchSize && (update = queue.poll()) != null) {
+          updates.add(update);
+        }
+        if (updates.isEmpty()) {
+          if (closed && enqueuing.get() == 0 && queue.isEmpty()) {
+            break;
+          }
+          LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        } else {
+          try {
+            write(updates);
+          } finally {
+            int size = updates.size();
+            updates.clear();
+            capacity.release(size);
+            writtenLock.lock();
+            try {
+              written += size;
+              writtenChanged.signalAll();
+            } finally {
+              writtenLock.unlock();
+            }
+          }
+        }
+      }
+    } finally {
+      closeConnection();
+    }
+  }
+
+  /**
+   * Writes one batch of updates, in a single transaction when possible.
+   */
+  private void write(List<Update> updates) {
+    try {
+      Connection conn = getConnection();
+      try {
+        int size = updates.size();
+        int from = 0;
+        while (from < size) {
+          String sql = updates.get(from).sql;
+          int to = from + 1;
+          while (to < size && sql.equals(updates.get(to).sql)) {
+            to++;
+          }
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (to - from == 1) {
+              setParameters(pstmt, updates.get(from));
+              pstmt.executeUpdate();
+            } else {
+              for (int i = from; i < to; i++) {
+                setParameters(pstmt, updates.get(i));
+                pstmt.addBatch();
+              }
+              pstmt.executeBatch();
+            }
+          }
+          from = to;
+        }
+        conn.commit();
+        return;
+      } catch (SQLException | RuntimeException e) {
+        // Replayed below
+        rollback(conn);
+      }
+    } catch (SQLException e) {
+      // Unable to connect, each update is reported below
+      closeConnection();
+    }
+    // Replay one at a time to find the failed updates
+    for (Update update : updates) {
+      try {
+        Connection conn = getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(update.sql)) {
+          setParameters(pstmt, update);
+          pstmt.executeUpdate();
+        }
+        conn.commit();
+      } catch (SQLException | RuntimeException e) {
+        Connection conn = connection;
+        if (conn != null) {
+          rollback(conn);
+        }
+        fail(update, (e instanceof SQLException) ? (SQLException) e : new SQLException(e));
+      }
+    }
+  }
+
+  private static void setParameters(PreparedStatement pstmt, Update update) throws SQLException {
+    Object[] parameters = update.parameters;
+    for (int i = 0; i < parameters.length; i++) {
+      pstmt.setObject(i + 1, parameters[i]);
+    }
+  }
+
+  private void fail(Update update, SQLException e) {
+    try {
+      Consumer<? super SQLException> onFailure = update.onFailure;
+      if (onFailure == null) {
+        driver.onWriteBehindFailure(update.sql, update.parameters.clone(), e);
+      } else {
+        onFailure.accept(e);
+      }
+    } catch (RuntimeException t) {
+      e.addSuppressed(t);
+      driver.onWriteBehindFailure(update.sql, update.parameters.clone(), e);
+    }
+  }
+
+  /**
+   * Gets the connection of the writer, connecting when needed.
+   */
+  private Connection getConnection() throws SQLException {
+    Connection conn = connection;
+    if (conn == null) {
+      conn = driver.connect(url, info);
+      if (conn == null) {
+        throw new SQLException("Driver does not accept URL for write-behind: " + driver);
+      }
+      try {
+        conn.setAutoCommit(false);
+      } catch (Throwable t) {
+        try {
+          conn.close();
+        } catch (Throwable t2) {
+          t.addSuppressed(t2);
+        }
+        throw t;
+      }
+      connection = conn;
+    }
+    return conn;
+  }
+
+  private void rollback(Connection conn) {
+    try {
+      conn.rollback();
+    } catch (SQLException e) {
+      // Connection is likely broken, reconnect for the next update
+      closeConnection();
+    }
+  }
+
+  private void closeConnection() {
+    Connection conn = connection;
+    if (conn != null) {
+      connection = null;
+      try {
+        conn.close();
+      } catch (SQLException e) {
+        // Connection is being discarded
+      }
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link AdmissionControl}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class AdmissionControlTest {
+
+  private static final String SLOW = "slow";
+
+  private static AdmissionControl newAdmissionControl(int initialLimit, int maxQueued, long queueTimeoutMillis) {
+    return new TestDriverWrapper() {
+      @Override
+      protected int getAdmissionInitialLimit() {
+        return initialLimit;
+      }
+
+      @Override
+      protected int getAdmissionMaxQueued() {
+        return maxQueued;
+      }
+
+      @Override
+      protected long getAdmissionQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+      }
+
+      @Override
+      protected int getAdmissionClassLimit(String queryClass) {
+        return SLOW.equals(queryClass) ? 1 : Integer.MAX_VALUE;
+      }
+    }.getAdmissionControl("jdbc:test:admission");
+  }
+
+  /**
+   * Waits for the given number of executions to be queued.
+   */
+  private static void awaitQueued(AdmissionControl admission, int queued) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (admission.getQueued() < queued) {
+      if (System.nanoTime() - deadline > 0) {
+        fail("Timed out waiting for " + queued + " queued executions: " + admission);
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Starts a thread that waits to be admitted, recording its name once admitted.
+   */
+  private static Thread startWaiter(AdmissionControl admission, AdmissionControl.Lane lane, String queryClass,
+      String name, List<String> admitted) {
+    Thread thread = new Thread(() -> {
+      try {
+        admission.acquire(lane, queryClass, null);
+        admitted.add(name);
+      } catch (SQLException e) {
+        admitted.add(name + " failed: " + e);
+      }
+    });
+    thread.start();
+    return thread;
+  }
+
+  @Test
+  public void testRejectsWhenQueueFull() throws SQLException {
+    AdmissionControl admission = newAdmissionControl(1, 0, 1000);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, null, null);
+    try {
+      admission.acquire(AdmissionControl.Lane.INTERACTIVE, null, null);
+      fail("Expected rejection when the queue is full");
+    } catch (SQLTransientException e) {
+      // Expected
+    }
+    assertEquals(1, admission.getRejected());
+    assertEquals(1, admission.getInFlight());
+  }
+
+  @Test
+  public void testTimesOutInQueue() throws SQLException {
+    AdmissionControl admission = newAdmissionControl(1, 10, 20);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, null, null);
+    try {
+      admission.acquire(AdmissionControl.Lane.BATCH, null, null);
+      fail("Expected timeout waiting in the queue");
+    } catch (SQLTimeoutException e) {
+      // Expected
+    }
+    assertEquals(1, admission.getTimedOut());
+    assertEquals(0, admission.getQueued());
+  }
+
+  @Test
+  public void testAdmitsInteractiveBeforeBatch() throws Exception {
+    AdmissionControl admission = newAdmissionControl(1, 10, 10000);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, null, null);
+    List<String> admitted = new CopyOnWriteArrayList<>();
+    Thread batch = startWaiter(admission, AdmissionControl.Lane.BATCH, null, "batch", admitted);
+    awaitQueued(admission, 1);
+    Thread interactive = startWaiter(admission, AdmissionControl.Lane.INTERACTIVE, null, "interactive", admitted);
+    awaitQueued(admission, 2);
+    admission.release(null, null, -1, false);
+    interactive.join(10000);
+    assertEquals(List.of("interactive"), admitted);
+    admission.release(null, null, -1, false);
+    batch.join(10000);
+    assertEquals(List.of("interactive", "batch"), admitted);
+  }
+
+  @Test
+  public void testClassLimitDoesNotHoldUpOtherClasses() throws Exception {
+    AdmissionControl admission = newAdmissionControl(16, 10, 10000);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, SLOW, null);
+    List<String> admitted = new CopyOnWriteArrayList<>();
+    Thread slow = startWaiter(admission, AdmissionControl.Lane.INTERACTIVE, SLOW, SLOW, admitted);
+    awaitQueued(admission, 1);
+    // Admitted immediately, ahead of the queued execution waiting on the limit of its class
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, "fast", null);
+    assertEquals(2, admission.getInFlight());
+    assertEquals(1, admission.getQueued());
+    admission.release(SLOW, null, -1, false);
+    slow.join(10000);
+    assertEquals(List.of(SLOW), admitted);
+  }
+
+  @Test
+  public void testOverloadDecreasesLimit() throws SQLException {
+    AdmissionControl admission = newAdmissionControl(10, 10, 1000);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, null, null);
+    admission.release(null, null, 1, true);
+    assertEquals(9, admission.getLimit());
+  }
+
+  @Test
+  public void testSlowClassComparedWithItsOwnBaseline() throws Exception {
+    AdmissionControl admission = newAdmissionControl(10, 10, 1000);
+    long fast = TimeUnit.MICROSECONDS.toNanos(100);
+    long slow = TimeUnit.MILLISECONDS.toNanos(2);
+    for (int i = 0; i < 20; i++) {
+      admission.acquire(AdmissionControl.Lane.INTERACTIVE, "fast", null);
+      admission.release("fast", null, fast, false);
+      admission.acquire(AdmissionControl.Lane.INTERACTIVE, SLOW, null);
+      admission.release(SLOW, null, slow, false);
+    }
+    assertEquals(10, admission.getLimit());
+    // Much slower than the fast class, but usual for its own class
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, SLOW, null);
+    admission.release(SLOW, null, slow, false);
+    assertEquals(10, admission.getLimit());
+    // Slow for the fast class, though faster than the slow class, once past the latency since the last decrease
+    long slowFast = fast * 10;
+    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(slowFast) + 1);
+    admission.acquire(AdmissionControl.Lane.INTERACTIVE, "fast", null);
+    admission.release("fast", null, slowFast, false);
+    assertEquals(9, admission.getLimit());
+  }
+}
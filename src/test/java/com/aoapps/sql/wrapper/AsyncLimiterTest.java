@@ -0,0 +1,90 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+
+/**
+ * Tests {@link AsyncLimiter}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class AsyncLimiterTest {
+
+  /**
+   * Collects the submitted tasks, to be run by the test.
+   */
+  private static final class CollectingExecutor implements Executor {
+
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable command) {
+      submitted.add(command);
+    }
+  }
+
+  @Test
+  public void testTasksBeyondLimitAreQueuedWithoutThread() {
+    AsyncLimiter limiter = new AsyncLimiter(2);
+    CollectingExecutor executor = new CollectingExecutor();
+    List<String> ran = new ArrayList<>();
+    for (String name : new String[] {"a", "b", "c", "d"}) {
+      limiter.execute(executor, () -> ran.add(name), e -> ran.add(name + " rejected"));
+    }
+    // Only the tasks within the limit are submitted to the executor
+    assertEquals(2, executor.submitted.size());
+    executor.submitted.get(0).run();
+    assertEquals(3, executor.submitted.size());
+    executor.submitted.get(1).run();
+    executor.submitted.get(2).run();
+    executor.submitted.get(3).run();
+    assertEquals(4, executor.submitted.size());
+    assertEquals(List.of("a", "b", "c", "d"), ran);
+  }
+
+  @Test
+  public void testRejectedTaskReleasesItsPlace() {
+    AsyncLimiter limiter = new AsyncLimiter(1);
+    RejectedExecutionException rejection = new RejectedExecutionException();
+    Executor rejecting = command -> {
+      throw rejection;
+    };
+    CollectingExecutor executor = new CollectingExecutor();
+    List<Object> outcomes = new ArrayList<>();
+    limiter.execute(rejecting, () -> outcomes.add("a"), outcomes::add);
+    limiter.execute(executor, () -> outcomes.add("b"), outcomes::add);
+    assertEquals(1, executor.submitted.size());
+    executor.submitted.get(0).run();
+    assertEquals(2, outcomes.size());
+    assertSame(rejection, outcomes.get(0));
+    assertEquals("b", outcomes.get(1));
+  }
+}
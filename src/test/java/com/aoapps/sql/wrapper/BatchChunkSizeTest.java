@@ -0,0 +1,194 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests {@link BatchChunkSize} and the chunking of batches by {@link ConnectionWrapperImpl#getBatchChunkTargetMillis()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BatchChunkSizeTest {
+
+  private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTargetRequired() {
+    new BatchChunkSize(0);
+  }
+
+  @Test
+  public void testInitialSize() {
+    assertEquals(BatchChunkSize.INITIAL_SIZE, new BatchChunkSize(100).get());
+  }
+
+  @Test
+  public void testAtMostDoublesPerChunk() {
+    BatchChunkSize chunkSize = new BatchChunkSize(1000);
+    // 1 ms for 100 rows would allow 100,000 rows per second
+    chunkSize.succeeded(100, MILLI);
+    assertEquals(200, chunkSize.get());
+    chunkSize.succeeded(200, 2 * MILLI);
+    assertEquals(400, chunkSize.get());
+  }
+
+  @Test
+  public void testLimitedToMaxSize() {
+    BatchChunkSize chunkSize = new BatchChunkSize(60_000);
+    for (int i = 0; i < 20; i++) {
+      chunkSize.succeeded(chunkSize.get(), 1);
+    }
+    assertEquals(BatchChunkSize.MAX_SIZE, chunkSize.get());
+  }
+
+  @Test
+  public void testFirstSampleSetsSizeForTarget() {
+    BatchChunkSize chunkSize = new BatchChunkSize(50);
+    // 1 ms per row
+    chunkSize.succeeded(100, 100 * MILLI);
+    assertEquals(50, chunkSize.get());
+  }
+
+  @Test
+  public void testSamplesAreSmoothed() {
+    BatchChunkSize chunkSize = new BatchChunkSize(50);
+    chunkSize.succeeded(100, 100 * MILLI);
+    assertEquals(50, chunkSize.get());
+    // 3 ms per row is weighted one quarter: 1.5 ms per row
+    chunkSize.succeeded(50, 150 * MILLI);
+    assertEquals(33, chunkSize.get());
+  }
+
+  @Test
+  public void testSmallChangesIgnored() {
+    BatchChunkSize chunkSize = new BatchChunkSize(50);
+    chunkSize.succeeded(100, 100 * MILLI);
+    assertEquals(50, chunkSize.get());
+    // 1.2 ms per row smooths to 1.05 ms per row: 47 rows is within the hysteresis of 50
+    chunkSize.succeeded(50, 60 * MILLI);
+    assertEquals(50, chunkSize.get());
+  }
+
+  @Test
+  public void testFailureHalves() {
+    BatchChunkSize chunkSize = new BatchChunkSize(100);
+    chunkSize.failed();
+    assertEquals(BatchChunkSize.INITIAL_SIZE / 2, chunkSize.get());
+    for (int i = 0; i < 20; i++) {
+      chunkSize.failed();
+    }
+    assertEquals(1, chunkSize.get());
+  }
+
+  private static ConnectionWrapperImpl connect(FakeDatabase database) throws SQLException {
+    ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+    conn.setBatchChunkTargetMillis(60_000);
+    return conn;
+  }
+
+  private static void addBatch(PreparedStatementWrapperImpl pstmt, int rows) throws SQLException {
+    for (int i = 0; i < rows; i++) {
+      pstmt.setString(1, Integer.toString(i));
+      pstmt.addBatch();
+    }
+  }
+
+  @Test
+  public void testBatchSentInChunks() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      addBatch(pstmt, 250);
+      assertEquals(250, pstmt.executeBatch().length);
+      // 100 rows, then at most double: 150 remaining rows
+      assertEquals(2, database.count("ps.executeBatch"));
+    }
+    assertEquals(250, database.getTable().size());
+  }
+
+  @Test
+  public void testFailureOfFirstChunkKeepsType() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    SQLTimeoutException timeout = new SQLTimeoutException("Timeout");
+    database.setHandler((call, args) -> {
+      if ("ps.executeBatch".equals(call)) {
+        throw timeout;
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    try (
+        ConnectionWrapperImpl conn = connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      addBatch(pstmt, 250);
+      try {
+        pstmt.executeBatch();
+        fail("Batch must fail");
+      } catch (SQLException e) {
+        assertSame(timeout, e);
+      }
+    }
+  }
+
+  @Test
+  public void testFailureOfLaterChunkReportsCounts() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    SQLTimeoutException timeout = new SQLTimeoutException("Timeout");
+    AtomicInteger batches = new AtomicInteger();
+    database.setHandler((call, args) -> {
+      if ("ps.executeBatch".equals(call) && batches.incrementAndGet() == 2) {
+        throw timeout;
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    try (
+        ConnectionWrapperImpl conn = connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      addBatch(pstmt, 250);
+      try {
+        pstmt.executeBatch();
+        fail("Batch must fail");
+      } catch (BatchUpdateException e) {
+        assertSame(timeout, e.getCause());
+        assertEquals(BatchChunkSize.INITIAL_SIZE, e.getUpdateCounts().length);
+        assertTrue(LoadBalancer.isBackendFailure(e));
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#isBatchFailureIsolation()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BatchFailureIsolationTest {
+
+  private static final String INSERT = "INSERT INTO t (v, data) VALUES (?, ?)";
+
+  /**
+   * Creates a database that rejects the rows with the value {@code "bad"}.
+   */
+  private static FakeDatabase newDatabase() {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> {
+      if ("row".equals(call) && "bad".equals(args[0])) {
+        throw new SQLException("Rejected: " + args[0], "23514");
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    return database;
+  }
+
+  private static List<Object> getValues(Map<Long, Object[]> table) {
+    List<Object> values = new ArrayList<>();
+    for (Object[] row : table.values()) {
+      values.add(row[0]);
+    }
+    return values;
+  }
+
+  @Test
+  public void testIsolatesFailedRows() throws SQLException {
+    FakeDatabase database = newDatabase();
+    try (ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database)) {
+      conn.setBatchFailureIsolation(true);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+        for (String value : new String[] {"a", "b", "bad", "c", "bad", "d", "e", "f"}) {
+          pstmt.setString(1, value);
+          pstmt.setNull(2, java.sql.Types.BLOB);
+          pstmt.addBatch();
+        }
+        BatchResult result = pstmt.executeIsolatedBatch();
+        assertEquals(Set.of(2, 4), result.getFailures().keySet());
+        assertArrayEquals(
+            new long[] {1, 1, Statement.EXECUTE_FAILED, 1, Statement.EXECUTE_FAILED, 1, 1, 1},
+            result.getLargeUpdateCounts()
+        );
+      }
+    }
+    assertEquals(List.of("a", "b", "c", "d", "e", "f"), getValues(database.getTable()));
+  }
+
+  /**
+   * The generated keys of rows rolled back to a savepoint must not remain, so the keys line up with the rows.
+   */
+  @Test
+  public void testGeneratedKeysOfFailedRowInMiddleOfBatch() throws SQLException {
+    FakeDatabase database = newDatabase();
+    try (ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database)) {
+      conn.setBatchFailureIsolation(true);
+      // The fake database is not known to return every key of a batch, so keys are read row by row
+      conn.setBatchGeneratedKeysRowByRow(true);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        for (String value : new String[] {"a", "b", "bad", "c", "d"}) {
+          pstmt.setString(1, value);
+          pstmt.setNull(2, java.sql.Types.BLOB);
+          pstmt.addBatch();
+        }
+        BatchResult result = pstmt.executeIsolatedBatch();
+        assertEquals(Set.of(2), result.getFailures().keySet());
+        Map<Long, Object[]> table = database.getTable();
+        assertEquals(List.of("a", "b", "c", "d"), getValues(table));
+        long[] expectedKeys = table.keySet().stream().mapToLong(Long::longValue).toArray();
+        assertArrayEquals(expectedKeys, pstmt.getGeneratedLongKeys());
+      }
+    }
+  }
+
+  /**
+   * Streams are consumed by the failed attempt, so rows with streams must not be retried, which would write empty or
+   * truncated values.
+   */
+  @Test
+  public void testStreamParametersAreNotRetried() throws SQLException {
+    FakeDatabase database = newDatabase();
+    try (ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database)) {
+      conn.setBatchFailureIsolation(true);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+        for (String value : new String[] {"a", "b", "bad", "c"}) {
+          pstmt.setString(1, value);
+          pstmt.setBinaryStream(2, new ByteArrayInputStream(("data of " + value).getBytes(StandardCharsets.UTF_8)));
+          pstmt.addBatch();
+        }
+        try {
+          pstmt.executeBatch();
+          fail("BatchUpdateException expected");
+        } catch (BatchUpdateException e) {
+          assertTrue(e.getMessage(), e.getMessage().startsWith("Rejected: bad"));
+        }
+      }
+    }
+    assertEquals("The failed batch must not be bisected", 1, database.count("ps.executeBatch"));
+    assertTrue("The batch must be rolled back", database.getTable().isEmpty());
+  }
+}
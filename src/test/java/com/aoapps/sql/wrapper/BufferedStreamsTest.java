@@ -0,0 +1,96 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#isBufferedStreams()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BufferedStreamsTest {
+
+  private static final String TEXT = "0123456789";
+
+  private static ConnectionWrapperImpl connect(FakeDatabase database) throws SQLException {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isBufferedStreams() {
+        return true;
+      }
+    }.connect(database);
+  }
+
+  private static String readAll(Reader in) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    int ch;
+    while ((ch = in.read()) != -1) {
+      sb.append((char) ch);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void testInputStreamWithBufferedBytesIsNotUnwrapped() throws SQLException, IOException {
+    try (ConnectionWrapperImpl conn = connect(new FakeDatabase())) {
+      InputStream original = new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.US_ASCII));
+      InputStreamWrapper wrapper = conn.wrapInputStream(original);
+      assertTrue(wrapper instanceof BufferedInputStreamWrapper);
+      // Nothing read ahead yet
+      assertSame(original, conn.unwrapInputStream(wrapper));
+      assertEquals('0', wrapper.read());
+      InputStream unwrapped = conn.unwrapInputStream(wrapper);
+      assertSame(wrapper, unwrapped);
+      assertEquals(TEXT.substring(1), new String(unwrapped.readAllBytes(), StandardCharsets.US_ASCII));
+      // Drained
+      assertSame(original, conn.unwrapInputStream(wrapper));
+    }
+  }
+
+  @Test
+  public void testReaderWithBufferedCharactersIsNotUnwrapped() throws SQLException, IOException {
+    try (ConnectionWrapperImpl conn = connect(new FakeDatabase())) {
+      Reader original = new StringReader(TEXT);
+      ReaderWrapper wrapper = conn.wrapReader(original);
+      assertTrue(wrapper instanceof BufferedReaderWrapper);
+      assertSame(original, conn.unwrapReader(wrapper));
+      assertEquals('0', wrapper.read());
+      Reader unwrapped = conn.unwrapReader(wrapper);
+      assertSame(wrapper, unwrapped);
+      assertEquals(TEXT.substring(1), readAll(unwrapped));
+      assertSame(original, conn.unwrapReader(wrapper));
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#isClientInfoCoalescing()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ClientInfoCoalescingTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+
+  /**
+   * Keeps the client info of the physical connections, recording each properties set.
+   */
+  private static Properties keepClientInfo(FakeDatabase database, List<Properties> applied) {
+    Properties clientInfo = new Properties();
+    clientInfo.setProperty("ApplicationName", "test");
+    database.setHandler((call, args) -> {
+      if ("conn.setClientInfo".equals(call)) {
+        if (args.length == 1) {
+          clientInfo.clear();
+          clientInfo.putAll((Properties) args[0]);
+          applied.add((Properties) clientInfo.clone());
+        } else if (args[1] == null) {
+          clientInfo.remove(args[0]);
+        } else {
+          clientInfo.setProperty((String) args[0], (String) args[1]);
+        }
+        return null;
+      }
+      if ("conn.getClientInfo".equals(call)) {
+        return (args.length == 0) ? (Properties) clientInfo.clone() : clientInfo.getProperty((String) args[0]);
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    return clientInfo;
+  }
+
+  private static TestDriverWrapper newCoalescingDriver() {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isClientInfoCoalescing() {
+        return true;
+      }
+    };
+  }
+
+  private static void execute(ConnectionWrapperImpl conn) throws SQLException {
+    try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)) {
+      pstmt.executeQuery().close();
+    }
+  }
+
+  @Test
+  public void testChangesAppliedOnceBeforeExecution() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    List<Properties> applied = new CopyOnWriteArrayList<>();
+    Properties clientInfo = keepClientInfo(database, applied);
+    try (ConnectionWrapperImpl conn = newCoalescingDriver().connect(database)) {
+      conn.setClientInfo("ClientUser", "alice");
+      conn.setClientInfo("ClientHostname", "host1");
+      conn.setClientInfo("ClientUser", "bob");
+      assertEquals(0, database.count("conn.setClientInfo"));
+      execute(conn);
+      assertEquals(1, database.count("conn.setClientInfo"));
+      assertEquals(1, database.count("conn.getClientInfo"));
+      Properties expected = new Properties();
+      expected.setProperty("ApplicationName", "test");
+      expected.setProperty("ClientUser", "bob");
+      expected.setProperty("ClientHostname", "host1");
+      assertEquals(List.of(expected), applied);
+      // Removing a property
+      conn.setClientInfo("ClientHostname", null);
+      execute(conn);
+      expected.remove("ClientHostname");
+      assertEquals(expected, clientInfo);
+      // Without reading the client info again
+      assertEquals(1, database.count("conn.getClientInfo"));
+    }
+  }
+
+  @Test
+  public void testUnchangedNotApplied() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    List<Properties> applied = new CopyOnWriteArrayList<>();
+    keepClientInfo(database, applied);
+    try (ConnectionWrapperImpl conn = newCoalescingDriver().connect(database)) {
+      for (int i = 0; i < 3; i++) {
+        conn.setClientInfo("ClientUser", "alice");
+        execute(conn);
+      }
+      conn.setClientInfo("ApplicationName", "test");
+      execute(conn);
+      assertEquals(1, applied.size());
+      // Setting all the properties to the applied values
+      Properties same = new Properties();
+      same.putAll(applied.get(0));
+      conn.setClientInfo(same);
+      assertEquals(1, applied.size());
+    }
+  }
+
+  @Test
+  public void testAppliedBeforeRead() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    keepClientInfo(database, new CopyOnWriteArrayList<>());
+    try (ConnectionWrapperImpl conn = newCoalescingDriver().connect(database)) {
+      conn.setClientInfo("ClientUser", "alice");
+      assertEquals("alice", conn.getClientInfo("ClientUser"));
+      conn.setClientInfo("ClientUser", "bob");
+      assertEquals("bob", conn.getClientInfo().getProperty("ClientUser"));
+    }
+  }
+
+  @Test
+  public void testNotCoalescedByDefault() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    Properties clientInfo = keepClientInfo(database, new CopyOnWriteArrayList<>());
+    try (ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database)) {
+      conn.setClientInfo("ClientUser", "alice");
+      conn.setClientInfo("ClientUser", "alice");
+      assertEquals(2, database.count("conn.setClientInfo"));
+      assertEquals("alice", clientInfo.getProperty("ClientUser"));
+      // Coalescing enabled on the connection
+      conn.setClientInfoCoalescing(true);
+      conn.setClientInfo("ClientUser", "bob");
+      assertEquals(2, database.count("conn.setClientInfo"));
+      execute(conn);
+      assertEquals(3, database.count("conn.setClientInfo"));
+      assertEquals("bob", clientInfo.getProperty("ClientUser"));
+    }
+  }
+}
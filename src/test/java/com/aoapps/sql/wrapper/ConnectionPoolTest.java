@@ -0,0 +1,231 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionPool}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ConnectionPoolTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  /**
+   * A driver wrapper that pools connections, at most the given number per pool.
+   */
+  private static TestDriverWrapper newPoolingDriver(int maxSize, long connectionTimeoutMillis) {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isPooling() {
+        return true;
+      }
+
+      @Override
+      protected int getPoolMaxSize() {
+        return maxSize;
+      }
+
+      @Override
+      protected long getPoolConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+      }
+    };
+  }
+
+  @Test
+  public void testPhysicalConnectionIsReused() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = newPoolingDriver(4, 100);
+    ConnectionPool pool;
+    Connection physical;
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      pool = conn.getConnectionPool().orElseThrow(AssertionError::new);
+      physical = conn.getWrapped();
+      assertEquals(1, pool.getTotal());
+      assertEquals(0, pool.getIdle());
+    }
+    assertEquals(1, pool.getTotal());
+    assertEquals(1, pool.getIdle());
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      assertSame(pool, conn.getConnectionPool().orElseThrow(AssertionError::new));
+      assertEquals(1, pool.getTotal());
+      assertEquals(0, pool.getIdle());
+    }
+    assertEquals(1, database.getConnections());
+    assertEquals(0, database.count("conn.close"));
+    // The lease of the first borrowing no longer reaches the physical connection
+    assertTrue(physical.isClosed());
+    try {
+      physical.getAutoCommit();
+      fail("Closed lease must not reach the physical connection");
+    } catch (SQLException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testSessionStateIsResetOnReturn() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = newPoolingDriver(1, 100);
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.setAutoCommit(false);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+        pstmt.setString(1, "a");
+        pstmt.executeUpdate();
+      }
+      // Left open, closed when returned
+      PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT);
+      pstmt.setString(1, "b");
+      pstmt.executeUpdate();
+    }
+    assertEquals(1, database.count("conn.rollback"));
+    assertEquals(2, database.count("ps.close"));
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      assertTrue(conn.getAutoCommit());
+    }
+    assertEquals(1, database.getConnections());
+    assertTrue("The uncommitted rows must be rolled back", database.getTable().isEmpty());
+  }
+
+  @Test
+  public void testClientInfoAndHoldabilityAreResetOnReturn() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    int[] holdability = {ResultSet.HOLD_CURSORS_OVER_COMMIT};
+    Properties clientInfo = new Properties();
+    clientInfo.setProperty("ApplicationName", "pool");
+    database.setHandler((call, args) -> {
+      switch (call) {
+        case "conn.getHoldability":
+          return holdability[0];
+        case "conn.setHoldability":
+          holdability[0] = (Integer) args[0];
+          return null;
+        case "conn.getClientInfo":
+          return (args == null || args.length == 0) ? clientInfo.clone() : clientInfo.getProperty((String) args[0]);
+        case "conn.setClientInfo":
+          if (args.length == 1) {
+            clientInfo.clear();
+            clientInfo.putAll((Properties) args[0]);
+          } else {
+            clientInfo.setProperty((String) args[0], (String) args[1]);
+          }
+          return null;
+        default:
+          return FakeDatabase.DEFAULT;
+      }
+    });
+    TestDriverWrapper driver = newPoolingDriver(1, 100);
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+      conn.setClientInfo("ApplicationName", "borrower");
+      assertEquals("borrower", conn.getClientInfo("ApplicationName"));
+    }
+    assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, holdability[0]);
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, conn.getHoldability());
+      assertEquals("pool", conn.getClientInfo("ApplicationName"));
+    }
+    assertEquals(1, database.getConnections());
+  }
+
+  @Test
+  public void testConnectionClosedWhenStateCannotBeReset() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = newPoolingDriver(1, 100);
+    ConnectionWrapperImpl conn = driver.connect(database);
+    ConnectionPool pool = conn.getConnectionPool().orElseThrow(AssertionError::new);
+    // The fake database does not report its client info, so it cannot be restored
+    conn.setClientInfo("ApplicationName", "borrower");
+    try {
+      conn.close();
+      fail("Expected the failure to reset the client info");
+    } catch (SQLException e) {
+      // Expected
+    }
+    assertEquals(0, pool.getTotal());
+    assertEquals(1, database.count("conn.close"));
+    try (ConnectionWrapperImpl replacement = driver.connect(database)) {
+      assertTrue(replacement.getAutoCommit());
+    }
+    assertEquals(2, database.getConnections());
+  }
+
+  @Test
+  public void testBorrowTimesOutWhenFull() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = newPoolingDriver(1, 100);
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      ConnectionPool pool = conn.getConnectionPool().orElseThrow(AssertionError::new);
+      try {
+        driver.connect(database).close();
+        fail("Pool of one connection in use must time out");
+      } catch (SQLTransientConnectionException e) {
+        // Expected
+      }
+      assertEquals(1, pool.getTotal());
+      assertEquals(0, pool.getWaiting());
+    }
+    assertEquals(1, database.getConnections());
+  }
+
+  @Test
+  public void testReturnedConnectionIsHandedOffToWaiter() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = newPoolingDriver(1, 10000);
+    ConnectionWrapperImpl first = driver.connect(database);
+    ConnectionPool pool = first.getConnectionPool().orElseThrow(AssertionError::new);
+    Connection[] borrowed = new Connection[1];
+    Thread waiter = new Thread(() -> {
+      try (ConnectionWrapperImpl conn = driver.connect(database)) {
+        borrowed[0] = conn;
+      } catch (SQLException e) {
+        throw new AssertionError(e);
+      }
+    });
+    waiter.start();
+    while (pool.getWaiting() == 0 && waiter.isAlive()) {
+      Thread.sleep(1);
+    }
+    first.close();
+    waiter.join(10000);
+    assertFalse(waiter.isAlive());
+    assertNotSame(first, borrowed[0]);
+    assertEquals(1, database.getConnections());
+    assertEquals(1, pool.getIdle());
+  }
+}
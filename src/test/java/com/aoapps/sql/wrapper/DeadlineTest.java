@@ -0,0 +1,156 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link Deadline}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DeadlineTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+
+  @Test
+  public void testNestedScopeKeepsEarlierDeadline() {
+    Deadline outer = Deadline.after(Duration.ofSeconds(1));
+    Deadline inner = Deadline.after(Duration.ofMinutes(1));
+    assertFalse(Deadline.current().isPresent());
+    Deadline.Scope outerScope = outer.enter();
+    try {
+      Deadline.Scope innerScope = inner.enter();
+      try {
+        assertSame(outer, Deadline.get());
+      } finally {
+        innerScope.close();
+      }
+      assertSame(outer, Deadline.get());
+      Deadline earlier = Deadline.after(Duration.ofMillis(1));
+      Deadline.Scope earlierScope = earlier.enter();
+      try {
+        assertSame(earlier, Deadline.get());
+      } finally {
+        earlierScope.close();
+      }
+      assertSame(outer, Deadline.get());
+    } finally {
+      outerScope.close();
+    }
+    assertFalse(Deadline.current().isPresent());
+  }
+
+  @Test
+  public void testExtremeInstantsDoNotOverflow() {
+    assertFalse(Deadline.at(Instant.MAX).isExpired());
+    assertTrue(Deadline.at(Instant.MIN).isExpired());
+    assertFalse(Deadline.after(Duration.ofSeconds(Long.MAX_VALUE)).isExpired());
+    assertTrue(Deadline.after(Duration.ofSeconds(Long.MIN_VALUE)).isExpired());
+  }
+
+  @Test
+  public void testPassedDeadlineFailsWithoutExecuting() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      Deadline.Scope scope = Deadline.after(Duration.ofMillis(-1)).enter();
+      try {
+        pstmt.executeQuery();
+        fail("Deadline has passed");
+      } catch (SQLTimeoutException e) {
+        // Expected
+      } finally {
+        scope.close();
+      }
+    }
+    assertEquals(0, database.count("ps.executeQuery"));
+  }
+
+  @Test
+  public void testDeadlineCancelsExecution() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    CountDownLatch cancelled = new CountDownLatch(1);
+    database.setHandler((call, args) -> {
+      if ("ps.executeQuery".equals(call)) {
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        throw new SQLException("Query cancelled", "57014");
+      }
+      if ("ps.cancel".equals(call)) {
+        cancelled.countDown();
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      // The deadline applies without any query timeout
+      Deadline.Scope scope = Deadline.after(Duration.ofMillis(200)).enter();
+      try {
+        pstmt.executeQuery();
+        fail("Query must be cancelled");
+      } catch (SQLException e) {
+        assertEquals("57014", e.getSQLState());
+      } finally {
+        scope.close();
+      }
+    }
+    assertEquals(1, database.count("ps.cancel"));
+  }
+
+  @Test
+  public void testDeadlineCarriedToAsyncExecution() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      Deadline.Scope scope = Deadline.after(Duration.ofMillis(-1)).enter();
+      try {
+        pstmt.executeQueryAsync().get(10, TimeUnit.SECONDS);
+        fail("Deadline has passed");
+      } catch (ExecutionException e) {
+        assertEquals(SQLTimeoutException.class, e.getCause().getClass());
+      } finally {
+        scope.close();
+      }
+    }
+    assertEquals(0, database.count("ps.executeQuery"));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#getDeferredUpdateBatchSize()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DeferredUpdatesTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+  private static final String SELECT = "SELECT v FROM t";
+
+  private static ConnectionWrapperImpl connect(FakeDatabase database, boolean optimisticUpdateCount)
+      throws SQLException {
+    ConnectionWrapperImpl conn = new TestDriverWrapper() {
+      @Override
+      protected int getDeferredUpdateBatchSize() {
+        return 3;
+      }
+
+      @Override
+      protected boolean isOptimisticUpdateCount() {
+        return optimisticUpdateCount;
+      }
+    }.connect(database);
+    conn.setAutoCommit(false);
+    return conn;
+  }
+
+  private static int insert(PreparedStatementWrapperImpl pstmt, String value) throws SQLException {
+    pstmt.setString(1, value);
+    return pstmt.executeUpdate();
+  }
+
+  @Test
+  public void testUpdatesDeferredUntilBatchSize() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      assertEquals(1, insert(pstmt, "a"));
+      assertEquals(1, insert(pstmt, "b"));
+      assertEquals(1, pstmt.getUpdateCount());
+      assertEquals(0, database.count("ps.executeBatch"));
+      assertEquals(2, pstmt.getDeferredUpdates());
+      assertEquals(1, insert(pstmt, "c"));
+      assertEquals(1, database.count("ps.executeBatch"));
+      assertEquals(0, database.count("ps.executeUpdate"));
+      assertEquals(0, pstmt.getDeferredUpdates());
+      conn.commit();
+    }
+    assertEquals(3, database.getTable().size());
+  }
+
+  @Test
+  public void testDeferredUpdatesFlushedBeforeCommit() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      insert(pstmt, "a");
+      conn.commit();
+      assertEquals(1, database.count("ps.executeBatch"));
+      assertEquals(1, database.getTable().size());
+    }
+  }
+
+  @Test
+  public void testDeferredUpdatesFlushedBeforeOtherExecution() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl insert = conn.prepareStatement(INSERT);
+        PreparedStatementWrapperImpl select = conn.prepareStatement(SELECT)
+    ) {
+      insert(insert, "a");
+      insert(insert, "b");
+      select.executeQuery().close();
+      assertEquals(1, database.count("ps.executeBatch"));
+      assertTrue(database.getCalls().indexOf("ps.executeBatch") < database.getCalls().indexOf("ps.executeQuery"));
+      conn.commit();
+    }
+    assertEquals(2, database.getTable().size());
+  }
+
+  @Test
+  public void testDeferredUpdatesDiscardedOnRollback() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      insert(pstmt, "a");
+      conn.rollback();
+      assertEquals(0, pstmt.getDeferredUpdates());
+      conn.commit();
+    }
+    assertEquals(0, database.count("ps.executeBatch"));
+    assertTrue(database.getTable().isEmpty());
+  }
+
+  @Test
+  public void testNotDeferredInAutoCommit() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      conn.setAutoCommit(true);
+      assertEquals(1, insert(pstmt, "a"));
+      assertEquals(1, database.count("ps.executeUpdate"));
+      assertEquals(0, database.count("ps.executeBatch"));
+    }
+  }
+
+  @Test
+  public void testActualCountWithoutOptimisticUpdateCount() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeUpdate".equals(call) ? 0 : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = connect(database, false);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      // An optimistic lock that matched no rows must be reported as such
+      assertEquals(0, insert(pstmt, "a"));
+      assertEquals(0, pstmt.getDeferredUpdates());
+      assertEquals(1, database.count("ps.executeUpdate"));
+      assertEquals(0, database.count("ps.executeBatch"));
+    }
+  }
+
+  @Test
+  public void testNoInfoCountReportedAsOne() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeBatch".equals(call)
+        ? new int[] {Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}
+        : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = connect(database, true);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      insert(pstmt, "a");
+      insert(pstmt, "b");
+      insert(pstmt, "c");
+      assertEquals(1, database.count("ps.executeBatch"));
+      assertEquals(1, pstmt.getUpdateCount());
+      assertEquals(1, pstmt.getLargeUpdateCount());
+    }
+  }
+}
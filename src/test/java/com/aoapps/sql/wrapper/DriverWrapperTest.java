@@ -0,0 +1,141 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+import org.junit.Test;
+
+/**
+ * Tests {@link DriverWrapper#getWrappedDriver(java.lang.String)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DriverWrapperTest {
+
+  /**
+   * A driver accepting a single URL.
+   */
+  private static final class SingleUrlDriver implements Driver {
+
+    private final String url;
+
+    private SingleUrlDriver(String url) {
+      this.url = url;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      return null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return this.url.equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+
+  @Test
+  public void testResolvedDriverReusedUntilCleared() throws SQLException {
+    String url = "jdbc:single-reused:a";
+    Driver driver = new SingleUrlDriver(url);
+    DriverManager.registerDriver(driver);
+    DriverWrapper wrapper = new TestDriverWrapper();
+    try {
+      assertSame(driver, wrapper.getWrappedDriver(url));
+    } finally {
+      DriverManager.deregisterDriver(driver);
+    }
+    // Still resolved after being deregistered, until driver registrations are cleared
+    assertSame(driver, wrapper.getWrappedDriver(url));
+    DriverWrapper.clearResolvedDrivers();
+    assertNull(wrapper.getWrappedDriver(url));
+  }
+
+  @Test
+  public void testOtherUrlOfSubProtocolResolvedAgain() throws SQLException {
+    Driver driverA = new SingleUrlDriver("jdbc:single-other:a");
+    Driver driverB = new SingleUrlDriver("jdbc:single-other:b");
+    DriverManager.registerDriver(driverA);
+    DriverManager.registerDriver(driverB);
+    try {
+      DriverWrapper wrapper = new TestDriverWrapper();
+      assertSame(driverA, wrapper.getWrappedDriver("jdbc:single-other:a"));
+      // Not accepted by the driver resolved for the sub-protocol
+      assertSame(driverB, wrapper.getWrappedDriver("jdbc:single-other:b"));
+      assertSame(driverA, wrapper.getWrappedDriver("jdbc:single-other:a"));
+      assertNull(wrapper.getWrappedDriver("jdbc:single-other:c"));
+    } finally {
+      DriverManager.deregisterDriver(driverA);
+      DriverManager.deregisterDriver(driverB);
+    }
+  }
+
+  @Test
+  public void testUrlsOfSubProtocolShareResolvedDriver() throws SQLException {
+    FakeDatabase database1 = new FakeDatabase();
+    FakeDatabase database2 = new FakeDatabase();
+    TestDriverWrapper wrapper = new TestDriverWrapper();
+    Driver driver = wrapper.getWrappedDriver(database1.getUrl());
+    assertSame(driver, wrapper.getWrappedDriver(database2.getUrl()));
+    wrapper.connect(database1).close();
+    wrapper.connect(database2).close();
+    assertEquals(1, database1.getConnections());
+    assertEquals(1, database2.getConnections());
+  }
+}
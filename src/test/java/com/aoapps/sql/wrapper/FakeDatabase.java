@@ -0,0 +1,495 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * An in-memory database with a single table, reached through JDBC objects implemented by dynamic proxies.  Each row
+ * inserted is given the next generated key, and transactions and savepoints roll back the rows inserted since.
+ *
+ * <p>Every call is recorded in {@link #getCalls()}, and may be answered by the
+ * {@linkplain #setHandler(com.aoapps.sql.wrapper.FakeDatabase.Handler) handler} instead of the default behavior.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class FakeDatabase {
+
+  /**
+   * Answers a call such as {@code "conn.isValid"}, {@code "ps.executeQuery"}, or {@code "row"} for each row inserted.
+   */
+  @FunctionalInterface
+  interface Handler {
+    /**
+     * @return  The result of the call, or {@link #DEFAULT} for the default behavior
+     */
+    Object handle(String call, Object[] args) throws Throwable;
+  }
+
+  /**
+   * Returned by a {@link Handler} for the default behavior.
+   */
+  static final Object DEFAULT = new Object();
+
+  private static final ConcurrentMap<String, FakeDatabase> databases = new ConcurrentHashMap<>();
+  private static final AtomicInteger nextId = new AtomicInteger();
+
+  /**
+   * Connects to the databases by their URL.
+   */
+  private static final class FakeDriver implements Driver {
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      FakeDatabase database = databases.get(url);
+      return (database == null) ? null : database.connect();
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return url.startsWith("jdbc:fake:");
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+
+  static {
+    try {
+      DriverManager.registerDriver(new FakeDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final String url = "jdbc:fake:" + nextId.incrementAndGet();
+  private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicLong nextKey = new AtomicLong();
+  private final AtomicInteger connections = new AtomicInteger();
+  private volatile Handler handler = (call, args) -> DEFAULT;
+
+  /**
+   * The committed rows, by generated key.
+   */
+  private final Map<Long, Object[]> table = Collections.synchronizedMap(new TreeMap<>());
+
+  FakeDatabase() {
+    databases.put(url, this);
+  }
+
+  /**
+   * Gets the URL of this database, for the wrapped driver.
+   */
+  String getUrl() {
+    return url;
+  }
+
+  List<String> getCalls() {
+    return calls;
+  }
+
+  /**
+   * Counts the calls starting with the given prefix, such as {@code "ps.executeBatch"}.
+   */
+  int count(String prefix) {
+    synchronized (calls) {
+      return (int) calls.stream().filter(call -> call.startsWith(prefix)).count();
+    }
+  }
+
+  void setHandler(Handler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Gets the number of physical connections opened.
+   */
+  int getConnections() {
+    return connections.get();
+  }
+
+  /**
+   * Gets a copy of the committed rows, by generated key.
+   */
+  Map<Long, Object[]> getTable() {
+    synchronized (table) {
+      return new TreeMap<>(table);
+    }
+  }
+
+  private static <T> T proxy(Class<T> iface, InvocationHandler handler) {
+    return iface.cast(Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(), new Class<?>[] {iface}, handler));
+  }
+
+  private Object handle(String call, Object[] args) throws Throwable {
+    calls.add(call);
+    return handler.handle(call, (args == null) ? new Object[0] : args);
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * The state of one physical connection.
+   */
+  private final class Session {
+
+    private boolean autoCommit = true;
+    private boolean closed;
+
+    /**
+     * The rows inserted in the current transaction, in the order inserted.
+     */
+    private final List<Map.Entry<Long, Object[]>> uncommitted = new ArrayList<>();
+
+    private void insert(long key, Object[] row) {
+      if (autoCommit) {
+        table.put(key, row);
+      } else {
+        uncommitted.add(Map.entry(key, row));
+      }
+    }
+
+    private void commit() {
+      for (Map.Entry<Long, Object[]> entry : uncommitted) {
+        table.put(entry.getKey(), entry.getValue());
+      }
+      uncommitted.clear();
+    }
+  }
+
+  private Connection connect() {
+    connections.incrementAndGet();
+    Session session = new Session();
+    return proxy(Connection.class, (proxy, method, args) -> {
+      String name = method.getName();
+      if ("toString".equals(name)) {
+        return "FakeConnection";
+      } else if ("hashCode".equals(name)) {
+        return System.identityHashCode(proxy);
+      } else if ("equals".equals(name)) {
+        return proxy == args[0];
+      }
+      Object result = handle("conn." + name, args);
+      if (result != DEFAULT) {
+        return result;
+      }
+      switch (name) {
+        case "getAutoCommit":
+          return session.autoCommit;
+        case "setAutoCommit":
+          if ((Boolean) args[0] && !session.autoCommit) {
+            session.commit();
+          }
+          session.autoCommit = (Boolean) args[0];
+          return null;
+        case "commit":
+          session.commit();
+          return null;
+        case "rollback":
+          if (args == null) {
+            session.uncommitted.clear();
+          } else {
+            int size = Integer.parseInt(((Savepoint) args[0]).getSavepointName());
+            session.uncommitted.subList(size, session.uncommitted.size()).clear();
+          }
+          return null;
+        case "setSavepoint":
+          String savepointName = Integer.toString(session.uncommitted.size());
+          return proxy(Savepoint.class, (p, m, a) ->
+              "getSavepointName".equals(m.getName()) ? savepointName : defaultValue(m.getReturnType()));
+        case "getMetaData":
+          return proxy(DatabaseMetaData.class, (p, m, a) ->
+              "getDatabaseProductName".equals(m.getName()) ? "Fake" : defaultValue(m.getReturnType()));
+        case "prepareStatement":
+          boolean returnGeneratedKeys = args.length == 2
+              && Integer.valueOf(Statement.RETURN_GENERATED_KEYS).equals(args[1]);
+          return statement(session, (String) args[0], returnGeneratedKeys);
+        case "isValid":
+          return !session.closed;
+        case "isClosed":
+          return session.closed;
+        case "close":
+          session.closed = true;
+          return null;
+        default:
+          return defaultValue(method.getReturnType());
+      }
+    });
+  }
+
+  /**
+   * Reads any stream parameters, so a stream may only be inserted once.
+   */
+  private static Object[] toRow(Map<Integer, Object> parameters) throws IOException {
+    int size = parameters.isEmpty() ? 0 : Collections.max(parameters.keySet());
+    Object[] row = new Object[size];
+    for (Map.Entry<Integer, Object> entry : parameters.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof InputStream) {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ((InputStream) value).transferTo(bout);
+        value = bout.toByteArray();
+      }
+      row[entry.getKey() - 1] = value;
+    }
+    return row;
+  }
+
+  private PreparedStatement statement(Session session, String sql, boolean returnGeneratedKeys) {
+    Map<Integer, Object> parameters = new TreeMap<>();
+    List<Map<Integer, Object>> batch = new ArrayList<>();
+    List<Long> keys = new ArrayList<>();
+    return proxy(PreparedStatement.class, new InvocationHandler() {
+      /**
+       * Inserts a row, unless rejected by the handler.
+       */
+      private void insert(Map<Integer, Object> rowParameters) throws Throwable {
+        Object[] row = toRow(rowParameters);
+        handle("row", row);
+        long key = nextKey.incrementAndGet();
+        session.insert(key, row);
+        keys.add(key);
+      }
+
+      @Override
+      public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("toString".equals(name)) {
+          return "FakeStatement: " + sql;
+        } else if ("hashCode".equals(name)) {
+          return System.identityHashCode(proxy);
+        } else if ("equals".equals(name)) {
+          return proxy == args[0];
+        }
+        Object result = handle("ps." + name, args);
+        if (result != DEFAULT) {
+          return result;
+        }
+        if (session.closed && name.startsWith("execute")) {
+          throw new SQLException("Connection is closed", "08003");
+        }
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+          parameters.put((Integer) args[0], args[1]);
+          return null;
+        }
+        switch (name) {
+          case "clearParameters":
+            parameters.clear();
+            return null;
+          case "addBatch":
+            batch.add(new TreeMap<>(parameters));
+            return null;
+          case "clearBatch":
+            batch.clear();
+            return null;
+          case "executeUpdate":
+            keys.clear();
+            insert(parameters);
+            return 1;
+          case "executeBatch":
+            keys.clear();
+            try {
+              int[] counts = new int[batch.size()];
+              for (int i = 0; i < counts.length; i++) {
+                try {
+                  insert(batch.get(i));
+                } catch (SQLException e) {
+                  throw new BatchUpdateException(
+                      e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(counts, i), e
+                  );
+                }
+                counts[i] = 1;
+              }
+              return counts;
+            } finally {
+              batch.clear();
+            }
+          case "getGeneratedKeys":
+            if (!returnGeneratedKeys) {
+              throw new SQLException("Statement not prepared to return generated keys");
+            }
+            Object[][] rows = new Object[keys.size()][];
+            for (int i = 0; i < rows.length; i++) {
+              rows[i] = new Object[] {keys.get(i)};
+            }
+            keys.clear();
+            return resultSet(new String[] {"id"}, new int[] {Types.BIGINT}, rows);
+          case "executeQuery":
+            return resultSet(new String[0], new int[0]);
+          default:
+            return defaultValue(method.getReturnType());
+        }
+      }
+    });
+  }
+
+  /**
+   * Creates a forward-only result set over the given rows.  Like many drivers,
+   * {@link ResultSet#getObject(int, java.lang.Class)} converts a {@link Timestamp} to {@link LocalDateTime}.
+   */
+  static ResultSet resultSet(String[] labels, int[] types, Object[]... rows) {
+    ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getColumnCount":
+          return labels.length;
+        case "getColumnLabel":
+        case "getColumnName":
+          return labels[(Integer) args[0] - 1];
+        case "getColumnType":
+          return types[(Integer) args[0] - 1];
+        case "isNullable":
+          return ResultSetMetaData.columnNullableUnknown;
+        default:
+          return defaultValue(method.getReturnType());
+      }
+    });
+    int[] row = {0};
+    boolean[] closed = {false};
+    boolean[] wasNull = {false};
+    return proxy(ResultSet.class, (proxy, method, args) -> {
+      String name = method.getName();
+      switch (name) {
+        case "next":
+          if (closed[0]) {
+            throw new SQLException("Result set closed");
+          }
+          if (row[0] < rows.length) {
+            row[0]++;
+            return true;
+          }
+          row[0] = rows.length + 1;
+          return false;
+        case "close":
+          closed[0] = true;
+          return null;
+        case "isClosed":
+          return closed[0];
+        case "getMetaData":
+          return metaData;
+        case "wasNull":
+          return wasNull[0];
+        case "getType":
+          return ResultSet.TYPE_FORWARD_ONLY;
+        case "getConcurrency":
+          return ResultSet.CONCUR_READ_ONLY;
+        case "findColumn":
+          for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase((String) args[0])) {
+              return i + 1;
+            }
+          }
+          throw new SQLException("Column not found: " + args[0]);
+        default:
+          break;
+      }
+      if (name.startsWith("get") && args != null && args.length >= 1) {
+        int column = (args[0] instanceof Integer)
+            ? (Integer) args[0]
+            : ((ResultSet) proxy).findColumn((String) args[0]);
+        Object value = rows[row[0] - 1][column - 1];
+        wasNull[0] = value == null;
+        Class<?> type = ("getObject".equals(name) && args.length == 2 && args[1] instanceof Class)
+            ? (Class<?>) args[1]
+            : method.getReturnType();
+        if (value == null) {
+          return defaultValue(type);
+        } else if (type == long.class || type == Long.class) {
+          return ((Number) value).longValue();
+        } else if (type == int.class || type == Integer.class) {
+          return ((Number) value).intValue();
+        } else if (type == String.class) {
+          return value.toString();
+        } else if (type == LocalDateTime.class) {
+          return ((Timestamp) value).toLocalDateTime();
+        } else {
+          return value;
+        }
+      }
+      return defaultValue(method.getReturnType());
+    });
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import org.junit.Test;
+
+/**
+ * Tests the generated keys of batches, including {@link ConnectionWrapperImpl#isBatchGeneratedKeysRowByRow()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class GeneratedKeysTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  private static void addBatch(PreparedStatementWrapperImpl pstmt, String... values) throws SQLException {
+    for (String value : values) {
+      pstmt.setString(1, value);
+      pstmt.addBatch();
+    }
+  }
+
+  private static long[] getTableKeys(FakeDatabase database) {
+    return database.getTable().keySet().stream().mapToLong(Long::longValue).toArray();
+  }
+
+  @Test
+  public void testBatchIsNotExecutedRowByRowByDefault() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)
+    ) {
+      assertFalse(conn.isBatchGeneratedKeysRowByRow());
+      assertFalse(conn.isBatchGeneratedKeysSupported());
+      addBatch(pstmt, "a", "b", "c");
+      pstmt.executeBatch();
+      assertEquals(1, database.count("ps.executeBatch"));
+      assertEquals(0, database.count("ps.executeUpdate"));
+      assertArrayEquals(getTableKeys(database), pstmt.getGeneratedLongKeys());
+    }
+  }
+
+  @Test
+  public void testBatchExecutedRowByRowReturnsEveryKey() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database)) {
+      conn.setBatchGeneratedKeysRowByRow(true);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        addBatch(pstmt, "a", "b", "c");
+        pstmt.executeBatch();
+        assertEquals(0, database.count("ps.executeBatch"));
+        assertEquals(3, database.count("ps.executeUpdate"));
+        long[] expected = getTableKeys(database);
+        assertEquals(3, expected.length);
+        assertArrayEquals(expected, pstmt.getGeneratedLongKeys());
+        // The keys of the wrapped statement have been consumed, so the collected keys are returned instead
+        try (ResultSetWrapperImpl keys = pstmt.getGeneratedKeys()) {
+          ResultSetMetaData metaData = keys.getMetaData();
+          assertEquals(1, metaData.getColumnCount());
+          assertEquals(Types.BIGINT, metaData.getColumnType(1));
+          for (long key : expected) {
+            assertTrue(keys.next());
+            assertEquals(key, keys.getLong(1));
+            assertEquals(Long.valueOf(key), keys.getObject(1, Long.class));
+          }
+          assertFalse(keys.next());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link HedgedReads}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class HedgedReadsTest {
+
+  private static final String SELECT = "SELECT v FROM t WHERE k = ?";
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  /**
+   * More than the number of latencies required before a query is hedged.
+   */
+  private static final int WARM_UP = 30;
+
+  /**
+   * A driver hedging every query on the given backend, with a budget for a hedge of each query.
+   */
+  private static TestDriverWrapper newHedgingDriver(FakeDatabase hedgeDatabase, int maxRows) {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isHedgedReads() {
+        return true;
+      }
+
+      @Override
+      protected List<String> getHedgeUrls(String url) {
+        return List.of("jdbc:test:" + hedgeDatabase.getUrl().substring("jdbc:".length()));
+      }
+
+      @Override
+      protected int getHedgeBudgetPercent() {
+        return 100;
+      }
+
+      @Override
+      protected int getHedgedReadsMaxRows() {
+        return maxRows;
+      }
+
+      @Override
+      protected boolean isReadWriteSplitting() {
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Answers queries with the given rows of a single column.
+   */
+  private static void answer(FakeDatabase database, Object[]... rows) {
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call)
+        ? FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.VARCHAR}, rows)
+        : FakeDatabase.DEFAULT);
+  }
+
+  /**
+   * Executes the query enough times for its latency to be known.
+   */
+  private static void warmUp(PreparedStatementWrapperImpl pstmt) throws SQLException {
+    for (int i = 0; i < WARM_UP; i++) {
+      try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+        assertTrue(results.next());
+      }
+    }
+  }
+
+  private static String queryFirst(PreparedStatementWrapperImpl pstmt) throws SQLException {
+    try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+      assertTrue(results.next());
+      return results.getString(1);
+    }
+  }
+
+  @Test
+  public void testHedgeWinsAndCancelsPrimary() throws SQLException {
+    FakeDatabase primary = new FakeDatabase();
+    FakeDatabase hedge = new FakeDatabase();
+    answer(primary, new Object[] {"primary"});
+    answer(hedge, new Object[] {"hedge"});
+    try (
+        ConnectionWrapperImpl conn = newHedgingDriver(hedge, 100).connect(primary);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setIdempotent(true);
+      pstmt.setInt(1, 1);
+      warmUp(pstmt);
+      CountDownLatch cancelled = new CountDownLatch(1);
+      primary.setHandler((call, args) -> {
+        if ("ps.executeQuery".equals(call)) {
+          // Slow until cancelled by the hedge
+          assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+          throw new SQLException("Query cancelled", "57014");
+        }
+        if ("ps.cancel".equals(call)) {
+          cancelled.countDown();
+        }
+        return FakeDatabase.DEFAULT;
+      });
+      assertEquals("hedge", queryFirst(pstmt));
+      assertEquals(1, primary.count("ps.cancel"));
+      assertTrue(hedge.count("ps.executeQuery") > 0);
+    }
+  }
+
+  @Test
+  public void testHedgeWithTooManyRowsLeavesPrimary() throws SQLException {
+    FakeDatabase primary = new FakeDatabase();
+    FakeDatabase hedge = new FakeDatabase();
+    answer(primary, new Object[] {"primary"});
+    answer(hedge, new Object[] {"hedge"}, new Object[] {"hedge"});
+    try (
+        ConnectionWrapperImpl conn = newHedgingDriver(hedge, 1).connect(primary);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setIdempotent(true);
+      pstmt.setInt(1, 1);
+      warmUp(pstmt);
+      CountDownLatch hedged = new CountDownLatch(1);
+      hedge.setHandler((call, args) -> {
+        if ("ps.executeQuery".equals(call)) {
+          hedged.countDown();
+          return FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.VARCHAR},
+              new Object[] {"hedge"}, new Object[] {"hedge"});
+        }
+        return FakeDatabase.DEFAULT;
+      });
+      primary.setHandler((call, args) -> {
+        if ("ps.executeQuery".equals(call)) {
+          // Slow until the hedge has given up
+          assertTrue(hedged.await(10, TimeUnit.SECONDS));
+          Thread.sleep(100);
+          return FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.VARCHAR}, new Object[] {"primary"});
+        }
+        return FakeDatabase.DEFAULT;
+      });
+      assertEquals("primary", queryFirst(pstmt));
+      assertEquals(0, primary.count("ps.cancel"));
+    }
+  }
+
+  @Test
+  public void testNotHedgedWhileReadingOwnWrites() throws Exception {
+    FakeDatabase primary = new FakeDatabase();
+    FakeDatabase hedge = new FakeDatabase();
+    answer(primary, new Object[] {"primary"});
+    answer(hedge, new Object[] {"hedge"});
+    try (
+        ConnectionWrapperImpl conn = newHedgingDriver(hedge, 100).connect(primary);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setIdempotent(true);
+      pstmt.setInt(1, 1);
+      warmUp(pstmt);
+      try (PreparedStatementWrapperImpl insert = conn.prepareStatement(INSERT)) {
+        insert.setString(1, "a");
+        assertEquals(1, insert.executeUpdate());
+      }
+      primary.setHandler((call, args) -> {
+        if ("ps.executeQuery".equals(call)) {
+          // Slow enough to be hedged, when not reading own writes
+          Thread.sleep(200);
+          return FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.VARCHAR}, new Object[] {"primary"});
+        }
+        return FakeDatabase.DEFAULT;
+      });
+      // Lets any hedges of the warm-up complete
+      Thread.sleep(200);
+      int hedged = hedge.count("ps.executeQuery");
+      assertEquals("primary", queryFirst(pstmt));
+      assertEquals(hedged, hedge.count("ps.executeQuery"));
+    }
+  }
+}
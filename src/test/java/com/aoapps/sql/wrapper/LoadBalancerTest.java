@@ -0,0 +1,102 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.Properties;
+import org.junit.Test;
+
+/**
+ * Tests {@link LoadBalancer}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class LoadBalancerTest {
+
+  private static final String URL = "jdbc:fake:backend";
+
+  private static final Properties INFO = new Properties();
+
+  private static void fails(LoadBalancer.Backend backend, SQLException failure) {
+    try {
+      backend.execute(() -> {
+        throw failure;
+      });
+      fail("Execution must fail");
+    } catch (SQLException e) {
+      assertEquals(failure, e);
+    }
+  }
+
+  private static void failsBackend(LoadBalancer.Backend backend, int times) {
+    for (int i = 0; i < times; i++) {
+      fails(backend, new SQLNonTransientConnectionException("Connection lost", "08006"));
+    }
+  }
+
+  @Test
+  public void testEjectedAfterConsecutiveBackendFailures() {
+    LoadBalancer.Backend backend = new LoadBalancer(new TestDriverWrapper()).getBackend(URL);
+    failsBackend(backend, 4);
+    assertFalse(backend.isEjected(INFO));
+    failsBackend(backend, 1);
+    assertTrue(backend.isEjected(INFO));
+  }
+
+  @Test
+  public void testSuccessResetsConsecutiveFailures() throws SQLException {
+    LoadBalancer.Backend backend = new LoadBalancer(new TestDriverWrapper()).getBackend(URL);
+    failsBackend(backend, 4);
+    assertEquals("result", backend.execute(() -> "result"));
+    failsBackend(backend, 4);
+    assertFalse(backend.isEjected(INFO));
+  }
+
+  @Test
+  public void testStatementFailuresAreNeutral() {
+    LoadBalancer.Backend backend = new LoadBalancer(new TestDriverWrapper()).getBackend(URL);
+    failsBackend(backend, 4);
+    // Failures of the statement do not reset the consecutive failures of the backend
+    fails(backend, new SQLIntegrityConstraintViolationException("Duplicate key", "23505"));
+    try {
+      backend.execute(() -> {
+        throw new IllegalStateException();
+      });
+      fail("Execution must fail");
+    } catch (IllegalStateException | SQLException e) {
+      assertEquals(IllegalStateException.class, e.getClass());
+    }
+    assertFalse(backend.isEjected(INFO));
+    failsBackend(backend, 1);
+    assertTrue(backend.isEjected(INFO));
+    // Nor are they measured as latency, and they are no longer in flight
+    assertTrue(backend.toString(), backend.toString().startsWith(URL + "(average=0 us, inFlight=0"));
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link MultiRowInsert}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class MultiRowInsertTest {
+
+  private static MultiRowInsert accepted(String sql, int parametersPerRow) {
+    MultiRowInsert insert = MultiRowInsert.parse(sql);
+    assertNotNull("Must be accepted: " + sql, insert);
+    assertEquals(parametersPerRow, insert.getParametersPerRow());
+    return insert;
+  }
+
+  private static void refused(String sql) {
+    assertNull("Must be refused: " + sql, MultiRowInsert.parse(sql));
+  }
+
+  @Test
+  public void testSimpleInsert() {
+    MultiRowInsert insert = accepted("INSERT INTO t (a, b) VALUES (?, ?)", 2);
+    assertEquals("INSERT INTO t (a, b) VALUES (?, ?)", insert.getSql(1));
+    assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)", insert.getSql(3));
+  }
+
+  @Test
+  public void testCaseAndWhitespace() {
+    MultiRowInsert insert = accepted("\n  insert into t(a)\tvalues\n(?)  ", 1);
+    assertEquals("\n  insert into t(a)\tvalues\n(?), (?)", insert.getSql(2));
+  }
+
+  @Test
+  public void testTrailingSemicolonIsDropped() {
+    assertEquals("INSERT INTO t (a) VALUES (?), (?)", accepted("INSERT INTO t (a) VALUES (?) ; ", 1).getSql(2));
+  }
+
+  @Test
+  public void testConstantsAndExpressions() {
+    MultiRowInsert insert = accepted("INSERT INTO t (a, b, c, d) VALUES (?, 'x', NOW(), COALESCE(?, 0))", 2);
+    assertEquals(
+        "INSERT INTO t (a, b, c, d) VALUES (?, 'x', NOW(), COALESCE(?, 0)), (?, 'x', NOW(), COALESCE(?, 0))",
+        insert.getSql(2)
+    );
+  }
+
+  @Test
+  public void testQuotedMarkersAreNotParameters() {
+    accepted("INSERT INTO t (a, b) VALUES (?, 'what?')", 1);
+    accepted("INSERT INTO t (a, b) VALUES (?, 'it''s (?)')", 1);
+    accepted("INSERT INTO \"what?\" (\"values\") VALUES (?)", 1);
+    accepted("INSERT INTO `t?` (`values`) VALUES (?)", 1);
+  }
+
+  @Test
+  public void testValuesWithinIdentifierIsNotKeyword() {
+    MultiRowInsert insert = accepted("INSERT INTO my_values (values_id) VALUES (?)", 1);
+    assertEquals("INSERT INTO my_values (values_id) VALUES (?), (?)", insert.getSql(2));
+  }
+
+  @Test
+  public void testGetSqlRequiresRows() {
+    MultiRowInsert insert = accepted("INSERT INTO t (a) VALUES (?)", 1);
+    try {
+      insert.getSql(0);
+      fail("Zero rows must be refused");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testOtherStatementsRefused() {
+    refused("SELECT ? FROM t");
+    refused("UPDATE t SET a = ? WHERE b = ?");
+    refused("INSERT INTO t (a) SELECT ? FROM u");
+    refused("REPLACE INTO t (a) VALUES (?)");
+  }
+
+  @Test
+  public void testTrailingClausesRefused() {
+    refused("INSERT INTO t (a) VALUES (?) ON CONFLICT DO NOTHING");
+    refused("INSERT INTO t (a) VALUES (?) ON DUPLICATE KEY UPDATE a = VALUES(a)");
+    refused("INSERT INTO t (a) VALUES (?) RETURNING id");
+    refused("INSERT INTO t (a) VALUES (?);;");
+    refused("INSERT INTO t (a) VALUES (?); INSERT INTO t (a) VALUES (?)");
+  }
+
+  @Test
+  public void testMultipleRowsRefused() {
+    refused("INSERT INTO t (a) VALUES (?), (?)");
+  }
+
+  @Test
+  public void testParametersOutsideRowRefused() {
+    refused("INSERT INTO t (a) VALUES ()");
+    refused("INSERT INTO t (a) VALUES ('x')");
+    refused("INSERT INTO t (a) VALUES");
+    refused("INSERT INTO t (a) VALUES ?");
+  }
+
+  @Test
+  public void testCommentsRefused() {
+    refused("INSERT INTO t (a) -- ?\n VALUES (?)");
+    refused("INSERT INTO t (a) VALUES (? /* ? */)");
+    refused("INSERT INTO t (a) VALUES (?) -- trailing");
+  }
+
+  @Test
+  public void testUnparsedQuotingRefused() {
+    refused("INSERT INTO t (a) VALUES ('unterminated, ?)");
+    refused("INSERT INTO t (a) VALUES (?, 'x)");
+    refused("INSERT INTO t (a, b) VALUES (?, $$what?$$)");
+    refused("INSERT INTO t (a, b) VALUES ('it\\'s', ?, '?')");
+  }
+
+  @Test
+  public void testUnbalancedParenthesesRefused() {
+    refused("INSERT INTO t (a) VALUES (?");
+    refused("INSERT INTO t (a) VALUES (COALESCE(?, 0)");
+  }
+}
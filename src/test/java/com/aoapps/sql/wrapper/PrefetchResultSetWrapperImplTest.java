@@ -0,0 +1,229 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import org.junit.Test;
+
+/**
+ * Tests {@link ResultSetWrapperImpl#prefetch(int)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class PrefetchResultSetWrapperImplTest {
+
+  private static final String SELECT = "SELECT id, created FROM t";
+
+  private static final LocalDateTime START = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6000);
+
+  private static Object[][] newRows(int count) {
+    Object[][] rows = new Object[count][];
+    for (int i = 0; i < count; i++) {
+      rows[i] = new Object[] {(long) i, Timestamp.valueOf(START.plusDays(i))};
+    }
+    return rows;
+  }
+
+  @Test
+  public void testReadsTimestampAsLocalDateTime() throws SQLException {
+    Object[][] rows = newRows(5);
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call)
+        ? FakeDatabase.resultSet(new String[] {"id", "created"}, new int[] {Types.BIGINT, Types.TIMESTAMP}, rows)
+        : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT);
+        ResultSetWrapperImpl results = pstmt.executeQuery().prefetch(2)
+    ) {
+      for (int i = 0; i < rows.length; i++) {
+        assertTrue(results.next());
+        assertEquals(i + 1, results.getRow());
+        assertEquals(i, results.getLong(1));
+        assertEquals(Long.valueOf(i), results.getObject("id", Long.class));
+        assertEquals(START.plusDays(i), results.getObject(2, LocalDateTime.class));
+        assertEquals(START.plusDays(i), results.getObject("created", LocalDateTime.class));
+        assertEquals(rows[i][1], results.getTimestamp("created"));
+        assertEquals(START.plusDays(i).toLocalDate(), results.getDate(2).toLocalDate());
+      }
+      assertFalse(results.next());
+      assertTrue(results.isAfterLast());
+    }
+  }
+
+  @Test
+  public void testThrowsFailureAfterRowsBeforeIt() throws SQLException {
+    Object[][] rows = newRows(3);
+    ResultSet wrapped = FakeDatabase.resultSet(
+        new String[] {"id", "created"}, new int[] {Types.BIGINT, Types.TIMESTAMP}, rows
+    );
+    int[] read = {0};
+    ResultSet results = (ResultSet) Proxy.newProxyInstance(
+        ResultSet.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> {
+          if ("next".equals(method.getName()) && read[0]++ == rows.length) {
+            throw new SQLException("Connection reset", "08006");
+          }
+          try {
+            return method.invoke(wrapped, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+    );
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call) ? results : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT);
+        ResultSetWrapperImpl prefetched = pstmt.executeQuery().prefetch(2)
+    ) {
+      for (int i = 0; i < rows.length; i++) {
+        assertTrue(prefetched.next());
+        assertEquals(START.plusDays(i), prefetched.getObject(2, LocalDateTime.class));
+      }
+      try {
+        prefetched.next();
+        fail("Expected the failure reading the rows");
+      } catch (SQLException e) {
+        assertEquals("08006", e.getSQLState());
+      }
+    }
+  }
+
+  @Test
+  public void testKeepsDriverStringsAndLobsAfterCursorMoves() throws SQLException {
+    int[] read = {0};
+    Object[][] rows = new Object[3][];
+    for (int i = 0; i < rows.length; i++) {
+      int rowNum = i + 1;
+      byte[] bytes = {(byte) i, (byte) (i + 1)};
+      // Like drivers, the blob is only valid while the cursor is on its row
+      Blob blob = (Blob) Proxy.newProxyInstance(
+          Blob.class.getClassLoader(),
+          new Class<?>[] {Blob.class},
+          (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "length":
+                assertEquals("Blob read after the cursor moved", rowNum, read[0]);
+                return (long) bytes.length;
+              case "getBytes":
+                assertEquals("Blob read after the cursor moved", rowNum, read[0]);
+                return bytes.clone();
+              default:
+                return null;
+            }
+          }
+      );
+      rows[i] = new Object[] {(long) i, i % 2 == 0, blob};
+    }
+    ResultSet wrapped = FakeDatabase.resultSet(
+        new String[] {"id", "active", "data"}, new int[] {Types.BIGINT, Types.BOOLEAN, Types.BLOB}, rows
+    );
+    ResultSet results = (ResultSet) Proxy.newProxyInstance(
+        ResultSet.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> {
+          if ("next".equals(method.getName())) {
+            read[0]++;
+          } else if ("getString".equals(method.getName()) && Integer.valueOf(2).equals(args[0])) {
+            // Like drivers that return booleans as "t" and "f"
+            return ((Boolean) rows[read[0] - 1][1]) ? "t" : "f";
+          }
+          try {
+            return method.invoke(wrapped, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+    );
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call) ? results : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement("SELECT id, active, data FROM t");
+        ResultSetWrapperImpl prefetched = pstmt.executeQuery().prefetch(10)
+    ) {
+      for (int i = 0; i < rows.length; i++) {
+        assertTrue(prefetched.next());
+        boolean active = i % 2 == 0;
+        assertEquals(active ? "t" : "f", prefetched.getString(2));
+        assertEquals(active, prefetched.getBoolean("active"));
+        assertEquals(Boolean.valueOf(active), prefetched.getObject(2));
+        byte[] expected = {(byte) i, (byte) (i + 1)};
+        assertArrayEquals(expected, prefetched.getBytes(3));
+        Blob blob = prefetched.getBlob("data");
+        assertEquals(expected.length, blob.length());
+        assertArrayEquals(expected, blob.getBytes(1, expected.length));
+      }
+      assertFalse(prefetched.next());
+    }
+  }
+
+  @Test
+  public void testExecutionsFailWhilePrefetching() throws SQLException {
+    Object[][] rows = newRows(3);
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call)
+        ? FakeDatabase.resultSet(new String[] {"id", "created"}, new int[] {Types.BIGINT, Types.TIMESTAMP}, rows)
+        : FakeDatabase.DEFAULT);
+    try (
+        ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT);
+        PreparedStatementWrapperImpl update = conn.prepareStatement("UPDATE t SET created = NOW()")
+    ) {
+      try (ResultSetWrapperImpl prefetched = pstmt.executeQuery().prefetch(1)) {
+        assertTrue(prefetched.next());
+        try {
+          update.executeUpdate();
+          fail("Expected the connection to be in use while prefetching");
+        } catch (SQLException e) {
+          // Expected
+        }
+        try {
+          conn.commit();
+          fail("Expected the connection to be in use while prefetching");
+        } catch (SQLException e) {
+          // Expected
+        }
+      }
+      assertEquals(0, database.count("ps.executeUpdate"));
+      update.executeUpdate();
+      assertEquals(1, database.count("ps.executeUpdate"));
+    }
+  }
+}
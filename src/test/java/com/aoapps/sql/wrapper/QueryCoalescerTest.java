@@ -0,0 +1,262 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#isQueryCoalescing()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class QueryCoalescerTest {
+
+  private static final String SELECT = "SELECT id, created FROM t WHERE v = ?";
+
+  private static final LocalDateTime START = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+
+  private static final int ROWS = 3;
+
+  /**
+   * A driver coalescing queries, buffering at most the given number of rows.
+   */
+  private static TestDriverWrapper newDriver(int maxRows) {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isQueryCoalescing() {
+        return true;
+      }
+
+      @Override
+      protected int getQueryCoalescingMaxRows() {
+        return maxRows;
+      }
+    };
+  }
+
+  /**
+   * Creates a database where each query waits for the given latch, once the given latch is counted down.
+   */
+  private static FakeDatabase newDatabase(CountDownLatch executing, CountDownLatch release) {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> {
+      if ("ps.executeQuery".equals(call)) {
+        executing.countDown();
+        assertTrue(release.await(10, TimeUnit.SECONDS));
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+          rows[i] = new Object[] {(long) i, Timestamp.valueOf(START.plusDays(i))};
+        }
+        return FakeDatabase.resultSet(new String[] {"id", "created"}, new int[] {Types.BIGINT, Types.TIMESTAMP}, rows);
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    return database;
+  }
+
+  /**
+   * Executes the query on a new connection, reading the timestamps as {@link LocalDateTime}.
+   */
+  private static List<LocalDateTime> query(TestDriverWrapper driver, FakeDatabase database) throws SQLException {
+    return query(driver, database, false);
+  }
+
+  /**
+   * Executes the query on a new connection, reading the timestamps as {@link LocalDateTime}.
+   *
+   * @param  replicaQueries  Whether the query may be routed to a replica
+   */
+  private static List<LocalDateTime> query(TestDriverWrapper driver, FakeDatabase database, boolean replicaQueries)
+      throws SQLException {
+    List<LocalDateTime> values = new ArrayList<>();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.setReplicaQueries(replicaQueries);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)) {
+        pstmt.setIdempotent(true);
+        pstmt.setString(1, "a");
+        try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+          while (results.next()) {
+            values.add(results.getObject("created", LocalDateTime.class));
+          }
+        }
+      }
+    }
+    return values;
+  }
+
+  private static List<LocalDateTime> getExpected() {
+    List<LocalDateTime> expected = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      expected.add(START.plusDays(i));
+    }
+    return expected;
+  }
+
+  /**
+   * Waits until the given thread is blocked, such as waiting for the leader.
+   */
+  private static void awaitBlocked(Thread thread) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+      assertTrue("Timed out waiting for " + thread, System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Executes a leader and a follower, returning the values read by each.
+   */
+  private static List<List<LocalDateTime>> executeLeaderAndFollower(
+      TestDriverWrapper driver,
+      FakeDatabase database,
+      CountDownLatch executing,
+      CountDownLatch release
+  ) throws InterruptedException, ExecutionException {
+    return executeLeaderAndFollower(() -> query(driver, database), () -> query(driver, database), executing, release);
+  }
+
+  /**
+   * Executes a leader and a follower, returning the values read by each.
+   *
+   * @param  executing  Counted down once the leader is executing
+   */
+  private static List<List<LocalDateTime>> executeLeaderAndFollower(
+      Callable<List<LocalDateTime>> leaderQuery,
+      Callable<List<LocalDateTime>> followerQuery,
+      CountDownLatch executing,
+      CountDownLatch release
+  ) throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<LocalDateTime>> leader = executor.submit(leaderQuery);
+      assertTrue(executing.await(10, TimeUnit.SECONDS));
+      Thread[] followerThread = new Thread[1];
+      CountDownLatch followerStarted = new CountDownLatch(1);
+      Future<List<LocalDateTime>> follower = executor.submit(() -> {
+        followerThread[0] = Thread.currentThread();
+        followerStarted.countDown();
+        return followerQuery.call();
+      });
+      assertTrue(followerStarted.await(10, TimeUnit.SECONDS));
+      awaitBlocked(followerThread[0]);
+      release.countDown();
+      List<List<LocalDateTime>> values = new ArrayList<>();
+      values.add(leader.get());
+      values.add(follower.get());
+      return values;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testQueryWithoutFollowersIsNotBuffered() throws SQLException {
+    CountDownLatch release = new CountDownLatch(0);
+    FakeDatabase database = newDatabase(new CountDownLatch(1), release);
+    TestDriverWrapper driver = newDriver(10);
+    try (
+        ConnectionWrapperImpl conn = driver.connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setIdempotent(true);
+      pstmt.setString(1, "a");
+      try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+        assertFalse(results instanceof CachedResultSetWrapperImpl);
+      }
+    }
+    assertEquals(getExpected(), query(driver, database));
+  }
+
+  @Test
+  public void testFollowerSharesRowsOfLeader() throws Exception {
+    CountDownLatch executing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FakeDatabase database = newDatabase(executing, release);
+    List<List<LocalDateTime>> values = executeLeaderAndFollower(newDriver(10), database, executing, release);
+    assertEquals(getExpected(), values.get(0));
+    assertEquals(getExpected(), values.get(1));
+    assertEquals(1, database.count("ps.executeQuery"));
+  }
+
+  @Test
+  public void testFollowerExecutesWhenTooManyRows() throws Exception {
+    CountDownLatch executing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FakeDatabase database = newDatabase(executing, release);
+    List<List<LocalDateTime>> values = executeLeaderAndFollower(newDriver(ROWS - 1), database, executing, release);
+    assertEquals(getExpected(), values.get(0));
+    assertEquals(getExpected(), values.get(1));
+    assertEquals(2, database.count("ps.executeQuery"));
+  }
+
+  @Test
+  public void testQueryOnReplicaIsNotSharedWithPrimary() throws Exception {
+    CountDownLatch executing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FakeDatabase primary = newDatabase(executing, release);
+    FakeDatabase replica = newDatabase(new CountDownLatch(1), release);
+    TestDriverWrapper driver = new TestDriverWrapper() {
+      @Override
+      protected boolean isQueryCoalescing() {
+        return true;
+      }
+
+      @Override
+      protected boolean isReadWriteSplitting() {
+        return true;
+      }
+
+      @Override
+      protected List<String> getReplicaUrls(String url) {
+        return List.of("jdbc:test:" + replica.getUrl().substring("jdbc:".length()));
+      }
+    };
+    List<List<LocalDateTime>> values = executeLeaderAndFollower(
+        () -> query(driver, primary, false),
+        () -> query(driver, primary, true),
+        executing,
+        release
+    );
+    assertEquals(getExpected(), values.get(0));
+    assertEquals(getExpected(), values.get(1));
+    assertEquals(1, primary.count("ps.executeQuery"));
+    assertEquals(1, replica.count("ps.executeQuery"));
+  }
+}
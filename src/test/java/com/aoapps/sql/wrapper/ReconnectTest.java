@@ -0,0 +1,202 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#isReconnecting()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ReconnectTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+  private static final String SELECT = "SELECT v FROM t";
+
+  private static TestDriverWrapper newReconnectingDriver() {
+    return new TestDriverWrapper() {
+      @Override
+      protected boolean isReconnecting() {
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Loses the physical connection on the first call of the given name: the call fails with a connection exception,
+   * and the connection is no longer valid.
+   */
+  private static void loseConnectionOn(FakeDatabase database, String failingCall) {
+    AtomicBoolean lost = new AtomicBoolean();
+    database.setHandler((call, args) -> {
+      if (call.equals(failingCall) && lost.compareAndSet(false, true)) {
+        throw new SQLNonTransientConnectionException("Connection lost", "08006");
+      }
+      if ("conn.isValid".equals(call) && lost.get()) {
+        return false;
+      }
+      return FakeDatabase.DEFAULT;
+    });
+  }
+
+  @Test
+  public void testStatementIsPreparedAgainAfterReconnect() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (ConnectionWrapperImpl conn = newReconnectingDriver().connect(database)) {
+      conn.setReadOnly(false);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+        loseConnectionOn(database, "ps.executeUpdate");
+        pstmt.setString(1, "a");
+        try {
+          pstmt.executeUpdate();
+          fail("Writes must not be retried");
+        } catch (SQLNonTransientConnectionException e) {
+          // Expected
+        }
+        assertEquals(2, database.getConnections());
+        assertEquals(1, conn.getGeneration());
+        // The session state is replayed on the new connection
+        assertEquals(2, database.count("conn.setReadOnly"));
+        pstmt.setString(1, "b");
+        assertEquals(1, pstmt.executeUpdate());
+        assertEquals(2, database.count("conn.prepareStatement"));
+      }
+    }
+    assertEquals(1, database.getTable().size());
+  }
+
+  @Test
+  public void testIdempotentQueryIsRetried() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = newReconnectingDriver().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setIdempotent(true);
+      loseConnectionOn(database, "ps.executeQuery");
+      try (ResultSetWrapperImpl results = pstmt.executeQuery()) {
+        assertFalse(results.next());
+      }
+      assertEquals(2, database.getConnections());
+      assertEquals(2, database.count("ps.executeQuery"));
+    }
+  }
+
+  @Test
+  public void testNotReconnectedInTransaction() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    try (ConnectionWrapperImpl conn = newReconnectingDriver().connect(database)) {
+      conn.setAutoCommit(false);
+      try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+        pstmt.setString(1, "a");
+        pstmt.executeUpdate();
+        loseConnectionOn(database, "ps.executeUpdate");
+        pstmt.setString(1, "b");
+        try {
+          pstmt.executeUpdate();
+          fail("Connection lost in a transaction must fail");
+        } catch (SQLNonTransientConnectionException e) {
+          // Expected
+        }
+      }
+      assertEquals(1, database.getConnections());
+      assertEquals(0, conn.getGeneration());
+    }
+  }
+
+  @Test
+  public void testConcurrentFailuresReconnectOnce() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    try (ConnectionWrapperImpl conn = newReconnectingDriver().connect(database)) {
+      database.setHandler((call, args) -> "conn.isValid".equals(call) ? Boolean.FALSE : FakeDatabase.DEFAULT);
+      SQLException failure = new SQLNonTransientConnectionException("Connection lost", "08006");
+      int threads = 8;
+      Thread[] reconnecting = new Thread[threads];
+      boolean[] reconnected = new boolean[threads];
+      for (int i = 0; i < threads; i++) {
+        int index = i;
+        reconnecting[i] = new Thread(() -> reconnected[index] = conn.reconnect(failure, 0));
+        reconnecting[i].start();
+      }
+      for (Thread thread : reconnecting) {
+        thread.join();
+      }
+      for (boolean r : reconnected) {
+        assertTrue(r);
+      }
+      assertEquals(2, database.getConnections());
+      assertEquals(1, conn.getGeneration());
+    }
+  }
+
+  @Test
+  public void testCancelReachesStatementPreparedAgain() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    try (
+        ConnectionWrapperImpl conn = newReconnectingDriver().connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)
+    ) {
+      pstmt.setString(1, "a");
+      Statement lost = pstmt.getWrapped();
+      // Lost by another statement, so this statement is only prepared again at its next execution
+      database.setHandler((call, args) -> "conn.isValid".equals(call) ? Boolean.FALSE : FakeDatabase.DEFAULT);
+      assertTrue(conn.reconnect(new SQLNonTransientConnectionException("Connection lost", "08006"), 0));
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      database.setHandler((call, args) -> {
+        if ("ps.executeUpdate".equals(call)) {
+          started.countDown();
+          release.await(10, TimeUnit.SECONDS);
+        }
+        return FakeDatabase.DEFAULT;
+      });
+      CompletableFuture<Integer> future = pstmt.executeUpdateAsync();
+      try {
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // The statement prepared again on the new connection is executing, not the one captured at submit time
+        Statement executing = pstmt.getExecutingStatement();
+        assertNotSame(lost, executing);
+        assertSame(pstmt.getWrapped(), executing);
+        assertTrue(future.cancel(true));
+        assertEquals(1, database.count("ps.cancel"));
+      } finally {
+        release.countDown();
+      }
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link ResultSetWrapperImpl#publish(com.aoapps.sql.wrapper.ResultSetWrapperImpl.RowMapper, int)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultSetPublisherTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+
+  private static final int ROWS = 100;
+
+  /**
+   * A result set of {@link #ROWS} rows that records the fetch sizes set.
+   */
+  private static ResultSet recordingResultSet(int initialFetchSize, List<Integer> fetchSizes) {
+    Object[][] rows = new Object[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = new Object[] {i};
+    }
+    ResultSet results = FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.INTEGER}, rows);
+    int[] fetchSize = {initialFetchSize};
+    return (ResultSet) Proxy.newProxyInstance(
+        ResultSetPublisherTest.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getFetchSize":
+              return fetchSize[0];
+            case "setFetchSize":
+              fetchSize[0] = (Integer) args[0];
+              fetchSizes.add(fetchSize[0]);
+              return null;
+            default:
+              try {
+                return method.invoke(results, args);
+              } catch (InvocationTargetException e) {
+                throw e.getCause();
+              }
+          }
+        }
+    );
+  }
+
+  /**
+   * Subscribes, requesting the given number of rows at a time, and waits for completion.
+   *
+   * @return  The rows received
+   */
+  private static List<Integer> subscribe(Flow.Publisher<Integer> publisher, long request) throws InterruptedException {
+    List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+    Throwable[] error = {null};
+    CountDownLatch done = new CountDownLatch(1);
+    publisher.subscribe(new Flow.Subscriber<Integer>() {
+      private Flow.Subscription subscription;
+      private long remaining;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        remaining = request;
+        subscription.request(request);
+      }
+
+      @Override
+      public void onNext(Integer item) {
+        received.add(item);
+        if (--remaining == 0) {
+          remaining = request;
+          subscription.request(request);
+        }
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        error[0] = throwable;
+        done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        done.countDown();
+      }
+    });
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertNull(error[0]);
+    return received;
+  }
+
+  private static Flow.Publisher<Integer> publish(FakeDatabase database, int maxFetchSize) throws SQLException {
+    ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+    return conn.prepareStatement(SELECT).executeQuery().publish(results -> results.getInt(1), maxFetchSize);
+  }
+
+  @Test
+  public void testAllRowsPublishedInOrder() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+    ResultSet results = recordingResultSet(0, fetchSizes);
+    database.setHandler((call, args) -> "ps.executeQuery".equals(call) ? results : FakeDatabase.DEFAULT);
+    List<Integer> received = subscribe(publish(database, 256), 7);
+    assertEquals(ROWS, received.size());
+    for (int i = 0; i < ROWS; i++) {
+      assertEquals(i, (int) received.get(i));
+    }
+    assertTrue(results.isClosed());
+  }
+
+  @Test
+  public void testSingleRowRequestsKeepDefaultFloor() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+    database.setHandler((call, args) ->
+        "ps.executeQuery".equals(call) ? recordingResultSet(0, fetchSizes) : FakeDatabase.DEFAULT);
+    assertEquals(ROWS, subscribe(publish(database, 256), 1).size());
+    assertEquals(List.of(ResultSetPublisher.MIN_FETCH_SIZE), fetchSizes);
+  }
+
+  @Test
+  public void testSingleRowRequestsKeepOriginalFetchSize() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+    database.setHandler((call, args) ->
+        "ps.executeQuery".equals(call) ? recordingResultSet(50, fetchSizes) : FakeDatabase.DEFAULT);
+    assertEquals(ROWS, subscribe(publish(database, 256), 1).size());
+    assertEquals(List.of(), fetchSizes);
+  }
+
+  @Test
+  public void testFetchSizeRaisedWithDemand() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+    database.setHandler((call, args) ->
+        "ps.executeQuery".equals(call) ? recordingResultSet(50, fetchSizes) : FakeDatabase.DEFAULT);
+    assertEquals(ROWS, subscribe(publish(database, 256), Long.MAX_VALUE).size());
+    assertEquals(List.of(256), fetchSizes);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Tests {@link ResultSetWrapperImpl#stream(com.aoapps.sql.wrapper.ResultSetWrapperImpl.RowMapper)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultSetSpliteratorTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+
+  private static final int ROWS = 5000;
+
+  /**
+   * A result set of the given number of rows that fails when its cursor is moved by more than one thread at a time.
+   */
+  private static ResultSet exclusiveResultSet(int rowCount) {
+    Object[][] rows = new Object[rowCount][];
+    for (int i = 0; i < rowCount; i++) {
+      rows[i] = new Object[] {i};
+    }
+    ResultSet results = FakeDatabase.resultSet(new String[] {"v"}, new int[] {Types.INTEGER}, rows);
+    AtomicInteger reading = new AtomicInteger();
+    return (ResultSet) Proxy.newProxyInstance(
+        ResultSetSpliteratorTest.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class},
+        (proxy, method, args) -> {
+          boolean next = "next".equals(method.getName());
+          if (next && reading.getAndIncrement() != 0) {
+            throw new AssertionError("Result set read concurrently");
+          }
+          try {
+            return method.invoke(results, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          } finally {
+            if (next) {
+              reading.decrementAndGet();
+            }
+          }
+        }
+    );
+  }
+
+  private static ResultSetWrapperImpl executeQuery(FakeDatabase database, int rowCount) throws SQLException {
+    database.setHandler((call, args) ->
+        "ps.executeQuery".equals(call) ? exclusiveResultSet(rowCount) : FakeDatabase.DEFAULT);
+    ConnectionWrapperImpl conn = new TestDriverWrapper().connect(database);
+    return conn.prepareStatement(SELECT).executeQuery();
+  }
+
+  private static List<Integer> expected(int rowCount) {
+    return IntStream.range(0, rowCount).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  public void testSequentialStream() throws SQLException {
+    try (Stream<Integer> rows = executeQuery(new FakeDatabase(), ROWS).stream(results -> results.getInt(1))) {
+      assertFalse(rows.isParallel());
+      assertEquals(expected(ROWS), rows.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testParallelStreamKeepsOrder() throws SQLException {
+    try (Stream<Integer> rows = executeQuery(new FakeDatabase(), ROWS).stream(results -> results.getInt(1))) {
+      assertEquals(expected(ROWS), rows.parallel().map(i -> i).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testBlocksGrowOnEachSplit() throws SQLException {
+    ResultSetWrapperImpl results = executeQuery(new FakeDatabase(), ROWS);
+    Spliterator<Integer> spliterator = new ResultSetSpliterator<>(results, r -> r.getInt(1));
+    assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+    Spliterator<Integer> first = spliterator.trySplit();
+    assertEquals(1024, first.estimateSize());
+    first.tryAdvance(i -> assertEquals(0, (int) i));
+    Spliterator<Integer> second = spliterator.trySplit();
+    assertEquals(2048, second.estimateSize());
+    second.tryAdvance(i -> assertEquals(1024, (int) i));
+    // The rest of the rows, less than the next block
+    Spliterator<Integer> last = spliterator.trySplit();
+    assertEquals(ROWS - 1024 - 2048, last.estimateSize());
+    assertEquals(0, spliterator.estimateSize());
+    assertNull(spliterator.trySplit());
+    assertFalse(spliterator.tryAdvance(i -> fail("No more rows")));
+  }
+
+  @Test
+  public void testMapperFailureIsUnchecked() throws SQLException {
+    SQLException failure = new SQLException("Mapping failed");
+    try (Stream<Integer> rows = executeQuery(new FakeDatabase(), ROWS).stream(results -> {
+      throw failure;
+    })) {
+      rows.count();
+      fail("Mapping must fail");
+    } catch (UncheckedSQLException e) {
+      assertSame(failure, e.getCause());
+    }
+  }
+
+  @Test
+  public void testClosingStreamClosesResultSet() throws SQLException {
+    ResultSetWrapperImpl results = executeQuery(new FakeDatabase(), ROWS);
+    try (Stream<Integer> rows = results.stream(r -> r.getInt(1))) {
+      assertEquals(0, (int) rows.findFirst().get());
+    }
+    assertTrue(results.isClosed());
+  }
+}
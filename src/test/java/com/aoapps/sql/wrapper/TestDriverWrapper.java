@@ -0,0 +1,70 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * A driver wrapper for tests, which wraps the URLs of {@link FakeDatabase}.  Tests override the hooks of the features
+ * being tested.
+ *
+ * @author  AO Industries, Inc.
+ */
+class TestDriverWrapper extends DriverWrapper {
+
+  private static final Logger PARENT_LOGGER = Logger.getLogger(TestDriverWrapper.class.getPackageName());
+
+  @Override
+  protected String getUrlPrefix() {
+    return "test";
+  }
+
+  @Override
+  protected String getVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return PARENT_LOGGER;
+  }
+
+  /**
+   * Connects to the given database through this wrapper.
+   */
+  ConnectionWrapperImpl connect(FakeDatabase database) throws SQLException {
+    return connect("jdbc:test:" + database.getUrl().substring("jdbc:".length()), new Properties());
+  }
+}
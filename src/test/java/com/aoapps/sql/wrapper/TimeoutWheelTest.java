@@ -0,0 +1,145 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests {@link TimeoutWheel} and {@link ConnectionWrapperImpl#isQueryTimeoutEnforced()}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TimeoutWheelTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+
+  /**
+   * Counts its expirations, expiring again after the given delay until the given number of expirations.
+   */
+  private static final class CountingTimeout extends TimeoutWheel.Timeout {
+
+    private final int times;
+    private final long againNanos;
+    private final CountDownLatch expired;
+    private final AtomicLong expiredNanos = new AtomicLong();
+
+    private CountingTimeout(int times, long againNanos) {
+      this.times = times;
+      this.againNanos = againNanos;
+      this.expired = new CountDownLatch(times);
+    }
+
+    @Override
+    long expired(int expirations) {
+      expiredNanos.compareAndSet(0, System.nanoTime());
+      expired.countDown();
+      return (expirations < times) ? againNanos : 0;
+    }
+  }
+
+  @Test
+  public void testExpiresNeverEarly() throws InterruptedException {
+    TimeoutWheel wheel = new TimeoutWheel(TimeoutWheelTest.class.getSimpleName());
+    CountingTimeout timeout = new CountingTimeout(1, 0);
+    long nanos = TimeUnit.MILLISECONDS.toNanos(250);
+    long startNanos = System.nanoTime();
+    wheel.schedule(timeout, nanos);
+    assertTrue(timeout.expired.await(10, TimeUnit.SECONDS));
+    assertTrue(timeout.expiredNanos.get() - startNanos >= nanos);
+    assertEquals(1, wheel.cancel(timeout));
+  }
+
+  @Test
+  public void testCancelledBeforeExpiring() throws InterruptedException {
+    TimeoutWheel wheel = new TimeoutWheel(TimeoutWheelTest.class.getSimpleName());
+    CountingTimeout timeout = new CountingTimeout(1, 0);
+    wheel.schedule(timeout, TimeUnit.MILLISECONDS.toNanos(200));
+    assertEquals(0, wheel.cancel(timeout));
+    assertFalse(timeout.expired.await(500, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testRescheduledByExpiration() throws InterruptedException {
+    TimeoutWheel wheel = new TimeoutWheel(TimeoutWheelTest.class.getSimpleName());
+    CountingTimeout timeout = new CountingTimeout(2, TimeUnit.MILLISECONDS.toNanos(100));
+    wheel.schedule(timeout, TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(timeout.expired.await(10, TimeUnit.SECONDS));
+    assertEquals(2, wheel.cancel(timeout));
+    // Scheduling again resets the expirations
+    CountingTimeout reused = new CountingTimeout(1, 0);
+    wheel.schedule(reused, TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(reused.expired.await(10, TimeUnit.SECONDS));
+    assertEquals(1, wheel.cancel(reused));
+  }
+
+  @Test
+  public void testEnforcedQueryTimeoutCancelsStatement() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    CountDownLatch cancelled = new CountDownLatch(1);
+    database.setHandler((call, args) -> {
+      if ("ps.executeQuery".equals(call)) {
+        // Blocks until cancelled, like a slow query
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        throw new SQLException("Query cancelled", "57014");
+      }
+      if ("ps.cancel".equals(call)) {
+        cancelled.countDown();
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    TestDriverWrapper driver = new TestDriverWrapper() {
+      @Override
+      protected boolean isQueryTimeoutEnforced() {
+        return true;
+      }
+    };
+    try (
+        ConnectionWrapperImpl conn = driver.connect(database);
+        PreparedStatementWrapperImpl pstmt = conn.prepareStatement(SELECT)
+    ) {
+      pstmt.setQueryTimeout(1);
+      assertEquals(1, pstmt.getQueryTimeout());
+      long startNanos = System.nanoTime();
+      try {
+        pstmt.executeQuery();
+        fail("Query must be cancelled");
+      } catch (SQLException e) {
+        assertEquals("57014", e.getSQLState());
+      }
+      assertTrue(System.nanoTime() - startNanos >= TimeUnit.SECONDS.toNanos(1));
+      assertEquals(1, database.count("ps.cancel"));
+      assertEquals(0, database.count("conn.abort"));
+    }
+    // The wrapped statement has no timeout of its own
+    assertEquals(1, database.count("ps.setQueryTimeout"));
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConnectionWrapperImpl#retryTransaction(com.aoapps.sql.wrapper.ConnectionWrapperImpl.UnitOfWork)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TransactionRetryTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  private static final int ATTEMPTS = 3;
+
+  private static TestDriverWrapper newRetryingDriver() {
+    return new TestDriverWrapper() {
+      @Override
+      protected int getTransactionRetryAttempts() {
+        return ATTEMPTS;
+      }
+
+      @Override
+      protected long getTransactionRetryBackoffMillis() {
+        return 1;
+      }
+
+      @Override
+      protected long getTransactionRetryMaxBackoffMillis() {
+        return 2;
+      }
+    };
+  }
+
+  /**
+   * Fails the given number of row inserts with the given SQL state.
+   */
+  private static void failInserts(FakeDatabase database, int failures, String sqlState) {
+    AtomicInteger remaining = new AtomicInteger(failures);
+    database.setHandler((call, args) -> {
+      if ("row".equals(call) && remaining.getAndDecrement() > 0) {
+        throw new SQLException("Insert failed", sqlState);
+      }
+      return FakeDatabase.DEFAULT;
+    });
+  }
+
+  private static int insert(ConnectionWrapperImpl conn, AtomicInteger runs) throws SQLException {
+    runs.incrementAndGet();
+    try (PreparedStatementWrapperImpl pstmt = conn.prepareStatement(INSERT)) {
+      pstmt.setString(1, "a");
+      return pstmt.executeUpdate();
+    }
+  }
+
+  private static Contention getContention(DriverWrapper driver, String fingerprint) {
+    for (Contention contention : driver.getContention()) {
+      if (contention.getFingerprint().equals(fingerprint)) {
+        return contention;
+      }
+    }
+    throw new AssertionError("No contention: " + fingerprint);
+  }
+
+  @Test
+  public void testRetriedUntilCommitted() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    failInserts(database, ATTEMPTS - 1, "40001");
+    TestDriverWrapper driver = newRetryingDriver();
+    AtomicInteger runs = new AtomicInteger();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      assertEquals(1, (int) conn.retryTransaction(c -> insert(c, runs)));
+      assertTrue(conn.getAutoCommit());
+    }
+    assertEquals(ATTEMPTS, runs.get());
+    assertEquals(1, database.getTable().size());
+    assertEquals(ATTEMPTS - 1, database.count("conn.rollback"));
+    Contention contention = getContention(driver, INSERT);
+    assertEquals(ATTEMPTS - 1, contention.getRetried());
+    assertEquals(0, contention.getExhausted());
+  }
+
+  @Test
+  public void testFailureThrownAfterAttempts() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    failInserts(database, ATTEMPTS, "40P01");
+    TestDriverWrapper driver = newRetryingDriver();
+    AtomicInteger runs = new AtomicInteger();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      try {
+        conn.retryTransaction(c -> insert(c, runs));
+        fail("Retries must be exhausted");
+      } catch (SQLException e) {
+        assertEquals("40P01", e.getSQLState());
+      }
+      assertTrue(conn.getAutoCommit());
+    }
+    assertEquals(ATTEMPTS, runs.get());
+    assertEquals(0, database.getTable().size());
+    Contention contention = getContention(driver, INSERT);
+    assertEquals(ATTEMPTS - 1, contention.getRetried());
+    assertEquals(1, contention.getExhausted());
+  }
+
+  @Test
+  public void testOtherFailureNotRetried() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    failInserts(database, 1, "23505");
+    TestDriverWrapper driver = newRetryingDriver();
+    AtomicInteger runs = new AtomicInteger();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      try {
+        conn.retryTransaction(c -> insert(c, runs));
+        fail("Constraint violation must not be retried");
+      } catch (SQLException e) {
+        assertEquals("23505", e.getSQLState());
+      }
+    }
+    assertEquals(1, runs.get());
+    assertEquals(List.of(), driver.getContention());
+  }
+
+  @Test
+  public void testCommitFailureCountedUnderCommit() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    AtomicInteger remaining = new AtomicInteger(1);
+    database.setHandler((call, args) -> {
+      if ("conn.commit".equals(call) && remaining.getAndDecrement() > 0) {
+        throw new SQLException("Could not serialize access", "40001");
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    TestDriverWrapper driver = newRetryingDriver();
+    AtomicInteger runs = new AtomicInteger();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.retryTransaction(c -> insert(c, runs));
+    }
+    assertEquals(2, runs.get());
+    assertEquals(1, getContention(driver, Contention.COMMIT).getRetried());
+  }
+
+  @Test
+  public void testFingerprintReplacesLiterals() {
+    assertEquals(
+        "SELECT * FROM t1 WHERE a = ? AND b = ? AND c IN (?, ?)",
+        Contention.fingerprint("SELECT *  FROM t1\n WHERE a = 'it''s' AND b = -1.5e3 AND c IN (1, 2)")
+    );
+    assertEquals(Contention.UNKNOWN, Contention.fingerprint(null));
+  }
+
+  @Test
+  public void testRetryableFailureFoundInCausesAndChain() {
+    Set<String> sqlStates = DriverWrapper.DEFAULT_TRANSACTION_RETRY_SQL_STATES;
+    SQLException deadlock = new SQLException("Deadlock detected", "40P01");
+    SQLException chained = new SQLException("Batch failed", "22000");
+    chained.setNextException(deadlock);
+    assertSame(deadlock, Contention.getRetryableFailure(chained, sqlStates));
+    assertSame(deadlock, Contention.getRetryableFailure(new RuntimeException(chained), sqlStates));
+    assertNull(Contention.getRetryableFailure(new SQLException("Duplicate key", "23505"), sqlStates));
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+
+/**
+ * Tests {@link DriverWrapper#warmUp(java.lang.String, java.util.Properties)}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class WarmUpTest {
+
+  private static final String SELECT = "SELECT v FROM t";
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+  private static final String INVALID = "SELECT FROM";
+
+  private static String getUrl(FakeDatabase database) {
+    return "jdbc:test:" + database.getUrl().substring("jdbc:".length());
+  }
+
+  /**
+   * A driver warming up the given number of connections, preparing the given SQL on each.
+   */
+  private static TestDriverWrapper newWarmingDriver(int connections, List<String> sql, long millis) {
+    return new TestDriverWrapper() {
+      @Override
+      protected int getWarmUpConnections(String url) {
+        return connections;
+      }
+
+      @Override
+      protected List<String> getWarmUpSql(String url) {
+        return sql;
+      }
+
+      @Override
+      protected long getWarmUpMillis() {
+        return millis;
+      }
+
+      @Override
+      protected long getWarmUpIterations() {
+        return 100;
+      }
+    };
+  }
+
+  @Test
+  public void testConnectionsPreparedWithoutExecuting() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    WarmUp warmUp = newWarmingDriver(3, List.of(SELECT, INSERT), 10_000).warmUp(getUrl(database), new Properties());
+    assertTrue(warmUp.toString(), warmUp.isCompleted());
+    assertEquals(3, warmUp.getConnections());
+    assertEquals(6, warmUp.getStatements());
+    assertEquals(0, warmUp.getFailures());
+    assertEquals(100, warmUp.getIterations());
+    assertEquals(3, database.getConnections());
+    assertEquals(6, database.count("conn.prepareStatement"));
+    assertEquals(6, database.count("ps.getMetaData"));
+    assertEquals(0, database.count("ps.execute"));
+    assertEquals(3, database.count("conn.close"));
+  }
+
+  @Test
+  public void testFailedStatementsCounted() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> {
+      if ("conn.prepareStatement".equals(call) && INVALID.equals(args[0])) {
+        throw new SQLException("Syntax error", "42601");
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    WarmUp warmUp = newWarmingDriver(2, List.of(INVALID, SELECT), 10_000).warmUp(getUrl(database), new Properties());
+    assertEquals(2, warmUp.getConnections());
+    assertEquals(2, warmUp.getStatements());
+    assertEquals(2, warmUp.getFailures());
+  }
+
+  @Test
+  public void testFailsWhenNoConnectionOpened() {
+    try {
+      newWarmingDriver(2, List.of(SELECT), 10_000).warmUp("jdbc:test:unknown:", new Properties());
+      fail("No connection may be opened");
+    } catch (SQLException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testIncompleteAfterBudget() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    database.setHandler((call, args) -> {
+      if ("conn.prepareStatement".equals(call)) {
+        Thread.sleep(1000);
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    WarmUp warmUp = newWarmingDriver(1, List.of(SELECT, INSERT), 100).warmUp(getUrl(database), new Properties());
+    assertFalse(warmUp.isCompleted());
+    assertTrue(warmUp.toString(), warmUp.getElapsedMillis() < 1000);
+  }
+
+  @Test
+  public void testHotSqlMostPreparedFirst() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = new TestDriverWrapper() {
+      @Override
+      protected boolean isHotSqlRecording() {
+        return true;
+      }
+    };
+    String url = getUrl(database);
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.prepareStatement(INSERT).close();
+      conn.prepareStatement(SELECT).close();
+      conn.prepareStatement(SELECT).close();
+    }
+    assertEquals(List.of(SELECT, INSERT), driver.getHotSql(url, 10));
+    assertEquals(List.of(SELECT), driver.getHotSql(url, 1));
+    // Prepared by the next warm-up
+    assertEquals(List.of(SELECT, INSERT), driver.getWarmUpSql(url));
+    assertEquals(List.of(), driver.getHotSql("jdbc:test:unknown:", 10));
+  }
+}
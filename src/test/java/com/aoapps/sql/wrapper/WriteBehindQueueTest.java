@@ -0,0 +1,185 @@
+/*
+ * ao-sql-wrapper - JDBC API wrapper.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-sql-wrapper.
+ *
+ * ao-sql-wrapper is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-sql-wrapper is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-sql-wrapper.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoapps.sql.wrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests {@link WriteBehindQueue}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class WriteBehindQueueTest {
+
+  private static final String INSERT = "INSERT INTO t (v) VALUES (?)";
+
+  /**
+   * Fails the insert of the given value.
+   */
+  private static void failValue(FakeDatabase database, Object value) {
+    database.setHandler((call, args) -> {
+      if ("row".equals(call) && value.equals(args[0])) {
+        throw new SQLException("Rejected: " + value, "23000");
+      }
+      return FakeDatabase.DEFAULT;
+    });
+  }
+
+  @Test
+  public void testUpdatesWrittenOverOwnConnection() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = new TestDriverWrapper();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.setAutoCommit(false);
+      for (int i = 0; i < 10; i++) {
+        conn.enqueueUpdate(INSERT, Integer.toString(i));
+      }
+      conn.flushEnqueuedUpdates();
+      assertEquals(0, conn.getWriteBehindQueue().getPending());
+      // Written and committed by the writer, not part of the transaction of this connection
+      assertEquals(10, database.getTable().size());
+      assertEquals(2, database.getConnections());
+      conn.rollback();
+      assertEquals(10, database.getTable().size());
+    } finally {
+      driver.closeWriteBehindQueues();
+    }
+  }
+
+  @Test
+  public void testOnlyFailedUpdateReported() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    failValue(database, "bad");
+    List<SQLException> failures = Collections.synchronizedList(new ArrayList<>());
+    TestDriverWrapper driver = new TestDriverWrapper();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.enqueueUpdate(failures::add, INSERT, "a");
+      conn.enqueueUpdate(failures::add, INSERT, "bad");
+      conn.enqueueUpdate(failures::add, INSERT, "c");
+      conn.flushEnqueuedUpdates();
+    } finally {
+      driver.closeWriteBehindQueues();
+    }
+    assertEquals(1, failures.size());
+    assertEquals("Rejected: bad", failures.get(0).getMessage());
+    List<Object> values = new ArrayList<>();
+    for (Object[] row : database.getTable().values()) {
+      values.add(row[0]);
+    }
+    assertEquals(List.of("a", "c"), values);
+  }
+
+  @Test
+  public void testDefaultFailureHandler() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    failValue(database, "bad");
+    List<Object[]> failed = Collections.synchronizedList(new ArrayList<>());
+    TestDriverWrapper driver = new TestDriverWrapper() {
+      @Override
+      protected void onWriteBehindFailure(String sql, Object[] parameters, SQLException e) {
+        failed.add(parameters);
+      }
+    };
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.enqueueUpdate(INSERT, "bad");
+      conn.flushEnqueuedUpdates();
+    } finally {
+      driver.closeWriteBehindQueues();
+    }
+    assertEquals(1, failed.size());
+    assertArrayEquals(new Object[] {"bad"}, failed.get(0));
+  }
+
+  @Test
+  public void testCloseWritesPendingThenRejects() throws SQLException {
+    FakeDatabase database = new FakeDatabase();
+    TestDriverWrapper driver = new TestDriverWrapper();
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.enqueueUpdate(INSERT, "a");
+      conn.enqueueUpdate(INSERT, "b");
+      driver.closeWriteBehindQueues();
+      assertEquals(2, database.getTable().size());
+      try {
+        conn.enqueueUpdate(INSERT, "c");
+        fail("Closed queue must reject updates");
+      } catch (SQLException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testEnqueueBlocksWhileFull() throws Exception {
+    FakeDatabase database = new FakeDatabase();
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    database.setHandler((call, args) -> {
+      if ("row".equals(call)) {
+        writing.countDown();
+        release.await();
+      }
+      return FakeDatabase.DEFAULT;
+    });
+    TestDriverWrapper driver = new TestDriverWrapper() {
+      @Override
+      protected int getWriteBehindCapacity() {
+        return 1;
+      }
+    };
+    try (ConnectionWrapperImpl conn = driver.connect(database)) {
+      conn.enqueueUpdate(INSERT, "a");
+      assertTrue(writing.await(10, TimeUnit.SECONDS));
+      CountDownLatch enqueued = new CountDownLatch(1);
+      Thread enqueuer = new Thread(() -> {
+        try {
+          conn.enqueueUpdate(INSERT, "b");
+          enqueued.countDown();
+        } catch (SQLException e) {
+          throw new AssertionError(e);
+        }
+      });
+      enqueuer.start();
+      // Held back until the writer has made room
+      assertFalse(enqueued.await(100, TimeUnit.MILLISECONDS));
+      release.countDown();
+      assertTrue(enqueued.await(10, TimeUnit.SECONDS));
+      enqueuer.join();
+      conn.flushEnqueuedUpdates();
+    } finally {
+      driver.closeWriteBehindQueues();
+    }
+    assertEquals(2, database.getTable().size());
+  }
+}